@@ -0,0 +1,40 @@
+package pogo.assistance.data.exchange.spawn;
+
+import java.time.Instant;
+
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+/**
+ * Lets the original {@link SpawnDuplicateDetector} be measured next to the {@link SpawnDeduplicator}s that replaced it.
+ * Only what benchmarks call is supported.
+ */
+class SpawnDuplicateDetectorAdapter implements SpawnDeduplicator {
+
+    private final SpawnDuplicateDetector detector = new SpawnDuplicateDetector();
+
+    @Override
+    public boolean isUnique(final PokemonSpawn pokemonSpawn) {
+        return detector.isUnique(pokemonSpawn);
+    }
+
+    @Override
+    public boolean isKnown(final PokemonSpawn pokemonSpawn) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void memorize(final PokemonSpawn pokemonSpawn, final Instant expiration) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public SpawnDeduplicationMode getDeduplicationMode() {
+        return SpawnDeduplicationMode.EXACT;
+    }
+
+    @Override
+    public int size() {
+        return detector.getSpawnToExpiration().size();
+    }
+
+}
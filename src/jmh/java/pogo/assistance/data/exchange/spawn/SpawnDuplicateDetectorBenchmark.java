@@ -0,0 +1,113 @@
+package pogo.assistance.data.exchange.spawn;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import io.jenetics.jpx.WayPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import pogo.assistance.data.model.ImmutableSourceMetadata;
+import pogo.assistance.data.model.pokemon.ImmutablePokemonSpawn;
+import pogo.assistance.data.model.pokemon.Pokedex;
+import pogo.assistance.data.model.pokemon.PokedexEntry;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+/**
+ * Compares throughput of the single lock {@link SpawnDuplicateDetector} baseline, the
+ * {@link CompactSpawnDuplicateDetector} in exact and fuzzy modes and the {@link BloomFilteredSpawnDeduplicator} with 1,
+ * 4, 16 and 32 threads offering spawns at the same time, like JDA event threads and the crawler do.
+ *
+ * Spawns are drawn at random from a fixed pool, so a mix of unique and duplicate spawns is checked. Detector is
+ * recreated for each iteration so every iteration starts with the same mix.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SpawnDuplicateDetectorBenchmark {
+
+    private static final int SPAWN_POOL_SIZE = 1 << 16;
+
+    @Param({ "SYNCHRONIZED", "COMPACT", "COMPACT_FUZZY", "BLOOM_FILTERED" })
+    public String implementation;
+
+    private PokemonSpawn[] spawns;
+    private SpawnDeduplicator detector;
+
+    @Setup(Level.Trial)
+    public void createSpawns() {
+        final Instant despawnTime = Instant.now().plusSeconds(3600);
+        spawns = new PokemonSpawn[SPAWN_POOL_SIZE];
+        for (int i = 0; i < spawns.length; i++) {
+            spawns[i] = ImmutablePokemonSpawn.builder()
+                    .from(WayPoint.of(30 + (i % 256) * 0.01, -100 - (i / 256) * 0.01))
+                    .pokedexEntry(Pokedex.getPokedexEntryFor(1 + i % 150, PokedexEntry.Gender.UNKNOWN).get())
+                    .iv(100.0)
+                    .despawnTime(despawnTime)
+                    .sourceMetadata(ImmutableSourceMetadata.builder().sourceName("benchmark").build())
+                    .build();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void createDetector() {
+        switch (implementation) {
+            case "SYNCHRONIZED":
+                detector = new SpawnDuplicateDetectorAdapter();
+                break;
+            case "COMPACT":
+                detector = new CompactSpawnDuplicateDetector(SpawnDeduplicationMode.EXACT);
+                break;
+            case "COMPACT_FUZZY":
+                detector = new CompactSpawnDuplicateDetector(SpawnDeduplicationMode.FUZZY);
+                break;
+            case "BLOOM_FILTERED":
+                detector = new BloomFilteredSpawnDeduplicator(
+                        new CompactSpawnDuplicateDetector(SpawnDeduplicationMode.EXACT),
+                        Duration.ofMinutes(10),
+                        SPAWN_POOL_SIZE,
+                        0.01);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown implementation: " + implementation);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean threads1() {
+        return isUniqueRandomSpawn();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean threads4() {
+        return isUniqueRandomSpawn();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean threads16() {
+        return isUniqueRandomSpawn();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public boolean threads32() {
+        return isUniqueRandomSpawn();
+    }
+
+    private boolean isUniqueRandomSpawn() {
+        return detector.isUnique(spawns[ThreadLocalRandom.current().nextInt(SPAWN_POOL_SIZE)]);
+    }
+
+}
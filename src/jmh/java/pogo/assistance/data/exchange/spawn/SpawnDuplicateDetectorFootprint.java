@@ -0,0 +1,76 @@
+package pogo.assistance.data.exchange.spawn;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Instant;
+import java.util.function.Supplier;
+
+import io.jenetics.jpx.WayPoint;
+import pogo.assistance.data.model.ImmutableSourceMetadata;
+import pogo.assistance.data.model.pokemon.ImmutablePokemonSpawn;
+import pogo.assistance.data.model.pokemon.Pokedex;
+import pogo.assistance.data.model.pokemon.PokedexEntry;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+/**
+ * Memory benchmark: heap retained per remembered spawn by each duplicate detector. JMH doesn't measure retained memory,
+ * so this is a plain main class living with the benchmarks. Run after building the JMH jar with:
+ *
+ *      java -cp build/libs/*-jmh.jar pogo.assistance.data.exchange.spawn.SpawnDuplicateDetectorFootprint
+ *
+ * Spawns are built the way processors build them and dropped after being offered, so all that's left on heap is what
+ * the detector keeps. Numbers are rough, since they rely on full GCs settling the heap.
+ */
+public class SpawnDuplicateDetectorFootprint {
+
+    private static final int SPAWN_COUNT = 50_000;
+
+    public static void main(final String[] args) {
+        // First pass loads classes and fills static caches (e.g. pokedex), which would otherwise count towards the first
+        // detector measured
+        measureAll(false);
+        measureAll(true);
+    }
+
+    private static void measureAll(final boolean print) {
+        report(print, "SpawnDuplicateDetector", SpawnDuplicateDetectorAdapter::new);
+        report(print, "CompactSpawnDuplicateDetector, exact", () -> new CompactSpawnDuplicateDetector(SpawnDeduplicationMode.EXACT));
+        report(print, "CompactSpawnDuplicateDetector, fuzzy", () -> new CompactSpawnDuplicateDetector(SpawnDeduplicationMode.FUZZY));
+    }
+
+    private static void report(final boolean print, final String name, final Supplier<SpawnDeduplicator> detectorFactory) {
+        final long baseline = usedHeapAfterGc();
+        final SpawnDeduplicator detector = detectorFactory.get();
+        final Instant despawnTime = Instant.now().plusSeconds(3600);
+        for (int i = 0; i < SPAWN_COUNT; i++) {
+            detector.isUnique(spawn(i, despawnTime));
+        }
+        final long retained = usedHeapAfterGc() - baseline;
+        if (!print) {
+            return;
+        }
+        System.out.printf("%-45s %,12d bytes for %,d spawns, %6.1f bytes per spawn%n",
+                name, retained, detector.size(), (double) retained / detector.size());
+    }
+
+    private static PokemonSpawn spawn(final int index, final Instant despawnTime) {
+        return ImmutablePokemonSpawn.builder()
+                .from(WayPoint.of(30 + (index % 256) * 0.01, -100 - (index / 256) * 0.01))
+                .pokedexEntry(Pokedex.getPokedexEntryFor(1 + index % 150, PokedexEntry.Gender.UNKNOWN).get())
+                .iv(index % 101)
+                .cp(10 + index % 3000)
+                .level(1 + index % 35)
+                .despawnTime(despawnTime)
+                .sourceMetadata(ImmutableSourceMetadata.builder().sourceName("footprint").build())
+                .build();
+    }
+
+    private static long usedHeapAfterGc() {
+        final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memoryBean.getHeapMemoryUsage().getUsed();
+    }
+
+}
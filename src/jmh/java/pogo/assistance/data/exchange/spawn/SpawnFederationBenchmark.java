@@ -0,0 +1,115 @@
+package pogo.assistance.data.exchange.spawn;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.jenetics.jpx.WayPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import pogo.assistance.data.model.ImmutableSourceMetadata;
+import pogo.assistance.data.model.pokemon.ImmutablePokemonSpawn;
+import pogo.assistance.data.model.pokemon.Pokedex;
+import pogo.assistance.data.model.pokemon.PokedexEntry;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+/**
+ * Measures what collector federation costs over loopback: throughput of spawns streamed from a remote collector to the
+ * central exchange, and the round trip latency of a single spawn (offer to acknowledgement).
+ *
+ * Server side just counts spawns, so numbers don't include the exchange itself.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SpawnFederationBenchmark {
+
+    private static final int SPAWNS_PER_INVOCATION = 1000;
+
+    @Param({ "1", "100" })
+    public int maxBatchSize;
+
+    private final AtomicLong receivedCount = new AtomicLong();
+    private SpawnFederationServer server;
+    private SpawnFederationClient client;
+    private PokemonSpawn[] spawns;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = new SpawnFederationServer(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                pokemonSpawn -> receivedCount.incrementAndGet());
+        server.startAsync().awaitRunning();
+        client = new SpawnFederationClient(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()),
+                ImmutableSpawnFederationClientSettings.builder()
+                        .collectorName("benchmark")
+                        .maxBatchSize(maxBatchSize)
+                        .batchWindow(Duration.ofMillis(1))
+                        .build());
+        client.startAsync().awaitRunning();
+
+        spawns = new PokemonSpawn[SPAWNS_PER_INVOCATION];
+        for (int i = 0; i < spawns.length; i++) {
+            spawns[i] = ImmutablePokemonSpawn.builder()
+                    .from(WayPoint.of(40 + i * 0.001, -74 - i * 0.001))
+                    .pokedexEntry(Pokedex.getPokedexEntryFor(1 + i % 150, PokedexEntry.Gender.UNKNOWN).get())
+                    .iv(100.0)
+                    .cp(1000 + i)
+                    .level(30)
+                    .sourceMetadata(ImmutableSourceMetadata.builder().sourceName("benchmark").build())
+                    .build();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.stopAsync().awaitTerminated();
+        server.stopAsync().awaitTerminated();
+    }
+
+    /**
+     * Offers a burst of spawns and waits until all of them are acknowledged by the server.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OperationsPerInvocation(SPAWNS_PER_INVOCATION)
+    public long streamBurst() {
+        final long target = client.getAcknowledgedCount() + spawns.length;
+        for (final PokemonSpawn spawn : spawns) {
+            client.offer(spawn);
+        }
+        awaitAcknowledged(target);
+        return receivedCount.get();
+    }
+
+    /**
+     * Offers a single spawn and waits for its acknowledgement.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long roundTrip() {
+        final long target = client.getAcknowledgedCount() + 1;
+        client.offer(spawns[(int) (target % spawns.length)]);
+        awaitAcknowledged(target);
+        return receivedCount.get();
+    }
+
+    private void awaitAcknowledged(final long target) {
+        while (client.getAcknowledgedCount() < target) {
+            Thread.yield();
+        }
+    }
+
+}
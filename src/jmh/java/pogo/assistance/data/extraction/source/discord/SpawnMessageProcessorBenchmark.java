@@ -0,0 +1,263 @@
+package pogo.assistance.data.extraction.source.discord;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.google.common.collect.ImmutableMap;
+import net.dv8tion.jda.api.entities.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pogo.assistance.data.extraction.source.discord.articuno.ArticunoSpawnMessageProcessor;
+import pogo.assistance.data.extraction.source.discord.corpus.MessageCorpus;
+import pogo.assistance.data.extraction.source.discord.corpus.RecordedMessage;
+import pogo.assistance.data.extraction.source.discord.corpus.ReplayedMessages;
+import pogo.assistance.data.extraction.source.discord.flpokemap.FLPokeMapSpawnMessageProcessor;
+import pogo.assistance.data.extraction.source.discord.nycpokemap.NycPokeMapSpawnMessageProcessor;
+import pogo.assistance.data.extraction.source.discord.pgan.PGANSpawnMessageProcessor;
+import pogo.assistance.data.extraction.source.discord.pineapplemap.PineappleMapSpawnMessageProcessor;
+import pogo.assistance.data.extraction.source.discord.pogosj1.PoGoSJSpawnMessageProcessor;
+import pogo.assistance.data.extraction.source.discord.pogosj1.PoGoSJSpawnMessageProcessorV2;
+import pogo.assistance.data.extraction.source.discord.safarisight.SafariSightSpawnMessageProcessor;
+import pogo.assistance.data.extraction.source.discord.vascans.VAScansSpawnMessageProcessor;
+import pogo.assistance.data.extraction.source.discord.wecatch.WeCatchSpawnMessageProcessor;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+/**
+ * Measures what it costs to parse a spawn message, per source: ops/sec of {@link MessageProcessor#canProcess(Message)}
+ * and {@link MessageProcessor#process(Message)} on messages of the source, {@link MessageProcessor#canProcess(Message)}
+ * on messages of other sources (i.e. what each received message costs a processor that doesn't handle it) and
+ * {@link GenericSpawnMessageProcessor#compileMessageText(Message)}. Allocation per message is reported by the GC
+ * profiler (gc.alloc.rate.norm) set up in the build.
+ *
+ * Messages are {@link ReplayedMessages replayed}, so no Discord login is needed. By default they come from the small
+ * corpus bundled next to this class: a few sanitized messages per source, one {@code <source>.jsonl} resource each.
+ * Run with {@code -p corpus=captured} to measure the corpora under {@link MessageCorpus#DEFAULT_DIRECTORY} instead,
+ * captured with MessageCorpusCaptureIntegrationTest, which covers the channels and DMs of every source here. A message
+ * belongs to each source whose processor accepts it, so e.g. both PoGoSJ processors are measured on the messages of the
+ * channels they share. Sources whose processor resolves locations over the network aren't included, since they'd
+ * measure the network. To add a source, add its processor to {@link #SOURCE_TO_PROCESSOR}, a bundled corpus of its
+ * messages and its channels to the capture test.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SpawnMessageProcessorBenchmark {
+
+    private static final String BUNDLED_CORPUS = "bundled";
+    private static final String CAPTURED_CORPUS = "captured";
+    private static final String BUNDLED_CORPUS_RESOURCE_FORMAT = "corpus/%s.jsonl";
+
+    private static final Map<String, Supplier<MessageProcessor<PokemonSpawn>>> SOURCE_TO_PROCESSOR =
+            ImmutableMap.<String, Supplier<MessageProcessor<PokemonSpawn>>>builder()
+                    .put("VAScans", VAScansSpawnMessageProcessor::new)
+                    .put("FLPokeMap", FLPokeMapSpawnMessageProcessor::new)
+                    .put("PoGoSJ", PoGoSJSpawnMessageProcessor::new)
+                    .put("NycPokeMap", NycPokeMapSpawnMessageProcessor::new)
+                    .put("PoGoSJV2", PoGoSJSpawnMessageProcessorV2::new)
+                    .put("PGAN", PGANSpawnMessageProcessor::new)
+                    .put("Articuno", ArticunoSpawnMessageProcessor::new)
+                    .put("WeCatch", WeCatchSpawnMessageProcessor::new)
+                    .put("PineappleMap", PineappleMapSpawnMessageProcessor::new)
+                    .put("SafariSight", SafariSightSpawnMessageProcessor::new)
+                    .put("Generic", GenericSpawnMessageProcessor::new)
+                    .build();
+
+    @State(Scope.Thread)
+    public static class SourceMessages {
+
+        @Param({
+                "VAScans", "FLPokeMap", "PoGoSJ", "NycPokeMap", "PoGoSJV2", "PGAN", "Articuno", "WeCatch",
+                "PineappleMap", "SafariSight", "Generic" })
+        public String source;
+
+        @Param({ BUNDLED_CORPUS })
+        public String corpus;
+
+        MessageProcessor<PokemonSpawn> processor;
+        private Message[] messages;
+        private Message[] otherSourceMessages;
+        private int next = 0;
+        private int nextOther = 0;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            final List<Message> corpusMessages = loadCorpusMessages(corpus);
+            processor = SOURCE_TO_PROCESSOR.get(source).get();
+            messages = messagesOf(source, corpus, corpusMessages.stream()
+                    .filter(message -> isAccepted(processor, message))
+                    .filter(message -> isProcessed(processor, message)));
+            otherSourceMessages = corpusMessages.stream()
+                    .filter(message -> isRejected(processor, message))
+                    .toArray(Message[]::new);
+        }
+
+        Message nextMessage() {
+            next = next + 1 == messages.length ? 0 : next + 1;
+            return messages[next];
+        }
+
+        Message nextOtherSourceMessage() {
+            nextOther = nextOther + 1 == otherSourceMessages.length ? 0 : nextOther + 1;
+            return otherSourceMessages[nextOther];
+        }
+
+    }
+
+    /**
+     * Only sources that post spawns as embeds, which compiled text is made from
+     */
+    @State(Scope.Thread)
+    public static class EmbedMessages {
+
+        @Param({ "VAScans", "FLPokeMap", "PoGoSJ", "PoGoSJV2", "PGAN", "WeCatch", "PineappleMap", "SafariSight", "Generic" })
+        public String source;
+
+        @Param({ BUNDLED_CORPUS })
+        public String corpus;
+
+        private Message[] messages;
+        private int next = 0;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            final MessageProcessor<PokemonSpawn> processor = SOURCE_TO_PROCESSOR.get(source).get();
+            messages = messagesOf(source, corpus, loadCorpusMessages(corpus).stream()
+                    .filter(message -> !message.getEmbeds().isEmpty())
+                    .filter(message -> isAccepted(processor, message)));
+        }
+
+        Message nextMessage() {
+            next = next + 1 == messages.length ? 0 : next + 1;
+            return messages[next];
+        }
+
+    }
+
+    @Benchmark
+    public boolean canProcess(final SourceMessages sourceMessages) {
+        return sourceMessages.processor.canProcess(sourceMessages.nextMessage());
+    }
+
+    @Benchmark
+    public boolean canProcessOtherSource(final SourceMessages sourceMessages) {
+        return sourceMessages.processor.canProcess(sourceMessages.nextOtherSourceMessage());
+    }
+
+    @Benchmark
+    public Optional<PokemonSpawn> process(final SourceMessages sourceMessages) {
+        return sourceMessages.processor.process(sourceMessages.nextMessage());
+    }
+
+    @Benchmark
+    public String compileMessageText(final EmbedMessages embedMessages) {
+        return GenericSpawnMessageProcessor.compileMessageText(embedMessages.nextMessage());
+    }
+
+    private static List<Message> loadCorpusMessages(final String corpus) throws IOException {
+        switch (corpus) {
+            case BUNDLED_CORPUS:
+                return loadBundledMessages();
+            case CAPTURED_CORPUS:
+                return loadCapturedMessages();
+            default:
+                throw new IllegalArgumentException(String.format(
+                        "Unknown corpus '%s' - expected '%s' or '%s'", corpus, BUNDLED_CORPUS, CAPTURED_CORPUS));
+        }
+    }
+
+    private static List<Message> loadBundledMessages() throws IOException {
+        final List<Message> messages = new ArrayList<>();
+        for (final String source : SOURCE_TO_PROCESSOR.keySet()) {
+            final String resource = String.format(BUNDLED_CORPUS_RESOURCE_FORMAT, source);
+            final InputStream inputStream = SpawnMessageProcessorBenchmark.class.getResourceAsStream(resource);
+            if (inputStream == null) {
+                throw new IllegalStateException(String.format("No bundled corpus of %s at %s", source, resource));
+            }
+            try (final Stream<RecordedMessage> recordedMessages = MessageCorpus.readUncompressed(inputStream)) {
+                recordedMessages.map(ReplayedMessages::replay).forEach(messages::add);
+            }
+        }
+        return messages;
+    }
+
+    private static List<Message> loadCapturedMessages() throws IOException {
+        if (!Files.isDirectory(MessageCorpus.DEFAULT_DIRECTORY)) {
+            throw new IllegalStateException(String.format(
+                    "No message corpora at %s - capture them with MessageCorpusCaptureIntegrationTest first",
+                    MessageCorpus.DEFAULT_DIRECTORY.toAbsolutePath()));
+        }
+        final List<Path> corpusFiles;
+        try (final Stream<Path> files = Files.list(MessageCorpus.DEFAULT_DIRECTORY)) {
+            corpusFiles = files
+                    .filter(file -> file.getFileName().toString().endsWith(MessageCorpus.FILE_EXTENSION))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        final List<Message> messages = new ArrayList<>();
+        for (final Path corpusFile : corpusFiles) {
+            try (final Stream<RecordedMessage> recordedMessages = MessageCorpus.read(corpusFile)) {
+                recordedMessages.map(ReplayedMessages::replay).forEach(messages::add);
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * Messages the processor fails on are neither accepted nor rejected, so they're left out, e.g. guild only processors
+     * asking for the guild of a private message. They'd never be routed to that processor in the collector.
+     */
+    private static boolean isAccepted(final MessageProcessor<PokemonSpawn> processor, final Message message) {
+        try {
+            return processor.canProcess(message);
+        } catch (final RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static boolean isRejected(final MessageProcessor<PokemonSpawn> processor, final Message message) {
+        try {
+            return !processor.canProcess(message);
+        } catch (final RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Messages the processor accepts but fails to parse are left out too. One throwing message would otherwise end the
+     * whole trial, and failures are what the processors' tests are for, not this benchmark.
+     */
+    private static boolean isProcessed(final MessageProcessor<PokemonSpawn> processor, final Message message) {
+        try {
+            processor.process(message);
+            return true;
+        } catch (final RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static Message[] messagesOf(final String source, final String corpus, final Stream<Message> messages) {
+        final Message[] sourceMessages = messages.toArray(Message[]::new);
+        if (sourceMessages.length == 0) {
+            throw new IllegalStateException(String.format(
+                    "None of the %s messages are of %s - add some to its corpus", corpus, source));
+        }
+        return sourceMessages;
+    }
+
+}
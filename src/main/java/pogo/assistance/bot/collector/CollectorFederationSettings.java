@@ -0,0 +1,79 @@
+package pogo.assistance.bot.collector;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+
+import org.immutables.value.Value;
+
+/**
+ * Decides the role of the collector process when data collection is spread over multiple processes (possibly on
+ * different hosts, with different IPs):
+ *  - Standalone (default): collects spawns and runs the exchange, same as before federation existed
+ *  - Central: same as standalone, but also accepts spawns from remote collectors on {@link #serverHost()}:{@link #serverPort()}
+ *  - Remote: only collects spawns and sends them to the central exchange at {@link #centralExchangeAddress()}
+ */
+@Value.Immutable
+public interface CollectorFederationSettings {
+
+    CollectorFederationSettings STANDALONE = ImmutableCollectorFederationSettings.builder().build();
+
+    /**
+     * When present, this process is a remote collector: it runs no exchange or relays of its own and sends all
+     * collected spawns to the central exchange listening at this address.
+     */
+    Optional<InetSocketAddress> centralExchangeAddress();
+
+    /**
+     * When present, this process is the central exchange and accepts spawns from remote collectors on this port.
+     */
+    OptionalInt serverPort();
+
+    /**
+     * Address the central exchange accepts remote collectors on. Loopback by default, so remote collectors on other
+     * hosts are only accepted when explicitly asked for (e.g. through a tunnel or by binding to a LAN interface).
+     */
+    @Value.Default
+    default String serverHost() {
+        return InetAddress.getLoopbackAddress().getHostAddress();
+    }
+
+    /**
+     * Secret shared by the central exchange and its remote collectors. Required by both of them.
+     */
+    @Value.Redacted
+    Optional<String> sharedSecret();
+
+    /**
+     * Names of the data source JDAs to run in this process (e.g. {@link pogo.assistance.bot.di.DiscordEntityConstants#NAME_JDA_BENIN_USER}).
+     * Runs all of them when empty. Lets collector users be split between processes.
+     */
+    Set<String> dataSourceJdaNames();
+
+    /**
+     * Identifies this process to the central exchange when running as a remote collector.
+     */
+    @Value.Default
+    default String collectorName() {
+        return ManagementFactory.getRuntimeMXBean().getName();
+    }
+
+    @Value.Check
+    default void check() {
+        if (centralExchangeAddress().isPresent() && serverPort().isPresent()) {
+            throw new IllegalStateException("Collector can't be both remote and central: " + this);
+        }
+        if ((centralExchangeAddress().isPresent() || serverPort().isPresent())
+                && !sharedSecret().filter(secret -> !secret.isEmpty()).isPresent()) {
+            throw new IllegalStateException("Remote and central collectors need a shared secret: " + this);
+        }
+    }
+
+    default boolean isRemoteCollector() {
+        return centralExchangeAddress().isPresent();
+    }
+
+}
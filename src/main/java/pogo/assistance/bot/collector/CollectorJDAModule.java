@@ -37,18 +37,9 @@ class CollectorJDAModule {
     @Named(NAME_JDA_CORRUPTED_USER)
     public static JDA provideCorruptedUserJda(
             @Named(NAME_USER_TOKEN_CORRUPTED) final String token,
-            @Named(NAME_CORRUPTED_USER_SPAWN_LISTERNER) final DiscordPokemonSpawnListener discordPokemonSpawnListener) {
-
-        final JDABuilder jdaBuilder = new JDABuilder(AccountType.CLIENT);
-        jdaBuilder.setToken(token);
-        jdaBuilder.addEventListeners(discordPokemonSpawnListener);
-        // TODO: add logging of what's being registered
-
-        try {
-            return jdaBuilder.build().awaitReady();
-        } catch (final InterruptedException | LoginException e) {
-            throw new RuntimeException("Failed to setup JDA", e);
-        }
+            @Named(NAME_CORRUPTED_USER_SPAWN_LISTERNER) final DiscordPokemonSpawnListener discordPokemonSpawnListener,
+            final CollectorJdaThreadPools threadPools) {
+        return CollectorJdaProfile.login(CollectorJdaProfile.newCollectorJdaBuilder(token, discordPokemonSpawnListener, threadPools));
     }
 
     @Singleton
@@ -56,17 +47,9 @@ class CollectorJDAModule {
     @Named(NAME_JDA_BENIN_USER)
     public static JDA provideBeninUserJda(
             @Named(NAME_USER_TOKEN_BENIN) final String token,
-            @Named(NAME_BENIN_USER_SPAWN_LISTENER) final DiscordPokemonSpawnListener discordPokemonSpawnListener) {
-
-        final JDABuilder jdaBuilder = new JDABuilder(AccountType.CLIENT);
-        jdaBuilder.setToken(token);
-        jdaBuilder.addEventListeners(discordPokemonSpawnListener);
-
-        try {
-            return jdaBuilder.build().awaitReady();
-        } catch (final InterruptedException | LoginException e) {
-            throw new RuntimeException("Failed to setup JDA", e);
-        }
+            @Named(NAME_BENIN_USER_SPAWN_LISTENER) final DiscordPokemonSpawnListener discordPokemonSpawnListener,
+            final CollectorJdaThreadPools threadPools) {
+        return CollectorJdaProfile.login(CollectorJdaProfile.newCollectorJdaBuilder(token, discordPokemonSpawnListener, threadPools));
     }
 
     @Singleton
@@ -74,17 +57,9 @@ class CollectorJDAModule {
     @Named(NAME_JDA_NINERS_USER)
     public static JDA provideNinersUserJda(
             @Named(NAME_USER_TOKEN_NINERS) final String token,
-            @Named(NAME_NINERS_USER_SPAWN_LISTENER) final DiscordPokemonSpawnListener discordPokemonSpawnListener) {
-
-        final JDABuilder jdaBuilder = new JDABuilder(AccountType.CLIENT);
-        jdaBuilder.setToken(token);
-        jdaBuilder.addEventListeners(discordPokemonSpawnListener);
-
-        try {
-            return jdaBuilder.build().awaitReady();
-        } catch (final InterruptedException | LoginException e) {
-            throw new RuntimeException("Failed to setup JDA", e);
-        }
+            @Named(NAME_NINERS_USER_SPAWN_LISTENER) final DiscordPokemonSpawnListener discordPokemonSpawnListener,
+            final CollectorJdaThreadPools threadPools) {
+        return CollectorJdaProfile.login(CollectorJdaProfile.newCollectorJdaBuilder(token, discordPokemonSpawnListener, threadPools));
     }
 
     @Singleton
@@ -92,17 +67,9 @@ class CollectorJDAModule {
     @Named(NAME_JDA_JOHNNY_USER)
     public static JDA provideJohnnyUserJda(
             @Named(NAME_USER_TOKEN_JOHNNY) final String token,
-            @Named(NAME_JOHNNY_USER_SPAWN_LISTENER) final DiscordPokemonSpawnListener discordPokemonSpawnListener) {
-
-        final JDABuilder jdaBuilder = new JDABuilder(AccountType.CLIENT);
-        jdaBuilder.setToken(token);
-        jdaBuilder.addEventListeners(discordPokemonSpawnListener);
-
-        try {
-            return jdaBuilder.build().awaitReady();
-        } catch (final InterruptedException | LoginException e) {
-            throw new RuntimeException("Failed to setup JDA", e);
-        }
+            @Named(NAME_JOHNNY_USER_SPAWN_LISTENER) final DiscordPokemonSpawnListener discordPokemonSpawnListener,
+            final CollectorJdaThreadPools threadPools) {
+        return CollectorJdaProfile.login(CollectorJdaProfile.newCollectorJdaBuilder(token, discordPokemonSpawnListener, threadPools));
     }
 
     @Singleton
@@ -110,17 +77,9 @@ class CollectorJDAModule {
     @Named(NAME_JDA_TIMBURTY_USER)
     public static JDA provideTimburtyUserJda(
             @Named(NAME_USER_TOKEN_TIMBURTY) final String token,
-            @Named(NAME_TIMBURTY_USER_SPAWN_LISTENER) final DiscordPokemonSpawnListener discordPokemonSpawnListener) {
-
-        final JDABuilder jdaBuilder = new JDABuilder(AccountType.CLIENT);
-        jdaBuilder.setToken(token);
-        jdaBuilder.addEventListeners(discordPokemonSpawnListener);
-
-        try {
-            return jdaBuilder.build().awaitReady();
-        } catch (final InterruptedException | LoginException e) {
-            throw new RuntimeException("Failed to setup JDA", e);
-        }
+            @Named(NAME_TIMBURTY_USER_SPAWN_LISTENER) final DiscordPokemonSpawnListener discordPokemonSpawnListener,
+            final CollectorJdaThreadPools threadPools) {
+        return CollectorJdaProfile.login(CollectorJdaProfile.newCollectorJdaBuilder(token, discordPokemonSpawnListener, threadPools));
     }
 
     @Singleton
@@ -128,17 +87,9 @@ class CollectorJDAModule {
     @Named(NAME_JDA_IRVIN88_USER)
     public static JDA provideIrvin88UserJda(
             @Named(NAME_USER_TOKEN_IRVIN88) final String token,
-            @Named(NAME_IRVIN88_USER_SPAWN_LISTENER) final DiscordPokemonSpawnListener discordPokemonSpawnListener) {
-
-        final JDABuilder jdaBuilder = new JDABuilder(AccountType.CLIENT);
-        jdaBuilder.setToken(token);
-        jdaBuilder.addEventListeners(discordPokemonSpawnListener);
-
-        try {
-            return jdaBuilder.build().awaitReady();
-        } catch (final InterruptedException | LoginException e) {
-            throw new RuntimeException("Failed to setup JDA", e);
-        }
+            @Named(NAME_IRVIN88_USER_SPAWN_LISTENER) final DiscordPokemonSpawnListener discordPokemonSpawnListener,
+            final CollectorJdaThreadPools threadPools) {
+        return CollectorJdaProfile.login(CollectorJdaProfile.newCollectorJdaBuilder(token, discordPokemonSpawnListener, threadPools));
     }
 
     @Singleton
@@ -146,17 +97,9 @@ class CollectorJDAModule {
     @Named(NAME_JDA_CONNOISSEUR_USER)
     public static JDA provideConnoisseurUserJda(
             @Named(NAME_USER_TOKEN_CONNOISSEUR) final String token,
-            @Named(NAME_CONNOISSEUR_USER_SPAWN_LISTENER) final DiscordPokemonSpawnListener discordPokemonSpawnListener) {
-
-        final JDABuilder jdaBuilder = new JDABuilder(AccountType.CLIENT);
-        jdaBuilder.setToken(token);
-        jdaBuilder.addEventListeners(discordPokemonSpawnListener);
-
-        try {
-            return jdaBuilder.build().awaitReady();
-        } catch (final InterruptedException | LoginException e) {
-            throw new RuntimeException("Failed to setup JDA", e);
-        }
+            @Named(NAME_CONNOISSEUR_USER_SPAWN_LISTENER) final DiscordPokemonSpawnListener discordPokemonSpawnListener,
+            final CollectorJdaThreadPools threadPools) {
+        return CollectorJdaProfile.login(CollectorJdaProfile.newCollectorJdaBuilder(token, discordPokemonSpawnListener, threadPools));
     }
 
     @Singleton
@@ -164,17 +107,9 @@ class CollectorJDAModule {
     @Named(NAME_JDA_CHRONIC_USER)
     public static JDA provideChronicUserJda(
             @Named(NAME_USER_TOKEN_CHRONIC) final String token,
-            @Named(NAME_CHRONIC_USER_SPAWN_LISTENER) final DiscordPokemonSpawnListener discordPokemonSpawnListener) {
-
-        final JDABuilder jdaBuilder = new JDABuilder(AccountType.CLIENT);
-        jdaBuilder.setToken(token);
-        jdaBuilder.addEventListeners(discordPokemonSpawnListener);
-
-        try {
-            return jdaBuilder.build().awaitReady();
-        } catch (final InterruptedException | LoginException e) {
-            throw new RuntimeException("Failed to setup JDA", e);
-        }
+            @Named(NAME_CHRONIC_USER_SPAWN_LISTENER) final DiscordPokemonSpawnListener discordPokemonSpawnListener,
+            final CollectorJdaThreadPools threadPools) {
+        return CollectorJdaProfile.login(CollectorJdaProfile.newCollectorJdaBuilder(token, discordPokemonSpawnListener, threadPools));
     }
 
     @Singleton
@@ -182,17 +117,9 @@ class CollectorJDAModule {
     @Named(NAME_JDA_CRANK_USER)
     public static JDA provideCrankUserJda(
             @Named(NAME_USER_TOKEN_CRANK) final String token,
-            @Named(NAME_CRANK_USER_SPAWN_LISTENER) final DiscordPokemonSpawnListener discordPokemonSpawnListener) {
-
-        final JDABuilder jdaBuilder = new JDABuilder(AccountType.CLIENT);
-        jdaBuilder.setToken(token);
-        jdaBuilder.addEventListeners(discordPokemonSpawnListener);
-
-        try {
-            return jdaBuilder.build().awaitReady();
-        } catch (final InterruptedException | LoginException e) {
-            throw new RuntimeException("Failed to setup JDA", e);
-        }
+            @Named(NAME_CRANK_USER_SPAWN_LISTENER) final DiscordPokemonSpawnListener discordPokemonSpawnListener,
+            final CollectorJdaThreadPools threadPools) {
+        return CollectorJdaProfile.login(CollectorJdaProfile.newCollectorJdaBuilder(token, discordPokemonSpawnListener, threadPools));
     }
 
     @Singleton
@@ -200,17 +127,9 @@ class CollectorJDAModule {
     @Named(NAME_JDA_POGO_HERO_USER)
     public static JDA providePoGoHeroUserJda(
             @Named(NAME_USER_TOKEN_POGO_HERO) final String token,
-            @Named(NAME_POGO_HERO_USER_SPAWN_LISTENER) final DiscordPokemonSpawnListener discordPokemonSpawnListener) {
-
-        final JDABuilder jdaBuilder = new JDABuilder(AccountType.CLIENT);
-        jdaBuilder.setToken(token);
-        jdaBuilder.addEventListeners(discordPokemonSpawnListener);
-
-        try {
-            return jdaBuilder.build().awaitReady();
-        } catch (final InterruptedException | LoginException e) {
-            throw new RuntimeException("Failed to setup JDA", e);
-        }
+            @Named(NAME_POGO_HERO_USER_SPAWN_LISTENER) final DiscordPokemonSpawnListener discordPokemonSpawnListener,
+            final CollectorJdaThreadPools threadPools) {
+        return CollectorJdaProfile.login(CollectorJdaProfile.newCollectorJdaBuilder(token, discordPokemonSpawnListener, threadPools));
     }
 
     @Singleton
@@ -218,17 +137,9 @@ class CollectorJDAModule {
     @Named(NAME_JDA_MICHELLEX_USER)
     public static JDA provideMichellexUserJda(
             @Named(NAME_USER_TOKEN_MICHELLEX) final String token,
-            @Named(NAME_MICHELLEX_USER_SPAWN_LISTENER) final DiscordPokemonSpawnListener discordPokemonSpawnListener) {
-
-        final JDABuilder jdaBuilder = new JDABuilder(AccountType.CLIENT);
-        jdaBuilder.setToken(token);
-        jdaBuilder.addEventListeners(discordPokemonSpawnListener);
-
-        try {
-            return jdaBuilder.build().awaitReady();
-        } catch (final InterruptedException | LoginException e) {
-            throw new RuntimeException("Failed to setup JDA", e);
-        }
+            @Named(NAME_MICHELLEX_USER_SPAWN_LISTENER) final DiscordPokemonSpawnListener discordPokemonSpawnListener,
+            final CollectorJdaThreadPools threadPools) {
+        return CollectorJdaProfile.login(CollectorJdaProfile.newCollectorJdaBuilder(token, discordPokemonSpawnListener, threadPools));
     }
 
     @Singleton
@@ -236,17 +147,9 @@ class CollectorJDAModule {
     @Named(NAME_JDA_POKE_PETER_USER)
     public static JDA providePokePeterUserJda(
             @Named(NAME_USER_TOKEN_POKE_PETER) final String token,
-            @Named(NAME_POKE_PETER_USER_SPAWN_LISTENER) final DiscordPokemonSpawnListener discordPokemonSpawnListener) {
-
-        final JDABuilder jdaBuilder = new JDABuilder(AccountType.CLIENT);
-        jdaBuilder.setToken(token);
-        jdaBuilder.addEventListeners(discordPokemonSpawnListener);
-
-        try {
-            return jdaBuilder.build().awaitReady();
-        } catch (final InterruptedException | LoginException e) {
-            throw new RuntimeException("Failed to setup JDA", e);
-        }
+            @Named(NAME_POKE_PETER_USER_SPAWN_LISTENER) final DiscordPokemonSpawnListener discordPokemonSpawnListener,
+            final CollectorJdaThreadPools threadPools) {
+        return CollectorJdaProfile.login(CollectorJdaProfile.newCollectorJdaBuilder(token, discordPokemonSpawnListener, threadPools));
     }
 
     @Singleton
@@ -254,17 +157,9 @@ class CollectorJDAModule {
     @Named(NAME_JDA_AMY_USER)
     public static JDA provideAmyUserJda(
             @Named(NAME_USER_TOKEN_AMY) final String token,
-            @Named(NAME_AMY_USER_SPAWN_LISTENER) final DiscordPokemonSpawnListener discordPokemonSpawnListener) {
-
-        final JDABuilder jdaBuilder = new JDABuilder(AccountType.CLIENT);
-        jdaBuilder.setToken(token);
-        jdaBuilder.addEventListeners(discordPokemonSpawnListener);
-
-        try {
-            return jdaBuilder.build().awaitReady();
-        } catch (final InterruptedException | LoginException e) {
-            throw new RuntimeException("Failed to setup JDA", e);
-        }
+            @Named(NAME_AMY_USER_SPAWN_LISTENER) final DiscordPokemonSpawnListener discordPokemonSpawnListener,
+            final CollectorJdaThreadPools threadPools) {
+        return CollectorJdaProfile.login(CollectorJdaProfile.newCollectorJdaBuilder(token, discordPokemonSpawnListener, threadPools));
     }
 
     @Singleton
@@ -272,17 +167,9 @@ class CollectorJDAModule {
     @Named(NAME_JDA_ALEXA_USER)
     public static JDA provideAlexaUserJda(
             @Named(NAME_USER_TOKEN_ALEXA) final String token,
-            @Named(NAME_ALEXA_USER_SPAWN_LISTENER) final DiscordPokemonSpawnListener discordPokemonSpawnListener) {
-
-        final JDABuilder jdaBuilder = new JDABuilder(AccountType.CLIENT);
-        jdaBuilder.setToken(token);
-        jdaBuilder.addEventListeners(discordPokemonSpawnListener);
-
-        try {
-            return jdaBuilder.build().awaitReady();
-        } catch (final InterruptedException | LoginException e) {
-            throw new RuntimeException("Failed to setup JDA", e);
-        }
+            @Named(NAME_ALEXA_USER_SPAWN_LISTENER) final DiscordPokemonSpawnListener discordPokemonSpawnListener,
+            final CollectorJdaThreadPools threadPools) {
+        return CollectorJdaProfile.login(CollectorJdaProfile.newCollectorJdaBuilder(token, discordPokemonSpawnListener, threadPools));
     }
 
     @Singleton
@@ -290,17 +177,9 @@ class CollectorJDAModule {
     @Named(NAME_JDA_SHADOW_USER)
     public static JDA provideShadowUserJda(
             @Named(NAME_USER_TOKEN_SHADOW) final String token,
-            @Named(NAME_SHADOW_USER_SPAWN_LISTENER) final DiscordPokemonSpawnListener discordPokemonSpawnListener) {
-
-        final JDABuilder jdaBuilder = new JDABuilder(AccountType.CLIENT);
-        jdaBuilder.setToken(token);
-        jdaBuilder.addEventListeners(discordPokemonSpawnListener);
-
-        try {
-            return jdaBuilder.build().awaitReady();
-        } catch (final InterruptedException | LoginException e) {
-            throw new RuntimeException("Failed to setup JDA", e);
-        }
+            @Named(NAME_SHADOW_USER_SPAWN_LISTENER) final DiscordPokemonSpawnListener discordPokemonSpawnListener,
+            final CollectorJdaThreadPools threadPools) {
+        return CollectorJdaProfile.login(CollectorJdaProfile.newCollectorJdaBuilder(token, discordPokemonSpawnListener, threadPools));
     }
 
     /**
@@ -310,8 +189,10 @@ class CollectorJDAModule {
     @Singleton
     @Provides
     @Named(NAME_JDA_M15M_BOT)
-    public static JDA provideControlUserJda(@Named(NAME_USER_TOKEN_M15M) final String token) {
-        final JDABuilder jdaBuilder = new JDABuilder(AccountType.BOT);
+    public static JDA provideControlUserJda(
+            @Named(NAME_USER_TOKEN_M15M) final String token,
+            final CollectorJdaThreadPools threadPools) {
+        final JDABuilder jdaBuilder = threadPools.applyTo(new JDABuilder(AccountType.BOT));
         jdaBuilder.setToken(token);
         jdaBuilder.addEventListeners(new KillSwitch());
 
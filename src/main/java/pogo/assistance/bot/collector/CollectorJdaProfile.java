@@ -0,0 +1,220 @@
+package pogo.assistance.bot.collector;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import javax.inject.Provider;
+import javax.security.auth.login.LoginException;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import net.dv8tion.jda.api.AccountType;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.JDABuilder;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.hooks.InterfacedEventManager;
+import net.dv8tion.jda.api.utils.cache.CacheFlag;
+import pogo.assistance.bot.di.DiscordEntityConstants;
+import pogo.assistance.data.extraction.source.discord.DiscordPokemonSpawnListener;
+
+/**
+ * JDA setup for the user accounts collecting spawns. These only need message events (and a few channel events) from the
+ * spawn source servers, so everything else JDA would cache or dispatch by default is turned off:
+ *  - Activities, voice states, emotes, client statuses and any other optional cache
+ *  - Events other than those the {@link DiscordPokemonSpawnListener spawn listener} handles, which are dropped before
+ *    going through listener's event type hierarchy
+ *  - Splitting bulk deletes into single message delete events
+ *
+ * Thread pools are {@link CollectorJdaThreadPools shared} with the other JDAs of the collector.
+ *
+ * @implNote
+ *      JDA version in use has no way to keep guilds out of the cache for client accounts, so guilds outside
+ *      {@link DiscordEntityConstants#SPAWN_SOURCE_SERVER_IDS} are still cached. Their share is logged on login, along
+ *      with heap in use and thread count, so the footprint of each account can be compared across changes.
+ */
+@Slf4j
+@UtilityClass
+class CollectorJdaProfile {
+
+    private static final long BYTES_PER_MIB = 1024 * 1024;
+    /**
+     * How long each account gets to be ready before it's given up on. JDA's own awaitReady waits forever, e.g. for an
+     * account stuck reconnecting.
+     */
+    static final Duration LOGIN_TIMEOUT = Duration.ofMinutes(10);
+    private static final long READY_POLL_MILLIS = 50;
+    private static final Set<JDA.Status> NEVER_READY_STATUSES = EnumSet.of(
+            JDA.Status.FAILED_TO_LOGIN, JDA.Status.SHUTTING_DOWN, JDA.Status.SHUTDOWN);
+
+    static JDABuilder newCollectorJdaBuilder(
+            final String token,
+            final DiscordPokemonSpawnListener spawnListener,
+            final CollectorJdaThreadPools threadPools) {
+        return threadPools.applyTo(new JDABuilder(AccountType.CLIENT))
+                .setToken(token)
+                .setDisabledCacheFlags(EnumSet.allOf(CacheFlag.class))
+                .setBulkDeleteSplittingEnabled(false)
+                .setEventManager(new FilteringEventManager(DiscordPokemonSpawnListener.HANDLED_EVENT_TYPES))
+                .addEventListeners(spawnListener);
+    }
+
+    /**
+     * Logs in all accounts at once, instead of one after the other, so startup takes about as long as the slowest login
+     * rather than all of them added up. Each account's listener starts getting events as soon as that account is ready.
+     *
+     * @param jdaProviders
+     *      Providers of the JDAs to log in, by name. Getting a JDA from its provider is expected to log it in and wait
+     *      for it to be ready.
+     * @param timeout
+     *      How long to wait for all accounts to be ready. Accounts not ready by then are left to carry on logging in
+     *      (until their own {@link #LOGIN_TIMEOUT}) and are added to the returned set once ready.
+     * @param shutdownStarted
+     *      Whether the caller started shutting down. Accounts getting ready after that are shut down instead of being
+     *      added to the returned set. Caller is expected to flag shutdown before shutting down the JDAs in the set.
+     * @return
+     *      Ready JDAs, as a synchronized set. Accounts that failed to log in are logged and left out.
+     */
+    static Set<JDA> loginAll(
+            final Map<String, Provider<JDA>> jdaProviders,
+            final Duration timeout,
+            final BooleanSupplier shutdownStarted) {
+        final long startNanos = System.nanoTime();
+        final Set<JDA> readyJdas = Collections.synchronizedSet(new HashSet<>());
+        final Map<String, Long> nameToLoginMillis = new ConcurrentHashMap<>();
+        final ExecutorService loginExecutor = Executors.newFixedThreadPool(Math.max(1, jdaProviders.size()), new ThreadFactoryBuilder()
+                .setNameFormat("jda-login-%d")
+                .setDaemon(true)
+                .build());
+
+        final Map<String, CompletableFuture<JDA>> nameToLogin = new LinkedHashMap<>();
+        jdaProviders.forEach((name, jdaProvider) -> nameToLogin.put(name, CompletableFuture
+                .supplyAsync(jdaProvider::get, loginExecutor)
+                .whenComplete((jda, failure) -> {
+                    final long loginMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+                    if (failure != null) {
+                        log.error(String.format("%s failed to log in after %dms", name, loginMillis), failure);
+                        return;
+                    }
+                    // Holding the set's lock, so the caller can't be shutting down the JDAs in it meanwhile
+                    synchronized (readyJdas) {
+                        if (!shutdownStarted.getAsBoolean()) {
+                            nameToLoginMillis.put(name, loginMillis);
+                            readyJdas.add(jda);
+                            return;
+                        }
+                    }
+                    log.info("{} got ready after shutdown started. Shutting it down.", name);
+                    jda.shutdown();
+                })));
+        // Already submitted logins carry on, only the threads go away once they're done
+        loginExecutor.shutdown();
+
+        try {
+            CompletableFuture.allOf(nameToLogin.values().toArray(new CompletableFuture[0])).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final ExecutionException e) {
+            // Failed logins are already logged, the rest are done
+        } catch (final TimeoutException e) {
+            log.warn("Not all accounts were ready within {}. Continuing without waiting for the rest.", timeout);
+        }
+
+        final String loginTimes = nameToLogin.keySet().stream()
+                .sorted(Comparator.comparing(name -> nameToLoginMillis.getOrDefault(name, Long.MAX_VALUE)))
+                .map(name -> String.format("%n    %s: %s", name, Optional.ofNullable(nameToLoginMillis.get(name))
+                        .map(millis -> millis + "ms")
+                        .orElse(nameToLogin.get(name).isDone() ? "failed" : "not ready yet")))
+                .collect(Collectors.joining());
+        log.info("{}/{} accounts ready in {}ms:{}",
+                nameToLoginMillis.size(), nameToLogin.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), loginTimes);
+        return readyJdas;
+    }
+
+    /**
+     * Builds the JDA and waits for it to be ready, for up to {@link #LOGIN_TIMEOUT}. If it's not ready by then, it's shut
+     * down rather than left to keep trying in the background.
+     */
+    static JDA login(final JDABuilder jdaBuilder) {
+        final JDA jda;
+        try {
+            jda = jdaBuilder.build();
+        } catch (final LoginException e) {
+            throw new RuntimeException("Failed to setup JDA", e);
+        }
+        try {
+            awaitReady(jda, LOGIN_TIMEOUT);
+        } catch (final InterruptedException | TimeoutException e) {
+            jda.shutdownNow();
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RuntimeException("Failed to setup JDA", e);
+        }
+        final Runtime runtime = Runtime.getRuntime();
+        log.info("'{}' logged in. Spawn source guilds: {}/{}, cached users: {}, heap in use: {} MiB, live threads: {}",
+                jda.getSelfUser().getName(),
+                jda.getGuilds().stream().filter(guild -> DiscordEntityConstants.SPAWN_SOURCE_SERVER_IDS.contains(guild.getIdLong())).count(),
+                jda.getGuildCache().size(),
+                jda.getUserCache().size(),
+                (runtime.totalMemory() - runtime.freeMemory()) / BYTES_PER_MIB,
+                ManagementFactory.getThreadMXBean().getThreadCount());
+        return jda;
+    }
+
+    /**
+     * Same as {@link JDA#awaitReady()}, which polls the status the same way, but with a timeout.
+     */
+    private static void awaitReady(final JDA jda, final Duration timeout) throws InterruptedException, TimeoutException {
+        final long deadlineNanos = System.nanoTime() + timeout.toNanos();
+        while (jda.getStatus() != JDA.Status.CONNECTED) {
+            if (NEVER_READY_STATUSES.contains(jda.getStatus())) {
+                throw new IllegalStateException("JDA stopped before getting ready, status: " + jda.getStatus());
+            }
+            if (System.nanoTime() - deadlineNanos > 0) {
+                throw new TimeoutException(String.format("JDA not ready within %s, status: %s", timeout, jda.getStatus()));
+            }
+            TimeUnit.MILLISECONDS.sleep(READY_POLL_MILLIS);
+        }
+    }
+
+    /**
+     * Only passes on events of the given types (or their subtypes) to listeners.
+     */
+    private static class FilteringEventManager extends InterfacedEventManager {
+
+        private final Set<Class<? extends GenericEvent>> handledEventTypes;
+
+        private FilteringEventManager(final Set<Class<? extends GenericEvent>> handledEventTypes) {
+            this.handledEventTypes = handledEventTypes;
+        }
+
+        @Override
+        public void handle(final GenericEvent event) {
+            for (final Class<? extends GenericEvent> handledEventType : handledEventTypes) {
+                if (handledEventType.isInstance(event)) {
+                    super.handle(event);
+                    return;
+                }
+            }
+        }
+
+    }
+
+}
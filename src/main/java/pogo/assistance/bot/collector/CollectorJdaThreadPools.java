@@ -0,0 +1,81 @@
+package pogo.assistance.bot.collector;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import net.dv8tion.jda.api.JDABuilder;
+
+/**
+ * Thread pools shared by all JDAs of the collector, instead of each JDA starting its own. Collector accounts are many
+ * but each has little traffic (mostly receiving messages, rarely sending anything), so a couple of threads per pool are
+ * plenty for all of them together.
+ *
+ * Covers the pools JDA lets us replace:
+ *  - Gateway pool, for heartbeats and session (re)connects
+ *  - Rate limit pool, which also runs the REST requests
+ *
+ * JDA runs callbacks on the common fork join pool by default, which is already shared by all JDAs, and dispatches events
+ * on each JDA's own websocket thread, so neither is set here. Slow work on events is already handed off to the message
+ * parsing pool.
+ */
+@Slf4j
+@Singleton
+class CollectorJdaThreadPools {
+
+    private static final int GATEWAY_POOL_SIZE = 2;
+    private static final int RATE_LIMIT_POOL_SIZE = 4;
+
+    private final ScheduledThreadPoolExecutor gatewayPool = newPool("collector-jda-gateway-%d", GATEWAY_POOL_SIZE);
+    private final ScheduledThreadPoolExecutor rateLimitPool = newPool("collector-jda-rate-limit-%d", RATE_LIMIT_POOL_SIZE);
+
+    @Inject
+    CollectorJdaThreadPools() {
+    }
+
+    /**
+     * Makes the JDA built by the builder use the shared pools. JDA won't shut them down when it's shut down, since other
+     * JDAs may still be using them. They're {@link #shutdown() shut down} once all JDAs are.
+     */
+    JDABuilder applyTo(final JDABuilder jdaBuilder) {
+        return jdaBuilder
+                .setGatewayPool(gatewayPool, false)
+                .setRateLimitPool(rateLimitPool, false);
+    }
+
+    void shutdown() {
+        gatewayPool.shutdown();
+        rateLimitPool.shutdown();
+        try {
+            if (!gatewayPool.awaitTermination(10, TimeUnit.SECONDS) || !rateLimitPool.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Timed out waiting for JDA thread pools to terminate");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("gateway: [%s], rate limit: [%s]", describe(gatewayPool), describe(rateLimitPool));
+    }
+
+    private static String describe(final ScheduledThreadPoolExecutor pool) {
+        return String.format("threads: %d, active: %d, queued: %d, completed: %d",
+                pool.getPoolSize(), pool.getActiveCount(), pool.getQueue().size(), pool.getCompletedTaskCount());
+    }
+
+    private static ScheduledThreadPoolExecutor newPool(final String threadNameFormat, final int size) {
+        final ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(size, new ThreadFactoryBuilder()
+                .setNameFormat(threadNameFormat)
+                .setDaemon(true)
+                .build());
+        // Cancelled heartbeats and rate limit waits would otherwise sit in the queue until their delay passes
+        pool.setRemoveOnCancelPolicy(true);
+        return pool;
+    }
+
+}
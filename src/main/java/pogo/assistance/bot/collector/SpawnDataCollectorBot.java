@@ -1,76 +1,189 @@
 package pogo.assistance.bot.collector;
 
+import java.net.InetSocketAddress;
 import java.time.Duration;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Named;
+import javax.inject.Provider;
 
 import com.google.common.base.Verify;
-import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.AbstractExecutionThreadService;
 import lombok.extern.slf4j.Slf4j;
 import net.dv8tion.jda.api.JDA;
 import pogo.assistance.bot.responder.relay.pokedex100.SpawnStatisticsRelay;
+import pogo.assistance.data.exchange.spawn.PokemonSpawnExchange;
 import pogo.assistance.data.exchange.spawn.PokemonSpawnWebCrawler;
+import pogo.assistance.data.exchange.spawn.SpawnDeduplicationService;
+import pogo.assistance.data.exchange.spawn.SpawnFederationClient;
+import pogo.assistance.data.exchange.spawn.SpawnFederationServer;
+import pogo.assistance.data.extraction.source.discord.MessageParsingPool;
+import pogo.assistance.data.extraction.source.discord.SeenMessageCache;
+import pogo.assistance.data.extraction.source.discord.SourceParsingMetrics;
+import pogo.assistance.utils.debug.FailureDigest;
 
 import static pogo.assistance.bot.di.DiscordEntityConstants.*;
 
 @Slf4j
 public class SpawnDataCollectorBot extends AbstractExecutionThreadService {
 
+    /**
+     * How long startup waits for data source accounts to log in. Each account starts collecting as soon as it's ready,
+     * so this only holds up the rest of the startup (crawler, federation etc.).
+     */
+    private static final Duration JDA_LOGIN_TIMEOUT = Duration.ofMinutes(3);
+
     private final JDA controlUserJda;
+    /**
+     * Accounts that were slow to log in are added once they're ready, unless shutdown started by then
+     */
     private final Set<JDA> dataSourceJdas;
+
+    /*
+     * Following are only set when this process runs the exchange, i.e. isn't a remote collector.
+     */
+    @Nullable
     private final SpawnStatisticsRelay spawnStatisticsRelay;
+    @Nullable
     private final PokemonSpawnWebCrawler pokemonSpawnWebCrawler;
+    @Nullable
+    private final PokemonSpawnExchange pokemonSpawnExchange;
+    @Nullable
+    private final SpawnDeduplicationService spawnDeduplicationService;
+    /**
+     * Only set when this process is the central exchange accepting spawns from remote collectors.
+     */
+    @Nullable
+    private final SpawnFederationServer federationServer;
+    /**
+     * Only set when this process is a remote collector.
+     */
+    @Nullable
+    private final SpawnFederationClient federationClient;
+
+    private final SeenMessageCache seenMessageCache;
+    private final MessageParsingPool messageParsingPool;
+    private final FailureDigest parsingFailureDigest;
+    private final SourceParsingMetrics sourceParsingMetrics;
+    private final CollectorJdaThreadPools jdaThreadPools;
 
     private final AtomicBoolean shutdownTriggered = new AtomicBoolean(false);
 
     /**
      * @param m15mBotJda
      *      Control user JDA - used for relaying and bot control. All other JDAs just collect data.
+     * @param federationSettings
+     *      Decides which of the data source JDAs are started, and whether the exchange and everything around it runs
+     *      in this process
      */
     @Inject
     public SpawnDataCollectorBot(
             @Named(NAME_JDA_M15M_BOT) final JDA m15mBotJda,
-//            @Named(NAME_JDA_CORRUPTED_USER) final JDA corruptedUserJda,
-            @Named(NAME_JDA_BENIN_USER) final JDA beninUserJda,
-            @Named(NAME_JDA_NINERS_USER) final JDA ninersUserJda,
-            @Named(NAME_JDA_JOHNNY_USER) final JDA johnnyUserJda,
-            @Named(NAME_JDA_TIMBURTY_USER) final JDA timburtyUserJda,
-            @Named(NAME_JDA_IRVIN88_USER) final JDA irvin88UserJda,
-            @Named(NAME_JDA_CONNOISSEUR_USER) final JDA connoisseurUserJda,
-            @Named(NAME_JDA_CHRONIC_USER) final JDA chronicUserJda,
-            @Named(NAME_JDA_CRANK_USER) final JDA crankUserJda,
-            @Named(NAME_JDA_POGO_HERO_USER) final JDA poGoHeroUserJda,
-            @Named(NAME_JDA_MICHELLEX_USER) final JDA michellexUserJda,
-            @Named(NAME_JDA_POKE_PETER_USER) final JDA pokePeterUserJda,
-            @Named(NAME_JDA_AMY_USER) final JDA amyUserJda,
-            @Named(NAME_JDA_ALEXA_USER) final JDA alexaUserJda,
-            @Named(NAME_JDA_SHADOW_USER) final JDA shadowUserJda,
-            final PokemonSpawnWebCrawler pokemonSpawnWebCrawler,
-            final SpawnStatisticsRelay spawnStatisticsRelay) {
+//            @Named(NAME_JDA_CORRUPTED_USER) final Provider<JDA> corruptedUserJda,
+            @Named(NAME_JDA_BENIN_USER) final Provider<JDA> beninUserJda,
+            @Named(NAME_JDA_NINERS_USER) final Provider<JDA> ninersUserJda,
+            @Named(NAME_JDA_JOHNNY_USER) final Provider<JDA> johnnyUserJda,
+            @Named(NAME_JDA_TIMBURTY_USER) final Provider<JDA> timburtyUserJda,
+            @Named(NAME_JDA_IRVIN88_USER) final Provider<JDA> irvin88UserJda,
+            @Named(NAME_JDA_CONNOISSEUR_USER) final Provider<JDA> connoisseurUserJda,
+            @Named(NAME_JDA_CHRONIC_USER) final Provider<JDA> chronicUserJda,
+            @Named(NAME_JDA_CRANK_USER) final Provider<JDA> crankUserJda,
+            @Named(NAME_JDA_POGO_HERO_USER) final Provider<JDA> poGoHeroUserJda,
+            @Named(NAME_JDA_MICHELLEX_USER) final Provider<JDA> michellexUserJda,
+            @Named(NAME_JDA_POKE_PETER_USER) final Provider<JDA> pokePeterUserJda,
+            @Named(NAME_JDA_AMY_USER) final Provider<JDA> amyUserJda,
+            @Named(NAME_JDA_ALEXA_USER) final Provider<JDA> alexaUserJda,
+            @Named(NAME_JDA_SHADOW_USER) final Provider<JDA> shadowUserJda,
+            final CollectorFederationSettings federationSettings,
+            final Provider<PokemonSpawnWebCrawler> pokemonSpawnWebCrawler,
+            final Provider<PokemonSpawnExchange> pokemonSpawnExchange,
+            final Provider<SpawnStatisticsRelay> spawnStatisticsRelay,
+            final Provider<SpawnDeduplicationService> spawnDeduplicationService,
+            final SeenMessageCache seenMessageCache,
+            final MessageParsingPool messageParsingPool,
+            final FailureDigest parsingFailureDigest,
+            final SourceParsingMetrics sourceParsingMetrics,
+            final CollectorJdaThreadPools jdaThreadPools,
+            @Nullable final SpawnFederationClient federationClient) {
 
         Verify.verify(hasRegisteredListener(m15mBotJda), "Control user JDA is expected to have at least one listener (kill switch)");
         this.controlUserJda = m15mBotJda;
 
-        this.dataSourceJdas = ImmutableSet.of(amyUserJda, alexaUserJda, /*corruptedUserJda,*/ beninUserJda, ninersUserJda,
-                johnnyUserJda, timburtyUserJda, irvin88UserJda, connoisseurUserJda, poGoHeroUserJda,
-                chronicUserJda, crankUserJda, michellexUserJda, pokePeterUserJda, shadowUserJda);
+        final Map<String, Provider<JDA>> dataSourceJdaProviders = ImmutableMap.<String, Provider<JDA>>builder()
+                .put(NAME_JDA_AMY_USER, amyUserJda)
+                .put(NAME_JDA_ALEXA_USER, alexaUserJda)
+//                .put(NAME_JDA_CORRUPTED_USER, corruptedUserJda)
+                .put(NAME_JDA_BENIN_USER, beninUserJda)
+                .put(NAME_JDA_NINERS_USER, ninersUserJda)
+                .put(NAME_JDA_JOHNNY_USER, johnnyUserJda)
+                .put(NAME_JDA_TIMBURTY_USER, timburtyUserJda)
+                .put(NAME_JDA_IRVIN88_USER, irvin88UserJda)
+                .put(NAME_JDA_CONNOISSEUR_USER, connoisseurUserJda)
+                .put(NAME_JDA_POGO_HERO_USER, poGoHeroUserJda)
+                .put(NAME_JDA_CHRONIC_USER, chronicUserJda)
+                .put(NAME_JDA_CRANK_USER, crankUserJda)
+                .put(NAME_JDA_MICHELLEX_USER, michellexUserJda)
+                .put(NAME_JDA_POKE_PETER_USER, pokePeterUserJda)
+                .put(NAME_JDA_SHADOW_USER, shadowUserJda)
+                .build();
+        final Set<String> unknownJdaNames = Sets.difference(federationSettings.dataSourceJdaNames(), dataSourceJdaProviders.keySet());
+        Verify.verify(unknownJdaNames.isEmpty(), "Unknown data source JDA(s): %s", unknownJdaNames);
+        // Building a JDA logs it in, so only get the ones this process is supposed to run
+        final Map<String, Provider<JDA>> jdaProvidersToRun = Maps.filterKeys(dataSourceJdaProviders,
+                name -> federationSettings.dataSourceJdaNames().isEmpty() || federationSettings.dataSourceJdaNames().contains(name));
+        this.dataSourceJdas = CollectorJdaProfile.loginAll(jdaProvidersToRun, JDA_LOGIN_TIMEOUT, shutdownTriggered::get);
+        Verify.verify(jdaProvidersToRun.isEmpty() || !dataSourceJdas.isEmpty(), "None of the data source JDAs could log in");
         this.dataSourceJdas.forEach(jda -> Verify.verify(
                 hasRegisteredListener(jda),
                 "%s user JDA is expected to have registered listener(s)",
                 jda.getSelfUser().getName()));
 
-        this.spawnStatisticsRelay = spawnStatisticsRelay;
-        this.pokemonSpawnWebCrawler = pokemonSpawnWebCrawler;
+        if (federationSettings.isRemoteCollector()) {
+            Verify.verifyNotNull(federationClient, "Remote collector needs a federation client");
+            this.spawnStatisticsRelay = null;
+            this.pokemonSpawnWebCrawler = null;
+            this.pokemonSpawnExchange = null;
+            this.spawnDeduplicationService = null;
+            this.federationServer = null;
+        } else {
+            this.spawnStatisticsRelay = spawnStatisticsRelay.get();
+            this.pokemonSpawnWebCrawler = pokemonSpawnWebCrawler.get();
+            this.pokemonSpawnExchange = pokemonSpawnExchange.get();
+            this.spawnDeduplicationService = spawnDeduplicationService.get();
+            this.federationServer = federationSettings.serverPort().isPresent()
+                    ? new SpawnFederationServer(
+                            new InetSocketAddress(federationSettings.serverHost(), federationSettings.serverPort().getAsInt()),
+                            federationSettings.sharedSecret().get(),
+                            this.pokemonSpawnExchange)
+                    : null;
+        }
+        this.federationClient = federationClient;
+        this.seenMessageCache = seenMessageCache;
+        this.messageParsingPool = messageParsingPool;
+        this.parsingFailureDigest = parsingFailureDigest;
+        this.sourceParsingMetrics = sourceParsingMetrics;
+        this.jdaThreadPools = jdaThreadPools;
     }
 
     @Override
     protected void startUp() {
-        // JDAs should already be running. Just need to start up the crawler.
-        pokemonSpawnWebCrawler.startAsync().awaitRunning();
+        // JDAs should already be running. Just need to start up the crawler and federation services, if any.
+        if (pokemonSpawnWebCrawler != null) {
+            pokemonSpawnWebCrawler.startAsync().awaitRunning();
+        }
+        if (federationServer != null) {
+            federationServer.startAsync().awaitRunning();
+        }
+        if (federationClient != null) {
+            federationClient.startAsync().awaitRunning();
+        }
     }
 
     @Override
@@ -79,10 +192,31 @@ public class SpawnDataCollectorBot extends AbstractExecutionThreadService {
             try {
                 logJdaState(controlUserJda);
                 dataSourceJdas.forEach(SpawnDataCollectorBot::logJdaState);
+                log.info("Seen message cache: {}", seenMessageCache);
+                log.info("JDA thread pools: {}", jdaThreadPools);
+                log.info("Message parsing pool: {}", messageParsingPool);
+                log.info("Parsing failures: {}", parsingFailureDigest);
+                log.info("Parsing by source:{}{}", System.lineSeparator(), sourceParsingMetrics);
+                if (pokemonSpawnExchange != null) {
+                    logExchangeState(pokemonSpawnExchange);
+                }
+                if (pokemonSpawnWebCrawler != null) {
+                    log.info("Spawn web crawler: {}", pokemonSpawnWebCrawler);
+                }
+                if (spawnDeduplicationService != null) {
+                    log.info("Spawn deduplication: {}", spawnDeduplicationService);
+                }
+                if (federationServer != null) {
+                    log.info("Spawn federation server: {}", federationServer);
+                }
+                if (federationClient != null) {
+                    log.info("Spawn federation client: {}", federationClient);
+                }
 
-                if (spawnStatisticsRelay.getStopwatch().elapsed().compareTo(Duration.ofHours(6)) > 0) {
+                if (spawnStatisticsRelay != null && spawnStatisticsRelay.getStopwatch().elapsed().compareTo(Duration.ofHours(6)) > 0) {
                     // Relay spawn stats (roughly) at some intervals
                     spawnStatisticsRelay.relayLatestStats();
+                    logSourceOverlap();
                 }
 
                 try {
@@ -103,18 +237,50 @@ public class SpawnDataCollectorBot extends AbstractExecutionThreadService {
 
     @Override
     protected void shutDown() {
-        pokemonSpawnWebCrawler.stopAsync();
+        if (pokemonSpawnWebCrawler != null) {
+            pokemonSpawnWebCrawler.stopAsync();
+        }
+        if (federationServer != null) {
+            federationServer.stopAsync();
+        }
 
+        // Run loop also ends when the control user JDA shuts down, without shutdown being triggered. Flagged before
+        // shutting down the data source JDAs, so accounts still logging in shut themselves down instead of being added.
+        shutdownTriggered.set(true);
         dataSourceJdas.forEach(JDA::shutdown);
-        controlUserJda.shutdown();
+        messageParsingPool.shutdown();
+
+        if (federationClient != null) {
+            // Collectors are shut down by now, so nothing more is coming in
+            federationClient.stopAsync().awaitTerminated();
+        }
+        if (federationServer != null) {
+            federationServer.awaitTerminated();
+        }
+        if (pokemonSpawnWebCrawler != null) {
+            pokemonSpawnWebCrawler.awaitTerminated();
+        }
+        if (pokemonSpawnExchange != null) {
+            // Nothing is offering spawns anymore. Closing writes out and syncs whatever the journal has pending, and its
+            // writer thread keeps the JVM alive until it has. Before the control user JDA, since observers may still be
+            // relaying through it.
+            pokemonSpawnExchange.close();
+        }
 
-        pokemonSpawnWebCrawler.awaitTerminated();
+        // Sends out failures recorded since the last digest, so before the control user JDA that it's sent through
+        parsingFailureDigest.close();
+        controlUserJda.shutdown();
+        // Last, since JDAs may still be using them to close their connections
+        jdaThreadPools.shutdown();
     }
 
     @Override
     protected void triggerShutdown() {
         // Relay stats before shutting things down
-        spawnStatisticsRelay.relayLatestStats();
+        if (spawnStatisticsRelay != null) {
+            spawnStatisticsRelay.relayLatestStats();
+            logSourceOverlap();
+        }
 
         shutdownTriggered.set(true);
         synchronized (shutdownTriggered) {
@@ -122,11 +288,27 @@ public class SpawnDataCollectorBot extends AbstractExecutionThreadService {
         }
     }
 
+    private void logSourceOverlap() {
+        if (spawnDeduplicationService != null) {
+            log.info("{}", spawnDeduplicationService.describeSourceOverlap());
+        }
+    }
+
     private static void logJdaState(final JDA jda) {
         log.info("{}'s JDA status: {}, ping: {}, response count: {}",
                 jda.getSelfUser().getName(), jda.getStatus(), jda.getGatewayPing(), jda.getResponseTotal());
     }
 
+    private static void logExchangeState(final PokemonSpawnExchange exchange) {
+        log.info("Spawn exchange queue depth: {}, overflow count: {}, dropped count: {}, observer backlogs: {}",
+                exchange.getQueueDepth(), exchange.getOverflowCount(), exchange.getDroppedCount(),
+                exchange.getObserverBacklogs());
+        log.info("Spawn exchange shard queue depths: {}", exchange.getShardQueueDepths());
+        log.info("Spawn exchange queue wait times: {}", exchange.getQueueWaitTimes());
+        log.info("Spawn observer wait times: {}", exchange.getObserverWaitTimes());
+        exchange.getJournal().ifPresent(journal -> log.info("Spawn journal: {}", journal));
+    }
+
     private static boolean hasRegisteredListener(final JDA jda) {
         return !jda.getRegisteredListeners().isEmpty();
     }
@@ -81,6 +81,9 @@ public interface SpawnDataCollectorBotComponent {
         SpawnDataCollectorBotComponent.Builder controlUserToken(
                 @Named(DiscordEntityConstants.NAME_USER_TOKEN_M15M) final String controlUserToken);
 
+        @BindsInstance
+        SpawnDataCollectorBotComponent.Builder federationSettings(final CollectorFederationSettings federationSettings);
+
         SpawnDataCollectorBotComponent build();
     }
 
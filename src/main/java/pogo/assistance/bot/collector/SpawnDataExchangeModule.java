@@ -1,6 +1,11 @@
 package pogo.assistance.bot.collector;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Collections;
+import javax.annotation.Nullable;
 import javax.inject.Named;
 import javax.inject.Provider;
 import javax.inject.Singleton;
@@ -9,11 +14,27 @@ import com.google.common.collect.ImmutableSet;
 import com.google.gson.Gson;
 import dagger.Module;
 import dagger.Provides;
+import lombok.extern.slf4j.Slf4j;
+import pogo.assistance.bot.responder.relay.pokedex100.CandySelector;
 import pogo.assistance.bot.responder.relay.pokedex100.Pokedex100SpawnRelay;
 import pogo.assistance.bot.responder.relay.pokedex100.SpawnStatisticsRelay;
+import pogo.assistance.data.exchange.spawn.ImmutablePokemonSpawnExchangeSettings;
+import pogo.assistance.data.exchange.spawn.ImmutableSpawnFederationClientSettings;
 import pogo.assistance.data.exchange.spawn.PokemonSpawnExchange;
+import pogo.assistance.data.exchange.spawn.PokemonSpawnObserver;
+import pogo.assistance.data.exchange.spawn.PokemonSpawnSink;
+import pogo.assistance.data.exchange.spawn.SpawnDeduplicationMode;
+import pogo.assistance.data.exchange.spawn.SpawnDeduplicationService;
+import pogo.assistance.data.exchange.spawn.SpawnFederationClient;
+import pogo.assistance.data.exchange.spawn.SpawnJournal;
+import pogo.assistance.data.exchange.spawn.SpawnOverflowPolicy;
+import pogo.assistance.data.exchange.spawn.SpawnValue;
 import pogo.assistance.data.extraction.source.discord.DiscordPokemonSpawnListener;
 import pogo.assistance.data.extraction.source.discord.GenericSpawnMessageProcessor;
+import pogo.assistance.data.extraction.source.discord.MessageParsingPool;
+import pogo.assistance.data.extraction.source.discord.MessageParsingPoolSettings;
+import pogo.assistance.data.extraction.source.discord.SeenMessageCache;
+import pogo.assistance.data.extraction.source.discord.SourceParsingMetrics;
 import pogo.assistance.data.extraction.source.discord.articuno.ArticunoSpawnMessageProcessor;
 import pogo.assistance.data.extraction.source.discord.pgan.PGANSpawnMessageProcessor;
 import pogo.assistance.data.extraction.source.discord.pineapplemap.PineappleMapSpawnMessageProcessor;
@@ -22,14 +43,38 @@ import pogo.assistance.data.extraction.source.discord.sandiego.SDHSpawnMessagePr
 import pogo.assistance.data.extraction.source.discord.sgv.SGVSpawnMessageProcessor;
 import pogo.assistance.data.extraction.source.discord.vascans.VAScansSpawnMessageProcessor;
 import pogo.assistance.data.extraction.source.discord.wecatch.WeCatchSpawnMessageProcessor;
+import pogo.assistance.utils.debug.FailureDigest;
 import pogo.assistance.utils.debug.ServerLogger;
 
 /**
  * This module registers the listeners we need to put on the data collecting user JDAs.
  */
+@Slf4j
 @Module
 class SpawnDataExchangeModule {
 
+    /**
+     * Spawns of any single priority waiting in a shard to be dispatched to observers beyond this count are handled by the
+     * {@link #SPAWN_QUEUE_OVERFLOW_POLICY overflow policy}. Busy hours don't get anywhere close to this, so hitting
+     * the limit means observers are stuck.
+     */
+    private static final int SPAWN_QUEUE_CAPACITY_PER_PRIORITY = 10000;
+    private static final SpawnOverflowPolicy SPAWN_QUEUE_OVERFLOW_POLICY = SpawnOverflowPolicy.DROP_LOWEST_VALUE;
+    /**
+     * Spawns are partitioned into this many geographic shards, each dispatched by its own thread. No point having more
+     * shards than cores.
+     */
+    private static final int SPAWN_EXCHANGE_SHARD_COUNT = Math.min(4, Runtime.getRuntime().availableProcessors());
+    /**
+     * Relative to the working directory, which stays the same across restarts by the auto restarter.
+     */
+    private static final Path SPAWN_JOURNAL_DIRECTORY = Paths.get("journal", "spawn-exchange");
+    /**
+     * Raw messages that failed parsing, one JSON per line. Relative to the working directory like the journal.
+     */
+    private static final Path PARSING_DEAD_LETTER_FILE = Paths.get("dead-letters", "failed-spawn-messages.jsonl");
+    private static final Duration PARSING_FAILURE_DIGEST_INTERVAL = Duration.ofMinutes(5);
+
     /**
      * 'Corrupted' user has access to:
      *  - FLPM alerts
@@ -40,14 +85,20 @@ class SpawnDataExchangeModule {
     @Named(CollectorJDAModule.NAME_CORRUPTED_USER_SPAWN_LISTERNER)
     @Provides
     public static DiscordPokemonSpawnListener provideSpawnListenerToUserForCorruptedUserJDA(
-            final PokemonSpawnExchange spawnExchange,
-            final ServerLogger serverLogger,
+            final PokemonSpawnSink spawnSink,
+            final SeenMessageCache seenMessageCache,
+            final MessageParsingPool messageParsingPool,
+            final FailureDigest parsingFailureDigest,
+            final SourceParsingMetrics sourceParsingMetrics,
             final Gson gson) {
         return new DiscordPokemonSpawnListener(
                 ImmutableSet.of(new GenericSpawnMessageProcessor()),
                 ImmutableSet.of(new GenericSpawnMessageProcessor(), new SafariSightSpawnMessageProcessor()),
-                spawnExchange,
-                serverLogger,
+                spawnSink,
+                seenMessageCache,
+                messageParsingPool,
+                parsingFailureDigest,
+                sourceParsingMetrics,
                 gson);
     }
 
@@ -58,14 +109,20 @@ class SpawnDataExchangeModule {
     @Named(CollectorJDAModule.NAME_BENIN_USER_SPAWN_LISTENER)
     @Provides
     public static DiscordPokemonSpawnListener provideSpawnListenerToUserForBeninUserJDA(
-            final PokemonSpawnExchange spawnExchange,
-            final ServerLogger serverLogger,
+            final PokemonSpawnSink spawnSink,
+            final SeenMessageCache seenMessageCache,
+            final MessageParsingPool messageParsingPool,
+            final FailureDigest parsingFailureDigest,
+            final SourceParsingMetrics sourceParsingMetrics,
             final Gson gson) {
         return new DiscordPokemonSpawnListener(
                 Collections.singleton(new GenericSpawnMessageProcessor()),
                 Collections.emptySet(),
-                spawnExchange,
-                serverLogger,
+                spawnSink,
+                seenMessageCache,
+                messageParsingPool,
+                parsingFailureDigest,
+                sourceParsingMetrics,
                 gson);
     }
 
@@ -84,8 +141,11 @@ class SpawnDataExchangeModule {
     @Named(CollectorJDAModule.NAME_NINERS_USER_SPAWN_LISTENER)
     @Provides
     public static DiscordPokemonSpawnListener provideSpawnListenerToUserForNinersUserJDA(
-            final PokemonSpawnExchange spawnExchange,
-            final ServerLogger serverLogger,
+            final PokemonSpawnSink spawnSink,
+            final SeenMessageCache seenMessageCache,
+            final MessageParsingPool messageParsingPool,
+            final FailureDigest parsingFailureDigest,
+            final SourceParsingMetrics sourceParsingMetrics,
             final Gson gson) {
         return new DiscordPokemonSpawnListener(
                 ImmutableSet.of(
@@ -95,8 +155,11 @@ class SpawnDataExchangeModule {
                         new SGVSpawnMessageProcessor(),
                         new GenericSpawnMessageProcessor()),
                 Collections.emptySet(),
-                spawnExchange,
-                serverLogger,
+                spawnSink,
+                seenMessageCache,
+                messageParsingPool,
+                parsingFailureDigest,
+                sourceParsingMetrics,
                 gson);
     }
 
@@ -108,16 +171,22 @@ class SpawnDataExchangeModule {
     @Named(CollectorJDAModule.NAME_JOHNNY_USER_SPAWN_LISTENER)
     @Provides
     public static DiscordPokemonSpawnListener provideSpawnListenerToUserForJohnnyUserJDA(
-            final PokemonSpawnExchange spawnExchange,
-            final ServerLogger serverLogger,
+            final PokemonSpawnSink spawnSink,
+            final SeenMessageCache seenMessageCache,
+            final MessageParsingPool messageParsingPool,
+            final FailureDigest parsingFailureDigest,
+            final SourceParsingMetrics sourceParsingMetrics,
             final Gson gson) {
         return new DiscordPokemonSpawnListener(
                 ImmutableSet.of(
                         new PineappleMapSpawnMessageProcessor(),
                         new GenericSpawnMessageProcessor()),
                 Collections.emptySet(),
-                spawnExchange,
-                serverLogger,
+                spawnSink,
+                seenMessageCache,
+                messageParsingPool,
+                parsingFailureDigest,
+                sourceParsingMetrics,
                 gson);
     }
 
@@ -129,14 +198,20 @@ class SpawnDataExchangeModule {
     @Named(CollectorJDAModule.NAME_TIMBURTY_USER_SPAWN_LISTENER)
     @Provides
     public static DiscordPokemonSpawnListener provideSpawnListenerToUserForTimburtyUserJDA(
-            final PokemonSpawnExchange spawnExchange,
-            final ServerLogger serverLogger,
+            final PokemonSpawnSink spawnSink,
+            final SeenMessageCache seenMessageCache,
+            final MessageParsingPool messageParsingPool,
+            final FailureDigest parsingFailureDigest,
+            final SourceParsingMetrics sourceParsingMetrics,
             final Gson gson) {
         return new DiscordPokemonSpawnListener(
                 ImmutableSet.of(new GenericSpawnMessageProcessor()),
                 Collections.emptySet(),
-                spawnExchange,
-                serverLogger,
+                spawnSink,
+                seenMessageCache,
+                messageParsingPool,
+                parsingFailureDigest,
+                sourceParsingMetrics,
                 gson);
     }
 
@@ -150,14 +225,20 @@ class SpawnDataExchangeModule {
     @Named(CollectorJDAModule.NAME_IRVIN88_USER_SPAWN_LISTENER)
     @Provides
     public static DiscordPokemonSpawnListener provideSpawnListenerToUserForIrvin88UserJDA(
-            final PokemonSpawnExchange spawnExchange,
-            final ServerLogger serverLogger,
+            final PokemonSpawnSink spawnSink,
+            final SeenMessageCache seenMessageCache,
+            final MessageParsingPool messageParsingPool,
+            final FailureDigest parsingFailureDigest,
+            final SourceParsingMetrics sourceParsingMetrics,
             final Gson gson) {
         return new DiscordPokemonSpawnListener(
                 ImmutableSet.of(new GenericSpawnMessageProcessor()),
                 ImmutableSet.of(new PGANSpawnMessageProcessor()),
-                spawnExchange,
-                serverLogger,
+                spawnSink,
+                seenMessageCache,
+                messageParsingPool,
+                parsingFailureDigest,
+                sourceParsingMetrics,
                 gson);
     }
 
@@ -169,14 +250,20 @@ class SpawnDataExchangeModule {
     @Named(CollectorJDAModule.NAME_CONNOISSEUR_USER_SPAWN_LISTENER)
     @Provides
     public static DiscordPokemonSpawnListener provideSpawnListenerToUserForConnoisseurUserJDA(
-            final PokemonSpawnExchange spawnExchange,
-            final ServerLogger serverLogger,
+            final PokemonSpawnSink spawnSink,
+            final SeenMessageCache seenMessageCache,
+            final MessageParsingPool messageParsingPool,
+            final FailureDigest parsingFailureDigest,
+            final SourceParsingMetrics sourceParsingMetrics,
             final Gson gson) {
         return new DiscordPokemonSpawnListener(
                 ImmutableSet.of(new GenericSpawnMessageProcessor()),
                 Collections.emptySet(),
-                spawnExchange,
-                serverLogger,
+                spawnSink,
+                seenMessageCache,
+                messageParsingPool,
+                parsingFailureDigest,
+                sourceParsingMetrics,
                 gson);
     }
 
@@ -188,14 +275,20 @@ class SpawnDataExchangeModule {
     @Named(CollectorJDAModule.NAME_CHRONIC_USER_SPAWN_LISTENER)
     @Provides
     public static DiscordPokemonSpawnListener provideSpawnListenerToUserForChronicUserJDA(
-            final PokemonSpawnExchange spawnExchange,
-            final ServerLogger serverLogger,
+            final PokemonSpawnSink spawnSink,
+            final SeenMessageCache seenMessageCache,
+            final MessageParsingPool messageParsingPool,
+            final FailureDigest parsingFailureDigest,
+            final SourceParsingMetrics sourceParsingMetrics,
             final Gson gson) {
         return new DiscordPokemonSpawnListener(
                 ImmutableSet.of(new ArticunoSpawnMessageProcessor()),
                 ImmutableSet.of(new PGANSpawnMessageProcessor()),
-                spawnExchange,
-                serverLogger,
+                spawnSink,
+                seenMessageCache,
+                messageParsingPool,
+                parsingFailureDigest,
+                sourceParsingMetrics,
                 gson);
     }
 
@@ -206,14 +299,20 @@ class SpawnDataExchangeModule {
     @Named(CollectorJDAModule.NAME_CRANK_USER_SPAWN_LISTENER)
     @Provides
     public static DiscordPokemonSpawnListener provideSpawnListenerToUserForCrankUserJDA(
-            final PokemonSpawnExchange spawnExchange,
-            final ServerLogger serverLogger,
+            final PokemonSpawnSink spawnSink,
+            final SeenMessageCache seenMessageCache,
+            final MessageParsingPool messageParsingPool,
+            final FailureDigest parsingFailureDigest,
+            final SourceParsingMetrics sourceParsingMetrics,
             final Gson gson) {
         return new DiscordPokemonSpawnListener(
                 Collections.emptySet(),
                 ImmutableSet.of(new PGANSpawnMessageProcessor()),
-                spawnExchange,
-                serverLogger,
+                spawnSink,
+                seenMessageCache,
+                messageParsingPool,
+                parsingFailureDigest,
+                sourceParsingMetrics,
                 gson);
     }
 
@@ -231,14 +330,20 @@ class SpawnDataExchangeModule {
     @Named(CollectorJDAModule.NAME_POGO_HERO_USER_SPAWN_LISTENER)
     @Provides
     public static DiscordPokemonSpawnListener provideSpawnListenerToUserForPoGoHeroUserJDA(
-            final PokemonSpawnExchange spawnExchange,
-            final ServerLogger serverLogger,
+            final PokemonSpawnSink spawnSink,
+            final SeenMessageCache seenMessageCache,
+            final MessageParsingPool messageParsingPool,
+            final FailureDigest parsingFailureDigest,
+            final SourceParsingMetrics sourceParsingMetrics,
             final Gson gson) {
         return new DiscordPokemonSpawnListener(
                 ImmutableSet.of(new GenericSpawnMessageProcessor()),
                 Collections.emptySet(),
-                spawnExchange,
-                serverLogger,
+                spawnSink,
+                seenMessageCache,
+                messageParsingPool,
+                parsingFailureDigest,
+                sourceParsingMetrics,
                 gson);
     }
 
@@ -249,14 +354,20 @@ class SpawnDataExchangeModule {
     @Named(CollectorJDAModule.NAME_MICHELLEX_USER_SPAWN_LISTENER)
     @Provides
     public static DiscordPokemonSpawnListener provideSpawnListenerToUserForMichellexUserJDA(
-            final PokemonSpawnExchange spawnExchange,
-            final ServerLogger serverLogger,
+            final PokemonSpawnSink spawnSink,
+            final SeenMessageCache seenMessageCache,
+            final MessageParsingPool messageParsingPool,
+            final FailureDigest parsingFailureDigest,
+            final SourceParsingMetrics sourceParsingMetrics,
             final Gson gson) {
         return new DiscordPokemonSpawnListener(
                 Collections.emptySet(),
                 ImmutableSet.of(new SDHSpawnMessageProcessor()),
-                spawnExchange,
-                serverLogger,
+                spawnSink,
+                seenMessageCache,
+                messageParsingPool,
+                parsingFailureDigest,
+                sourceParsingMetrics,
                 gson);
     }
 
@@ -268,14 +379,20 @@ class SpawnDataExchangeModule {
     @Named(CollectorJDAModule.NAME_POKE_PETER_USER_SPAWN_LISTENER)
     @Provides
     public static DiscordPokemonSpawnListener provideSpawnListenerToUserForPokePeterUserJDA(
-            final PokemonSpawnExchange spawnExchange,
-            final ServerLogger serverLogger,
+            final PokemonSpawnSink spawnSink,
+            final SeenMessageCache seenMessageCache,
+            final MessageParsingPool messageParsingPool,
+            final FailureDigest parsingFailureDigest,
+            final SourceParsingMetrics sourceParsingMetrics,
             final Gson gson) {
         return new DiscordPokemonSpawnListener(
                 Collections.emptySet(),
                 ImmutableSet.of(new GenericSpawnMessageProcessor()),
-                spawnExchange,
-                serverLogger,
+                spawnSink,
+                seenMessageCache,
+                messageParsingPool,
+                parsingFailureDigest,
+                sourceParsingMetrics,
                 gson);
     }
 
@@ -287,14 +404,20 @@ class SpawnDataExchangeModule {
     @Named(CollectorJDAModule.NAME_AMY_USER_SPAWN_LISTENER)
     @Provides
     public static DiscordPokemonSpawnListener provideSpawnListenerToUserForAmyUserJDA(
-            final PokemonSpawnExchange spawnExchange,
-            final ServerLogger serverLogger,
+            final PokemonSpawnSink spawnSink,
+            final SeenMessageCache seenMessageCache,
+            final MessageParsingPool messageParsingPool,
+            final FailureDigest parsingFailureDigest,
+            final SourceParsingMetrics sourceParsingMetrics,
             final Gson gson) {
         return new DiscordPokemonSpawnListener(
                 ImmutableSet.of(new GenericSpawnMessageProcessor()),
                 Collections.emptySet(),
-                spawnExchange,
-                serverLogger,
+                spawnSink,
+                seenMessageCache,
+                messageParsingPool,
+                parsingFailureDigest,
+                sourceParsingMetrics,
                 gson);
     }
 
@@ -305,14 +428,20 @@ class SpawnDataExchangeModule {
     @Named(CollectorJDAModule.NAME_ALEXA_USER_SPAWN_LISTENER)
     @Provides
     public static DiscordPokemonSpawnListener provideSpawnListenerToUserForAlexaUserJDA(
-            final PokemonSpawnExchange spawnExchange,
-            final ServerLogger serverLogger,
+            final PokemonSpawnSink spawnSink,
+            final SeenMessageCache seenMessageCache,
+            final MessageParsingPool messageParsingPool,
+            final FailureDigest parsingFailureDigest,
+            final SourceParsingMetrics sourceParsingMetrics,
             final Gson gson) {
         return new DiscordPokemonSpawnListener(
                 ImmutableSet.of(new GenericSpawnMessageProcessor()),
                 Collections.emptySet(),
-                spawnExchange,
-                serverLogger,
+                spawnSink,
+                seenMessageCache,
+                messageParsingPool,
+                parsingFailureDigest,
+                sourceParsingMetrics,
                 gson);
     }
 
@@ -323,25 +452,102 @@ class SpawnDataExchangeModule {
     @Named(CollectorJDAModule.NAME_SHADOW_USER_SPAWN_LISTENER)
     @Provides
     public static DiscordPokemonSpawnListener provideSpawnListenerToUserForShadowUserJDA(
-            final PokemonSpawnExchange spawnExchange,
-            final ServerLogger serverLogger,
+            final PokemonSpawnSink spawnSink,
+            final SeenMessageCache seenMessageCache,
+            final MessageParsingPool messageParsingPool,
+            final FailureDigest parsingFailureDigest,
+            final SourceParsingMetrics sourceParsingMetrics,
             final Gson gson) {
         return new DiscordPokemonSpawnListener(
                 ImmutableSet.of(new SDHSpawnMessageProcessor()),
                 Collections.emptySet(),
-                spawnExchange,
-                serverLogger,
+                spawnSink,
+                seenMessageCache,
+                messageParsingPool,
+                parsingFailureDigest,
+                sourceParsingMetrics,
                 gson);
     }
 
+    /**
+     * Shared by the spawn listeners of all accounts, so failures of a source seen through multiple accounts land in the
+     * same digest
+     */
+    @Singleton
+    @Provides
+    public static FailureDigest provideParsingFailureDigest(final ServerLogger serverLogger) {
+        final FailureDigest parsingFailureDigest = new FailureDigest(
+                serverLogger::sendDebugMessage,
+                PARSING_DEAD_LETTER_FILE,
+                PARSING_FAILURE_DIGEST_INTERVAL);
+        parsingFailureDigest.start();
+        return parsingFailureDigest;
+    }
+
+    /**
+     * Shared by the spawn listeners of all accounts, so parsing is fair across accounts
+     */
+    @Singleton
+    @Provides
+    public static MessageParsingPool provideMessageParsingPool() {
+        final MessageParsingPool messageParsingPool = new MessageParsingPool(MessageParsingPoolSettings.DEFAULT);
+        messageParsingPool.start();
+        return messageParsingPool;
+    }
+
     @Singleton
     @Provides
     public static PokemonSpawnExchange providePokemonSpawnExchange(
             final Provider<Pokedex100SpawnRelay> pokedex100SpawnRelayProvider,
-            final Provider<SpawnStatisticsRelay> statisticsRelayProvider) {
-        return new PokemonSpawnExchange(ImmutableSet.of(
+            final Provider<SpawnStatisticsRelay> statisticsRelayProvider,
+            final SpawnDeduplicationService spawnDeduplicationService) {
+        final ImmutableSet<PokemonSpawnObserver> observers = ImmutableSet.of(
                 pokedex100SpawnRelayProvider.get(),
-                statisticsRelayProvider.get()));
+                statisticsRelayProvider.get());
+        SpawnJournal spawnJournal = null;
+        try {
+            spawnJournal = new SpawnJournal(SPAWN_JOURNAL_DIRECTORY);
+        } catch (final IOException e) {
+            // Journal is nice to have, not worth failing to start over
+            log.error("Failed to open spawn journal at " + SPAWN_JOURNAL_DIRECTORY + ". Continuing without it.", e);
+        }
+        return PokemonSpawnExchange.create(
+                observers,
+                ImmutablePokemonSpawnExchangeSettings.builder()
+                        .shardCount(SPAWN_EXCHANGE_SHARD_COUNT)
+                        .queueCapacityPerPriority(SPAWN_QUEUE_CAPACITY_PER_PRIORITY)
+                        .overflowPolicy(SPAWN_QUEUE_OVERFLOW_POLICY)
+                        .priorityClassifier(SpawnValue.priorityClassifier(CandySelector::isCandy))
+                        .deduplicationMode(SpawnDeduplicationMode.FUZZY)
+                        .build(),
+                spawnDeduplicationService,
+                spawnJournal);
+    }
+
+    /**
+     * Where the listeners send collected spawns: the exchange running in this process, or the central exchange when
+     * this process is a remote collector. Remote collectors never construct the exchange or its observers.
+     */
+    @Singleton
+    @Provides
+    public static PokemonSpawnSink providePokemonSpawnSink(
+            @Nullable final SpawnFederationClient federationClient,
+            final Provider<PokemonSpawnExchange> spawnExchangeProvider) {
+        return federationClient != null ? federationClient : spawnExchangeProvider.get();
+    }
+
+    @Singleton
+    @Provides
+    @Nullable
+    public static SpawnFederationClient provideSpawnFederationClient(final CollectorFederationSettings federationSettings) {
+        return federationSettings.centralExchangeAddress()
+                .map(address -> new SpawnFederationClient(
+                        address,
+                        ImmutableSpawnFederationClientSettings.builder()
+                                .collectorName(federationSettings.collectorName())
+                                .sharedSecret(federationSettings.sharedSecret().get())
+                                .build()))
+                .orElse(null);
     }
 
 }
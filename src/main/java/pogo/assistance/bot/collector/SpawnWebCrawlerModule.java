@@ -18,6 +18,8 @@ import dagger.Provides;
 import dagger.multibindings.ElementsIntoSet;
 import pogo.assistance.data.exchange.spawn.PokemonSpawnExchange;
 import pogo.assistance.data.exchange.spawn.PokemonSpawnWebCrawler;
+import pogo.assistance.data.exchange.spawn.PokemonSpawnWebCrawlerSettings;
+import pogo.assistance.data.exchange.spawn.SpawnDeduplicationService;
 import pogo.assistance.data.extraction.source.web.PokemonSpawnFetcher;
 import pogo.assistance.data.extraction.source.web.pokemap.PokeMapSpawnDataExtractor;
 import pogo.assistance.data.extraction.source.web.radar.RadarSpawnDataExtractor;
@@ -29,8 +31,14 @@ public class SpawnWebCrawlerModule {
     @Provides
     public static PokemonSpawnWebCrawler providePokemonSpawnWebCrawler(
             final Set<PokemonSpawnFetcher> pokemonSpawnFetchers,
-            final PokemonSpawnExchange pokemonSpawnExchange) {
-        return new PokemonSpawnWebCrawler(pokemonSpawnFetchers, pokemonSpawnExchange);
+            final PokemonSpawnExchange pokemonSpawnExchange,
+            final SpawnDeduplicationService spawnDeduplicationService) {
+        // Bloom pre-filter stays off (the default) until it's shown to pay off for the crawled volume
+        return new PokemonSpawnWebCrawler(
+                pokemonSpawnFetchers,
+                pokemonSpawnExchange,
+                spawnDeduplicationService,
+                PokemonSpawnWebCrawlerSettings.DEFAULT);
     }
 
     @Provides
@@ -1,15 +1,25 @@
 package pogo.assistance.bot.manager;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.EnumSet;
+import java.util.Optional;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.slf4j.bridge.SLF4JBridgeHandler;
+import com.google.common.net.HostAndPort;
 import lombok.extern.slf4j.Slf4j;
 import net.dv8tion.jda.api.AccountType;
 import picocli.CommandLine;
+import pogo.assistance.bot.collector.CollectorFederationSettings;
 import pogo.assistance.bot.collector.DaggerSpawnDataCollectorBotComponent;
+import pogo.assistance.bot.collector.ImmutableCollectorFederationSettings;
 import pogo.assistance.bot.collector.SpawnDataCollectorBot;
 import pogo.assistance.bot.di.DiscordEntityConstants;
 import pogo.assistance.bot.job.DaggerJobExecutionBotComponent;
@@ -42,7 +52,7 @@ public class BotStarter {
         // Following can run in parallel to other things
 
         if (input.isFeed()) {
-            runPokemonSpawnExchange();
+            runPokemonSpawnExchange(toFederationSettings(input));
         }
 
         if (input.isResponder()) {
@@ -52,7 +62,28 @@ public class BotStarter {
         log.info("Done setting up bot!");
     }
 
-    private static SpawnDataCollectorBot runPokemonSpawnExchange() {
+    private static CollectorFederationSettings toFederationSettings(final BotStarterInput input) {
+        final ImmutableCollectorFederationSettings.Builder builder = ImmutableCollectorFederationSettings.builder();
+        Optional.ofNullable(input.getFederationServerPort()).ifPresent(builder::serverPort);
+        Optional.ofNullable(input.getFederationServerHost()).ifPresent(builder::serverHost);
+        Optional.ofNullable(input.getFederationSecretFile()).map(BotStarter::readSecret).ifPresent(builder::sharedSecret);
+        Optional.ofNullable(input.getFederationExchange())
+                .map(HostAndPort::fromString)
+                .map(hostAndPort -> new InetSocketAddress(hostAndPort.getHost(), hostAndPort.getPort()))
+                .ifPresent(builder::centralExchangeAddress);
+        Optional.ofNullable(input.getCollectorJdaNames()).ifPresent(builder::dataSourceJdaNames);
+        return builder.build();
+    }
+
+    private static String readSecret(final Path secretFile) {
+        try {
+            return new String(Files.readAllBytes(secretFile), StandardCharsets.UTF_8).trim();
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to read federation secret from " + secretFile, e);
+        }
+    }
+
+    private static SpawnDataCollectorBot runPokemonSpawnExchange(final CollectorFederationSettings federationSettings) {
         final SpawnDataCollectorBot bot = DaggerSpawnDataCollectorBotComponent.builder()
                 .corruptedUserToken(DiscordEntityConstants.CORRUPTED_USER_TOKEN)
                 .beninUserToken(DiscordEntityConstants.BENIN_USER_TOKEN)
@@ -70,6 +101,7 @@ public class BotStarter {
                 .alexaUserToken(DiscordEntityConstants.ALEXA_USER_TOKEN)
                 .shadowUserToken(DiscordEntityConstants.SHADOW_USER_TOKEN)
                 .controlUserToken(DiscordEntityConstants.M15M_BOT_TOKEN)
+                .federationSettings(federationSettings)
                 .build()
                 .getSpawnDataCollectorBot();
         bot.startAsync().awaitRunning();
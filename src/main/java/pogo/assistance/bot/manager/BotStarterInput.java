@@ -1,5 +1,6 @@
 package pogo.assistance.bot.manager;
 
+import java.nio.file.Path;
 import java.util.Set;
 import lombok.Getter;
 import picocli.CommandLine.Option;
@@ -24,6 +25,21 @@ class BotStarterInput {
     @Option(names = "-listener", description = "adds one/more listener(s) to responder bot", arity = "1..*")
     private Set<ListenerId> listenerIds;
 
+    @Option(names = "-federationServerPort", description = "accepts spawns from remote collectors on this port (feed bot only)")
+    private Integer federationServerPort;
+
+    @Option(names = "-federationServerHost", description = "address to accept remote collectors on, loopback if unspecified (feed bot only)")
+    private String federationServerHost;
+
+    @Option(names = "-federationSecretFile", description = "file holding the secret shared by central exchange and remote collectors (required with federation)")
+    private Path federationSecretFile;
+
+    @Option(names = "-federationExchange", description = "host:port of central exchange to send spawns to, running feed bot as a remote collector")
+    private String federationExchange;
+
+    @Option(names = "-collectorJda", description = "limits feed bot to one/more data collecting JDA(s), all if unspecified", arity = "1..*")
+    private Set<String> collectorJdaNames;
+
     @Option(names = "-job", description = "runs one or more jobs")
     private boolean job;
 
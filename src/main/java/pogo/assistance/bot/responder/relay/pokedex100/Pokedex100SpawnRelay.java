@@ -18,7 +18,11 @@ import net.dv8tion.jda.api.MessageBuilder;
 import net.dv8tion.jda.api.entities.TextChannel;
 import net.dv8tion.jda.api.exceptions.InsufficientPermissionException;
 import pogo.assistance.bot.di.DiscordEntityConstants;
+import pogo.assistance.data.exchange.spawn.ImmutableObserverLaneSettings;
+import pogo.assistance.data.exchange.spawn.ObserverLaneSettings;
 import pogo.assistance.data.exchange.spawn.PokemonSpawnObserver;
+import pogo.assistance.data.exchange.spawn.SpawnOverflowPolicy;
+import pogo.assistance.data.exchange.spawn.SpawnValue;
 import pogo.assistance.data.model.pokemon.PokemonSpawn;
 
 /**
@@ -37,6 +41,16 @@ public class Pokedex100SpawnRelay implements PokemonSpawnObserver {
             .add(401)
             .build();
 
+    /**
+     * Relaying is rate limited, so during bursts the backlog can build up. When it does, the most valuable spawns get
+     * relayed first and the least valuable are the ones we can afford to lose.
+     */
+    private static final ObserverLaneSettings LANE_SETTINGS = ImmutableObserverLaneSettings.builder()
+            .backlogCapacity(500)
+            .overflowPolicy(SpawnOverflowPolicy.DROP_LOWEST_VALUE)
+            .priorityClassifier(SpawnValue.priorityClassifier(CandySelector::isCandy))
+            .build();
+
     private final Provider<JDA> relayingUserJda;
 
     @Getter(lazy = true, value = AccessLevel.PRIVATE)
@@ -102,6 +116,11 @@ public class Pokedex100SpawnRelay implements PokemonSpawnObserver {
         }
     }
 
+    @Override
+    public ObserverLaneSettings getLaneSettings() {
+        return LANE_SETTINGS;
+    }
+
     private void sendCommandToSuperBotP(final String command) {
         try {
             getCommandRelayChannel()
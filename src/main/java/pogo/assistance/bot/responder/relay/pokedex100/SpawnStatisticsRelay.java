@@ -30,6 +30,8 @@ import net.dv8tion.jda.api.entities.TextChannel;
 import net.dv8tion.jda.api.requests.restaction.MessageAction;
 import net.dv8tion.jda.api.utils.data.DataObject;
 import pogo.assistance.bot.di.DiscordEntityConstants;
+import pogo.assistance.data.exchange.spawn.ImmutableObserverLaneSettings;
+import pogo.assistance.data.exchange.spawn.ObserverLaneSettings;
 import pogo.assistance.data.exchange.spawn.PokemonSpawnObserver;
 import pogo.assistance.data.extraction.source.SpawnSummaryStatistics;
 import pogo.assistance.data.model.SourceMetadata;
@@ -54,6 +56,15 @@ public class SpawnStatisticsRelay implements PokemonSpawnObserver {
         SIMPLE_DATE_FORMAT.setTimeZone(TimeZone.getTimeZone("America/Los_Angeles"));
     }
 
+    /**
+     * Stats don't need to be up to date to the second, so take spawns in batches to lock once per burst of spawns.
+     */
+    private static final ObserverLaneSettings LANE_SETTINGS = ImmutableObserverLaneSettings.builder()
+            .backlogCapacity(5000)
+            .maxBatchSize(200)
+            .batchWindow(Duration.ofSeconds(1))
+            .build();
+
     private final Map<SourceMetadata, SpawnSummaryStatistics> statisticsMap;
     @Getter
     private final Stopwatch stopwatch;
@@ -84,6 +95,16 @@ public class SpawnStatisticsRelay implements PokemonSpawnObserver {
                 .accept(pokemonSpawn);
     }
 
+    @Override
+    public synchronized void observeBatch(final List<PokemonSpawn> pokemonSpawns) {
+        pokemonSpawns.forEach(this::observe);
+    }
+
+    @Override
+    public ObserverLaneSettings getLaneSettings() {
+        return LANE_SETTINGS;
+    }
+
     /**
      * Relays latest spawn statistics and clears the internal states of this instance.
      */
@@ -0,0 +1,173 @@
+package pogo.assistance.data.exchange.spawn;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+/**
+ * Puts Bloom filters of spawn fingerprints in front of another (exact) duplicate detector. Spawns the filters have
+ * definitely not seen are new, so they're memorized by the exact detector without being looked up in it. Only spawns
+ * the filters may have seen go through the exact check, so a false positive costs an exact lookup, never a dropped
+ * spawn. Each spawn is encoded and hashed into its fingerprints once, which both the filters and the exact detector use.
+ *
+ * Filters are partitioned by spawn expiration in windows of fixed width. A spawn goes into the filter of the window its
+ * expiration falls in, and each filter is dropped once its window has passed, since all spawns in it have expired by
+ * then. That keeps the filters from filling up and their false positive rate from creeping up over time.
+ *
+ * Keeps counts of how spawns got through the filters, to tell whether they're sized right. See {@link #getHitRate()}
+ * and {@link #getFalsePositiveRate()}.
+ *
+ * @implNote
+ *      Same spawn checked by two threads at the exact same time can be taken as unique by both, since checking the
+ *      filters and memorizing in the exact detector are separate steps. Crawler de-duplication, where this can be
+ *      enabled, tolerates that as the exchange de-duplicates again.
+ */
+class BloomFilteredSpawnDeduplicator implements SpawnDeduplicator {
+
+    private final SpawnDeduplicator exactDeduplicator;
+    private final long windowSeconds;
+    private final int expectedInsertionsPerWindow;
+    private final double falsePositiveProbability;
+    /**
+     * Filters keyed by index of their expiration window, i.e. expiration epoch second divided by window width
+     */
+    private final ConcurrentNavigableMap<Long, BloomFilter<Long>> windowToFilter = new ConcurrentSkipListMap<>();
+
+    private final LongAdder checkedCount = new LongAdder();
+    private final LongAdder definitelyNewCount = new LongAdder();
+    private final LongAdder falsePositiveCount = new LongAdder();
+
+    /**
+     * @param window
+     *      Width of expiration windows. Spawns last an hour at most, so there are only a few filters at a time.
+     * @param expectedInsertionsPerWindow
+     *      Number of new spawns expected to expire in each window. Filters with more than this have a higher false
+     *      positive rate than asked for.
+     * @param falsePositiveProbability
+     *      Desired false positive rate of each filter
+     */
+    BloomFilteredSpawnDeduplicator(
+            final SpawnDeduplicator exactDeduplicator,
+            final Duration window,
+            final int expectedInsertionsPerWindow,
+            final double falsePositiveProbability) {
+        Preconditions.checkArgument(window.getSeconds() > 0, "Window must be at least a second wide");
+        this.exactDeduplicator = exactDeduplicator;
+        this.windowSeconds = window.getSeconds();
+        this.expectedInsertionsPerWindow = expectedInsertionsPerWindow;
+        this.falsePositiveProbability = falsePositiveProbability;
+    }
+
+    @Override
+    public boolean isUnique(final PokemonSpawn pokemonSpawn) {
+        final Instant now = Instant.now();
+        dropPassedWindows(now);
+        checkedCount.increment();
+        final long[] fingerprints = getDeduplicationMode().candidateFingerprintsOf(pokemonSpawn);
+        if (mightContainAny(fingerprints)) {
+            final boolean unique = exactDeduplicator.isUnique(pokemonSpawn, fingerprints);
+            if (unique) {
+                falsePositiveCount.increment();
+                filterOf(expirationOf(pokemonSpawn, now)).put(fingerprints[0]);
+            }
+            return unique;
+        }
+
+        definitelyNewCount.increment();
+        final Instant expiration = expirationOf(pokemonSpawn, now);
+        filterOf(expiration).put(fingerprints[0]);
+        exactDeduplicator.memorize(pokemonSpawn, fingerprints, expiration);
+        return true;
+    }
+
+    @Override
+    public boolean isKnown(final PokemonSpawn pokemonSpawn) {
+        final long[] fingerprints = getDeduplicationMode().candidateFingerprintsOf(pokemonSpawn);
+        return mightContainAny(fingerprints) && exactDeduplicator.isKnown(pokemonSpawn, fingerprints);
+    }
+
+    @Override
+    public void memorize(final PokemonSpawn pokemonSpawn, final Instant expiration) {
+        final long[] fingerprints = getDeduplicationMode().candidateFingerprintsOf(pokemonSpawn);
+        filterOf(expiration).put(fingerprints[0]);
+        exactDeduplicator.memorize(pokemonSpawn, fingerprints, expiration);
+    }
+
+    @Override
+    public SpawnDeduplicationMode getDeduplicationMode() {
+        return exactDeduplicator.getDeduplicationMode();
+    }
+
+    @Override
+    public int size() {
+        return exactDeduplicator.size();
+    }
+
+    /**
+     * @return
+     *      Fraction of checked spawns the filters took as definitely new, skipping the exact check
+     */
+    double getHitRate() {
+        final long checked = checkedCount.sum();
+        return checked == 0 ? 0 : (double) definitelyNewCount.sum() / checked;
+    }
+
+    /**
+     * @return
+     *      Fraction of new spawns the filters took as possibly seen. Should stay close to the false positive probability
+     *      the filters were created with; if it's well above, filters are undersized for the spawn volume.
+     */
+    double getFalsePositiveRate() {
+        final long falsePositives = falsePositiveCount.sum();
+        final long newSpawns = falsePositives + definitelyNewCount.sum();
+        return newSpawns == 0 ? 0 : (double) falsePositives / newSpawns;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "checked: %d, hit rate: %.3f, false positive rate: %.4f (target %.4f), filters: %d, approximate spawns per filter: %s",
+                checkedCount.sum(),
+                getHitRate(),
+                getFalsePositiveRate(),
+                falsePositiveProbability,
+                windowToFilter.size(),
+                windowToFilter.values().stream().map(BloomFilter::approximateElementCount).collect(Collectors.toList()));
+    }
+
+    private boolean mightContainAny(final long[] fingerprints) {
+        for (final BloomFilter<Long> filter : windowToFilter.values()) {
+            for (final long fingerprint : fingerprints) {
+                if (filter.mightContain(fingerprint)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private BloomFilter<Long> filterOf(final Instant expiration) {
+        return windowToFilter.computeIfAbsent(
+                Math.floorDiv(expiration.getEpochSecond(), windowSeconds),
+                __ -> BloomFilter.create(Funnels.longFunnel(), expectedInsertionsPerWindow, falsePositiveProbability));
+    }
+
+    private void dropPassedWindows(final Instant now) {
+        // Window of the current time is still needed for spawns expiring later in it
+        windowToFilter.headMap(Math.floorDiv(now.getEpochSecond(), windowSeconds)).clear();
+    }
+
+    private static Instant expirationOf(final PokemonSpawn pokemonSpawn, final Instant now) {
+        // Set expiration to despawn time or a default TTL offset from current time
+        return pokemonSpawn.getDespawnTime().orElseGet(() -> now.plus(SpawnDeduplicator.DEFAULT_SPAWN_TTL));
+    }
+
+}
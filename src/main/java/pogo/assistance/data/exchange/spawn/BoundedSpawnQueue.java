@@ -0,0 +1,427 @@
+package pogo.assistance.data.exchange.spawn;
+
+import java.time.Duration;
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+/**
+ * Bounded {@link BlockingQueue} of spawns, backed by preallocated {@link SpawnRingBuffer}s. What happens when a spawn
+ * is put into a full queue is decided by the {@link SpawnOverflowPolicy}.
+ *
+ * Optionally, the queue can be priority aware. Then each spawn is put in the ring of its {@link SpawnPriority}, as
+ * decided by a {@link SpawnPriorityClassifier}, and spawns of higher priority are taken first. To keep lower priority
+ * spawns from starving, the longest waiting spawn is taken ahead of higher priority ones once it has waited past the
+ * starvation threshold. Starving spawns only get every other take though, so higher priority spawns never wait behind
+ * more than one of them.
+ *
+ * @implNote
+ *      {@link #put(PokemonSpawn)} is what the exchange uses and it honors the overflow policy. {@link #offer(PokemonSpawn)}
+ *      also honors the dropping policies, but with {@link SpawnOverflowPolicy#BLOCK_PRODUCER} it keeps the usual
+ *      {@link BlockingQueue} contract of returning false when full.
+ */
+@Slf4j
+class BoundedSpawnQueue extends AbstractQueue<PokemonSpawn> implements BlockingQueue<PokemonSpawn> {
+
+    static final Duration DEFAULT_STARVATION_THRESHOLD = Duration.ofSeconds(10);
+
+    /**
+     * Queue without a classifier puts everything in this ring.
+     */
+    static final SpawnPriorityClassifier SINGLE_LANE = __ -> SpawnPriority.NORMAL;
+    private static final SpawnPriority[] PRIORITIES = SpawnPriority.values();
+
+    private final int capacityPerPriority;
+    @Getter
+    private final SpawnOverflowPolicy overflowPolicy;
+    private final SpawnPriorityClassifier priorityClassifier;
+    private final long starvationThresholdNanos;
+    /**
+     * Gets every spawn discarded due to overflow, be it a queued one or the one being put
+     */
+    private final Consumer<PokemonSpawn> droppedSpawnConsumer;
+    /**
+     * Ring per {@link SpawnPriority}, indexed by ordinal. All are allocated up front, except for queues without a
+     * classifier, which only have the ring of {@link SpawnPriority#NORMAL}.
+     */
+    private final SpawnRingBuffer[] rings = new SpawnRingBuffer[PRIORITIES.length];
+    private int count = 0;
+    /**
+     * Whether last take was of a starving spawn rather than the highest priority one.
+     */
+    private boolean lastTakeWasStarving = false;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    /**
+     * Number of times a spawn was put while its ring was full.
+     */
+    private final AtomicLong overflowCount = new AtomicLong();
+    /**
+     * Number of spawns discarded due to overflow. Always zero with {@link SpawnOverflowPolicy#BLOCK_PRODUCER}.
+     */
+    private final AtomicLong droppedCount = new AtomicLong();
+    /**
+     * How long spawns of each priority waited in this queue before being taken.
+     */
+    @Getter
+    private final Map<SpawnPriority, SpawnLatencyStats> waitTimeStats;
+
+    BoundedSpawnQueue(final int capacity, @NonNull final SpawnOverflowPolicy overflowPolicy) {
+        this(capacity, overflowPolicy, SINGLE_LANE, DEFAULT_STARVATION_THRESHOLD);
+    }
+
+    /**
+     * @param capacityPerPriority
+     *      Capacity of the ring for each priority. Each priority overflows independently, so a flood of low priority
+     *      spawns never pushes out high priority ones.
+     * @param starvationThreshold
+     *      Spawns waiting longer than this are taken ahead of higher priority spawns
+     */
+    BoundedSpawnQueue(
+            final int capacityPerPriority,
+            @NonNull final SpawnOverflowPolicy overflowPolicy,
+            @NonNull final SpawnPriorityClassifier priorityClassifier,
+            @NonNull final Duration starvationThreshold) {
+        this(capacityPerPriority, overflowPolicy, priorityClassifier, starvationThreshold, __ -> {});
+    }
+
+    /**
+     * @param droppedSpawnConsumer
+     *      Called with every spawn discarded due to overflow, while holding the queue's lock. Must not block.
+     */
+    BoundedSpawnQueue(
+            final int capacityPerPriority,
+            @NonNull final SpawnOverflowPolicy overflowPolicy,
+            @NonNull final SpawnPriorityClassifier priorityClassifier,
+            @NonNull final Duration starvationThreshold,
+            @NonNull final Consumer<PokemonSpawn> droppedSpawnConsumer) {
+        Preconditions.checkArgument(capacityPerPriority > 0, "Capacity must be positive, but was %s", capacityPerPriority);
+        this.capacityPerPriority = capacityPerPriority;
+        this.overflowPolicy = overflowPolicy;
+        this.priorityClassifier = priorityClassifier;
+        this.starvationThresholdNanos = starvationThreshold.toNanos();
+        this.droppedSpawnConsumer = droppedSpawnConsumer;
+        for (final SpawnPriority priority : PRIORITIES) {
+            if (priorityClassifier != SINGLE_LANE || priority == SpawnPriority.NORMAL) {
+                rings[priority.ordinal()] = new SpawnRingBuffer(capacityPerPriority);
+            }
+        }
+        this.waitTimeStats = new EnumMap<>(SpawnPriority.class);
+        for (final SpawnPriority priority : PRIORITIES) {
+            waitTimeStats.put(priority, new SpawnLatencyStats());
+        }
+    }
+
+    long getOverflowCount() {
+        return overflowCount.get();
+    }
+
+    long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    @Override
+    public void put(@NonNull final PokemonSpawn pokemonSpawn) throws InterruptedException {
+        final SpawnPriority priority = priorityClassifier.classify(pokemonSpawn);
+        lock.lockInterruptibly();
+        try {
+            final SpawnRingBuffer ring = ringOf(priority);
+            if (ring.isFull() && overflowPolicy == SpawnOverflowPolicy.BLOCK_PRODUCER) {
+                overflowCount.incrementAndGet();
+                while (ring.isFull()) {
+                    notFull.await();
+                }
+            }
+            enqueue(ring, pokemonSpawn);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(@NonNull final PokemonSpawn pokemonSpawn) {
+        final SpawnPriority priority = priorityClassifier.classify(pokemonSpawn);
+        lock.lock();
+        try {
+            final SpawnRingBuffer ring = ringOf(priority);
+            if (ring.isFull() && overflowPolicy == SpawnOverflowPolicy.BLOCK_PRODUCER) {
+                overflowCount.incrementAndGet();
+                return false;
+            }
+            enqueue(ring, pokemonSpawn);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(@NonNull final PokemonSpawn pokemonSpawn, final long timeout, final TimeUnit unit)
+            throws InterruptedException {
+        final SpawnPriority priority = priorityClassifier.classify(pokemonSpawn);
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            final SpawnRingBuffer ring = ringOf(priority);
+            if (ring.isFull() && overflowPolicy == SpawnOverflowPolicy.BLOCK_PRODUCER) {
+                overflowCount.incrementAndGet();
+                while (ring.isFull()) {
+                    if (nanos <= 0) {
+                        return false;
+                    }
+                    nanos = notFull.awaitNanos(nanos);
+                }
+            }
+            enqueue(ring, pokemonSpawn);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public PokemonSpawn take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                notEmpty.await();
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public PokemonSpawn poll(final long timeout, final TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public PokemonSpawn poll() {
+        lock.lock();
+        try {
+            return count == 0 ? null : dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public PokemonSpawn peek() {
+        lock.lock();
+        try {
+            return count == 0 ? null : selectRingToTake(System.nanoTime()).peekFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return
+     *      Total remaining capacity across all priorities. A spawn can still overflow if its own priority is full.
+     */
+    @Override
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return capacityPerPriority * (priorityClassifier == SINGLE_LANE ? 1 : rings.length) - count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(final Collection<? super PokemonSpawn> collection) {
+        return drainTo(collection, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(@NonNull final Collection<? super PokemonSpawn> collection, final int maxElements) {
+        Preconditions.checkArgument(collection != this, "Cannot drain queue into itself");
+        lock.lock();
+        try {
+            int drained = 0;
+            while (drained < maxElements && count > 0) {
+                collection.add(dequeue());
+                drained++;
+            }
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            for (final SpawnRingBuffer ring : rings) {
+                if (ring != null) {
+                    ring.clear();
+                }
+            }
+            count = 0;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return
+     *      Iterator over a snapshot of the queue, in priority order. It doesn't support removal and doesn't reflect
+     *      later modifications.
+     */
+    @Override
+    public Iterator<PokemonSpawn> iterator() {
+        lock.lock();
+        try {
+            final List<PokemonSpawn> snapshot = new ArrayList<>(count);
+            for (final SpawnRingBuffer ring : rings) {
+                if (ring != null) {
+                    snapshot.addAll(ring.toList());
+                }
+            }
+            return Collections.unmodifiableList(snapshot).iterator();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private SpawnRingBuffer ringOf(final SpawnPriority priority) {
+        return rings[priority.ordinal()];
+    }
+
+    /**
+     * Adds the spawn to the tail of its ring, making room for it first if the ring is full and the policy allows
+     * dropping. Must be called while holding the {@link #lock}.
+     */
+    private void enqueue(final SpawnRingBuffer ring, final PokemonSpawn pokemonSpawn) {
+        if (ring.isFull()) {
+            overflowCount.incrementAndGet();
+            droppedCount.incrementAndGet();
+            switch (overflowPolicy) {
+                case DROP_OLDEST:
+                    final PokemonSpawn oldest = ring.removeFirst();
+                    log.trace("Spawn queue full. Dropping oldest spawn: {}", oldest);
+                    droppedSpawnConsumer.accept(oldest);
+                    break;
+                case DROP_LOWEST_VALUE:
+                    // One scan for the lowest value spawn, since the ring can be long and we're holding the lock
+                    final int lowestQueuedOffset = ring.minOffset(SpawnValue.COMPARATOR);
+                    if (SpawnValue.COMPARATOR.compare(pokemonSpawn, ring.get(lowestQueuedOffset)) <= 0) {
+                        log.trace("Spawn queue full. Dropping offered spawn: {}", pokemonSpawn);
+                        droppedSpawnConsumer.accept(pokemonSpawn);
+                        return;
+                    }
+                    final PokemonSpawn lowestQueued = ring.removeAt(lowestQueuedOffset);
+                    log.trace("Spawn queue full. Dropping lowest value spawn: {}", lowestQueued);
+                    droppedSpawnConsumer.accept(lowestQueued);
+                    break;
+                default:
+                    throw new IllegalStateException("Cannot enqueue to a full queue with policy " + overflowPolicy);
+            }
+            count--;
+        }
+        ring.addLast(pokemonSpawn, System.nanoTime());
+        count++;
+        notEmpty.signal();
+    }
+
+    /**
+     * Must be called while holding the {@link #lock}, on a non-empty queue.
+     */
+    private PokemonSpawn dequeue() {
+        final long now = System.nanoTime();
+        final SpawnRingBuffer ring = selectRingToTake(now);
+        lastTakeWasStarving = ring != highestPriorityRing();
+        final long waitNanos = now - ring.peekFirstEnqueueNanos();
+        final PokemonSpawn pokemonSpawn = ring.removeFirst();
+        count--;
+        waitTimeStats.get(priorityOf(ring)).record(waitNanos);
+        // Producers may be waiting on different rings, so wake them all up to check their own
+        notFull.signalAll();
+        return pokemonSpawn;
+    }
+
+    /**
+     * Picks the ring with the spawn that has waited the longest if that spawn is past the starvation threshold and the
+     * last take wasn't of a starving spawn. Otherwise picks the highest priority non-empty ring.
+     */
+    private SpawnRingBuffer selectRingToTake(final long now) {
+        final SpawnRingBuffer highestPriority = highestPriorityRing();
+        if (lastTakeWasStarving) {
+            return highestPriority;
+        }
+        SpawnRingBuffer longestWaiting = highestPriority;
+        for (final SpawnRingBuffer ring : rings) {
+            if (ring != null && !ring.isEmpty()
+                    && ring.peekFirstEnqueueNanos() - longestWaiting.peekFirstEnqueueNanos() < 0) {
+                longestWaiting = ring;
+            }
+        }
+        return now - longestWaiting.peekFirstEnqueueNanos() > starvationThresholdNanos ? longestWaiting : highestPriority;
+    }
+
+    private SpawnRingBuffer highestPriorityRing() {
+        for (final SpawnRingBuffer ring : rings) {
+            if (ring != null && !ring.isEmpty()) {
+                return ring;
+            }
+        }
+        throw new IllegalStateException("No spawn in queue");
+    }
+
+    private SpawnPriority priorityOf(final SpawnRingBuffer ring) {
+        for (int i = 0; i < rings.length; i++) {
+            if (rings[i] == ring) {
+                return PRIORITIES[i];
+            }
+        }
+        throw new IllegalArgumentException("Ring doesn't belong to this queue");
+    }
+
+}
@@ -0,0 +1,173 @@
+package pogo.assistance.data.exchange.spawn;
+
+import java.time.Instant;
+import java.util.concurrent.locks.Lock;
+import javax.annotation.Nullable;
+
+import com.google.common.primitives.Longs;
+import com.google.common.util.concurrent.Striped;
+import lombok.Getter;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+/**
+ * Duplicate detector remembering spawns only by their 64 bit fingerprint and expiration in epoch seconds, kept in a
+ * {@link SpawnFingerprintTable}. Takes a small fraction of the memory of detectors keeping spawn objects (or boxed keys)
+ * and {@link Instant}s in a map, and creates no garbage per remembered spawn.
+ *
+ * Optionally also remembers which source reported each spawn first, counting who repeats whom in a
+ * {@link SourceOverlapMatrix}.
+ *
+ * @implNote
+ *      With fuzzy deduplication, a check looks up the fingerprints of the neighbouring cells before inserting the one of
+ *      the spawn's own cell. Near duplicates share each other's fingerprints among their candidates, so holding the lock
+ *      stripes of all candidates during the check makes it atomic against any near duplicate checked at the same time.
+ */
+class CompactSpawnDuplicateDetector implements SpawnDeduplicator {
+
+    private static final int SEGMENT_COUNT = 16;
+    private static final int INITIAL_SEGMENT_CAPACITY = 1024;
+    private static final int LOCK_STRIPE_COUNT = 64;
+
+    @Getter
+    private final SpawnDeduplicationMode deduplicationMode;
+    private final SpawnFingerprintTable fingerprintTable;
+    /**
+     * XORed into all fingerprints, so detectors sharing a table don't see each other's spawns
+     */
+    private final long salt;
+    @Nullable
+    private final SourceOverlapMatrix sourceOverlap;
+    /**
+     * Guards lookup and insert of multiple candidate fingerprints. Not needed with a single candidate, since the table
+     * inserts it atomically.
+     */
+    private final Striped<Lock> fingerprintLocks = Striped.lock(LOCK_STRIPE_COUNT);
+
+    CompactSpawnDuplicateDetector(final SpawnDeduplicationMode deduplicationMode) {
+        this(deduplicationMode, new SpawnFingerprintTable(SEGMENT_COUNT, INITIAL_SEGMENT_CAPACITY), 0, null);
+    }
+
+    /**
+     * @param fingerprintTable
+     *      Table to remember spawns in, possibly shared with other detectors
+     * @param salt
+     *      Different for each detector sharing the table
+     * @param sourceOverlap
+     *      Where to count duplicates by first and repeating source, if anywhere
+     */
+    CompactSpawnDuplicateDetector(
+            final SpawnDeduplicationMode deduplicationMode,
+            final SpawnFingerprintTable fingerprintTable,
+            final long salt,
+            @Nullable final SourceOverlapMatrix sourceOverlap) {
+        this.deduplicationMode = deduplicationMode;
+        this.fingerprintTable = fingerprintTable;
+        this.salt = salt;
+        this.sourceOverlap = sourceOverlap;
+    }
+
+    @Override
+    public boolean isUnique(final PokemonSpawn pokemonSpawn) {
+        return isUnique(pokemonSpawn, deduplicationMode.candidateFingerprintsOf(pokemonSpawn));
+    }
+
+    @Override
+    public boolean isUnique(final PokemonSpawn pokemonSpawn, final long[] fingerprints) {
+        final long now = Instant.now().getEpochSecond();
+        if (fingerprints.length == 1) {
+            return checkAndInsert(pokemonSpawn, fingerprints, now);
+        }
+        final Iterable<Lock> locks = fingerprintLocks.bulkGet(Longs.asList(fingerprints));
+        locks.forEach(Lock::lock);
+        try {
+            return checkAndInsert(pokemonSpawn, fingerprints, now);
+        } finally {
+            locks.forEach(Lock::unlock);
+        }
+    }
+
+    private boolean checkAndInsert(final PokemonSpawn pokemonSpawn, final long[] fingerprints, final long now) {
+        for (int i = 1; i < fingerprints.length; i++) {
+            final int attribution = fingerprintTable.get(fingerprints[i] ^ salt, now);
+            if (attribution != SpawnFingerprintTable.ABSENT) {
+                recordOverlap(attribution, pokemonSpawn, now);
+                return false;
+            }
+        }
+        // Set expiration to despawn time or a default TTL offset from current time
+        final long expiration = pokemonSpawn.getDespawnTime()
+                .map(Instant::getEpochSecond)
+                .orElse(now + SpawnDeduplicator.DEFAULT_SPAWN_TTL.getSeconds());
+        final int attribution = fingerprintTable.putIfAbsentOrGet(
+                fingerprints[0] ^ salt, expiration, attributionOf(pokemonSpawn, now), now);
+        if (attribution != SpawnFingerprintTable.ABSENT) {
+            recordOverlap(attribution, pokemonSpawn, now);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isKnown(final PokemonSpawn pokemonSpawn) {
+        return isKnown(pokemonSpawn, deduplicationMode.candidateFingerprintsOf(pokemonSpawn));
+    }
+
+    @Override
+    public boolean isKnown(final PokemonSpawn pokemonSpawn, final long[] fingerprints) {
+        final long now = Instant.now().getEpochSecond();
+        for (final long fingerprint : fingerprints) {
+            if (fingerprintTable.contains(fingerprint ^ salt, now)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void memorize(final PokemonSpawn pokemonSpawn, final Instant expiration) {
+        memorize(pokemonSpawn, deduplicationMode.candidateFingerprintsOf(pokemonSpawn), expiration);
+    }
+
+    @Override
+    public void memorize(final PokemonSpawn pokemonSpawn, final long[] fingerprints, final Instant expiration) {
+        final long now = Instant.now().getEpochSecond();
+        final long fingerprint = fingerprints[0];
+        // Takes the stripe a concurrent check of a near duplicate would also hold while looking this fingerprint up
+        final Lock lock = fingerprintLocks.get(fingerprint);
+        lock.lock();
+        try {
+            fingerprintTable.putIfAbsentOrGet(fingerprint ^ salt, expiration.getEpochSecond(), attributionOf(pokemonSpawn, now), now);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return
+     *      Number of remembered spawns, including expired ones whose memory hasn't been reclaimed yet. Includes spawns of
+     *      other detectors sharing the table.
+     */
+    @Override
+    public int size() {
+        return fingerprintTable.size();
+    }
+
+    private int attributionOf(final PokemonSpawn pokemonSpawn, final long now) {
+        return sourceOverlap == null ? 0 : sourceOverlap.attributionOf(pokemonSpawn.getSourceMetadata().sourceName(), now);
+    }
+
+    private void recordOverlap(final int attribution, final PokemonSpawn pokemonSpawn, final long now) {
+        if (sourceOverlap != null) {
+            sourceOverlap.record(attribution, pokemonSpawn.getSourceMetadata().sourceName(), now);
+        }
+    }
+
+    /**
+     * @return
+     *      Bytes taken by the fingerprint table
+     */
+    long getTableBytes() {
+        return fingerprintTable.capacity() * SpawnFingerprintTable.BYTES_PER_SLOT;
+    }
+
+}
@@ -0,0 +1,114 @@
+package pogo.assistance.data.exchange.spawn;
+
+import com.google.common.base.Verify;
+import io.jenetics.jpx.Point;
+import lombok.experimental.UtilityClass;
+import pogo.assistance.data.model.pokemon.PokedexEntry;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+/**
+ * Compact 64 bit keys identifying a spawn regardless of which source reported it. Made out of:
+ *  - Identity of the spawn: dex ID, gender, forms, IV rounded to whole percent and CP. Level is left out since it
+ *    follows from the rest. Despawn time, location description and source are left out since sources disagree on them.
+ *  - The {@link #CELL_SIZE_DEGREES} sized lat/lon grid cell the spawn is in
+ *
+ * Sources round coordinates differently, so the same spawn can land on either side of a cell border. To catch those,
+ * a spawn is matched against the keys of its own cell and all 8 neighbouring cells ({@link #candidateKeysOf}). Result
+ * is that spawns with the same identity less than one cell apart are always matched, and ones more than two cells apart
+ * never are.
+ *
+ * Identity and cell are hashed together into the key, so different spawns can in theory collide and be taken as
+ * duplicates. With 64 bit keys and tens of thousands of spawns remembered at a time, odds of that are negligible.
+ */
+@UtilityClass
+class FuzzySpawnKey {
+
+    /**
+     * About 22 m along latitude (less along longitude away from the equator). Differences in rounding between sources
+     * are well within this, while two different spawns of the same Pokemon with the same IV and CP this close to each
+     * other are rare.
+     */
+    static final double CELL_SIZE_DEGREES = 0.0002;
+
+    private static final int IV_ABSENT = 127;
+    private static final int CP_ABSENT = (1 << 13) - 1;
+
+    static {
+        // Forms are keyed by a bitmask of their ordinals
+        Verify.verify(PokedexEntry.Form.values().length <= Long.SIZE, "Too many forms to fit in a bitmask");
+    }
+
+    /**
+     * @return
+     *      Key of the cell the spawn is in, i.e. what to remember the spawn by
+     */
+    static long keyOf(final PokemonSpawn pokemonSpawn) {
+        return keyOf(identityOf(pokemonSpawn), rowOf(pokemonSpawn), columnOf(pokemonSpawn));
+    }
+
+    /**
+     * @return
+     *      Keys of the cell the spawn is in and all its neighbours, i.e. what to look up when checking if the spawn has
+     *      been seen before. The spawn's own {@link #keyOf key} comes first.
+     */
+    static long[] candidateKeysOf(final PokemonSpawn pokemonSpawn) {
+        final long identity = identityOf(pokemonSpawn);
+        final long row = rowOf(pokemonSpawn);
+        final long column = columnOf(pokemonSpawn);
+        final long[] keys = new long[9];
+        keys[0] = keyOf(identity, row, column);
+        int index = 1;
+        for (int rowOffset = -1; rowOffset <= 1; rowOffset++) {
+            for (int columnOffset = -1; columnOffset <= 1; columnOffset++) {
+                if (rowOffset != 0 || columnOffset != 0) {
+                    keys[index++] = keyOf(identity, row + rowOffset, column + columnOffset);
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Packs the identity fields other than forms into the lower 33 bits: 11 bits of dex ID, 2 bits of gender, 7 bits of
+     * IV and 13 bits of CP. Forms are too many to pack, so their bitmask is mixed in instead.
+     */
+    private static long identityOf(final PokemonSpawn pokemonSpawn) {
+        final PokedexEntry pokedexEntry = pokemonSpawn.getPokedexEntry();
+        long forms = 0;
+        for (final PokedexEntry.Form form : pokedexEntry.getForms()) {
+            // Order independent, since sources may list forms in any order
+            forms |= 1L << form.ordinal();
+        }
+        final int iv = pokemonSpawn.getIv().map(value -> (int) Math.round(value)).orElse(IV_ABSENT);
+        final int cp = pokemonSpawn.getCp().map(value -> Math.min(value, CP_ABSENT - 1)).orElse(CP_ABSENT);
+
+        long identity = pokedexEntry.getId() & 0x7FF;
+        identity = (identity << 2) | (pokedexEntry.getGender().ordinal() & 0x3);
+        identity = (identity << 7) | (iv & 0x7F);
+        identity = (identity << 13) | (cp & CP_ABSENT);
+        return identity ^ mix(forms);
+    }
+
+    private static long rowOf(final Point point) {
+        return (long) Math.floor(point.getLatitude().toDegrees() / CELL_SIZE_DEGREES);
+    }
+
+    private static long columnOf(final Point point) {
+        return (long) Math.floor(point.getLongitude().toDegrees() / CELL_SIZE_DEGREES);
+    }
+
+    private static long keyOf(final long identity, final long row, final long column) {
+        return mix(identity ^ mix((row << 32) ^ (column & 0xFFFFFFFFL)));
+    }
+
+    /**
+     * Finalizer of the SplitMix64 generator. Bijective, so distinct inputs never collide.
+     */
+    private static long mix(final long value) {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+}
@@ -0,0 +1,52 @@
+package pogo.assistance.data.exchange.spawn;
+
+import java.util.Objects;
+
+import com.google.common.base.Preconditions;
+import io.jenetics.jpx.Point;
+
+/**
+ * Picks the exchange shard of a spawn by the coarse lat/lon grid cell it's in. All spawns within a cell land on the same
+ * shard.
+ */
+class GeoShardSelector {
+
+    /**
+     * About 111 km along latitude. Large enough that a single source's area rarely spans many cells, small enough that
+     * busy regions don't all collapse into a handful of cells.
+     */
+    static final double DEFAULT_CELL_SIZE_DEGREES = 1.0;
+
+    private final int shardCount;
+    private final double cellSizeDegrees;
+
+    GeoShardSelector(final int shardCount, final double cellSizeDegrees) {
+        Preconditions.checkArgument(shardCount > 0, "Shard count must be positive, but was %s", shardCount);
+        Preconditions.checkArgument(cellSizeDegrees > 0, "Cell size must be positive, but was %s", cellSizeDegrees);
+        this.shardCount = shardCount;
+        this.cellSizeDegrees = cellSizeDegrees;
+    }
+
+    int getShardCount() {
+        return shardCount;
+    }
+
+    int shardOf(final Point point) {
+        if (shardCount == 1) {
+            return 0;
+        }
+        return shardOf(
+                cellOf(point.getLatitude().toDegrees()),
+                cellOf(point.getLongitude().toDegrees()));
+    }
+
+
+    private long cellOf(final double degrees) {
+        return (long) Math.floor(degrees / cellSizeDegrees);
+    }
+
+    private int shardOf(final long row, final long column) {
+        return Math.floorMod(Objects.hash(row, column), shardCount);
+    }
+
+}
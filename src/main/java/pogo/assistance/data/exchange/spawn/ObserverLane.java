@@ -0,0 +1,194 @@
+package pogo.assistance.data.exchange.spawn;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.google.common.base.Verify;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.RateLimiter;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+/**
+ * Isolated dispatch lane of a single {@link PokemonSpawnObserver}. Spawns are queued in the lane's own bounded backlog
+ * and the lane's own threads pass them on to the observer.
+ */
+@Slf4j
+class ObserverLane {
+
+    /**
+     * At most one warning per lane this often about spawns dropped from a full backlog, so a stalled observer doesn't
+     * flood the log.
+     */
+    private static final Duration DROP_WARNING_INTERVAL = Duration.ofMinutes(1);
+
+    /**
+     * Unique among the lanes of an exchange, so metrics keyed by it are per observer
+     */
+    @Getter
+    private final String name;
+    private final PokemonSpawnObserver observer;
+    private final BoundedSpawnQueue backlog;
+    private final List<Thread> workers;
+    private final int maxBatchSize;
+    private final long batchWindowNanos;
+
+    private final AtomicLong observedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final RateLimiter dropWarningLimiter = RateLimiter.create(1.0 / DROP_WARNING_INTERVAL.getSeconds());
+
+    ObserverLane(final PokemonSpawnObserver observer, final String name) {
+        final ObserverLaneSettings settings = observer.getLaneSettings();
+        this.name = name;
+        this.observer = observer;
+        this.backlog = settings.priorityClassifier()
+                .map(classifier -> new BoundedSpawnQueue(
+                        settings.backlogCapacity(),
+                        settings.overflowPolicy(),
+                        classifier,
+                        BoundedSpawnQueue.DEFAULT_STARVATION_THRESHOLD))
+                .orElseGet(() -> new BoundedSpawnQueue(settings.backlogCapacity(), settings.overflowPolicy()));
+        this.maxBatchSize = settings.maxBatchSize();
+        this.batchWindowNanos = settings.batchWindow().toNanos();
+        this.workers = IntStream.range(0, settings.concurrency())
+                .mapToObj(index -> {
+                    final Thread worker = new Thread(this::observeBacklog);
+                    worker.setName(String.format("pokemon-spawn-observer-%s-%d", name, index));
+                    worker.setDaemon(true);
+                    return worker;
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return
+     *      Lane of each observer, named after the observer's class. Observers of the same class are told apart by a
+     *      numeric suffix.
+     */
+    static List<ObserverLane> lanesOf(final Collection<? extends PokemonSpawnObserver> observers) {
+        final Map<String, Long> classNameCounts = observers.stream()
+                .collect(Collectors.groupingBy(observer -> observer.getClass().getSimpleName(), Collectors.counting()));
+        final Map<String, Integer> classNameIndexes = new HashMap<>();
+        return observers.stream()
+                .map(observer -> {
+                    final String className = observer.getClass().getSimpleName();
+                    final String name = classNameCounts.get(className) == 1
+                            ? className
+                            : String.format("%s-%d", className, classNameIndexes.merge(className, 1, Integer::sum));
+                    return new ObserverLane(observer, name);
+                })
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    void start() {
+        workers.forEach(Thread::start);
+    }
+
+    /**
+     * Queues the spawn for the observer. Doesn't block unless the lane's overflow policy is to block.
+     */
+    void dispatch(final PokemonSpawn pokemonSpawn) throws InterruptedException {
+        Verify.verify(workers.stream().anyMatch(Thread::isAlive), "Dispatching to lane %s with no running worker", name);
+        final long droppedBefore = backlog.getDroppedCount();
+        backlog.put(pokemonSpawn);
+        if (backlog.getDroppedCount() > droppedBefore && dropWarningLimiter.tryAcquire()) {
+            log.warn("Observer lane {} has a full backlog. Dropped {} spawn(s) so far.", name, backlog.getDroppedCount());
+        }
+    }
+
+    void shutdown() {
+        workers.forEach(Thread::interrupt);
+    }
+
+    /**
+     * @return
+     *      Number of spawns waiting to be observed
+     */
+    int getBacklogSize() {
+        return backlog.size();
+    }
+
+    long getDroppedCount() {
+        return backlog.getDroppedCount();
+    }
+
+    /**
+     * @return
+     *      How long spawns of each priority waited in this lane's backlog before being observed
+     */
+    Map<SpawnPriority, SpawnLatencyStats> getWaitTimeStats() {
+        return backlog.getWaitTimeStats();
+    }
+
+    long getObservedCount() {
+        return observedCount.get();
+    }
+
+    long getFailedCount() {
+        return failedCount.get();
+    }
+
+    private void observeBacklog() {
+        while (!Thread.currentThread().isInterrupted()) {
+            final List<PokemonSpawn> batch;
+            try {
+                batch = takeBatch();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            try {
+                observer.observeBatch(batch);
+                observedCount.addAndGet(batch.size());
+            } catch (final RuntimeException e) {
+                failedCount.addAndGet(batch.size());
+                log.error(String.format("%s failed to observe batch of %d spawn(s): %s", name, batch.size(), batch), e);
+            }
+        }
+        log.info("Observer lane {} stopping with {} spawn(s) in backlog", name, backlog.size());
+    }
+
+    /**
+     * Blocks until there's at least one spawn in the backlog, then collects up to {@link #maxBatchSize} spawns,
+     * waiting for at most {@link #batchWindowNanos} for the batch to fill up.
+     */
+    private List<PokemonSpawn> takeBatch() throws InterruptedException {
+        final PokemonSpawn first = backlog.take();
+        if (maxBatchSize == 1) {
+            return Collections.singletonList(first);
+        }
+
+        final List<PokemonSpawn> batch = new ArrayList<>(maxBatchSize);
+        batch.add(first);
+        final long deadline = System.nanoTime() + batchWindowNanos;
+        while (batch.size() < maxBatchSize) {
+            if (backlog.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                continue;
+            }
+            final PokemonSpawn next = backlog.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (backlog: %d, observed: %d, failed: %d, dropped: %d)",
+                name, getBacklogSize(), getObservedCount(), getFailedCount(), getDroppedCount());
+    }
+
+}
@@ -0,0 +1,77 @@
+package pogo.assistance.data.exchange.spawn;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.immutables.value.Value;
+
+/**
+ * Settings for the dispatch lane of a single {@link PokemonSpawnObserver}. Each observer gets its own lane, so a slow
+ * observer only builds up its own backlog and doesn't hold up spawns going to other observers.
+ */
+@Value.Immutable
+public interface ObserverLaneSettings {
+
+    ObserverLaneSettings DEFAULT = ImmutableObserverLaneSettings.builder().build();
+
+    /**
+     * Number of threads calling the observer. With a single thread the observer sees spawns in the order they were
+     * dispatched and never gets called concurrently. With more, ordering isn't guaranteed.
+     */
+    @Value.Default
+    default int concurrency() {
+        return 1;
+    }
+
+    /**
+     * Max number of spawns that can be waiting for the observer.
+     */
+    @Value.Default
+    default int backlogCapacity() {
+        return 1000;
+    }
+
+    /**
+     * What to do with spawns dispatched while the backlog is full. Blocking would hold up all other observers, so
+     * prefer one of the dropping policies.
+     */
+    @Value.Default
+    default SpawnOverflowPolicy overflowPolicy() {
+        return SpawnOverflowPolicy.DROP_OLDEST;
+    }
+
+    /**
+     * Max number of spawns passed to a single {@link PokemonSpawnObserver#observeBatch(java.util.List)} call. With the
+     * default of one, observers get spawns one at a time.
+     */
+    @Value.Default
+    default int maxBatchSize() {
+        return 1;
+    }
+
+    /**
+     * How long a lane waits for more spawns to fill up a batch, counted from when the first spawn of the batch is
+     * picked up. Spawns already waiting in the backlog are always batched together, without any waiting.
+     */
+    @Value.Default
+    default Duration batchWindow() {
+        return Duration.ZERO;
+    }
+
+    /**
+     * When present, the backlog is priority aware: spawns are classified by this and higher priority spawns are
+     * observed first. Otherwise the backlog is plain FIFO.
+     */
+    Optional<SpawnPriorityClassifier> priorityClassifier();
+
+    @Value.Check
+    default void check() {
+        if (concurrency() < 1 || backlogCapacity() < 1 || maxBatchSize() < 1) {
+            throw new IllegalStateException("Lane concurrency, backlog capacity and batch size must be positive: " + this);
+        }
+        if (batchWindow().isNegative()) {
+            throw new IllegalStateException("Lane batch window can't be negative: " + this);
+        }
+    }
+
+}
@@ -1,48 +1,150 @@
 package pogo.assistance.data.exchange.spawn;
 
 import java.io.Closeable;
+import java.io.IOException;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.annotation.Nullable;
 import javax.inject.Singleton;
 
 import com.google.common.base.Verify;
-import com.google.common.util.concurrent.UncaughtExceptionHandlers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import pogo.assistance.data.model.pokemon.PokemonSpawn;
 
 @Singleton
 @Slf4j
-@RequiredArgsConstructor
-public class PokemonSpawnExchange implements Closeable {
+public class PokemonSpawnExchange implements PokemonSpawnSink, Closeable {
 
     /**
-     * Internal queue where offered {@link PokemonSpawn}s are put. The {@link #pokemonSpawnObservers} consumes this
-     * queue by dispatching new spawn info to all spawn registered spawn observers.
+     * Namespace of offered spawns in the {@link SpawnDeduplicationService}
      */
-    private final BlockingQueue<PokemonSpawn> spawnQueue;
+    static final String DEDUPLICATION_NAMESPACE = "exchange";
 
-    private final SpawnDuplicateDetector spawnDuplicateDetector;
+    /**
+     * Lanes of all registered spawn observers, shared by all {@link #shards}.
+     */
+    private final List<ObserverLane> observerLanes;
 
-    private final PokemonSpawnObservers pokemonSpawnObservers;
-    private final Thread observerThread;
+    /**
+     * Each shard has its own queue where offered {@link PokemonSpawn}s of that shard are put, and a dispatcher thread
+     * consuming that queue by dispatching new spawn info to the {@link #observerLanes}.
+     */
+    private final List<SpawnExchangeShard> shards;
+    private final GeoShardSelector shardSelector;
+    /**
+     * Shared by all shards, so duplicates are caught across shard borders
+     */
+    private final SpawnDeduplicator spawnDuplicateDetector;
 
-    public PokemonSpawnExchange(final Set<PokemonSpawnObserver> observers) {
-        spawnDuplicateDetector = new SpawnDuplicateDetector();
-        spawnQueue = new LinkedBlockingQueue<>();
-        pokemonSpawnObservers = new PokemonSpawnObservers(observers, this.spawnQueue);
+    /**
+     * Optional write-ahead journal of offered and dispatched spawns. When present, state of the previous run is
+     * recovered from it on creation.
+     */
+    @Nullable
+    private final SpawnJournal spawnJournal;
 
-        // Kick off the observer thread
-        // TODO refactor this to use guava service?
-        observerThread = new Thread(this.pokemonSpawnObservers);
-        observerThread.setName("pokemon-spawn-observers");
-        observerThread.setUncaughtExceptionHandler(UncaughtExceptionHandlers.systemExit());
-        observerThread.start();
+    /**
+     * Creates exchange as per the settings. If a journal is given, it's replayed before the exchange takes any offer, so
+     * duplicates of spawns seen before a restart are still ignored and spawns that didn't get dispatched before the
+     * restart are dispatched.
+     *
+     * @param deduplicationService
+     *      Remembers offered spawns, in the {@link #DEDUPLICATION_NAMESPACE exchange's namespace}
+     * @param spawnJournal
+     *      Optional journal to replay and then append to. Should be freshly created, i.e. not yet replayed or started.
+     *      Closed along with the exchange.
+     */
+    public static PokemonSpawnExchange create(
+            final Set<PokemonSpawnObserver> observers,
+            @NonNull final PokemonSpawnExchangeSettings settings,
+            @NonNull final SpawnDeduplicationService deduplicationService,
+            @Nullable final SpawnJournal spawnJournal) {
+        final Supplier<BlockingQueue<PokemonSpawn>> spawnQueueFactory;
+        if (settings.queueCapacityPerPriority().isPresent()) {
+            spawnQueueFactory = () -> new BoundedSpawnQueue(
+                    settings.queueCapacityPerPriority().getAsInt(),
+                    settings.overflowPolicy(),
+                    settings.priorityClassifier().orElse(BoundedSpawnQueue.SINGLE_LANE),
+                    BoundedSpawnQueue.DEFAULT_STARVATION_THRESHOLD,
+                    acknowledgerOf(spawnJournal));
+        } else {
+            spawnQueueFactory = LinkedBlockingQueue::new;
+        }
+        return new PokemonSpawnExchange(
+                observers,
+                new GeoShardSelector(settings.shardCount(), GeoShardSelector.DEFAULT_CELL_SIZE_DEGREES),
+                spawnQueueFactory,
+                deduplicationService.namespace(DEDUPLICATION_NAMESPACE, settings.deduplicationMode()),
+                spawnJournal);
     }
 
+    /**
+     * @param spawnQueueFactory
+     *      Called once per shard to create the shard's spawn queue
+     */
+    PokemonSpawnExchange(
+            final Set<PokemonSpawnObserver> observers,
+            final GeoShardSelector shardSelector,
+            final Supplier<BlockingQueue<PokemonSpawn>> spawnQueueFactory,
+            final SpawnDeduplicator spawnDuplicateDetector,
+            @Nullable final SpawnJournal spawnJournal) {
+        this.observerLanes = ObserverLane.lanesOf(observers);
+        this.shardSelector = shardSelector;
+        this.spawnDuplicateDetector = spawnDuplicateDetector;
+        this.spawnJournal = spawnJournal;
+        final Consumer<PokemonSpawn> dispatchedSpawnConsumer = acknowledgerOf(spawnJournal);
+        this.shards = IntStream.range(0, shardSelector.getShardCount())
+                .mapToObj(index -> new SpawnExchangeShard(
+                        shardSelector.getShardCount() == 1
+                                ? "pokemon-spawn-observers"
+                                : String.format("pokemon-spawn-observers-shard-%d", index),
+                        observerLanes,
+                        spawnQueueFactory.get(),
+                        dispatchedSpawnConsumer))
+                .collect(ImmutableList.toImmutableList());
+
+        final List<PokemonSpawn> undispatchedSpawns = new ArrayList<>();
+        if (spawnJournal != null) {
+            try {
+                spawnJournal.replay(
+                        spawnDuplicateDetector::memorize,
+                        undispatchedSpawns::add);
+            } catch (final IOException e) {
+                log.error("Failed to replay spawn journal. Starting without state of the previous run.", e);
+            }
+            try {
+                spawnJournal.start();
+            } catch (final IOException e) {
+                throw new RuntimeException("Failed to start spawn journal", e);
+            }
+        }
+
+        // Kick off the observer lanes and the dispatcher threads feeding them
+        observerLanes.forEach(ObserverLane::start);
+        shards.forEach(SpawnExchangeShard::start);
+        log.info("Dispatching spawns from {} shard(s) to observer lanes: {}", shards.size(), observerLanes);
+
+        if (!undispatchedSpawns.isEmpty()) {
+            log.info("Re-dispatching {} spawn(s) from the journal", undispatchedSpawns.size());
+            undispatchedSpawns.forEach(pokemonSpawn -> shardOf(pokemonSpawn).enqueue(pokemonSpawn));
+        }
+    }
+
+    @Override
     public void offer(@NonNull final PokemonSpawn pokemonSpawn) {
         if (!spawnDuplicateDetector.isUnique(pokemonSpawn)) {
             log.trace("Ignoring duplicate spawn: {}", pokemonSpawn);
@@ -54,21 +156,115 @@ public class PokemonSpawnExchange implements Closeable {
             return;
         }
 
-        // Add to notification queue
-        spawnQueue.add(pokemonSpawn);
-
-        Verify.verify(observerThread.isAlive(),
+        final SpawnExchangeShard shard = shardOf(pokemonSpawn);
+        Verify.verify(shard.isDispatching(),
                 "Exchange getting new offering while observers are not listening.");
+
+        if (spawnJournal != null) {
+            spawnJournal.appendOffered(pokemonSpawn);
+        }
+        shard.enqueue(pokemonSpawn);
+    }
+
+    /**
+     * @return
+     *      Number of spawns waiting to be dispatched to the observers
+     */
+    public int getQueueDepth() {
+        return shards.stream().mapToInt(shard -> shard.getSpawnQueue().size()).sum();
+    }
+
+    /**
+     * @return
+     *      Number of spawns waiting to be dispatched to the observers in each shard, in shard order. Useful to spot
+     *      shards much busier than the rest.
+     */
+    public List<Integer> getShardQueueDepths() {
+        return shards.stream().map(shard -> shard.getSpawnQueue().size()).collect(ImmutableList.toImmutableList());
+    }
+
+    /**
+     * @return
+     *      Number of spawns waiting in each observer's lane, keyed by lane name
+     */
+    public Map<String, Integer> getObserverBacklogs() {
+        return observerLanes.stream()
+                .collect(ImmutableMap.toImmutableMap(ObserverLane::getName, ObserverLane::getBacklogSize));
+    }
+
+    /**
+     * @return
+     *      How long spawns of each priority waited in the exchange queues before being dispatched to observer lanes,
+     *      combined across shards. Empty for unbounded queue.
+     */
+    public Map<SpawnPriority, SpawnLatencyStats> getQueueWaitTimes() {
+        return boundedSpawnQueues().stream()
+                .flatMap(queue -> queue.getWaitTimeStats().entrySet().stream())
+                .collect(Collectors.groupingBy(
+                        Map.Entry::getKey,
+                        Collectors.collectingAndThen(
+                                Collectors.mapping(Map.Entry::getValue, Collectors.toList()),
+                                SpawnLatencyStats::merge)));
+    }
+
+    /**
+     * @return
+     *      How long spawns of each priority waited in each observer's lane before being observed, keyed by lane name
+     */
+    public Map<String, Map<SpawnPriority, SpawnLatencyStats>> getObserverWaitTimes() {
+        return observerLanes.stream()
+                .collect(ImmutableMap.toImmutableMap(ObserverLane::getName, ObserverLane::getWaitTimeStats));
+    }
+
+    /**
+     * @return
+     *      Number of times a spawn was offered while the queue was full. Always zero for unbounded queue.
+     */
+    public long getOverflowCount() {
+        return boundedSpawnQueues().stream().mapToLong(BoundedSpawnQueue::getOverflowCount).sum();
+    }
+
+    /**
+     * @return
+     *      Number of spawns discarded because the queue was full. Always zero for unbounded queue.
+     */
+    public long getDroppedCount() {
+        return boundedSpawnQueues().stream().mapToLong(BoundedSpawnQueue::getDroppedCount).sum();
+    }
+
+    public Optional<SpawnJournal> getJournal() {
+        return Optional.ofNullable(spawnJournal);
     }
 
     @Override
     public void close() {
-        pokemonSpawnObservers.stopRunning();
-        try {
-            observerThread.join();
-        } catch (final InterruptedException e) {
-            observerThread.interrupt();
-            log.error("Interrupted while waiting for observers to finish.", e);
+        shards.forEach(SpawnExchangeShard::stop);
+        log.info("Stopping observer lanes: {}", observerLanes);
+        observerLanes.forEach(ObserverLane::shutdown);
+        if (spawnJournal != null) {
+            spawnJournal.close();
         }
     }
+
+    /**
+     * @return
+     *      Consumer that journals spawns as acknowledged, for spawns the exchange queues are done with: handed to the
+     *      observer lanes or dropped by a full queue. Either way they shouldn't be re-dispatched on replay. Spawns
+     *      still in the lane backlogs are outside the journal, see {@link SpawnJournal}.
+     */
+    private static Consumer<PokemonSpawn> acknowledgerOf(@Nullable final SpawnJournal spawnJournal) {
+        return spawnJournal != null ? spawnJournal::appendAcknowledged : __ -> {};
+    }
+
+    private SpawnExchangeShard shardOf(final PokemonSpawn pokemonSpawn) {
+        return shards.get(shardSelector.shardOf(pokemonSpawn));
+    }
+
+    private Collection<BoundedSpawnQueue> boundedSpawnQueues() {
+        return shards.stream()
+                .map(SpawnExchangeShard::getSpawnQueue)
+                .filter(BoundedSpawnQueue.class::isInstance)
+                .map(BoundedSpawnQueue.class::cast)
+                .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,69 @@
+package pogo.assistance.data.exchange.spawn;
+
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import org.immutables.value.Value;
+
+/**
+ * Settings of a {@link PokemonSpawnExchange}. Defaults give a single shard with an unbounded FIFO queue and exact
+ * deduplication.
+ */
+@Value.Immutable
+public interface PokemonSpawnExchangeSettings {
+
+    PokemonSpawnExchangeSettings DEFAULT = ImmutablePokemonSpawnExchangeSettings.builder().build();
+
+    /**
+     * Number of geographic shards offered spawns are partitioned into, by the coarse lat/lon grid cell they're in. Each
+     * shard has its own queue and dispatcher thread, so offering and dispatching spawns of different shards doesn't
+     * contend. One shard behaves the same as an unsharded exchange.
+     */
+    @Value.Default
+    default int shardCount() {
+        return 1;
+    }
+
+    /**
+     * Max number of spawns of each priority that can be waiting in each shard to be dispatched to the observers. Queue
+     * storage of this size is allocated up front. When absent, queues are unbounded and keep growing if observers fall
+     * behind.
+     */
+    OptionalInt queueCapacityPerPriority();
+
+    /**
+     * What to do with spawns offered while the queue for their priority is at capacity. Only applies to bounded queues.
+     */
+    @Value.Default
+    default SpawnOverflowPolicy overflowPolicy() {
+        return SpawnOverflowPolicy.BLOCK_PRODUCER;
+    }
+
+    /**
+     * When present, queues are priority aware: spawns are dispatched in order of their priority, so high value spawns
+     * don't wait behind bursts of low value ones. Requires bounded queues.
+     */
+    Optional<SpawnPriorityClassifier> priorityClassifier();
+
+    /**
+     * Decides which offered spawns are ignored as duplicates of ones offered before.
+     */
+    @Value.Default
+    default SpawnDeduplicationMode deduplicationMode() {
+        return SpawnDeduplicationMode.EXACT;
+    }
+
+    @Value.Check
+    default void check() {
+        if (shardCount() < 1) {
+            throw new IllegalStateException("Exchange shard count must be positive: " + this);
+        }
+        if (queueCapacityPerPriority().isPresent() && queueCapacityPerPriority().getAsInt() < 1) {
+            throw new IllegalStateException("Exchange queue capacity must be positive: " + this);
+        }
+        if (priorityClassifier().isPresent() && !queueCapacityPerPriority().isPresent()) {
+            throw new IllegalStateException("Priority aware exchange queues must be bounded: " + this);
+        }
+    }
+
+}
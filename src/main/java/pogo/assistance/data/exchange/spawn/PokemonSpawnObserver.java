@@ -1,9 +1,32 @@
 package pogo.assistance.data.exchange.spawn;
 
+import java.util.List;
+
 import pogo.assistance.data.model.pokemon.PokemonSpawn;
 
 public interface PokemonSpawnObserver {
 
     void observe(final PokemonSpawn pokemonSpawn);
 
+    /**
+     * Observes a micro-batch of spawns collected by the observer's lane. Batches are only bigger than one spawn when
+     * {@link ObserverLaneSettings#maxBatchSize()} is set higher. Default implementation just observes them one by one.
+     * Observers that can amortise locking or I/O over several spawns should override this.
+     *
+     * @param pokemonSpawns
+     *      Non-empty list of spawns, in the order they were dispatched to the lane
+     */
+    default void observeBatch(final List<PokemonSpawn> pokemonSpawns) {
+        pokemonSpawns.forEach(this::observe);
+    }
+
+    /**
+     * @return
+     *      Settings for the lane dispatching spawns to this observer. Override to tune ordering, concurrency or backlog
+     *      limits for a particular observer.
+     */
+    default ObserverLaneSettings getLaneSettings() {
+        return ObserverLaneSettings.DEFAULT;
+    }
+
 }
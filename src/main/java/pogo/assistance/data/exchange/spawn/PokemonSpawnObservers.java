@@ -1,50 +1,78 @@
 package pogo.assistance.data.exchange.spawn;
 
 import com.google.common.base.Verify;
-import com.google.common.collect.Sets;
-import java.util.Collection;
-import java.util.Set;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import pogo.assistance.data.model.pokemon.PokemonSpawn;
 
+/**
+ * Consumes the exchange's spawn queue and fans spawns out to the {@link ObserverLane lanes} of each observer.
+ *
+ * Lanes can be shared by multiple instances consuming different queues. Whoever created the lanes is responsible for
+ * starting and shutting them down.
+ */
 @Slf4j
 class PokemonSpawnObservers implements Runnable {
 
-    private final Set<PokemonSpawnObserver> observers;
+    /**
+     * How long the dispatcher waits on an idle queue before checking again whether it's been stopped
+     */
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    @Getter
+    private final List<ObserverLane> lanes;
     private final BlockingQueue<PokemonSpawn> spawnQueue;
-    private final ExecutorService executorService;
+    private final Consumer<PokemonSpawn> dispatchedSpawnConsumer;
     private final AtomicBoolean stopRunning = new AtomicBoolean(false);
 
-    public PokemonSpawnObservers(
-            final Collection<? extends PokemonSpawnObserver> observers,
-            final BlockingQueue<PokemonSpawn> consumableSpawnQueue) {
-        this.observers = Sets.newConcurrentHashSet(observers);
+    /**
+     * @param sharedLanes
+     *      Lanes to dispatch to. Expected to be started before this instance starts running, and shut down by their
+     *      creator.
+     * @param dispatchedSpawnConsumer
+     *      Called with each spawn once it has been dispatched to all lanes
+     */
+    PokemonSpawnObservers(
+            final List<ObserverLane> sharedLanes,
+            final BlockingQueue<PokemonSpawn> consumableSpawnQueue,
+            final Consumer<PokemonSpawn> dispatchedSpawnConsumer) {
+        this.lanes = ImmutableList.copyOf(sharedLanes);
         this.spawnQueue = consumableSpawnQueue;
-        this.executorService = Executors.newWorkStealingPool();
+        this.dispatchedSpawnConsumer = dispatchedSpawnConsumer;
     }
 
     @Override
     public void run() {
         Verify.verify(!stopRunning.get());
-        log.info("Observing pokemon spawn queue...");
+        log.info("Observing pokemon spawn queue with observer lanes: {}", lanes);
         while (!stopRunning.get()) {
             try {
-                final PokemonSpawn pokemonSpawn = spawnQueue.take();
-                // TODO: If things break inside this observer calls, no error is logged, unless the observer
-                // itself bothers to do it. This needs to be done better with guava service or something.
-                observers.forEach(observer -> executorService.submit(() -> observer.observe(pokemonSpawn)));
+                final PokemonSpawn pokemonSpawn = spawnQueue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (pokemonSpawn == null) {
+                    continue;
+                }
+                for (final ObserverLane lane : lanes) {
+                    lane.dispatch(pokemonSpawn);
+                }
+                dispatchedSpawnConsumer.accept(pokemonSpawn);
             } catch (final InterruptedException e) {
                 log.warn("Pokemon spawn observers stopping on interruption.", e);
-                log.warn("{} observe operations were awaiting execution", executorService.shutdownNow().size());
                 Thread.currentThread().interrupt();
+                break;
             }
         }
     }
 
+    /**
+     * Makes {@link #run()} return once it's done with the spawn it's dispatching, if any. Spawns still in the queue are
+     * left there.
+     */
     public void stopRunning() {
         stopRunning.set(true);
     }
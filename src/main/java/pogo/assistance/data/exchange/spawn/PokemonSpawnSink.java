@@ -0,0 +1,13 @@
+package pogo.assistance.data.exchange.spawn;
+
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+/**
+ * Where spawn data collectors hand off the spawns they find. Either the {@link PokemonSpawnExchange} itself, or
+ * something that gets the spawns to an exchange running elsewhere (e.g. {@link SpawnFederationClient}).
+ */
+public interface PokemonSpawnSink {
+
+    void offer(final PokemonSpawn pokemonSpawn);
+
+}
@@ -21,14 +21,34 @@ import pogo.assistance.data.model.pokemon.PokemonSpawn;
 @Slf4j
 public class PokemonSpawnWebCrawler extends AbstractScheduledService {
 
-    private final SpawnDuplicateDetector duplicateDetector = new SpawnDuplicateDetector();
+    /**
+     * Namespace of fetched spawns in the {@link SpawnDeduplicationService}
+     */
+    static final String DEDUPLICATION_NAMESPACE = "crawler";
+
+    /**
+     * Fed from the parallel stream of all fetchers, so needs to handle concurrent use well
+     */
+    private final SpawnDeduplicator duplicateDetector;
 
     private final Set<PokemonSpawnFetcher> spawnFetchers;
     private final PokemonSpawnExchange spawnExchange;
 
-    public PokemonSpawnWebCrawler(final Set<PokemonSpawnFetcher> spawnFetchers, final PokemonSpawnExchange spawnExchange) {
+    public PokemonSpawnWebCrawler(
+            final Set<PokemonSpawnFetcher> spawnFetchers,
+            final PokemonSpawnExchange spawnExchange,
+            final SpawnDeduplicationService deduplicationService,
+            final PokemonSpawnWebCrawlerSettings settings) {
         this.spawnFetchers = spawnFetchers;
         this.spawnExchange = spawnExchange;
+        final SpawnDeduplicator exactDetector = deduplicationService.namespace(DEDUPLICATION_NAMESPACE, SpawnDeduplicationMode.EXACT);
+        this.duplicateDetector = settings.bloomPreFilterEnabled()
+                ? new BloomFilteredSpawnDeduplicator(
+                        exactDetector,
+                        settings.bloomWindow(),
+                        settings.bloomExpectedInsertionsPerWindow(),
+                        settings.bloomFalsePositiveProbability())
+                : exactDetector;
     }
 
     @Override
@@ -53,8 +73,8 @@ public class PokemonSpawnWebCrawler extends AbstractScheduledService {
                 .filter(duplicateDetector::isUnique)
                 .peek(__ -> offeredCount.incrementAndGet())
                 .forEach(spawnExchange::offer);
-        log.debug("Fetched {} spawns in total. Enqueued {} after de-duplication.",
-                fetchedCount.get(), offeredCount.get());
+        log.debug("Fetched {} spawns in total. Enqueued {} after de-duplication. Duplicate filter: {}",
+                fetchedCount.get(), offeredCount.get(), duplicateDetector);
     }
 
     @Override
@@ -73,6 +93,11 @@ public class PokemonSpawnWebCrawler extends AbstractScheduledService {
         });
     }
 
+    @Override
+    public String toString() {
+        return String.format("%s, duplicate filter: %s", super.toString(), duplicateDetector);
+    }
+
     private static List<PokemonSpawn> executeFetch(final PokemonSpawnFetcher pokemonSpawnFetcher) {
         try {
             return pokemonSpawnFetcher.fetch();
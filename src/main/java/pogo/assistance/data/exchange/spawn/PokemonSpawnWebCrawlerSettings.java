@@ -0,0 +1,57 @@
+package pogo.assistance.data.exchange.spawn;
+
+import java.time.Duration;
+
+import org.immutables.value.Value;
+
+/**
+ * Settings of a {@link PokemonSpawnWebCrawler}. Defaults de-duplicate fetched spawns with the exact detector alone.
+ */
+@Value.Immutable
+public interface PokemonSpawnWebCrawlerSettings {
+
+    PokemonSpawnWebCrawlerSettings DEFAULT = ImmutablePokemonSpawnWebCrawlerSettings.builder().build();
+
+    /**
+     * Whether to put a {@link BloomFilteredSpawnDeduplicator Bloom pre-filter} in front of the exact detector. Saves
+     * exact lookups when most fetched spawns are new, at the cost of the filters' memory and extra hashing of spawns
+     * the filters may have seen. Off unless measurements show it pays off for the fetched volume.
+     */
+    @Value.Default
+    default boolean bloomPreFilterEnabled() {
+        return false;
+    }
+
+    /**
+     * Width of the expiration windows the pre-filter is partitioned by. Spawns expire within an hour, so the default
+     * keeps no more than a handful of filters at a time.
+     */
+    @Value.Default
+    default Duration bloomWindow() {
+        return Duration.ofMinutes(10);
+    }
+
+    /**
+     * Number of new spawns expected to expire in each pre-filter window
+     */
+    @Value.Default
+    default int bloomExpectedInsertionsPerWindow() {
+        return 20_000;
+    }
+
+    @Value.Default
+    default double bloomFalsePositiveProbability() {
+        return 0.01;
+    }
+
+    @Value.Check
+    default void check() {
+        if (bloomWindow().getSeconds() < 1 || bloomExpectedInsertionsPerWindow() < 1) {
+            throw new IllegalStateException("Bloom window and expected insertions must be positive: " + this);
+        }
+        if (bloomFalsePositiveProbability() <= 0 || bloomFalsePositiveProbability() >= 1) {
+            throw new IllegalStateException("Bloom false positive probability must be between 0 and 1: " + this);
+        }
+    }
+
+}
@@ -0,0 +1,199 @@
+package pogo.assistance.data.exchange.spawn;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Counts, for each pair of sources, how many times one of them reported a spawn first and the other repeated it, along
+ * with a histogram of how far behind the repeat came. Sources that rarely report anything first are the ones we can
+ * drop without losing spawns.
+ *
+ * Deduplicators remember who reported a spawn first as an {@link #attributionOf int attribution}, packing the index of
+ * the source and the time of the report, and pass it back here along with the repeating source when they see a
+ * duplicate.
+ *
+ * Counts are kept in one row per first reporting source, allocated on its first lead, so memory only grows with
+ * sources that actually overlap.
+ */
+class SourceOverlapMatrix {
+
+    /**
+     * Sources beyond this many are all counted as one
+     */
+    static final int MAX_SOURCES = 256;
+    private static final int OTHER_SOURCE_INDEX = MAX_SOURCES - 1;
+    private static final String OTHER_SOURCE_NAME = "(other)";
+
+    /**
+     * Exclusive upper bounds of lead time histogram buckets, in seconds. Last bucket takes everything longer.
+     */
+    private static final long[] LEAD_TIME_BUCKET_BOUNDS = { 1, 5, 15, 30, 60, 300, 900 };
+    private static final String[] LEAD_TIME_BUCKET_NAMES = { "<1s", "<5s", "<15s", "<30s", "<1m", "<5m", "<15m", "longer" };
+    private static final int BUCKET_COUNT = LEAD_TIME_BUCKET_BOUNDS.length + 1;
+
+    /**
+     * Report times are kept as epoch seconds modulo 2^23 (~97 days), next to an 8 bit source index
+     */
+    private static final int TIME_BITS = 23;
+    private static final int TIME_MASK = (1 << TIME_BITS) - 1;
+
+    private final Map<String, Integer> sourceToIndex = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<String> indexToSource = new AtomicReferenceArray<>(MAX_SOURCES);
+    private final AtomicInteger nextSourceIndex = new AtomicInteger(0);
+    /**
+     * Indexed by the first reporting source. Each row holds {@link #BUCKET_COUNT} counts per repeating source.
+     */
+    private final AtomicReferenceArray<AtomicLongArray> rows = new AtomicReferenceArray<>(MAX_SOURCES);
+
+    /**
+     * @return
+     *      Non-negative attribution of a spawn reported by the given source at the given time
+     */
+    int attributionOf(final String sourceName, final long nowEpochSecond) {
+        return (indexOf(sourceName) << TIME_BITS) | (int) (nowEpochSecond & TIME_MASK);
+    }
+
+    /**
+     * Counts a spawn first reported as described by {@code attribution}, now repeated by another (or the same) source.
+     */
+    void record(final int attribution, final String repeatingSourceName, final long nowEpochSecond) {
+        final int firstSourceIndex = attribution >>> TIME_BITS;
+        final long leadSeconds = (nowEpochSecond - (attribution & TIME_MASK)) & TIME_MASK;
+        rowOf(firstSourceIndex).incrementAndGet(indexOf(repeatingSourceName) * BUCKET_COUNT + bucketOf(leadSeconds));
+    }
+
+    /**
+     * @return
+     *      Number of times a spawn first reported by {@code firstSourceName} was repeated by {@code repeatingSourceName}
+     */
+    @VisibleForTesting
+    long getCount(final String firstSourceName, final String repeatingSourceName) {
+        final long[] histogram = getLeadTimeHistogram(firstSourceName, repeatingSourceName);
+        long count = 0;
+        for (final long bucket : histogram) {
+            count += bucket;
+        }
+        return count;
+    }
+
+    /**
+     * @return
+     *      Counts of {@link #getCount} split by how far behind the repeat came, bucketed as in {@link #toString()}
+     */
+    @VisibleForTesting
+    long[] getLeadTimeHistogram(final String firstSourceName, final String repeatingSourceName) {
+        final long[] histogram = new long[BUCKET_COUNT];
+        final Integer firstSourceIndex = sourceToIndex.get(firstSourceName);
+        final Integer repeatingSourceIndex = sourceToIndex.get(repeatingSourceName);
+        if (firstSourceIndex == null || repeatingSourceIndex == null || rows.get(firstSourceIndex) == null) {
+            return histogram;
+        }
+        final AtomicLongArray row = rows.get(firstSourceIndex);
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            histogram[bucket] = row.get(repeatingSourceIndex * BUCKET_COUNT + bucket);
+        }
+        return histogram;
+    }
+
+    /**
+     * @return
+     *      One line per overlapping pair of sources with count and lead time histogram, followed by how many times each
+     *      source led and trailed other sources
+     */
+    @Override
+    public String toString() {
+        final int sourceCount = Math.min(nextSourceIndex.get(), MAX_SOURCES);
+        final long[] leads = new long[MAX_SOURCES];
+        final long[] trails = new long[MAX_SOURCES];
+        final StringBuilder report = new StringBuilder("First source -> repeating source: count [lead time ")
+                .append(String.join("/", LEAD_TIME_BUCKET_NAMES))
+                .append("]");
+        for (int first = 0; first < sourceCount; first++) {
+            final AtomicLongArray row = rows.get(first);
+            if (row == null) {
+                continue;
+            }
+            for (int repeating = 0; repeating < sourceCount; repeating++) {
+                final long[] histogram = new long[BUCKET_COUNT];
+                long count = 0;
+                for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+                    histogram[bucket] = row.get(repeating * BUCKET_COUNT + bucket);
+                    count += histogram[bucket];
+                }
+                if (count == 0) {
+                    continue;
+                }
+                if (first != repeating) {
+                    leads[first] += count;
+                    trails[repeating] += count;
+                }
+                report.append(String.format("%n  %s -> %s: %d %s",
+                        indexToSource.get(first), indexToSource.get(repeating), count, Arrays.toString(histogram)));
+            }
+        }
+        report.append(String.format("%nLed/trailed other sources:"));
+        for (int source = 0; source < sourceCount; source++) {
+            report.append(String.format("%n  %s: %d/%d", indexToSource.get(source), leads[source], trails[source]));
+        }
+        return report.toString();
+    }
+
+    private int indexOf(final String sourceName) {
+        final Integer index = sourceToIndex.get(sourceName);
+        if (index != null) {
+            return index;
+        }
+        if (nextSourceIndex.get() >= OTHER_SOURCE_INDEX) {
+            // New sources aren't remembered once all indexes are taken, so the map stops growing
+            return otherSourceIndex();
+        }
+        return sourceToIndex.computeIfAbsent(sourceName, __ -> {
+            final int newIndex = nextSourceIndex.getAndIncrement();
+            if (newIndex >= OTHER_SOURCE_INDEX) {
+                return otherSourceIndex();
+            }
+            indexToSource.set(newIndex, sourceName);
+            return newIndex;
+        });
+    }
+
+    private int otherSourceIndex() {
+        indexToSource.set(OTHER_SOURCE_INDEX, OTHER_SOURCE_NAME);
+        sourceToIndex.putIfAbsent(OTHER_SOURCE_NAME, OTHER_SOURCE_INDEX);
+        return OTHER_SOURCE_INDEX;
+    }
+
+    /**
+     * @return
+     *      Number of source names mapped to an index, including the one all sources beyond {@link #MAX_SOURCES} share
+     */
+    @VisibleForTesting
+    int getSourceNameCount() {
+        return sourceToIndex.size();
+    }
+
+    private AtomicLongArray rowOf(final int firstSourceIndex) {
+        final AtomicLongArray row = rows.get(firstSourceIndex);
+        if (row != null) {
+            return row;
+        }
+        rows.compareAndSet(firstSourceIndex, null, new AtomicLongArray(MAX_SOURCES * BUCKET_COUNT));
+        return rows.get(firstSourceIndex);
+    }
+
+    private static int bucketOf(final long leadSeconds) {
+        for (int bucket = 0; bucket < LEAD_TIME_BUCKET_BOUNDS.length; bucket++) {
+            if (leadSeconds < LEAD_TIME_BUCKET_BOUNDS[bucket]) {
+                return bucket;
+            }
+        }
+        return LEAD_TIME_BUCKET_BOUNDS.length;
+    }
+
+}
@@ -0,0 +1,48 @@
+package pogo.assistance.data.exchange.spawn;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+import pogo.assistance.data.serde.PokemonSpawnBinaryCodec;
+
+/**
+ * Decides which spawns a {@link SpawnDeduplicator} takes as duplicates of each other.
+ */
+public enum SpawnDeduplicationMode {
+
+    /**
+     * Spawns are duplicates only if they're {@link PokemonSpawn#equals equal}, including source and despawn time. The
+     * same spawn reported by two sources is not a duplicate.
+     */
+    EXACT {
+        @Override
+        long[] candidateFingerprintsOf(final PokemonSpawn pokemonSpawn) {
+            return new long[] { FINGERPRINT_FUNCTION.hashBytes(PokemonSpawnBinaryCodec.encode(pokemonSpawn)).asLong() };
+        }
+    },
+
+    /**
+     * Spawns are duplicates if they have the same dex entry, IV and CP and are within a few meters of each other,
+     * regardless of source, despawn time and small differences in coordinates.
+     *
+     * @see FuzzySpawnKey
+     */
+    FUZZY {
+        @Override
+        long[] candidateFingerprintsOf(final PokemonSpawn pokemonSpawn) {
+            return FuzzySpawnKey.candidateKeysOf(pokemonSpawn);
+        }
+    };
+
+    private static final HashFunction FINGERPRINT_FUNCTION = Hashing.murmur3_128();
+
+    /**
+     * Different spawns can in theory end up with the same 64 bit fingerprint, but odds are negligible.
+     *
+     * @return
+     *      Fingerprints under which a duplicate of the spawn may have been remembered. First one is the fingerprint to
+     *      remember the spawn by.
+     */
+    abstract long[] candidateFingerprintsOf(final PokemonSpawn pokemonSpawn);
+
+}
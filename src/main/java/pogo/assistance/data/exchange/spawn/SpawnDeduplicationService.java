@@ -0,0 +1,160 @@
+package pogo.assistance.data.exchange.spawn;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import com.google.common.base.Verify;
+import com.google.common.hash.Hashing;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+/**
+ * Single place remembering spawns for everything in the process that de-duplicates them (exchange, crawler, etc.).
+ * Each of those gets its own named {@link #namespace(String, SpawnDeduplicationMode) namespace}, so they don't see each
+ * other's spawns, but all namespaces share one {@link SpawnFingerprintTable} and so its memory and expiry.
+ *
+ * A check hashes the spawn once into its candidate fingerprints and looks all of them up in the shared table in one
+ * pass. Namespaces are kept apart by salting fingerprints with a hash of the namespace name. Each namespace counts its
+ * checks and duplicates found, shown by {@link #toString()}, and which sources repeat which, shown by
+ * {@link #describeSourceOverlap()}.
+ */
+@Singleton
+public class SpawnDeduplicationService {
+
+    private static final int SEGMENT_COUNT = 64;
+    private static final int INITIAL_SEGMENT_CAPACITY = 1024;
+
+    private final SpawnFingerprintTable fingerprintTable = new SpawnFingerprintTable(SEGMENT_COUNT, INITIAL_SEGMENT_CAPACITY);
+    private final Map<String, Namespace> namespaces = new ConcurrentHashMap<>();
+
+    @Inject
+    public SpawnDeduplicationService() {
+    }
+
+    /**
+     * @param name
+     *      Name of the namespace. Same name always gives the same namespace.
+     * @param deduplicationMode
+     *      Decides which spawns are duplicates within the namespace. Must be the same each time a namespace is asked for.
+     * @return
+     *      Deduplicator remembering spawns in the given namespace
+     */
+    SpawnDeduplicator namespace(final String name, final SpawnDeduplicationMode deduplicationMode) {
+        final Namespace namespace = namespaces.computeIfAbsent(name, __ -> new Namespace(name, deduplicationMode));
+        Verify.verify(namespace.getDeduplicationMode() == deduplicationMode,
+                "Namespace %s already uses %s deduplication", name, namespace.getDeduplicationMode());
+        return namespace;
+    }
+
+    /**
+     * @return
+     *      Number of remembered spawns across all namespaces, including expired ones whose memory hasn't been reclaimed
+     *      yet
+     */
+    public int size() {
+        return fingerprintTable.size();
+    }
+
+    /**
+     * @return
+     *      For each namespace, how often each source repeated spawns first reported by each other source, and how far
+     *      behind. See {@link SourceOverlapMatrix#toString()}.
+     */
+    public String describeSourceOverlap() {
+        return namespaces.values().stream()
+                .map(namespace -> String.format("Source overlap in %s namespace:%n%s", namespace.name, namespace.sourceOverlap))
+                .collect(Collectors.joining(System.lineSeparator()));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("remembered: %d, table bytes: %d, namespaces: %s",
+                fingerprintTable.size(),
+                fingerprintTable.capacity() * SpawnFingerprintTable.BYTES_PER_SLOT,
+                namespaces.values());
+    }
+
+    /**
+     * {@link CompactSpawnDuplicateDetector} over the shared table, counting its checks.
+     */
+    private class Namespace implements SpawnDeduplicator {
+
+        private final String name;
+        private final SourceOverlapMatrix sourceOverlap = new SourceOverlapMatrix();
+        private final CompactSpawnDuplicateDetector detector;
+
+        private final LongAdder checkedCount = new LongAdder();
+        private final LongAdder duplicateCount = new LongAdder();
+
+        Namespace(final String name, final SpawnDeduplicationMode deduplicationMode) {
+            this.name = name;
+            this.detector = new CompactSpawnDuplicateDetector(
+                    deduplicationMode,
+                    fingerprintTable,
+                    Hashing.murmur3_128().hashString(name, StandardCharsets.UTF_8).asLong(),
+                    sourceOverlap);
+        }
+
+        @Override
+        public boolean isUnique(final PokemonSpawn pokemonSpawn) {
+            return isUnique(pokemonSpawn, getDeduplicationMode().candidateFingerprintsOf(pokemonSpawn));
+        }
+
+        @Override
+        public boolean isUnique(final PokemonSpawn pokemonSpawn, final long[] candidateFingerprints) {
+            checkedCount.increment();
+            final boolean unique = detector.isUnique(pokemonSpawn, candidateFingerprints);
+            if (!unique) {
+                duplicateCount.increment();
+            }
+            return unique;
+        }
+
+        @Override
+        public boolean isKnown(final PokemonSpawn pokemonSpawn) {
+            return detector.isKnown(pokemonSpawn);
+        }
+
+        @Override
+        public boolean isKnown(final PokemonSpawn pokemonSpawn, final long[] candidateFingerprints) {
+            return detector.isKnown(pokemonSpawn, candidateFingerprints);
+        }
+
+        @Override
+        public void memorize(final PokemonSpawn pokemonSpawn, final Instant expiration) {
+            detector.memorize(pokemonSpawn, expiration);
+        }
+
+        @Override
+        public void memorize(final PokemonSpawn pokemonSpawn, final long[] candidateFingerprints, final Instant expiration) {
+            detector.memorize(pokemonSpawn, candidateFingerprints, expiration);
+        }
+
+        @Override
+        public SpawnDeduplicationMode getDeduplicationMode() {
+            return detector.getDeduplicationMode();
+        }
+
+        /**
+         * @return
+         *      Number of remembered spawns across all namespaces, since they share the table
+         */
+        @Override
+        public int size() {
+            return detector.size();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (%s) checked: %d, duplicates: %d",
+                    name, getDeduplicationMode(), checkedCount.sum(), duplicateCount.sum());
+        }
+
+    }
+
+}
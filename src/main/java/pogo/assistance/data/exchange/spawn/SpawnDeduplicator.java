@@ -0,0 +1,83 @@
+package pogo.assistance.data.exchange.spawn;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+/**
+ * Remembers spawns for a while to tell whether a spawn has been seen before.
+ *
+ * @see CompactSpawnDuplicateDetector
+ * @see BloomFilteredSpawnDeduplicator
+ */
+interface SpawnDeduplicator {
+
+    /**
+     * If a spawn doesn't have a de-spawn time on it, it's kept in memory for this duration. If it does have de-spawn
+     * time then that time is used to decide when to forget about that spawn.
+     */
+    Duration DEFAULT_SPAWN_TTL = Duration.ofHours(1);
+
+    /**
+     * Checks whether a {@code pokemonSpawn} is duplicate or not. Also memorizes the spawn so a subsequent call will
+     * return false.
+     *
+     * @return
+     *      True if the spawn is unique - not the same as any other passed to this method
+     */
+    boolean isUnique(final PokemonSpawn pokemonSpawn);
+
+    /**
+     * Same as {@link #isUnique(PokemonSpawn)}, for callers that already have the spawn's fingerprints (e.g. a pre-filter
+     * in front of this deduplicator). Deduplicators remembering fingerprints use these instead of encoding and hashing
+     * the spawn again.
+     *
+     * @param candidateFingerprints
+     *      Fingerprints of the spawn from {@link SpawnDeduplicationMode#candidateFingerprintsOf} of this deduplicator's
+     *      mode
+     */
+    default boolean isUnique(final PokemonSpawn pokemonSpawn, final long[] candidateFingerprints) {
+        return isUnique(pokemonSpawn);
+    }
+
+    /**
+     * Checks whether a duplicate of the spawn has been seen, without memorizing the spawn. Used to look for duplicates
+     * in detectors other than the one responsible for the spawn (e.g. of a neighbouring exchange shard).
+     */
+    boolean isKnown(final PokemonSpawn pokemonSpawn);
+
+    /**
+     * Same as {@link #isKnown(PokemonSpawn)}, with the spawn's fingerprints already computed. See
+     * {@link #isUnique(PokemonSpawn, long[])}.
+     */
+    default boolean isKnown(final PokemonSpawn pokemonSpawn, final long[] candidateFingerprints) {
+        return isKnown(pokemonSpawn);
+    }
+
+    /**
+     * Memorizes a spawn that was already checked for uniqueness before (e.g. in a previous run of the application), so
+     * that subsequent {@link #isUnique(PokemonSpawn)} calls treat it as a duplicate.
+     *
+     * @param expiration
+     *      When to forget about the spawn
+     */
+    void memorize(final PokemonSpawn pokemonSpawn, final Instant expiration);
+
+    /**
+     * Same as {@link #memorize(PokemonSpawn, Instant)}, with the spawn's fingerprints already computed. See
+     * {@link #isUnique(PokemonSpawn, long[])}.
+     */
+    default void memorize(final PokemonSpawn pokemonSpawn, final long[] candidateFingerprints, final Instant expiration) {
+        memorize(pokemonSpawn, expiration);
+    }
+
+    SpawnDeduplicationMode getDeduplicationMode();
+
+    /**
+     * @return
+     *      Number of spawns currently remembered
+     */
+    int size();
+
+}
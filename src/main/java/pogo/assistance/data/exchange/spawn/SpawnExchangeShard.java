@@ -0,0 +1,71 @@
+package pogo.assistance.data.exchange.spawn;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+import com.google.common.util.concurrent.UncaughtExceptionHandlers;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+/**
+ * Slice of the {@link PokemonSpawnExchange} handling spawns of one geographic shard. Has its own spawn queue and
+ * dispatcher thread, while dispatching to {@link ObserverLane lanes} shared with all other shards.
+ */
+@Slf4j
+class SpawnExchangeShard {
+
+    @Getter
+    private final BlockingQueue<PokemonSpawn> spawnQueue;
+    private final PokemonSpawnObservers dispatcher;
+    private final Thread dispatcherThread;
+
+    /**
+     * @param dispatchedSpawnConsumer
+     *      Called with each spawn once it has been dispatched to all lanes
+     */
+    SpawnExchangeShard(
+            final String name,
+            final List<ObserverLane> lanes,
+            final BlockingQueue<PokemonSpawn> spawnQueue,
+            final Consumer<PokemonSpawn> dispatchedSpawnConsumer) {
+        this.spawnQueue = spawnQueue;
+        this.dispatcher = new PokemonSpawnObservers(lanes, spawnQueue, dispatchedSpawnConsumer);
+        // TODO refactor this to use guava service?
+        this.dispatcherThread = new Thread(dispatcher);
+        dispatcherThread.setName(name);
+        dispatcherThread.setUncaughtExceptionHandler(UncaughtExceptionHandlers.systemExit());
+    }
+
+    void start() {
+        dispatcherThread.start();
+    }
+
+    boolean isDispatching() {
+        return dispatcherThread.isAlive();
+    }
+
+    /**
+     * Adds spawn to the shard's queue. Depending on the queue's overflow policy, this can block or discard spawns.
+     */
+    void enqueue(final PokemonSpawn pokemonSpawn) {
+        try {
+            spawnQueue.put(pokemonSpawn);
+        } catch (final InterruptedException e) {
+            log.warn("Interrupted while waiting for space in the spawn queue. Dropping spawn: {}", pokemonSpawn);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void stop() {
+        dispatcher.stopRunning();
+        try {
+            dispatcherThread.join();
+        } catch (final InterruptedException e) {
+            dispatcherThread.interrupt();
+            log.error("Interrupted while waiting for observers to finish.", e);
+        }
+    }
+
+}
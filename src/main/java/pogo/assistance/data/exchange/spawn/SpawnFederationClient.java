@@ -0,0 +1,307 @@
+package pogo.assistance.data.exchange.spawn;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.util.concurrent.AbstractExecutionThreadService;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+/**
+ * Remote collector side of collector federation. Takes spawns found by collectors running in this process and streams
+ * them in batches to the {@link SpawnFederationServer} of the central exchange.
+ *
+ * Batches stay in memory until acknowledged. When the connection breaks, the client keeps reconnecting with backoff and
+ * resends all unacknowledged batches once connected again. While disconnected, offered spawns queue up to
+ * {@link SpawnFederationClientSettings#pendingCapacity()}, beyond which they're dropped.
+ *
+ * @see SpawnFederationProtocol
+ */
+@Slf4j
+public class SpawnFederationClient extends AbstractExecutionThreadService implements PokemonSpawnSink {
+
+    private static final long PENDING_POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final InetSocketAddress serverAddress;
+    private final SpawnFederationClientSettings settings;
+    private final BlockingQueue<PendingSpawn> pendingSpawns;
+    /**
+     * Batches sent but not yet acknowledged, in the order they were sent. Guarded by itself.
+     */
+    private final Map<Long, List<PendingSpawn>> unacknowledgedBatches = new LinkedHashMap<>();
+    private final CountDownLatch shutdownTriggered = new CountDownLatch(1);
+    private volatile Socket socket;
+    private long nextSequence = 0;
+
+    private final LongAdder offeredCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder sentBatchCount = new LongAdder();
+    private final LongAdder acknowledgedCount = new LongAdder();
+    private final LongAdder connectCount = new LongAdder();
+    /**
+     * Time from a spawn being offered to the central exchange acknowledging it. This is the latency federation adds.
+     */
+    @Getter
+    private final SpawnLatencyStats acknowledgeLatency = new SpawnLatencyStats();
+
+    public SpawnFederationClient(
+            @NonNull final InetSocketAddress serverAddress,
+            @NonNull final SpawnFederationClientSettings settings) {
+        this.serverAddress = serverAddress;
+        this.settings = settings;
+        this.pendingSpawns = new ArrayBlockingQueue<>(settings.pendingCapacity());
+    }
+
+    /**
+     * Queues the spawn to be sent. Never blocks.
+     */
+    @Override
+    public void offer(@NonNull final PokemonSpawn pokemonSpawn) {
+        if (pendingSpawns.offer(new PendingSpawn(pokemonSpawn, System.nanoTime()))) {
+            offeredCount.increment();
+        } else {
+            droppedCount.increment();
+        }
+    }
+
+    public long getOfferedCount() {
+        return offeredCount.sum();
+    }
+
+    /**
+     * @return
+     *      Number of spawns dropped because too many were waiting to be sent
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    public long getAcknowledgedCount() {
+        return acknowledgedCount.sum();
+    }
+
+    public long getSentBatchCount() {
+        return sentBatchCount.sum();
+    }
+
+    public long getConnectCount() {
+        return connectCount.sum();
+    }
+
+    public int getPendingCount() {
+        return pendingSpawns.size();
+    }
+
+    public boolean isConnected() {
+        final Socket currentSocket = socket;
+        return currentSocket != null && !currentSocket.isClosed();
+    }
+
+    @Override
+    protected void run() throws InterruptedException {
+        long reconnectDelayMillis = settings.minReconnectDelay().toMillis();
+        while (isRunning()) {
+            try (final Socket connectedSocket = new Socket()) {
+                connectedSocket.setTcpNoDelay(true);
+                connectedSocket.connect(serverAddress, Math.toIntExact(settings.connectTimeout().toMillis()));
+                socket = connectedSocket;
+                connectCount.increment();
+                reconnectDelayMillis = settings.minReconnectDelay().toMillis();
+                log.info("Connected to central spawn exchange at {}", serverAddress);
+                sendOverConnection(connectedSocket);
+            } catch (final IOException e) {
+                if (!isRunning()) {
+                    break;
+                }
+                log.warn("Connection to central spawn exchange at {} failed ({}). Reconnecting in {}ms.",
+                        serverAddress, e.getMessage(), reconnectDelayMillis);
+            } finally {
+                socket = null;
+            }
+            if (shutdownTriggered.await(reconnectDelayMillis, TimeUnit.MILLISECONDS)) {
+                break;
+            }
+            reconnectDelayMillis = Math.min(reconnectDelayMillis * 2, settings.maxReconnectDelay().toMillis());
+        }
+    }
+
+    @Override
+    protected void triggerShutdown() {
+        shutdownTriggered.countDown();
+        final Socket currentSocket = socket;
+        if (currentSocket != null) {
+            try {
+                currentSocket.close();
+            } catch (final IOException e) {
+                log.warn("Failed to close connection to central spawn exchange", e);
+            }
+        }
+    }
+
+    @Override
+    protected void shutDown() {
+        synchronized (unacknowledgedBatches) {
+            log.info("Stopped sending spawns to central exchange with {} pending spawn(s) and {} unacknowledged batch(es). {}",
+                    pendingSpawns.size(), unacknowledgedBatches.size(), this);
+        }
+    }
+
+    /**
+     * Sends spawns over the connection until it breaks or the client is stopped. Acknowledgements are read by a separate
+     * thread, which closes the socket on failure so this notices it too.
+     */
+    private void sendOverConnection(final Socket connectedSocket) throws IOException, InterruptedException {
+        final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(connectedSocket.getOutputStream()));
+        final DataInputStream input = new DataInputStream(new BufferedInputStream(connectedSocket.getInputStream()));
+        SpawnFederationProtocol.writeHello(output, settings.sharedSecret(), settings.collectorName());
+
+        final Thread acknowledgementReader = new Thread(() -> readAcknowledgements(connectedSocket, input));
+        acknowledgementReader.setName("spawn-federation-ack-reader");
+        acknowledgementReader.setDaemon(true);
+        acknowledgementReader.start();
+
+        // Whatever wasn't acknowledged over the previous connection may not have made it. Copied so writing doesn't
+        // happen while holding the lock the acknowledgement reader needs.
+        final Map<Long, List<PendingSpawn>> batchesToResend;
+        synchronized (unacknowledgedBatches) {
+            batchesToResend = new LinkedHashMap<>(unacknowledgedBatches);
+        }
+        for (final Map.Entry<Long, List<PendingSpawn>> batch : batchesToResend.entrySet()) {
+            writeBatch(output, batch.getKey(), batch.getValue());
+        }
+        if (!batchesToResend.isEmpty()) {
+            log.info("Resent {} unacknowledged batch(es)", batchesToResend.size());
+        }
+        output.flush();
+
+        while (isRunning() && !connectedSocket.isClosed()) {
+            if (!awaitInFlightCapacity(connectedSocket)) {
+                continue;
+            }
+            final List<PendingSpawn> batch = takeBatch();
+            if (batch.isEmpty()) {
+                continue;
+            }
+            final long sequence = nextSequence++;
+            synchronized (unacknowledgedBatches) {
+                unacknowledgedBatches.put(sequence, batch);
+            }
+            writeBatch(output, sequence, batch);
+            output.flush();
+        }
+    }
+
+    /**
+     * @return
+     *      True if another batch can be sent, false if still at capacity after waiting for a while
+     */
+    private boolean awaitInFlightCapacity(final Socket connectedSocket) throws InterruptedException {
+        synchronized (unacknowledgedBatches) {
+            if (unacknowledgedBatches.size() >= settings.maxInFlightBatches() && !connectedSocket.isClosed()) {
+                TimeUnit.NANOSECONDS.timedWait(unacknowledgedBatches, PENDING_POLL_INTERVAL_NANOS);
+            }
+            return unacknowledgedBatches.size() < settings.maxInFlightBatches();
+        }
+    }
+
+    /**
+     * Waits a short while for the first spawn and then collects up to {@link SpawnFederationClientSettings#maxBatchSize()}
+     * spawns, waiting for at most {@link SpawnFederationClientSettings#batchWindow()} for the batch to fill up.
+     *
+     * @return
+     *      Batch of spawns, empty if none showed up
+     */
+    private List<PendingSpawn> takeBatch() throws InterruptedException {
+        final PendingSpawn first = pendingSpawns.poll(PENDING_POLL_INTERVAL_NANOS, TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return new ArrayList<>();
+        }
+        final List<PendingSpawn> batch = new ArrayList<>(settings.maxBatchSize());
+        batch.add(first);
+        final long deadline = System.nanoTime() + settings.batchWindow().toNanos();
+        while (batch.size() < settings.maxBatchSize()) {
+            if (pendingSpawns.drainTo(batch, settings.maxBatchSize() - batch.size()) > 0) {
+                continue;
+            }
+            final PendingSpawn next = pendingSpawns.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    private void writeBatch(final DataOutputStream output, final long sequence, final List<PendingSpawn> batch)
+            throws IOException {
+        final List<PokemonSpawn> pokemonSpawns = new ArrayList<>(batch.size());
+        batch.forEach(pendingSpawn -> pokemonSpawns.add(pendingSpawn.pokemonSpawn));
+        SpawnFederationProtocol.writeBatch(output, sequence, pokemonSpawns);
+        sentBatchCount.increment();
+    }
+
+    private void readAcknowledgements(final Socket connectedSocket, final DataInputStream input) {
+        try {
+            while (!connectedSocket.isClosed()) {
+                final long sequence = SpawnFederationProtocol.readAck(SpawnFederationProtocol.readFrame(input));
+                final long acknowledgedNanos = System.nanoTime();
+                final List<PendingSpawn> batch;
+                synchronized (unacknowledgedBatches) {
+                    batch = unacknowledgedBatches.remove(sequence);
+                    unacknowledgedBatches.notifyAll();
+                }
+                if (batch == null) {
+                    // Acknowledgement of a batch that was resent and acknowledged before
+                    continue;
+                }
+                acknowledgedCount.add(batch.size());
+                batch.forEach(pendingSpawn -> acknowledgeLatency.record(acknowledgedNanos - pendingSpawn.offeredNanos));
+            }
+        } catch (final IOException e) {
+            if (!connectedSocket.isClosed()) {
+                log.warn("Failed reading acknowledgements from central spawn exchange: {}", e.getMessage());
+            }
+        } finally {
+            try {
+                connectedSocket.close();
+            } catch (final IOException e) {
+                log.warn("Failed to close connection to central spawn exchange", e);
+            }
+            synchronized (unacknowledgedBatches) {
+                unacknowledgedBatches.notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("offered: %d, dropped: %d, pending: %d, acknowledged: %d, batches sent: %d, connects: %d, "
+                        + "acknowledge latency: [%s]",
+                getOfferedCount(), getDroppedCount(), getPendingCount(), getAcknowledgedCount(), getSentBatchCount(),
+                getConnectCount(), acknowledgeLatency);
+    }
+
+    @RequiredArgsConstructor
+    private static final class PendingSpawn {
+        private final PokemonSpawn pokemonSpawn;
+        private final long offeredNanos;
+    }
+
+}
@@ -0,0 +1,89 @@
+package pogo.assistance.data.exchange.spawn;
+
+import java.time.Duration;
+
+import org.immutables.value.Value;
+
+/**
+ * Settings of a {@link SpawnFederationClient}.
+ */
+@Value.Immutable
+public interface SpawnFederationClientSettings {
+
+    /**
+     * Identifies the remote collector in the central exchange's logs.
+     */
+    String collectorName();
+
+    /**
+     * Has to match the central exchange's secret for it to accept spawns from this collector.
+     */
+    @Value.Redacted
+    String sharedSecret();
+
+    /**
+     * Max number of spawns sent in a single batch.
+     */
+    @Value.Default
+    default int maxBatchSize() {
+        return 100;
+    }
+
+    /**
+     * How long to wait for more spawns to fill up a batch, counted from when the first spawn of the batch is picked up.
+     * This is the most latency batching adds to a spawn.
+     */
+    @Value.Default
+    default Duration batchWindow() {
+        return Duration.ofMillis(20);
+    }
+
+    /**
+     * Max number of batches sent but not yet acknowledged. Sending stops once this many are in flight.
+     */
+    @Value.Default
+    default int maxInFlightBatches() {
+        return 16;
+    }
+
+    /**
+     * Max number of spawns waiting to be sent, e.g. while disconnected. Spawns offered beyond this are dropped.
+     */
+    @Value.Default
+    default int pendingCapacity() {
+        return 10000;
+    }
+
+    @Value.Default
+    default Duration connectTimeout() {
+        return Duration.ofSeconds(5);
+    }
+
+    /**
+     * Delay before the first reconnect attempt. Doubles with each consecutive failed attempt, up to
+     * {@link #maxReconnectDelay()}.
+     */
+    @Value.Default
+    default Duration minReconnectDelay() {
+        return Duration.ofMillis(500);
+    }
+
+    @Value.Default
+    default Duration maxReconnectDelay() {
+        return Duration.ofSeconds(30);
+    }
+
+    @Value.Check
+    default void check() {
+        if (sharedSecret().isEmpty()) {
+            throw new IllegalStateException("Shared secret can't be empty");
+        }
+        if (maxBatchSize() < 1 || maxInFlightBatches() < 1 || pendingCapacity() < 1) {
+            throw new IllegalStateException("Batch size, in flight batches and pending capacity must be positive: " + this);
+        }
+        if (batchWindow().isNegative() || minReconnectDelay().isNegative() || minReconnectDelay().compareTo(maxReconnectDelay()) > 0) {
+            throw new IllegalStateException("Invalid batch window or reconnect delays: " + this);
+        }
+    }
+
+}
@@ -0,0 +1,171 @@
+package pogo.assistance.data.exchange.spawn;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.UtilityClass;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+import pogo.assistance.data.serde.PokemonSpawnBinaryCodec;
+
+/**
+ * Wire format spoken between {@link SpawnFederationClient remote collectors} and the
+ * {@link SpawnFederationServer central exchange}.
+ *
+ * Every frame is laid out as: frame type (byte), payload length (int), payload. Frames are:
+ *  - HELLO, client to server, once per connection: protocol magic (int), protocol version (byte),
+ *    {@link PokemonSpawnBinaryCodec#SCHEMA_FINGERPRINT spawn encoding fingerprint} (long), shared secret, collector name
+ *  - BATCH, client to server: batch sequence number (long), spawn count (int), followed by
+ *    {@link PokemonSpawnBinaryCodec encoded} spawns
+ *  - ACK, server to client: sequence number of a batch whose spawns have all been offered to the exchange (long)
+ *
+ * The server drops clients whose spawn encoding fingerprint differs from its own, since the encoding relies on enum
+ * ordinals and a collector running a different build would otherwise be decoded into wrong genders and forms. It also
+ * drops clients that don't know its shared secret. The secret is sent in plain text, so it only keeps out strangers
+ * that happen to find the port, not anyone able to watch the traffic.
+ *
+ * Clients resend unacknowledged batches after reconnecting, so the server may see the same batch more than once. That's
+ * fine since the exchange ignores duplicate spawns anyway.
+ */
+@UtilityClass
+class SpawnFederationProtocol {
+
+    static final int MAGIC = 0x506f476f;
+    static final byte VERSION = 2;
+
+    static final byte HELLO = 1;
+    static final byte BATCH = 2;
+    static final byte ACK = 3;
+
+    /**
+     * Guards against allocating huge buffers when reading garbage.
+     */
+    private static final int MAX_PAYLOAD_BYTES = 16 * 1024 * 1024;
+    /**
+     * Hello is read before the peer is authenticated, so it gets a much tighter limit. Secret and collector name are
+     * short, so this is plenty.
+     */
+    static final int MAX_HELLO_PAYLOAD_BYTES = 4 * 1024;
+
+    @RequiredArgsConstructor
+    static final class Frame {
+        final byte type;
+        final byte[] payload;
+
+        DataInputStream payloadInput() {
+            return new DataInputStream(new ByteArrayInputStream(payload));
+        }
+    }
+
+    static void writeHello(final DataOutputStream output, final String sharedSecret, final String collectorName)
+            throws IOException {
+        final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        final DataOutputStream payloadOutput = new DataOutputStream(payload);
+        payloadOutput.writeInt(MAGIC);
+        payloadOutput.writeByte(VERSION);
+        payloadOutput.writeLong(PokemonSpawnBinaryCodec.SCHEMA_FINGERPRINT);
+        payloadOutput.writeUTF(sharedSecret);
+        payloadOutput.writeUTF(collectorName);
+        writeFrame(output, HELLO, payload);
+    }
+
+    static void writeBatch(final DataOutputStream output, final long sequence, final List<PokemonSpawn> pokemonSpawns)
+            throws IOException {
+        final ByteArrayOutputStream payload = new ByteArrayOutputStream(pokemonSpawns.size() * 96);
+        final DataOutputStream payloadOutput = new DataOutputStream(payload);
+        payloadOutput.writeLong(sequence);
+        payloadOutput.writeInt(pokemonSpawns.size());
+        for (final PokemonSpawn pokemonSpawn : pokemonSpawns) {
+            PokemonSpawnBinaryCodec.write(pokemonSpawn, payloadOutput);
+        }
+        writeFrame(output, BATCH, payload);
+    }
+
+    static void writeAck(final DataOutputStream output, final long sequence) throws IOException {
+        output.writeByte(ACK);
+        output.writeInt(Long.BYTES);
+        output.writeLong(sequence);
+    }
+
+    static Frame readFrame(final DataInputStream input) throws IOException {
+        return readFrame(input, MAX_PAYLOAD_BYTES);
+    }
+
+    static Frame readFrame(final DataInputStream input, final int maxPayloadBytes) throws IOException {
+        final byte type = input.readByte();
+        final int length = input.readInt();
+        if (length < 0 || length > maxPayloadBytes) {
+            throw new ProtocolException(String.format("Invalid length %d for frame of type %d", length, type));
+        }
+        final byte[] payload = new byte[length];
+        input.readFully(payload);
+        return new Frame(type, payload);
+    }
+
+    /**
+     * @return
+     *      Collector name from the hello frame
+     */
+    static String readHello(final Frame frame, final String sharedSecret) throws IOException {
+        verifyType(frame, HELLO);
+        final DataInputStream payload = frame.payloadInput();
+        final int magic = payload.readInt();
+        final byte version = payload.readByte();
+        if (magic != MAGIC || version != VERSION) {
+            throw new ProtocolException(String.format("Unsupported protocol magic %x, version %d", magic, version));
+        }
+        final long schemaFingerprint = payload.readLong();
+        if (schemaFingerprint != PokemonSpawnBinaryCodec.SCHEMA_FINGERPRINT) {
+            throw new ProtocolException(String.format(
+                    "Spawn encoding fingerprint %x doesn't match %x. Is the collector running a different build?",
+                    schemaFingerprint, PokemonSpawnBinaryCodec.SCHEMA_FINGERPRINT));
+        }
+        // Constant time comparison, so response timing doesn't give away how much of a guessed secret is right
+        if (!MessageDigest.isEqual(
+                payload.readUTF().getBytes(StandardCharsets.UTF_8),
+                sharedSecret.getBytes(StandardCharsets.UTF_8))) {
+            throw new ProtocolException("Wrong shared secret");
+        }
+        return payload.readUTF();
+    }
+
+    static long readBatchSequence(final DataInputStream batchPayload) throws IOException {
+        return batchPayload.readLong();
+    }
+
+    static List<PokemonSpawn> readBatchSpawns(final DataInputStream batchPayload) throws IOException {
+        final int count = batchPayload.readInt();
+        final List<PokemonSpawn> pokemonSpawns = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            pokemonSpawns.add(PokemonSpawnBinaryCodec.read(batchPayload));
+        }
+        return pokemonSpawns;
+    }
+
+    static long readAck(final Frame frame) throws IOException {
+        verifyType(frame, ACK);
+        return frame.payloadInput().readLong();
+    }
+
+    static void verifyType(final Frame frame, final byte expectedType) throws ProtocolException {
+        if (frame.type != expectedType) {
+            throw new ProtocolException(String.format("Expected frame of type %d, got %d", expectedType, frame.type));
+        }
+    }
+
+    private static void writeFrame(final DataOutputStream output, final byte type, final ByteArrayOutputStream payload)
+            throws IOException {
+        output.writeByte(type);
+        output.writeInt(payload.size());
+        payload.writeTo(output);
+    }
+
+}
@@ -0,0 +1,270 @@
+package pogo.assistance.data.exchange.spawn;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.AbstractExecutionThreadService;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+/**
+ * Central side of collector federation. Accepts connections from {@link SpawnFederationClient remote collectors} and
+ * offers the spawns they send to the local {@link PokemonSpawnSink} (i.e. the exchange). Each batch is acknowledged
+ * once all its spawns have been offered.
+ *
+ * Until a connection has presented the shared secret, it gets a small hello size limit and a read timeout, and there's
+ * a cap on concurrent connections, so peers that never authenticate can't hold on to threads or memory.
+ *
+ * @see SpawnFederationProtocol
+ */
+@Slf4j
+public class SpawnFederationServer extends AbstractExecutionThreadService {
+
+    static final Duration DEFAULT_HANDSHAKE_TIMEOUT = Duration.ofSeconds(10);
+    /**
+     * There are only a handful of collectors, so anything beyond this is either a misconfiguration or not a collector
+     */
+    static final int MAX_CONNECTIONS = 32;
+
+    private final InetSocketAddress bindAddress;
+    private final String sharedSecret;
+    private final PokemonSpawnSink spawnSink;
+    private final int handshakeTimeoutMillis;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final ExecutorService connectionExecutor = new ThreadPoolExecutor(
+            0,
+            MAX_CONNECTIONS,
+            1,
+            TimeUnit.MINUTES,
+            new SynchronousQueue<>(),
+            new ThreadFactoryBuilder()
+                    .setNameFormat("spawn-federation-connection-%d")
+                    .setDaemon(true)
+                    .build());
+    private volatile ServerSocket serverSocket;
+
+    private final LongAdder acceptedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder batchCount = new LongAdder();
+    private final LongAdder spawnCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    /**
+     * Time from receiving a batch to acknowledging it, i.e. time to decode and offer all its spawns.
+     */
+    @Getter
+    private final SpawnLatencyStats batchLatency = new SpawnLatencyStats();
+
+    /**
+     * @param bindAddress
+     *      Address to listen on. Use port 0 to listen on any free port (see {@link #getPort()}).
+     * @param sharedSecret
+     *      Secret remote collectors have to present, see {@link SpawnFederationClientSettings#sharedSecret()}
+     */
+    public SpawnFederationServer(
+            final InetSocketAddress bindAddress,
+            @NonNull final String sharedSecret,
+            final PokemonSpawnSink spawnSink) {
+        this(bindAddress, sharedSecret, spawnSink, DEFAULT_HANDSHAKE_TIMEOUT);
+    }
+
+    /**
+     * @param handshakeTimeout
+     *      How long a new connection has to send its hello before being dropped
+     */
+    SpawnFederationServer(
+            final InetSocketAddress bindAddress,
+            @NonNull final String sharedSecret,
+            final PokemonSpawnSink spawnSink,
+            final Duration handshakeTimeout) {
+        Preconditions.checkArgument(!sharedSecret.isEmpty(), "Shared secret can't be empty");
+        Preconditions.checkArgument(!handshakeTimeout.isNegative() && !handshakeTimeout.isZero(),
+                "Handshake timeout must be positive, but was %s", handshakeTimeout);
+        this.bindAddress = bindAddress;
+        this.sharedSecret = sharedSecret;
+        this.spawnSink = spawnSink;
+        this.handshakeTimeoutMillis = Math.toIntExact(handshakeTimeout.toMillis());
+    }
+
+    /**
+     * @return
+     *      Port the server is listening on
+     * @throws IllegalStateException
+     *      If the server hasn't started up yet
+     */
+    public int getPort() {
+        final ServerSocket listeningSocket = serverSocket;
+        Preconditions.checkState(listeningSocket != null, "Federation server hasn't started up yet");
+        return listeningSocket.getLocalPort();
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    public long getAcceptedCount() {
+        return acceptedCount.sum();
+    }
+
+    /**
+     * @return
+     *      Number of connections closed right away because {@link #MAX_CONNECTIONS} were already being served
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public long getBatchCount() {
+        return batchCount.sum();
+    }
+
+    public long getSpawnCount() {
+        return spawnCount.sum();
+    }
+
+    /**
+     * @return
+     *      Number of received spawns the sink failed to take
+     */
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    @Override
+    protected void startUp() throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(bindAddress);
+        log.info("Accepting remote spawn collectors on {}", serverSocket.getLocalSocketAddress());
+    }
+
+    @Override
+    protected void run() {
+        while (isRunning()) {
+            final Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (final IOException e) {
+                if (!isRunning()) {
+                    break;
+                }
+                log.error("Failed to accept remote collector connection", e);
+                continue;
+            }
+            acceptedCount.increment();
+            connections.add(socket);
+            try {
+                connectionExecutor.execute(() -> serve(socket));
+            } catch (final RejectedExecutionException e) {
+                rejectedCount.increment();
+                log.warn("Already serving {} connections. Rejecting connection from {}",
+                        MAX_CONNECTIONS, socket.getRemoteSocketAddress());
+                connections.remove(socket);
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    @Override
+    protected void triggerShutdown() {
+        closeQuietly(serverSocket);
+        connections.forEach(SpawnFederationServer::closeQuietly);
+    }
+
+    @Override
+    protected void shutDown() {
+        connectionExecutor.shutdownNow();
+        log.info("Stopped accepting remote spawn collectors: {}", this);
+    }
+
+    private void serve(final Socket socket) {
+        String collectorName = socket.getRemoteSocketAddress().toString();
+        try {
+            socket.setTcpNoDelay(true);
+            final DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            socket.setSoTimeout(handshakeTimeoutMillis);
+            collectorName = SpawnFederationProtocol.readHello(
+                    SpawnFederationProtocol.readFrame(input, SpawnFederationProtocol.MAX_HELLO_PAYLOAD_BYTES),
+                    sharedSecret);
+            // Authenticated collectors can go quiet for as long as they have no spawns to send
+            socket.setSoTimeout(0);
+            log.info("Remote collector '{}' connected from {}", collectorName, socket.getRemoteSocketAddress());
+
+            while (isRunning()) {
+                final SpawnFederationProtocol.Frame frame = SpawnFederationProtocol.readFrame(input);
+                final long receivedNanos = System.nanoTime();
+                SpawnFederationProtocol.verifyType(frame, SpawnFederationProtocol.BATCH);
+                final DataInputStream payload = frame.payloadInput();
+                final long sequence = SpawnFederationProtocol.readBatchSequence(payload);
+                final List<PokemonSpawn> pokemonSpawns = SpawnFederationProtocol.readBatchSpawns(payload);
+                pokemonSpawns.forEach(this::offer);
+                SpawnFederationProtocol.writeAck(output, sequence);
+                output.flush();
+                batchCount.increment();
+                spawnCount.add(pokemonSpawns.size());
+                batchLatency.record(System.nanoTime() - receivedNanos);
+            }
+        } catch (final EOFException | SocketException e) {
+            log.info("Remote collector '{}' disconnected: {}", collectorName, e.getMessage());
+        } catch (final IOException | RuntimeException e) {
+            // Runtime exceptions too, since garbage can also fail decoding with those (e.g. out of range enum ordinals)
+            log.error(String.format("Dropping connection to remote collector '%s'", collectorName), e);
+        } finally {
+            connections.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    private void offer(final PokemonSpawn pokemonSpawn) {
+        try {
+            spawnSink.offer(pokemonSpawn);
+        } catch (final RuntimeException e) {
+            // Not the remote collector's fault, so still acknowledge the batch rather than having it resent forever
+            failedCount.increment();
+            log.error("Failed to offer spawn from remote collector: " + pokemonSpawn, e);
+        }
+    }
+
+    private static void closeQuietly(final Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (final IOException e) {
+            log.warn("Failed to close " + closeable, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "connections: %d, accepted: %d, rejected: %d, batches: %d, spawns: %d, failed: %d, batch latency: [%s]",
+                getConnectionCount(), getAcceptedCount(), getRejectedCount(), getBatchCount(), getSpawnCount(),
+                getFailedCount(), batchLatency);
+    }
+
+}
@@ -0,0 +1,261 @@
+package pogo.assistance.data.exchange.spawn;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Set of 64 bit spawn fingerprints, each with an expiration and an opaque int attribution (e.g. who reported the spawn
+ * first), stored in primitive arrays instead of as boxed map entries. Takes 16 bytes per slot and is kept at most 3/4
+ * full (about half full right after rehashing), so roughly 21 to 32 bytes per remembered spawn.
+ *
+ * Split into segments, each an open addressing hash table with linear probing guarded by its own lock, so threads
+ * working on different fingerprints rarely wait on each other.
+ *
+ * Expired fingerprints are treated as absent right away, but the slots they take are only reclaimed when their
+ * segment is rehashed, which happens when the segment fills up. Rehashing only keeps unexpired fingerprints and sizes
+ * the segment to them, so it doubles as eviction. Its cost is proportional to the size of the segment, and is amortised
+ * over at least as many inserts, so eviction is amortised O(1) per fingerprint.
+ */
+class SpawnFingerprintTable {
+
+    /**
+     * Bytes taken by each slot: a long fingerprint, an int expiration and an int attribution.
+     */
+    static final int BYTES_PER_SLOT = Long.BYTES + Integer.BYTES + Integer.BYTES;
+    /**
+     * Returned instead of an attribution when the fingerprint isn't in the table. Attributions must be non-negative.
+     */
+    static final int ABSENT = -1;
+
+    private final Segment[] segments;
+    private final int segmentMask;
+
+    /**
+     * @param segmentCount
+     *      Must be a power of two
+     * @param initialSegmentCapacity
+     *      Initial number of slots in each segment. Must be a power of two.
+     */
+    SpawnFingerprintTable(final int segmentCount, final int initialSegmentCapacity) {
+        Preconditions.checkArgument(Integer.bitCount(segmentCount) == 1, "Segment count must be a power of two");
+        Preconditions.checkArgument(Integer.bitCount(initialSegmentCapacity) == 1, "Segment capacity must be a power of two");
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(initialSegmentCapacity);
+        }
+        this.segmentMask = segmentCount - 1;
+    }
+
+    /**
+     * Adds the fingerprint, unless it's already in the table and unexpired.
+     *
+     * @param expirationEpochSecond
+     *      When to forget about the fingerprint
+     * @param nowEpochSecond
+     *      Current time. Fingerprints expiring before this are treated as absent.
+     * @return
+     *      True if the fingerprint was added
+     */
+    boolean putIfAbsent(final long fingerprint, final long expirationEpochSecond, final long nowEpochSecond) {
+        return putIfAbsentOrGet(fingerprint, expirationEpochSecond, 0, nowEpochSecond) == ABSENT;
+    }
+
+    /**
+     * Same as {@link #putIfAbsent(long, long, long)}, also keeping an attribution with the added fingerprint.
+     *
+     * @param attribution
+     *      Non-negative value to keep with the fingerprint
+     * @return
+     *      {@link #ABSENT} if the fingerprint was added, otherwise attribution of the fingerprint already in the table
+     */
+    int putIfAbsentOrGet(
+            final long fingerprint,
+            final long expirationEpochSecond,
+            final int attribution,
+            final long nowEpochSecond) {
+        Preconditions.checkArgument(attribution >= 0, "Attribution must be non-negative");
+        final long nonEmptyFingerprint = nonEmpty(fingerprint);
+        return segmentOf(nonEmptyFingerprint).putIfAbsentOrGet(
+                nonEmptyFingerprint,
+                toUnsignedInt(expirationEpochSecond),
+                attribution,
+                nowEpochSecond);
+    }
+
+    /**
+     * @return
+     *      True if the fingerprint is in the table and unexpired
+     */
+    boolean contains(final long fingerprint, final long nowEpochSecond) {
+        return get(fingerprint, nowEpochSecond) != ABSENT;
+    }
+
+    /**
+     * @return
+     *      Attribution of the fingerprint if it's in the table and unexpired, otherwise {@link #ABSENT}
+     */
+    int get(final long fingerprint, final long nowEpochSecond) {
+        final long nonEmptyFingerprint = nonEmpty(fingerprint);
+        return segmentOf(nonEmptyFingerprint).get(nonEmptyFingerprint, nowEpochSecond);
+    }
+
+    /**
+     * @return
+     *      Number of fingerprints in the table, including expired ones not reclaimed yet
+     */
+    int size() {
+        int size = 0;
+        for (final Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return
+     *      Number of slots allocated across all segments. Multiply by {@link #BYTES_PER_SLOT} for memory taken.
+     */
+    long capacity() {
+        long capacity = 0;
+        for (final Segment segment : segments) {
+            capacity += segment.capacity();
+        }
+        return capacity;
+    }
+
+    private Segment segmentOf(final long fingerprint) {
+        // Slots within a segment are picked by the low bits, so pick segments by the high ones
+        return segments[(int) (fingerprint >>> 32) & segmentMask];
+    }
+
+    /**
+     * Zero marks empty slots, so it's not usable as a fingerprint. Colliding it with another fingerprint is harmless.
+     */
+    private static long nonEmpty(final long fingerprint) {
+        return fingerprint == Segment.EMPTY ? 1 : fingerprint;
+    }
+
+    private static int toUnsignedInt(final long epochSecond) {
+        return (int) Math.max(0, Math.min(epochSecond, 0xFFFFFFFFL));
+    }
+
+    private static boolean isExpired(final int expiration, final long nowEpochSecond) {
+        return Integer.toUnsignedLong(expiration) < nowEpochSecond;
+    }
+
+    private static final class Segment {
+
+        private static final long EMPTY = 0;
+        private static final double MAX_LOAD_FACTOR = 0.75;
+        private static final double REHASHED_LOAD_FACTOR = 0.5;
+        private static final int MIN_CAPACITY = 16;
+
+        private long[] fingerprints;
+        /**
+         * Unsigned epoch seconds, good until 2106
+         */
+        private int[] expirations;
+        private int[] attributions;
+        private int size = 0;
+
+        Segment(final int capacity) {
+            this.fingerprints = new long[capacity];
+            this.expirations = new int[capacity];
+            this.attributions = new int[capacity];
+        }
+
+        synchronized int putIfAbsentOrGet(
+                final long fingerprint,
+                final int expiration,
+                final int attribution,
+                final long nowEpochSecond) {
+            final int mask = fingerprints.length - 1;
+            for (int slot = (int) fingerprint & mask; ; slot = (slot + 1) & mask) {
+                if (fingerprints[slot] == fingerprint) {
+                    if (!isExpired(expirations[slot], nowEpochSecond)) {
+                        return attributions[slot];
+                    }
+                    expirations[slot] = expiration;
+                    attributions[slot] = attribution;
+                    return ABSENT;
+                }
+                if (fingerprints[slot] == EMPTY) {
+                    if (size + 1 > fingerprints.length * MAX_LOAD_FACTOR) {
+                        rehash(nowEpochSecond);
+                        insert(fingerprint, expiration, attribution);
+                    } else {
+                        fingerprints[slot] = fingerprint;
+                        expirations[slot] = expiration;
+                        attributions[slot] = attribution;
+                    }
+                    size++;
+                    return ABSENT;
+                }
+            }
+        }
+
+        synchronized int get(final long fingerprint, final long nowEpochSecond) {
+            final int mask = fingerprints.length - 1;
+            for (int slot = (int) fingerprint & mask; fingerprints[slot] != EMPTY; slot = (slot + 1) & mask) {
+                if (fingerprints[slot] == fingerprint) {
+                    return isExpired(expirations[slot], nowEpochSecond) ? ABSENT : attributions[slot];
+                }
+            }
+            return ABSENT;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized int capacity() {
+            return fingerprints.length;
+        }
+
+        /**
+         * Rebuilds the segment with only the unexpired fingerprints, sized so they (and one more) take about
+         * {@link #REHASHED_LOAD_FACTOR} of it.
+         */
+        private void rehash(final long nowEpochSecond) {
+            final long[] oldFingerprints = fingerprints;
+            final int[] oldExpirations = expirations;
+            final int[] oldAttributions = attributions;
+            int liveCount = 0;
+            for (int slot = 0; slot < oldFingerprints.length; slot++) {
+                if (oldFingerprints[slot] != EMPTY && !isExpired(oldExpirations[slot], nowEpochSecond)) {
+                    liveCount++;
+                }
+            }
+
+            int capacity = MIN_CAPACITY;
+            while (liveCount + 1 > capacity * REHASHED_LOAD_FACTOR) {
+                capacity <<= 1;
+            }
+            fingerprints = new long[capacity];
+            expirations = new int[capacity];
+            attributions = new int[capacity];
+            size = 0;
+            for (int slot = 0; slot < oldFingerprints.length; slot++) {
+                if (oldFingerprints[slot] != EMPTY && !isExpired(oldExpirations[slot], nowEpochSecond)) {
+                    insert(oldFingerprints[slot], oldExpirations[slot], oldAttributions[slot]);
+                    size++;
+                }
+            }
+        }
+
+        /**
+         * Puts a fingerprint known to be absent into the first free slot. Doesn't update {@link #size}.
+         */
+        private void insert(final long fingerprint, final int expiration, final int attribution) {
+            final int mask = fingerprints.length - 1;
+            int slot = (int) fingerprint & mask;
+            while (fingerprints[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            fingerprints[slot] = fingerprint;
+            expirations[slot] = expiration;
+            attributions[slot] = attribution;
+        }
+
+    }
+
+}
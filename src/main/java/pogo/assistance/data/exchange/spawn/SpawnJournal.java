@@ -0,0 +1,520 @@
+package pogo.assistance.data.exchange.spawn;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Verify;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+import pogo.assistance.data.serde.PokemonSpawnBinaryCodec;
+
+/**
+ * Write-ahead journal of the spawn exchange. Records every unique spawn offered to the exchange and every spawn handed
+ * to the observer lanes or dropped on overflow, so after a restart the exchange can {@link #replay(BiConsumer, Consumer) replay} them
+ * to remember which spawns it has already seen and to dispatch the ones it didn't get to.
+ *
+ * The journal only covers the exchange's own queues. A spawn is acknowledged once it's handed to the observer lanes,
+ * not once the observers are done with it, so spawns waiting in lane backlogs are lost on a crash and not restored by
+ * replay. Acknowledging per lane would instead re-dispatch them to every observer, including the ones that already
+ * observed them.
+ *
+ * Journal is a directory of append only segment files. Each run of the application writes to new segments, rotating to
+ * the next one once current one grows too large or too old. Segments are deleted once all spawns they mention, whether
+ * offered or acknowledged in them, have expired. Otherwise an acknowledgement could be deleted before the offer it
+ * acknowledges, and the spawn would be re-dispatched on replay.
+ *
+ * Each record in a segment is laid out as:
+ *  - length of the record body (int)
+ *  - CRC32 checksum of the record body (int)
+ *  - record body: record type (byte), epoch millis at which the record was appended (long), followed by
+ *    {@link PokemonSpawnBinaryCodec encoded} spawn for offered spawns or fingerprint of the encoded spawn (long) for
+ *    acknowledged spawns
+ *
+ * @implNote
+ *      Appending only puts the record in a bounded in memory queue, so callers don't wait on disk while the writer keeps
+ *      up. A single writer thread drains that queue and writes whatever has accumulated as one group, followed by one
+ *      fsync for the whole group. When the writer falls behind enough to fill the queue, appending waits for room,
+ *      slowing the exchange down to the disk's pace rather than losing records. Records are only dropped, with a
+ *      warning, when appended after the journal is closed or its writer has stopped.
+ */
+@Slf4j
+public class SpawnJournal implements Closeable {
+
+    static final long DEFAULT_MAX_SEGMENT_BYTES = 8 * 1024 * 1024;
+    /**
+     * Rotating at least this often lets a segment be deleted soon after its spawns expire, even if there's so little
+     * traffic that it never grows to {@link #DEFAULT_MAX_SEGMENT_BYTES}.
+     */
+    static final Duration DEFAULT_MAX_SEGMENT_AGE = SpawnDeduplicator.DEFAULT_SPAWN_TTL;
+    private static final int APPEND_QUEUE_CAPACITY = 10000;
+    private static final long WRITER_POLL_INTERVAL_MILLIS = 100;
+
+    private static final Pattern SEGMENT_FILE_NAME_PATTERN = Pattern.compile("spawn-journal-(\\d+)\\.log");
+    private static final String SEGMENT_FILE_NAME_FORMAT = "spawn-journal-%010d.log";
+    /**
+     * Records can't legitimately get anywhere close to this size. Anything larger is garbage from a partial write.
+     */
+    private static final int MAX_RECORD_BYTES = 64 * 1024;
+    private static final int RECORD_BODY_PREFIX_BYTES = Byte.BYTES + Long.BYTES;
+    private static final byte OFFERED = 1;
+    private static final byte ACKNOWLEDGED = 2;
+    private static final HashFunction FINGERPRINT_FUNCTION = Hashing.murmur3_128();
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final long maxSegmentAgeNanos;
+    /**
+     * Segments written by previous runs, in the order they were written.
+     */
+    private final List<Path> previousSegments;
+    private final BlockingQueue<Entry> pendingEntries = new ArrayBlockingQueue<>(APPEND_QUEUE_CAPACITY);
+
+    /*
+     * Following are only touched by replay before the writer starts, and by the writer after that.
+     */
+    private final Map<Path, Instant> closedSegmentExpirations = new LinkedHashMap<>();
+    private int nextSegmentIndex;
+    private Path segment;
+    private FileChannel segmentChannel;
+    private long segmentBytes;
+    private long segmentOpenedNanos;
+    private Instant segmentExpiration;
+
+    private volatile boolean running = false;
+    private Thread writer;
+
+    private final LongAdder appendedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder syncCount = new LongAdder();
+    /**
+     * Time callers spent appending. This is the cost the journal adds to the exchange's hot path.
+     */
+    @Getter
+    private final SpawnLatencyStats appendLatency = new SpawnLatencyStats();
+    /**
+     * Time taken by each fsync.
+     */
+    @Getter
+    private final SpawnLatencyStats syncLatency = new SpawnLatencyStats();
+    /**
+     * Time from appending a record to it being fsync-ed.
+     */
+    @Getter
+    private final SpawnLatencyStats durabilityLatency = new SpawnLatencyStats();
+
+    /**
+     * @param directory
+     *      Directory to keep the segment files in. Created if it doesn't exist.
+     */
+    public SpawnJournal(final Path directory) throws IOException {
+        this(directory, DEFAULT_MAX_SEGMENT_BYTES, DEFAULT_MAX_SEGMENT_AGE);
+    }
+
+    SpawnJournal(final Path directory, final long maxSegmentBytes, final Duration maxSegmentAge) throws IOException {
+        Preconditions.checkArgument(maxSegmentBytes > 0, "Max segment size must be positive, but was %s", maxSegmentBytes);
+        this.directory = Files.createDirectories(directory);
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.maxSegmentAgeNanos = maxSegmentAge.toNanos();
+        try (final Stream<Path> files = Files.list(directory)) {
+            this.previousSegments = files
+                    .filter(file -> SEGMENT_FILE_NAME_PATTERN.matcher(file.getFileName().toString()).matches())
+                    .sorted(Comparator.comparingLong(SpawnJournal::segmentIndexOf))
+                    .collect(Collectors.toList());
+        }
+        this.nextSegmentIndex = previousSegments.isEmpty()
+                ? 0
+                : Math.toIntExact(segmentIndexOf(previousSegments.get(previousSegments.size() - 1)) + 1);
+    }
+
+    /**
+     * Reads back the segments written by previous runs. Segments are read in the order they were written. A segment
+     * ending with a torn or corrupt record (e.g. from a crash in the middle of a write) is read up to that record.
+     *
+     * Must be called, if at all, before {@link #start()}.
+     *
+     * @param unexpiredSpawnConsumer
+     *      Gets each spawn that was offered and hasn't expired yet, along with when it expires
+     * @param unacknowledgedSpawnConsumer
+     *      Gets each unexpired spawn that was offered but never acknowledged, in the order they were offered
+     */
+    public void replay(
+            final BiConsumer<PokemonSpawn, Instant> unexpiredSpawnConsumer,
+            final Consumer<PokemonSpawn> unacknowledgedSpawnConsumer) throws IOException {
+        Verify.verify(writer == null, "Journal must be replayed before it's started");
+        final Instant now = Instant.now();
+        final Map<Long, PokemonSpawn> unacknowledgedSpawns = new LinkedHashMap<>();
+        // Acknowledgements only have the fingerprint, so they expire along with the offer they acknowledge
+        final Map<Long, Instant> unexpiredSpawnExpirations = new HashMap<>();
+        int unexpiredCount = 0;
+        for (final Path previousSegment : previousSegments) {
+            Instant latestExpiration = Instant.MIN;
+            try (final DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(previousSegment)))) {
+                Optional<byte[]> body;
+                while ((body = readRecordBody(input, previousSegment)).isPresent()) {
+                    final DataInputStream bodyInput = new DataInputStream(new ByteArrayInputStream(body.get()));
+                    final byte type = bodyInput.readByte();
+                    final Instant appendedAt = Instant.ofEpochMilli(bodyInput.readLong());
+                    if (type == OFFERED) {
+                        final PokemonSpawn pokemonSpawn = PokemonSpawnBinaryCodec.read(bodyInput);
+                        final Instant expiration = expirationOf(pokemonSpawn, appendedAt);
+                        latestExpiration = latestExpiration.isAfter(expiration) ? latestExpiration : expiration;
+                        if (expiration.isAfter(now)) {
+                            final long fingerprint = fingerprintOf(body.get(), RECORD_BODY_PREFIX_BYTES);
+                            unexpiredCount++;
+                            unexpiredSpawnConsumer.accept(pokemonSpawn, expiration);
+                            unacknowledgedSpawns.put(fingerprint, pokemonSpawn);
+                            unexpiredSpawnExpirations.put(fingerprint, expiration);
+                        }
+                    } else if (type == ACKNOWLEDGED) {
+                        final long fingerprint = bodyInput.readLong();
+                        unacknowledgedSpawns.remove(fingerprint);
+                        final Instant expiration = unexpiredSpawnExpirations.get(fingerprint);
+                        if (expiration != null) {
+                            latestExpiration = latestExpiration.isAfter(expiration) ? latestExpiration : expiration;
+                        }
+                    } else {
+                        log.warn("Ignoring journal record of unknown type {} in segment {}", type, previousSegment);
+                    }
+                }
+            }
+            closedSegmentExpirations.put(previousSegment, latestExpiration);
+        }
+        log.info("Replayed {} journal segment(s) with {} unexpired and {} unacknowledged spawn(s)",
+                previousSegments.size(), unexpiredCount, unacknowledgedSpawns.size());
+        unacknowledgedSpawns.values().forEach(unacknowledgedSpawnConsumer);
+    }
+
+    /**
+     * Opens a new segment and starts writing appended records to it. Expired segments from previous runs are deleted.
+     */
+    public synchronized void start() throws IOException {
+        Verify.verify(writer == null, "Journal already started");
+        openNextSegment();
+        deleteExpiredSegments();
+        writer = new Thread(this::writePendingEntries);
+        writer.setName("spawn-journal-writer");
+        // Not a daemon, so the JVM doesn't exit with appended records unwritten. Closing the journal stops it.
+        writer.setDaemon(false);
+        running = true;
+        writer.start();
+    }
+
+    /**
+     * Records that a unique spawn has been offered to the exchange. Only blocks while the writer is too far behind.
+     */
+    public void appendOffered(final PokemonSpawn pokemonSpawn) {
+        append(OFFERED, pokemonSpawn);
+    }
+
+    /**
+     * Records that a spawn has been handed to the observer lanes, or dropped by a full queue, so it isn't dispatched
+     * (again) on replay. Only blocks while the writer is too far behind.
+     */
+    public void appendAcknowledged(final PokemonSpawn pokemonSpawn) {
+        append(ACKNOWLEDGED, pokemonSpawn);
+    }
+
+    public long getAppendedCount() {
+        return appendedCount.sum();
+    }
+
+    /**
+     * @return
+     *      Number of records not journaled because they were appended after the journal was closed or its writer stopped
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * @return
+     *      Number of records that failed to be written to disk
+     */
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    public long getSyncCount() {
+        return syncCount.sum();
+    }
+
+    /**
+     * @return
+     *      Number of records waiting to be written
+     */
+    public int getPendingCount() {
+        return pendingEntries.size();
+    }
+
+    /**
+     * Stops accepting new records, waits for already appended ones to be written and synced, and closes the current
+     * segment.
+     */
+    @Override
+    public synchronized void close() {
+        running = false;
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.join();
+        } catch (final InterruptedException e) {
+            log.error("Interrupted while waiting for journal writer to finish.", e);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void append(final byte type, final PokemonSpawn pokemonSpawn) {
+        final long startNanos = System.nanoTime();
+        final Entry entry = new Entry(type, pokemonSpawn, System.currentTimeMillis(), startNanos);
+        try {
+            // Waits for room while the writer is behind, but gives up once it stops since no room would ever come
+            while (running) {
+                if (pendingEntries.offer(entry, WRITER_POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    appendedCount.increment();
+                    return;
+                }
+            }
+            droppedCount.increment();
+            log.warn("Journal isn't being written. Dropping record of spawn: {}", pokemonSpawn);
+        } catch (final InterruptedException e) {
+            droppedCount.increment();
+            log.warn("Interrupted while waiting for room in the journal. Dropping record of spawn: {}", pokemonSpawn);
+            Thread.currentThread().interrupt();
+        } finally {
+            appendLatency.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    private void writePendingEntries() {
+        try {
+            writePendingEntriesUntilClosed();
+        } finally {
+            // Whether closed or failed, nothing is writing anymore, so appending has to stop waiting for room
+            running = false;
+        }
+    }
+
+    private void writePendingEntriesUntilClosed() {
+        final List<Entry> group = new ArrayList<>();
+        // Keep going after being stopped until everything appended before that has been written
+        while (running || !pendingEntries.isEmpty()) {
+            try {
+                final Entry first = pendingEntries.poll(WRITER_POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                pendingEntries.drainTo(group);
+                writeGroup(group);
+                if (segmentBytes >= maxSegmentBytes || System.nanoTime() - segmentOpenedNanos >= maxSegmentAgeNanos) {
+                    rotateSegment();
+                }
+            } catch (final InterruptedException e) {
+                log.warn("Journal writer stopping on interruption with {} record(s) pending", pendingEntries.size());
+                Thread.currentThread().interrupt();
+                break;
+            } catch (final IOException | RuntimeException e) {
+                failedCount.add(group.size());
+                log.error(String.format("Failed to write %d record(s) to journal segment %s", group.size(), segment), e);
+            } finally {
+                group.clear();
+            }
+        }
+        try {
+            segmentChannel.close();
+        } catch (final IOException e) {
+            log.error("Failed to close journal segment " + segment, e);
+        }
+        log.info("Journal writer stopped: {}", this);
+    }
+
+    /**
+     * Writes all entries of the group with a single write and a single fsync.
+     */
+    private void writeGroup(final List<Entry> group) throws IOException {
+        final ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream(128);
+        final DataOutputStream body = new DataOutputStream(bodyBytes);
+        final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(group.size() * 128);
+        final DataOutputStream records = new DataOutputStream(recordBytes);
+        final CRC32 checksum = new CRC32();
+        for (final Entry entry : group) {
+            bodyBytes.reset();
+            body.writeByte(entry.type);
+            body.writeLong(entry.appendedAtMillis);
+            final byte[] encodedSpawn = PokemonSpawnBinaryCodec.encode(entry.pokemonSpawn);
+            if (entry.type == OFFERED) {
+                body.write(encodedSpawn);
+            } else {
+                body.writeLong(fingerprintOf(encodedSpawn, 0));
+            }
+            // Acknowledgements are appended after the offer, so this is never earlier than the offer's expiration
+            final Instant expiration = expirationOf(entry.pokemonSpawn, Instant.ofEpochMilli(entry.appendedAtMillis));
+            segmentExpiration = segmentExpiration.isAfter(expiration) ? segmentExpiration : expiration;
+            body.flush();
+
+            checksum.reset();
+            checksum.update(bodyBytes.toByteArray());
+            records.writeInt(bodyBytes.size());
+            records.writeInt((int) checksum.getValue());
+            bodyBytes.writeTo(records);
+        }
+        records.flush();
+
+        final ByteBuffer buffer = ByteBuffer.wrap(recordBytes.toByteArray());
+        while (buffer.hasRemaining()) {
+            segmentChannel.write(buffer);
+        }
+        final long syncStartNanos = System.nanoTime();
+        segmentChannel.force(false);
+        final long syncEndNanos = System.nanoTime();
+
+        segmentBytes += buffer.limit();
+        bytesWritten.add(buffer.limit());
+        syncCount.increment();
+        syncLatency.record(syncEndNanos - syncStartNanos);
+        group.forEach(entry -> durabilityLatency.record(syncEndNanos - entry.appendedNanos));
+    }
+
+    private void rotateSegment() throws IOException {
+        segmentChannel.close();
+        closedSegmentExpirations.put(segment, segmentExpiration);
+        openNextSegment();
+        deleteExpiredSegments();
+    }
+
+    private void openNextSegment() throws IOException {
+        segment = directory.resolve(String.format(SEGMENT_FILE_NAME_FORMAT, nextSegmentIndex++));
+        segmentChannel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segmentBytes = 0;
+        segmentOpenedNanos = System.nanoTime();
+        segmentExpiration = Instant.MIN;
+        log.debug("Opened journal segment {}", segment);
+    }
+
+    private void deleteExpiredSegments() {
+        final Instant now = Instant.now();
+        closedSegmentExpirations.entrySet().removeIf(segmentToExpiration -> {
+            if (segmentToExpiration.getValue().isAfter(now)) {
+                return false;
+            }
+            try {
+                Files.deleteIfExists(segmentToExpiration.getKey());
+                log.debug("Deleted expired journal segment {}", segmentToExpiration.getKey());
+                return true;
+            } catch (final IOException e) {
+                log.warn("Failed to delete expired journal segment " + segmentToExpiration.getKey(), e);
+                return false;
+            }
+        });
+    }
+
+    /**
+     * @return
+     *      Body of the next record, or empty if there are no more intact records
+     */
+    private static Optional<byte[]> readRecordBody(final DataInputStream input, final Path segment) throws IOException {
+        final int length;
+        final int expectedChecksum;
+        try {
+            length = input.readInt();
+            expectedChecksum = input.readInt();
+        } catch (final EOFException e) {
+            // Reached the end, possibly in the middle of a header that never got fully written
+            return Optional.empty();
+        }
+        if (length < RECORD_BODY_PREFIX_BYTES || length > MAX_RECORD_BYTES) {
+            log.warn("Journal segment {} has record of invalid length {}. Ignoring rest of the segment.", segment, length);
+            return Optional.empty();
+        }
+        final byte[] body = new byte[length];
+        try {
+            input.readFully(body);
+        } catch (final EOFException e) {
+            log.warn("Journal segment {} ends with a partially written record", segment);
+            return Optional.empty();
+        }
+        final CRC32 checksum = new CRC32();
+        checksum.update(body);
+        if ((int) checksum.getValue() != expectedChecksum) {
+            log.warn("Journal segment {} has record with checksum mismatch. Ignoring rest of the segment.", segment);
+            return Optional.empty();
+        }
+        return Optional.of(body);
+    }
+
+    private static long fingerprintOf(final byte[] bytes, final int offset) {
+        return FINGERPRINT_FUNCTION.hashBytes(bytes, offset, bytes.length - offset).asLong();
+    }
+
+    private static Instant expirationOf(final PokemonSpawn pokemonSpawn, final Instant offeredAt) {
+        return pokemonSpawn.getDespawnTime().orElseGet(() -> offeredAt.plus(SpawnDeduplicator.DEFAULT_SPAWN_TTL));
+    }
+
+    private static long segmentIndexOf(final Path segment) {
+        final Matcher matcher = SEGMENT_FILE_NAME_PATTERN.matcher(segment.getFileName().toString());
+        Verify.verify(matcher.matches(), "Not a journal segment: %s", segment);
+        return Long.parseLong(matcher.group(1));
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "appended: %d, dropped: %d, failed: %d, pending: %d, written: %d bytes in %d syncs, "
+                        + "append latency: %dus mean / %dus max, sync latency: [%s], durability latency: [%s]",
+                getAppendedCount(), getDroppedCount(), getFailedCount(), getPendingCount(), getBytesWritten(),
+                getSyncCount(), appendLatency.getMean().toNanos() / 1000, appendLatency.getMax().toNanos() / 1000,
+                syncLatency, durabilityLatency);
+    }
+
+    @RequiredArgsConstructor
+    private static final class Entry {
+        private final byte type;
+        private final PokemonSpawn pokemonSpawn;
+        private final long appendedAtMillis;
+        private final long appendedNanos;
+    }
+
+}
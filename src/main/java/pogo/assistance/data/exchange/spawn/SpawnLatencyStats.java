@@ -0,0 +1,65 @@
+package pogo.assistance.data.exchange.spawn;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running count, mean and max of recorded latencies. Cheap enough to record on every dispatch, from any thread.
+ */
+public class SpawnLatencyStats {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicLong lastNanos = new AtomicLong();
+
+    /**
+     * @return
+     *      Snapshot combining everything recorded so far by all of the {@code stats}. Since there's no telling which of
+     *      them recorded last, last latency of the snapshot is the largest of their last latencies.
+     */
+    static SpawnLatencyStats merge(final Collection<SpawnLatencyStats> stats) {
+        final SpawnLatencyStats merged = new SpawnLatencyStats();
+        stats.forEach(toMerge -> {
+            merged.count.add(toMerge.count.sum());
+            merged.totalNanos.add(toMerge.totalNanos.sum());
+            merged.maxNanos.accumulate(toMerge.maxNanos.get());
+            merged.lastNanos.accumulateAndGet(toMerge.lastNanos.get(), Math::max);
+        });
+        return merged;
+    }
+
+    public void record(final long latencyNanos) {
+        count.increment();
+        totalNanos.add(latencyNanos);
+        maxNanos.accumulate(latencyNanos);
+        lastNanos.set(latencyNanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public Duration getMean() {
+        final long currentCount = count.sum();
+        return currentCount == 0 ? Duration.ZERO : Duration.ofNanos(totalNanos.sum() / currentCount);
+    }
+
+    public Duration getMax() {
+        return Duration.ofNanos(maxNanos.get());
+    }
+
+    public Duration getLast() {
+        return Duration.ofNanos(lastNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count: %d, mean: %dms, max: %dms, last: %dms",
+                getCount(), getMean().toMillis(), getMax().toMillis(), getLast().toMillis());
+    }
+
+}
@@ -0,0 +1,26 @@
+package pogo.assistance.data.exchange.spawn;
+
+/**
+ * Decides what a {@link BoundedSpawnQueue} does when a spawn is offered while the queue is already at capacity.
+ */
+public enum SpawnOverflowPolicy {
+
+    /**
+     * Producer waits until the consumer frees up space. Nothing gets lost, but a slow consumer slows down the sources
+     * (e.g. JDA event threads, crawler) that are offering to the exchange.
+     */
+    BLOCK_PRODUCER,
+
+    /**
+     * Oldest queued spawn is discarded to make room for the new one. Favours fresh spawns, which are more likely to
+     * still be around when they get relayed.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Lowest value spawn (as ranked by {@link SpawnValue#COMPARATOR}) among the queued ones and the new one is
+     * discarded. If the new spawn itself is the least valuable, it's the one that gets discarded.
+     */
+    DROP_LOWEST_VALUE
+
+}
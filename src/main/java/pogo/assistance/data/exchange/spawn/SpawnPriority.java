@@ -0,0 +1,29 @@
+package pogo.assistance.data.exchange.spawn;
+
+/**
+ * Dispatch priority of a spawn. Queues that are priority aware dispatch spawns of a higher priority (declared earlier)
+ * before those of a lower priority.
+ */
+public enum SpawnPriority {
+
+    /**
+     * Spawns people drop everything for, e.g. 100 IV.
+     */
+    TOP,
+
+    /**
+     * Spawns that meet the relay criteria, e.g. 90+ IV, 0 IV, high CP or candy with IV info.
+     */
+    HIGH,
+
+    /**
+     * Spawns with some IV/CP/level info that don't make the cut for relaying.
+     */
+    NORMAL,
+
+    /**
+     * Spawns without any IV/CP/level info. Most crawler spawns are like this.
+     */
+    LOW
+
+}
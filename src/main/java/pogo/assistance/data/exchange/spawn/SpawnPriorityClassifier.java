@@ -0,0 +1,13 @@
+package pogo.assistance.data.exchange.spawn;
+
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+/**
+ * Assigns a {@link SpawnPriority} to a spawn, which decides the lane it takes through priority aware queues.
+ */
+@FunctionalInterface
+public interface SpawnPriorityClassifier {
+
+    SpawnPriority classify(final PokemonSpawn pokemonSpawn);
+
+}
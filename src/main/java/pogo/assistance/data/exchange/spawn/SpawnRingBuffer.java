@@ -0,0 +1,141 @@
+package pogo.assistance.data.exchange.spawn;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.google.common.base.Preconditions;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+/**
+ * Fixed capacity FIFO of {@link PokemonSpawn}s backed by an array that's allocated once up front. Along with each spawn
+ * it keeps the {@link System#nanoTime()} at which the spawn was added, so callers can tell how long it has been waiting.
+ *
+ * @implSpec
+ *      Not thread safe. Callers are expected to guard all access with their own lock.
+ */
+class SpawnRingBuffer {
+
+    private final PokemonSpawn[] items;
+    private final long[] enqueueNanos;
+    private int head = 0;
+    private int count = 0;
+
+    SpawnRingBuffer(final int capacity) {
+        Preconditions.checkArgument(capacity > 0, "Capacity must be positive, but was %s", capacity);
+        items = new PokemonSpawn[capacity];
+        enqueueNanos = new long[capacity];
+    }
+
+    int capacity() {
+        return items.length;
+    }
+
+    int size() {
+        return count;
+    }
+
+    boolean isEmpty() {
+        return count == 0;
+    }
+
+    boolean isFull() {
+        return count == items.length;
+    }
+
+    void addLast(final PokemonSpawn pokemonSpawn, final long nanoTime) {
+        Preconditions.checkState(!isFull(), "Ring buffer is full");
+        items[index(count)] = pokemonSpawn;
+        enqueueNanos[index(count)] = nanoTime;
+        count++;
+    }
+
+    PokemonSpawn peekFirst() {
+        return isEmpty() ? null : items[head];
+    }
+
+    /**
+     * @return
+     *      {@link System#nanoTime()} at which the first spawn was added
+     */
+    long peekFirstEnqueueNanos() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return enqueueNanos[head];
+    }
+
+    PokemonSpawn removeFirst() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        final PokemonSpawn first = items[head];
+        items[head] = null;
+        head = index(1);
+        count--;
+        return first;
+    }
+
+    /**
+     * @return
+     *      Offset from the head of the smallest spawn as ranked by the {@code comparator}, earliest one if there are
+     *      ties. Pass it to {@link #get(int)} and {@link #removeAt(int)} to avoid scanning again.
+     */
+    int minOffset(final Comparator<PokemonSpawn> comparator) {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        int minOffset = 0;
+        for (int offset = 1; offset < count; offset++) {
+            if (comparator.compare(items[index(offset)], items[index(minOffset)]) < 0) {
+                minOffset = offset;
+            }
+        }
+        return minOffset;
+    }
+
+    PokemonSpawn get(final int offset) {
+        Preconditions.checkElementIndex(offset, count);
+        return items[index(offset)];
+    }
+
+    /**
+     * Removes the spawn at the offset from the head. Relative order of the remaining spawns is kept.
+     */
+    PokemonSpawn removeAt(final int offset) {
+        Preconditions.checkElementIndex(offset, count);
+        final PokemonSpawn removed = items[index(offset)];
+        // Shift everything after the removed slot one step towards the head
+        for (int i = offset; i < count - 1; i++) {
+            items[index(i)] = items[index(i + 1)];
+            enqueueNanos[index(i)] = enqueueNanos[index(i + 1)];
+        }
+        items[index(count - 1)] = null;
+        count--;
+        return removed;
+    }
+
+    /**
+     * @return
+     *      Copy of the buffered spawns, from oldest to newest
+     */
+    List<PokemonSpawn> toList() {
+        final List<PokemonSpawn> list = new ArrayList<>(count);
+        for (int offset = 0; offset < count; offset++) {
+            list.add(items[index(offset)]);
+        }
+        return list;
+    }
+
+    void clear() {
+        while (!isEmpty()) {
+            removeFirst();
+        }
+    }
+
+    private int index(final int offsetFromHead) {
+        return (head + offsetFromHead) % items.length;
+    }
+
+}
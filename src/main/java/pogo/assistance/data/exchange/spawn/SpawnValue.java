@@ -0,0 +1,53 @@
+package pogo.assistance.data.exchange.spawn;
+
+import java.util.Comparator;
+import java.util.function.Predicate;
+
+import lombok.experimental.UtilityClass;
+import pogo.assistance.data.model.pokemon.PokedexEntry;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+/**
+ * Ranks spawns by how valuable they are to the people we relay to. Spawns missing some info rank lower than spawns
+ * having that info.
+ */
+@UtilityClass
+public class SpawnValue {
+
+    /**
+     * Orders spawns from least to most valuable: IV first, then CP, then level.
+     */
+    public static final Comparator<PokemonSpawn> COMPARATOR = Comparator
+            .<PokemonSpawn>comparingDouble(pokemonSpawn -> pokemonSpawn.getIv().orElse(-1.0))
+            .thenComparingInt(pokemonSpawn -> pokemonSpawn.getCp().orElse(-1))
+            .thenComparingInt(pokemonSpawn -> pokemonSpawn.getLevel().orElse(-1));
+
+    /**
+     * Classifies spawns roughly along the lines of what gets relayed, so spawns likely to be relayed get ahead of the
+     * rest.
+     *
+     * @param isCandy
+     *      Tells which pokemon are worth relaying for candy regardless of IV. Up to the relays, so it's passed in.
+     */
+    public static SpawnPriorityClassifier priorityClassifier(final Predicate<PokedexEntry> isCandy) {
+        return pokemonSpawn -> priorityOf(pokemonSpawn, isCandy);
+    }
+
+    public static SpawnPriority priorityOf(final PokemonSpawn pokemonSpawn, final Predicate<PokedexEntry> isCandy) {
+        final double iv = pokemonSpawn.getIv().orElse(-1.0);
+        if (iv == 100.0) {
+            return SpawnPriority.TOP;
+        }
+        if (iv >= 90.0
+                || iv == 0.0
+                || pokemonSpawn.getCp().orElse(0) >= 2000
+                || (iv >= 0 && isCandy.test(pokemonSpawn.getPokedexEntry()))) {
+            return SpawnPriority.HIGH;
+        }
+        if (iv >= 0 || pokemonSpawn.getCp().isPresent() || pokemonSpawn.getLevel().isPresent()) {
+            return SpawnPriority.NORMAL;
+        }
+        return SpawnPriority.LOW;
+    }
+
+}
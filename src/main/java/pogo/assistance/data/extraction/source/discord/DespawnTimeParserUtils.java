@@ -7,6 +7,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -63,15 +64,57 @@ public class DespawnTimeParserUtils {
         return extractSpawnDuration(compiledText, false).map(Instant.now()::plus);
     }
 
+    /**
+     * Same as {@link #extractDespawnTime(String)}, using lines of the already tokenized text. Lines are only matched
+     * against the period pattern if the text has a number directly followed by 'm' (i.e. minutes) somewhere.
+     */
+    public static Optional<Instant> extractDespawnTime(final SpawnMessageText compiledText) {
+        return extractSpawnDuration(compiledText, true).map(Instant.now()::plus);
+    }
+
+    /**
+     * Same as {@link #extractLowConfidenceDespawnTime(String)}, using lines of the already tokenized text.
+     */
+    public static Optional<Instant> extractLowConfidenceDespawnTime(final SpawnMessageText compiledText) {
+        return extractSpawnDuration(compiledText, false).map(Instant.now()::plus);
+    }
+
     @VisibleForTesting
     static Optional<Duration> extractSpawnDuration(final String compiledText, final boolean doRunValidations) {
-        return Stream.of(compiledText.split("\\r?\\n|\\r"))
+        return extractSpawnDuration(Stream.of(compiledText.split("\\r?\\n|\\r")), doRunValidations);
+    }
+
+    @VisibleForTesting
+    static Optional<Duration> extractSpawnDuration(final SpawnMessageText compiledText, final boolean doRunValidations) {
+        if (!hasMinutes(compiledText)) {
+            return Optional.empty();
+        }
+        return extractSpawnDuration(compiledText.lines().stream(), doRunValidations);
+    }
+
+    private static Optional<Duration> extractSpawnDuration(final Stream<String> lines, final boolean doRunValidations) {
+        return lines
                 .map(line -> extractSpawnDurationFromLine(line, doRunValidations))
                 .filter(Optional::isPresent)
                 .map(Optional::get)
                 .findAny();
     }
 
+    private static boolean hasMinutes(final SpawnMessageText compiledText) {
+        final List<SpawnMessageText.Token> tokens = compiledText.getTokens();
+        for (int i = 1; i < tokens.size(); i++) {
+            final SpawnMessageText.Token token = tokens.get(i);
+            if (token.getType() == SpawnMessageText.Token.Type.WORD
+                    && token.getEnd() - token.getStart() == 1
+                    && compiledText.getText().charAt(token.getStart()) == 'm'
+                    && tokens.get(i - 1).getType() == SpawnMessageText.Token.Type.NUMBER
+                    && tokens.get(i - 1).getEnd() == token.getStart()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private static Optional<Duration> extractSpawnDurationFromLine(final String line, final boolean doRunValidations) {
         final Matcher periodMatcher = DESPAWN_PERIOD_STRING.matcher(line);
         final boolean foundPeriod = periodMatcher.find();
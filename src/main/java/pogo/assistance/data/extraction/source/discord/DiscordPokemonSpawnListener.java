@@ -1,23 +1,27 @@
 package pogo.assistance.data.extraction.source.discord;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
 import lombok.extern.slf4j.Slf4j;
 import net.dv8tion.jda.api.JDA;
-import net.dv8tion.jda.api.MessageBuilder;
 import net.dv8tion.jda.api.entities.*;
+import net.dv8tion.jda.api.events.GenericEvent;
 import net.dv8tion.jda.api.events.ReadyEvent;
+import net.dv8tion.jda.api.events.channel.text.TextChannelDeleteEvent;
+import net.dv8tion.jda.api.events.channel.text.update.TextChannelUpdateNameEvent;
+import net.dv8tion.jda.api.events.channel.text.update.TextChannelUpdateParentEvent;
 import net.dv8tion.jda.api.events.message.guild.GuildMessageReceivedEvent;
 import net.dv8tion.jda.api.events.message.priv.PrivateMessageReceivedEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import pogo.assistance.bot.di.DiscordEntityConstants;
-import pogo.assistance.data.exchange.spawn.PokemonSpawnExchange;
+import pogo.assistance.data.exchange.spawn.PokemonSpawnSink;
 import pogo.assistance.data.model.pokemon.PokemonSpawn;
-import pogo.assistance.utils.debug.ServerLogger;
+import pogo.assistance.utils.debug.FailureDigest;
 
 import javax.inject.Inject;
-import java.util.LinkedList;
 import java.util.Optional;
-import java.util.Queue;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -25,7 +29,7 @@ import java.util.stream.Collectors;
  * Handles pokemon spawn notification events from various Discord channels.
  *
  * Processes notification message using registered channel specific processor and submits the spawn information to
- * {@link #spawnExchange exchange}, which can pass the notification to interested parties.
+ * {@link #spawnSink sink}, which gets it to the exchange that passes the notification to interested parties.
  *
  * This needs to be {@link net.dv8tion.jda.api.JDA#addEventListener(Object...) registered to JDA} for it to start
  * receiving messages from Discord channels.
@@ -33,23 +37,60 @@ import java.util.stream.Collectors;
 @Slf4j
 public class DiscordPokemonSpawnListener extends ListenerAdapter {
 
+    /**
+     * Events this listener does something with. JDAs that only have this listener can skip dispatching other events.
+     */
+    public static final Set<Class<? extends GenericEvent>> HANDLED_EVENT_TYPES = ImmutableSet.of(
+            ReadyEvent.class,
+            GuildMessageReceivedEvent.class,
+            PrivateMessageReceivedEvent.class,
+            TextChannelDeleteEvent.class,
+            TextChannelUpdateNameEvent.class,
+            TextChannelUpdateParentEvent.class);
+
     private final Set<MessageProcessor<PokemonSpawn>> guildMessageProcessors;
     private final Set<MessageProcessor<PokemonSpawn>> privateMessageProcessors;
-    private final PokemonSpawnExchange spawnExchange;
-    private final ServerLogger logger;
+    /**
+     * Processor of messages by channel and author, so messages from channels that were seen before skip the processors'
+     * checks. Guild and private channel IDs never clash, so they share one table.
+     */
+    private final MessageRoutingTable<MessageProcessor<PokemonSpawn>> routingTable = new MessageRoutingTable<>();
+    private final PokemonSpawnSink spawnSink;
+    /**
+     * Shared with listeners of other collector accounts, so a message they all see is only processed once
+     */
+    private final SeenMessageCache seenMessageCache;
+    /**
+     * Where messages are parsed, so JDA event threads only hand them off
+     */
+    private final MessageParsingPool parsingPool;
+    /**
+     * Where parsing failures are reported, in periodic digests rather than one report per failure
+     */
+    private final FailureDigest failureDigest;
+    /**
+     * Shared with listeners of other collector accounts, so numbers of a source add up across accounts
+     */
+    private final SourceParsingMetrics parsingMetrics;
     private final Gson gson;
 
     @Inject
     public DiscordPokemonSpawnListener(
             final Set<MessageProcessor<PokemonSpawn>> guildMessageProcessors,
             final Set<MessageProcessor<PokemonSpawn>> privateMessageProcessors,
-            final PokemonSpawnExchange spawnExchange,
-            final ServerLogger serverLogger,
+            final PokemonSpawnSink spawnSink,
+            final SeenMessageCache seenMessageCache,
+            final MessageParsingPool parsingPool,
+            final FailureDigest failureDigest,
+            final SourceParsingMetrics parsingMetrics,
             final Gson gson) {
         this.guildMessageProcessors = guildMessageProcessors;
         this.privateMessageProcessors = privateMessageProcessors;
-        this.spawnExchange = spawnExchange;
-        this.logger = serverLogger;
+        this.spawnSink = spawnSink;
+        this.seenMessageCache = seenMessageCache;
+        this.parsingPool = parsingPool;
+        this.failureDigest = failureDigest;
+        this.parsingMetrics = parsingMetrics;
         this.gson = gson;
     }
 
@@ -76,54 +117,113 @@ public class DiscordPokemonSpawnListener extends ListenerAdapter {
         process(privateMessageProcessors, event.getMessage());
     }
 
+    // Channel changes that can change which processor (if any) handles its messages. New channels have nothing in the
+    // routing table yet.
+
+    @Override
+    public void onTextChannelDelete(final TextChannelDeleteEvent event) {
+        routingTable.invalidateChannel(event.getChannel().getIdLong());
+    }
+
+    @Override
+    public void onTextChannelUpdateName(final TextChannelUpdateNameEvent event) {
+        routingTable.invalidateChannel(event.getChannel().getIdLong());
+    }
+
+    @Override
+    public void onTextChannelUpdateParent(final TextChannelUpdateParentEvent event) {
+        routingTable.invalidateChannel(event.getChannel().getIdLong());
+    }
+
     private void process(final Set<MessageProcessor<PokemonSpawn>> messageProcessors, final Message message) {
-        messageProcessors.stream().filter(processor -> processor.canProcess(message)).findAny().ifPresent(processor -> {
-            try {
-                processor.process(message).ifPresent(spawnExchange::offer);
-            } catch (final Exception e) {
-                sendErrorMessages(message, e);
-            }
+        final SourceParsingMetrics.SourceCounters sourceCounters = parsingMetrics.of(sourceNameOf(message));
+        sourceCounters.recordSeen();
+        routingTable.route(
+                message.getChannel().getIdLong(),
+                authorKeyOf(message),
+                () -> messageProcessors.stream().filter(processor -> processor.canProcess(message)).findAny()
+        ).ifPresent(processor -> {
+            sourceCounters.recordAccepted(processor.getClass());
+            // Parsing can take a while (even shell out to follow map redirects), and would hold up all other events of
+            // this account if done on the event thread
+            parsingPool.submit(message.getJDA().getSelfUser().getName(), () -> {
+                // Only marked seen once parsing starts. Accounts have different processors, so one that can't process
+                // the message shouldn't make the others skip it. And a full backlog can drop the task before it runs,
+                // in which case copies queued through other accounts still need to be parsed.
+                if (seenMessageCache.markSeen(message.getIdLong())) {
+                    log.trace("Skipping message already processed through another account: {}", message.getId());
+                    sourceCounters.recordRepeated();
+                    return;
+                }
+                final long startNanos = System.nanoTime();
+                final Optional<PokemonSpawn> pokemonSpawn;
+                try {
+                    pokemonSpawn = processor.process(message);
+                } catch (final Exception e) {
+                    sourceCounters.recordFailed(System.nanoTime() - startNanos);
+                    recordFailure(message, e);
+                    return;
+                }
+                if (pokemonSpawn.isPresent()) {
+                    sourceCounters.recordParsed(System.nanoTime() - startNanos);
+                    spawnSink.offer(pokemonSpawn.get());
+                } else {
+                    sourceCounters.recordSkipped(System.nanoTime() - startNanos);
+                }
+            }, failure -> recordFailure(message, failure));
         });
     }
 
-    private void sendErrorMessages(final Message messageThatFailedProcessing, final Exception exception) {
+    /**
+     * @return
+     *      Name of the source the message is from, same as the source name of spawns parsed from it (see
+     *      {@link SpawnMessageParsingUtils#buildSourceMetadataFromMessage(Message)}) for guild messages. Private
+     *      messages all share {@link SourceParsingMetrics#DIRECT_MESSAGES_SOURCE_NAME one source}.
+     */
+    private static String sourceNameOf(final Message message) {
+        return message.getChannelType().isGuild()
+                ? message.getGuild().getName()
+                : SourceParsingMetrics.DIRECT_MESSAGES_SOURCE_NAME;
+    }
+
+    /**
+     * Processors only tell guild users apart from each other if they are bots, so all other users share a route. Users
+     * sending private messages are always told apart, since some sources DM from accounts that aren't flagged as bots.
+     */
+    private static long authorKeyOf(final Message message) {
+        final User author = message.getAuthor();
+        if (author.isBot() || message.getChannelType() == ChannelType.PRIVATE) {
+            return author.getIdLong();
+        }
+        return MessageRoutingTable.ANY_USER;
+    }
+
+    private void recordFailure(final Message messageThatFailedProcessing, final Throwable exception) {
         final String messageSource;
         if (messageThatFailedProcessing.isFromGuild()) {
-            messageSource = String.format("%s → %s → %s%n",
-                    Optional.of(messageThatFailedProcessing.getGuild()).map(Guild::toString).orElse("Unknown guild"),
-                    Optional.ofNullable(messageThatFailedProcessing.getCategory()).map(Category::toString).orElse("Unknown category"),
-                    Optional.of(messageThatFailedProcessing.getChannel()).map(MessageChannel::toString).orElse("Unknown channel"));
+            messageSource = String.format("%s → %s",
+                    messageThatFailedProcessing.getGuild().getName(),
+                    messageThatFailedProcessing.getChannel().getName());
         } else {
-            messageSource = messageThatFailedProcessing.getChannelType().name();
+            messageSource = String.format("%s from %s",
+                    messageThatFailedProcessing.getChannelType().name(),
+                    messageThatFailedProcessing.getAuthor().getName());
         }
-        final MessageBuilder errorSummaryMsgBuilder = new MessageBuilder();
-        errorSummaryMsgBuilder.append("Source: ", MessageBuilder.Formatting.BOLD)
-                .append(messageSource, MessageBuilder.Formatting.BLOCK)
-                .append(System.lineSeparator());
-        errorSummaryMsgBuilder.append("Sender: ", MessageBuilder.Formatting.BOLD)
-                .append(messageThatFailedProcessing.getAuthor().toString())
-                .append(System.lineSeparator());
-        Optional.of(messageThatFailedProcessing.getJDA().getSelfUser())
-                .map(selfUser -> String.format("%s (%s)", selfUser.getName(), selfUser.getEmail()))
-                .ifPresent(receiver -> errorSummaryMsgBuilder.append("Receiver: ", MessageBuilder.Formatting.BOLD)
-                        .append(receiver)
-                        .append(System.lineSeparator()));
-        errorSummaryMsgBuilder.append("Jump URL: ", MessageBuilder.Formatting.BOLD)
-                .append(messageThatFailedProcessing.getJumpUrl())
-                .append(System.lineSeparator());
-
-        final MessageBuilder exceptionInfoMsgBuilder = new MessageBuilder()
-                .appendCodeBlock(joinExceptionCauses(exception, new StringBuilder()), "bash");
-
-        final MessageBuilder failedMessageAsJson = new MessageBuilder(messageThatFailedProcessing.getContentRaw());
-        messageThatFailedProcessing.getEmbeds().forEach(messageEmbed ->
-                failedMessageAsJson.appendCodeBlock(gson.toJson(messageEmbed.toData().toMap()), "json"));
-
-        final Queue<Message> messagesToSend = new LinkedList<>();
-        messagesToSend.addAll(errorSummaryMsgBuilder.buildAll(MessageBuilder.SplitPolicy.NEWLINE));
-        messagesToSend.addAll(exceptionInfoMsgBuilder.buildAll(MessageBuilder.SplitPolicy.NEWLINE));
-        messagesToSend.addAll(failedMessageAsJson.buildAll(MessageBuilder.SplitPolicy.NEWLINE));
-        logger.sendDebugMessages(messagesToSend);
+
+        // Single line, so it makes one line of the dead-letter file
+        final JsonObject failedMessageAsJson = new JsonObject();
+        failedMessageAsJson.addProperty("id", messageThatFailedProcessing.getId());
+        failedMessageAsJson.addProperty("jumpUrl", messageThatFailedProcessing.getJumpUrl());
+        failedMessageAsJson.addProperty("source", messageSource);
+        failedMessageAsJson.addProperty("sender", messageThatFailedProcessing.getAuthor().toString());
+        failedMessageAsJson.addProperty("receiver", messageThatFailedProcessing.getJDA().getSelfUser().getName());
+        failedMessageAsJson.addProperty("failure", joinExceptionCauses(exception, new StringBuilder()).toString());
+        failedMessageAsJson.addProperty("content", messageThatFailedProcessing.getContentRaw());
+        final JsonArray embeds = new JsonArray();
+        messageThatFailedProcessing.getEmbeds().forEach(messageEmbed -> embeds.add(gson.toJsonTree(messageEmbed.toData().toMap())));
+        failedMessageAsJson.add("embeds", embeds);
+
+        failureDigest.record(messageSource, exception, failedMessageAsJson.toString());
     }
 
     private static StringBuilder joinExceptionCauses(final Throwable throwable, final StringBuilder stringBuilder) {
@@ -113,15 +113,15 @@ public class GenericSpawnMessageProcessor implements MessageProcessor<PokemonSpa
             }
         }
 
-        final String compiledText = compileMessageText(message);
+        final SpawnMessageText compiledText = tokenizeMessageText(message);
         final MessageEmbed messageEmbed = message.getEmbeds().get(0); // Assuming all message has embed
         final Optional<PokedexEntry.Gender> gender = SpawnMessageParsingUtils.extractGender(compiledText);
         final PokemonSpawn pokemonSpawn = ImmutablePokemonSpawn.builder()
                 .from(SpawnMessageParsingUtils.parseGoogleMapQueryLink(compiledText))
                 // Assuming embed's thumbnail is novabot asset URL and we can infer pokemon ID from it
                 .pokedexEntry(NovaBotProcessingUtils.inferPokedexEntryFromNovaBotAssetUrl(messageEmbed.getThumbnail().getUrl(), gender.orElse(null)))
-                .iv(SpawnMessageParsingUtils.extractCombatStats(compiledText, compiledText).flatMap(CombatStats::combinedIv))
-                .level(SpawnMessageParsingUtils.extractLevel(compiledText))
+                .iv(SpawnMessageParsingUtils.extractCombatStats(compiledText).flatMap(CombatStats::combinedIv))
+                .level(SpawnMessageParsingUtils.extractLevel(compiledText.getText()))
                 .cp(SpawnMessageParsingUtils.extractCp(compiledText))
                 .sourceMetadata(SpawnMessageParsingUtils.buildSourceMetadataFromMessage(message))
                 .despawnTime(extractDespawnTime(message, compiledText))
@@ -130,32 +130,37 @@ public class GenericSpawnMessageProcessor implements MessageProcessor<PokemonSpa
     }
 
     public static String compileMessageText(final Message message) {
+        return tokenizeMessageText(message).getText();
+    }
+
+    /**
+     * Compiles text of the message's author and embed into one, tokenizing it along the way. Emoji are replaced with
+     * plain text and '*' markdown is removed from the description.
+     */
+    public static SpawnMessageText tokenizeMessageText(final Message message) {
         Verify.verify(message.getEmbeds().size() == 1);
         final MessageEmbed messageEmbed = message.getEmbeds().get(0);
 
-        final StringBuilder compiler = new StringBuilder();
-        Optional.of(message.getAuthor()).map(User::getName).ifPresent(name -> compiler.append(name).append(System.lineSeparator()));
-        Optional.ofNullable(messageEmbed.getTitle()).ifPresent(title -> compiler.append(title).append(System.lineSeparator()));
-        Optional.ofNullable(messageEmbed.getDescription()).ifPresent(description -> compiler.append(description.replaceAll("\\*", ""))
-                .append(System.lineSeparator()));
+        final SpawnMessageText.Builder compiler = SpawnMessageText.builder();
+        Optional.of(message.getAuthor()).map(User::getName).ifPresent(compiler::appendLine);
+        Optional.ofNullable(messageEmbed.getTitle()).ifPresent(compiler::appendLine);
+        Optional.ofNullable(messageEmbed.getDescription()).ifPresent(compiler::appendLineWithoutMarkdown);
         messageEmbed.getFields().forEach(field -> {
-            compiler.append(field.getName());
-            compiler.append(System.lineSeparator());
-            compiler.append(field.getValue());
-            compiler.append(System.lineSeparator());
+            compiler.appendLine(field.getName());
+            compiler.appendLine(field.getValue());
         });
-        Optional.ofNullable(messageEmbed.getUrl()).ifPresent(mapUrl -> compiler.append(mapUrl).append(System.lineSeparator()));
+        Optional.ofNullable(messageEmbed.getUrl()).ifPresent(compiler::appendLine);
 
-        final String compiledText = SpawnMessageParsingUtils.replaceEmojiWithPlainText(compiler.toString());
+        final SpawnMessageText compiledText = compiler.build();
         // Sources that has non-map links that needs to be resolved using redirection, needs to be passed to this
         // replacement process
         if (isFromUtahPoGoTargetChannels(message)) {
-            return LocationLinkParsingUtils.replaceMapRedirectingUrls(compiledText);
+            return SpawnMessageText.of(LocationLinkParsingUtils.replaceMapRedirectingUrls(compiledText.getText()));
         }
         return compiledText;
     }
 
-    private static Optional<Instant> extractDespawnTime(final Message message, final String compiledText) {
+    private static Optional<Instant> extractDespawnTime(final Message message, final SpawnMessageText compiledText) {
         // TODO: enable despawn parsing for all servers and remove this gating method
         if (isFromPogoSaTargetChannels(message)
                 || isFromPogoChChTargetChannels(message)
@@ -0,0 +1,25 @@
+package pogo.assistance.data.extraction.source.discord;
+
+/**
+ * Decides what a {@link MessageParsingPool} does with a message submitted while the submitting account's backlog is
+ * already full.
+ */
+public enum MessageOverflowPolicy {
+
+    /**
+     * JDA event thread submitting the message waits until a parser frees up space. Nothing gets lost, but the account
+     * stops receiving gateway events meanwhile, which is what the pool is there to avoid.
+     */
+    BLOCK_EVENT_THREAD,
+
+    /**
+     * Oldest message in the backlog is discarded to make room for the new one. Favours fresh spawns.
+     */
+    DROP_OLDEST,
+
+    /**
+     * New message is discarded
+     */
+    DROP_NEWEST
+
+}
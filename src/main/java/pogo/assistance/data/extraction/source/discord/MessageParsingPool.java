@@ -0,0 +1,256 @@
+package pogo.assistance.data.extraction.source.discord;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import pogo.assistance.data.exchange.spawn.SpawnLatencyStats;
+
+/**
+ * Parses messages off the JDA event threads, so a slow message (e.g. one with map links to follow) doesn't hold up the
+ * rest of its account's gateway events.
+ *
+ * Each account gets its own bounded backlog, and workers take one message at a time from each account with pending
+ * messages in turn. So a busy account can't starve the others, while an account gets all workers to itself if no other
+ * has anything pending.
+ */
+@Slf4j
+public class MessageParsingPool {
+
+    private final MessageParsingPoolSettings settings;
+    private final Map<String, AccountBacklog> accountToBacklog = new ConcurrentHashMap<>();
+    /**
+     * Backlogs with pending messages, in the order workers get to them. A backlog is in here at most once.
+     */
+    private final BlockingQueue<AccountBacklog> readyBacklogs = new LinkedBlockingQueue<>();
+    private final List<Thread> workers;
+
+    /**
+     * How long messages waited in backlogs before a worker picked them up
+     */
+    @Getter
+    private final SpawnLatencyStats queueWaitStats = new SpawnLatencyStats();
+    /**
+     * How long parsing (and offering the parsed spawn) took
+     */
+    @Getter
+    private final SpawnLatencyStats parseTimeStats = new SpawnLatencyStats();
+
+    public MessageParsingPool(final MessageParsingPoolSettings settings) {
+        this.settings = settings;
+        this.workers = IntStream.range(0, settings.workerCount())
+                .mapToObj(index -> {
+                    final Thread worker = new Thread(this::parseBacklogs);
+                    worker.setName(String.format("message-parser-%d", index));
+                    worker.setDaemon(true);
+                    return worker;
+                })
+                .collect(Collectors.toList());
+    }
+
+    public void start() {
+        workers.forEach(Thread::start);
+    }
+
+    /**
+     * Stops workers. Messages still in backlogs are discarded.
+     */
+    public void shutdown() {
+        workers.forEach(Thread::interrupt);
+    }
+
+    /**
+     * Queues parsing of a message in the account's backlog. Doesn't block unless the overflow policy is to block.
+     *
+     * @param account
+     *      Name of the account that received the message
+     * @param parseTask
+     *      Parses the message and does whatever with the result. Shouldn't throw.
+     */
+    public void submit(final String account, final Runnable parseTask) {
+        submit(account, parseTask, __ -> {});
+    }
+
+    /**
+     * Same as {@link #submit(String, Runnable)}, also reporting anything the task throws.
+     *
+     * @param failureHandler
+     *      Called on the worker thread with whatever the task threw (including errors, e.g. a regex overflowing the
+     *      stack), e.g. to record the message in a {@link pogo.assistance.utils.debug.FailureDigest}
+     */
+    public void submit(final String account, final Runnable parseTask, final Consumer<Throwable> failureHandler) {
+        final AccountBacklog backlog = accountToBacklog.computeIfAbsent(account, AccountBacklog::new);
+        if (backlog.add(new ParseTask(parseTask, failureHandler, System.nanoTime()))) {
+            readyBacklogs.add(backlog);
+        }
+    }
+
+    /**
+     * @return
+     *      Number of messages waiting to be parsed
+     */
+    public int getBacklogSize() {
+        return accountToBacklog.values().stream().mapToInt(AccountBacklog::size).sum();
+    }
+
+    /**
+     * @return
+     *      Number of messages discarded because their account's backlog was full
+     */
+    public long getDroppedCount() {
+        return accountToBacklog.values().stream().mapToLong(AccountBacklog::getDroppedCount).sum();
+    }
+
+    private void parseBacklogs() {
+        while (!Thread.currentThread().isInterrupted()) {
+            final AccountBacklog backlog;
+            try {
+                backlog = readyBacklogs.take();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            final ParseTask parseTask = backlog.poll();
+            if (backlog.staysReadyAfterPoll()) {
+                // Back of the line, behind other accounts with pending messages
+                readyBacklogs.add(backlog);
+            }
+            if (parseTask == null) {
+                continue;
+            }
+
+            final long startNanos = System.nanoTime();
+            queueWaitStats.record(startNanos - parseTask.submittedNanos);
+            try {
+                parseTask.task.run();
+            } catch (final Throwable t) {
+                if (Thread.currentThread().isInterrupted()) {
+                    // Shutting down, which likely is what made the task fail
+                    throw t;
+                }
+                // One bad message shouldn't take a worker down with it
+                log.error("Failed to parse message of " + backlog.account, t);
+                try {
+                    parseTask.failureHandler.accept(t);
+                } catch (final RuntimeException e) {
+                    log.error("Failed to handle parsing failure of " + backlog.account, e);
+                }
+            }
+            parseTimeStats.record(System.nanoTime() - startNanos);
+        }
+        log.info("Message parser {} stopping with {} message(s) in backlogs", Thread.currentThread().getName(), getBacklogSize());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("backlogs: %s, dropped: %d, queue wait: [%s], parse time: [%s]",
+                accountToBacklog.values(), getDroppedCount(), queueWaitStats, parseTimeStats);
+    }
+
+    private static final class ParseTask {
+
+        private final Runnable task;
+        private final Consumer<Throwable> failureHandler;
+        private final long submittedNanos;
+
+        private ParseTask(final Runnable task, final Consumer<Throwable> failureHandler, final long submittedNanos) {
+            this.task = task;
+            this.failureHandler = failureHandler;
+            this.submittedNanos = submittedNanos;
+        }
+
+    }
+
+    /**
+     * Pending messages of one account. Guarded by its own monitor.
+     */
+    private final class AccountBacklog {
+
+        private final String account;
+        private final Deque<ParseTask> parseTasks = new ArrayDeque<>();
+        /**
+         * Whether this is in {@link #readyBacklogs}, or held by a worker that will put it back there
+         */
+        private boolean ready = false;
+        @Getter
+        private volatile long droppedCount = 0;
+
+        private AccountBacklog(final String account) {
+            this.account = account;
+        }
+
+        /**
+         * @return
+         *      True if the caller needs to put this in {@link #readyBacklogs}
+         */
+        synchronized boolean add(final ParseTask parseTask) {
+            while (parseTasks.size() >= settings.backlogCapacityPerAccount()) {
+                switch (settings.overflowPolicy()) {
+                    case BLOCK_EVENT_THREAD:
+                        try {
+                            wait();
+                        } catch (final InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            droppedCount++;
+                            return false;
+                        }
+                        break;
+                    case DROP_OLDEST:
+                        parseTasks.pollFirst();
+                        droppedCount++;
+                        break;
+                    case DROP_NEWEST:
+                        droppedCount++;
+                        return false;
+                    default:
+                        throw new IllegalStateException("Unknown overflow policy: " + settings.overflowPolicy());
+                }
+            }
+            parseTasks.addLast(parseTask);
+            if (ready) {
+                return false;
+            }
+            ready = true;
+            return true;
+        }
+
+        synchronized ParseTask poll() {
+            final ParseTask parseTask = parseTasks.pollFirst();
+            notifyAll();
+            return parseTask;
+        }
+
+        /**
+         * Called by the worker holding this after polling. If there's nothing left, this stops being ready and the next
+         * {@link #add} makes it ready again.
+         *
+         * @return
+         *      True if the caller needs to put this back in {@link #readyBacklogs}
+         */
+        synchronized boolean staysReadyAfterPoll() {
+            ready = !parseTasks.isEmpty();
+            return ready;
+        }
+
+        synchronized int size() {
+            return parseTasks.size();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (%d pending, %d dropped)", account, size(), droppedCount);
+        }
+
+    }
+
+}
@@ -0,0 +1,44 @@
+package pogo.assistance.data.extraction.source.discord;
+
+import org.immutables.value.Value;
+
+/**
+ * Settings for the {@link MessageParsingPool} shared by the spawn listeners of all accounts of a collector process.
+ */
+@Value.Immutable
+public interface MessageParsingPoolSettings {
+
+    MessageParsingPoolSettings DEFAULT = ImmutableMessageParsingPoolSettings.builder().build();
+
+    /**
+     * Number of threads parsing messages. Parsing is mostly CPU bound, except for following map redirects.
+     */
+    @Value.Default
+    default int workerCount() {
+        return 2;
+    }
+
+    /**
+     * Max number of messages of a single account that can be waiting to be parsed
+     */
+    @Value.Default
+    default int backlogCapacityPerAccount() {
+        return 500;
+    }
+
+    /**
+     * What to do with messages submitted while the account's backlog is full
+     */
+    @Value.Default
+    default MessageOverflowPolicy overflowPolicy() {
+        return MessageOverflowPolicy.DROP_OLDEST;
+    }
+
+    @Value.Check
+    default void check() {
+        if (workerCount() < 1 || backlogCapacityPerAccount() < 1) {
+            throw new IllegalStateException("Parsing pool worker count and backlog capacity must be positive: " + this);
+        }
+    }
+
+}
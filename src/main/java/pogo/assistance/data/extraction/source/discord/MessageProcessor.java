@@ -19,6 +19,10 @@ public interface MessageProcessor<T> {
      * @return
      *      True if the {@code message} can be processed by this processor. Callers can optionally use this to check
      *      if the message is relevant to a processor before passing for actual processing.
+     * @implNote
+     *      Spawn processors should decide only based on where the message was posted (channel, its category, guild etc.)
+     *      and who posted it, not its content, since {@link DiscordPokemonSpawnListener} remembers the decision for
+     *      all later messages of the same channel and author.
      */
     boolean canProcess(@Nonnull final Message message);
 
@@ -0,0 +1,58 @@
+package pogo.assistance.data.extraction.source.discord;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Remembers which processor (if any) handles messages posted in a channel by an author, so the processors' checks only
+ * run for the first message of each channel and author. Everything after that, including all non-spawn chatter, is
+ * routed by a couple of hash lookups.
+ *
+ * Only valid as long as processors decide based on where a message was posted and by whom, never on its content (see
+ * {@link MessageProcessor#canProcess}). Routes of a channel need to be {@link #invalidateChannel invalidated} when the
+ * channel changes in ways processors look at, like its name or category.
+ *
+ * @param <R>
+ *      Type of the route, e.g. the processor messages are handed to
+ */
+class MessageRoutingTable<R> {
+
+    /**
+     * Author key standing in for all users who aren't bots, since no processor tells them apart
+     */
+    static final long ANY_USER = 0;
+
+    private final Map<Long, Map<Long, Optional<R>>> channelToRoutes = new ConcurrentHashMap<>();
+
+    /**
+     * @param resolver
+     *      Finds the route when there's none remembered for the channel and author. What it returns is remembered, even
+     *      if empty. If it throws, nothing is remembered.
+     * @return
+     *      Route of messages of the author in the channel, or empty if they aren't routed anywhere
+     */
+    Optional<R> route(final long channelId, final long authorKey, final Supplier<Optional<R>> resolver) {
+        final Map<Long, Optional<R>> routes = channelToRoutes.computeIfAbsent(channelId, __ -> new ConcurrentHashMap<>());
+        Optional<R> route = routes.get(authorKey);
+        if (route == null) {
+            route = resolver.get();
+            routes.put(authorKey, route);
+        }
+        return route;
+    }
+
+    void invalidateChannel(final long channelId) {
+        channelToRoutes.remove(channelId);
+    }
+
+    /**
+     * @return
+     *      Number of remembered routes, including empty ones
+     */
+    int size() {
+        return channelToRoutes.values().stream().mapToInt(Map::size).sum();
+    }
+
+}
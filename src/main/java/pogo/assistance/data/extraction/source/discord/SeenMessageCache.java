@@ -0,0 +1,89 @@
+package pogo.assistance.data.extraction.source.discord;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Remembers IDs of recently processed Discord messages, so a message seen by multiple collector accounts (e.g. ones in
+ * the same guild) is only parsed once.
+ *
+ * Direct mapped: each message ID has exactly one slot, and marking it seen replaces whatever ID was in that slot with a
+ * single atomic swap. An ID is only reported as seen if its slot still holds it, so a message is never wrongly skipped;
+ * a colliding message pushing an ID out just means a later copy gets parsed again and dropped by spawn deduplication.
+ * Copies of a message arrive within seconds of each other, so a few thousand slots are plenty.
+ */
+@Singleton
+public class SeenMessageCache {
+
+    private static final int DEFAULT_SLOT_COUNT = 1 << 12;
+
+    private final AtomicLongArray slots;
+    private final int slotMask;
+
+    private final LongAdder checkedCount = new LongAdder();
+    private final LongAdder hitCount = new LongAdder();
+
+    @Inject
+    public SeenMessageCache() {
+        this(DEFAULT_SLOT_COUNT);
+    }
+
+    /**
+     * @param slotCount
+     *      Must be a power of two
+     */
+    SeenMessageCache(final int slotCount) {
+        Preconditions.checkArgument(Integer.bitCount(slotCount) == 1, "Slot count must be a power of two");
+        this.slots = new AtomicLongArray(slotCount);
+        this.slotMask = slotCount - 1;
+    }
+
+    /**
+     * Marks the message as seen.
+     *
+     * @param messageId
+     *      Snowflake ID of the message. Zero is never a valid snowflake, so empty slots can't match.
+     * @return
+     *      True if the message was marked seen before
+     */
+    public boolean markSeen(final long messageId) {
+        checkedCount.increment();
+        // Snowflakes start with a millisecond timestamp, so mix the bits to spread IDs close in time over slots
+        final int slot = (int) mix(messageId) & slotMask;
+        final boolean seen = slots.getAndSet(slot, messageId) == messageId;
+        if (seen) {
+            hitCount.increment();
+        }
+        return seen;
+    }
+
+    /**
+     * @return
+     *      Fraction of checked messages that were seen before, i.e. how many parses were saved
+     */
+    public double getHitRate() {
+        final long checked = checkedCount.sum();
+        return checked == 0 ? 0 : (double) hitCount.sum() / checked;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("checked: %d, skipped as seen: %d, hit rate: %.3f",
+                checkedCount.sum(), hitCount.sum(), getHitRate());
+    }
+
+    /**
+     * SplitMix64 finalizer
+     */
+    private static long mix(final long value) {
+        long mixed = value;
+        mixed = (mixed ^ (mixed >>> 30)) * 0xBF58476D1CE4E5B9L;
+        mixed = (mixed ^ (mixed >>> 27)) * 0x94D049BB133111EBL;
+        return mixed ^ (mixed >>> 31);
+    }
+
+}
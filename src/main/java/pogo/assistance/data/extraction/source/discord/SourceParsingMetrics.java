@@ -0,0 +1,187 @@
+package pogo.assistance.data.extraction.source.discord;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Counts, per source, what happens to its messages on the way from being received to making a spawn: how many were
+ * seen, accepted by a processor, parsed into a spawn, skipped (e.g. for lacking IV) or failed, along with parse time
+ * percentiles. Shows which sources cost the most parsing per spawn they contribute.
+ *
+ * Shared by the listeners of all collector accounts. Counting is lock free (adders and an atomic histogram per source),
+ * so it's cheap enough to do for every message received. Current numbers can be queried as
+ * {@link #snapshot() snapshots}, and {@link #toString()} formats them as a table for periodic logging.
+ */
+@Singleton
+public class SourceParsingMetrics {
+
+    /**
+     * Source all private messages are counted under. Anyone can DM a collector account, so counting them by sender
+     * would let the number of sources grow without bound.
+     */
+    static final String DIRECT_MESSAGES_SOURCE_NAME = "direct messages";
+
+    /**
+     * Parse time histogram buckets are powers of two microseconds: bucket {@code i} counts parse times under
+     * {@code 2^i} microseconds, last bucket takes everything longer (over ~1 minute).
+     */
+    private static final int PARSE_TIME_BUCKET_COUNT = 27;
+
+    private final Map<String, SourceCounters> sourceToCounters = new ConcurrentHashMap<>();
+
+    @Inject
+    public SourceParsingMetrics() {
+    }
+
+    /**
+     * @return
+     *      Counters of the source, which callers can keep for counting more than one thing about a message
+     */
+    SourceCounters of(final String sourceName) {
+        // Plain get first, since computeIfAbsent locks even when the source is already there
+        final SourceCounters counters = sourceToCounters.get(sourceName);
+        return counters != null ? counters : sourceToCounters.computeIfAbsent(sourceName, SourceCounters::new);
+    }
+
+    /**
+     * @return
+     *      Snapshots of all sources that had a message accepted by a processor, most parse time per spawn first
+     */
+    public List<SourceParsingSnapshot> snapshot() {
+        return sourceToCounters.values().stream()
+                .filter(counters -> counters.accepted.sum() > 0)
+                .map(SourceCounters::snapshot)
+                .sorted(Comparator.comparing(SourceParsingSnapshot::parseTimePerSpawn).reversed())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder table = new StringBuilder(String.format(
+                "%-40s %-32s %9s %9s %9s %9s %9s %9s %10s %10s %10s %12s",
+                "source", "processor", "seen", "accepted", "repeated", "skipped", "parsed", "failed",
+                "p50 (ms)", "p90 (ms)", "p99 (ms)", "ms/spawn"));
+        snapshot().forEach(snapshot -> table.append(String.format(
+                "%n%-40s %-32s %9d %9d %9d %9d %9d %9d %10.2f %10.2f %10.2f %12.2f",
+                snapshot.sourceName(), snapshot.processorName(),
+                snapshot.seen(), snapshot.accepted(), snapshot.repeated(),
+                snapshot.skipped(), snapshot.parsed(), snapshot.failed(),
+                toMillis(snapshot.parseTimeP50()), toMillis(snapshot.parseTimeP90()), toMillis(snapshot.parseTimeP99()),
+                toMillis(snapshot.parseTimePerSpawn()))));
+        return table.toString();
+    }
+
+    private static double toMillis(final Duration duration) {
+        return duration.toNanos() / 1e6;
+    }
+
+    static final class SourceCounters {
+
+        private final String sourceName;
+        private volatile Class<?> processorClass = null;
+
+        private final LongAdder seen = new LongAdder();
+        private final LongAdder accepted = new LongAdder();
+        private final LongAdder repeated = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        private final LongAdder parsed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder totalParseNanos = new LongAdder();
+        private final AtomicLongArray parseTimeHistogram = new AtomicLongArray(PARSE_TIME_BUCKET_COUNT);
+
+        private SourceCounters(final String sourceName) {
+            this.sourceName = sourceName;
+        }
+
+        void recordSeen() {
+            seen.increment();
+        }
+
+        void recordAccepted(final Class<?> processorClass) {
+            accepted.increment();
+            this.processorClass = processorClass;
+        }
+
+        void recordRepeated() {
+            repeated.increment();
+        }
+
+        void recordSkipped(final long parseNanos) {
+            skipped.increment();
+            recordParseTime(parseNanos);
+        }
+
+        void recordParsed(final long parseNanos) {
+            parsed.increment();
+            recordParseTime(parseNanos);
+        }
+
+        void recordFailed(final long parseNanos) {
+            failed.increment();
+            recordParseTime(parseNanos);
+        }
+
+        private void recordParseTime(final long parseNanos) {
+            totalParseNanos.add(parseNanos);
+            final long micros = Math.max(0, parseNanos / 1000);
+            // Bucket i holds [2^(i-1), 2^i) micros, so it's the number of bits needed for the micros
+            final int bucket = Math.min(64 - Long.numberOfLeadingZeros(micros), PARSE_TIME_BUCKET_COUNT - 1);
+            parseTimeHistogram.incrementAndGet(bucket);
+        }
+
+        private SourceParsingSnapshot snapshot() {
+            final long[] histogram = new long[PARSE_TIME_BUCKET_COUNT];
+            for (int bucket = 0; bucket < PARSE_TIME_BUCKET_COUNT; bucket++) {
+                histogram[bucket] = parseTimeHistogram.get(bucket);
+            }
+            return ImmutableSourceParsingSnapshot.builder()
+                    .sourceName(sourceName)
+                    .processorName(Optional.<Class<?>>ofNullable(processorClass).map(Class::getSimpleName).orElse(""))
+                    .seen(seen.sum())
+                    .accepted(accepted.sum())
+                    .repeated(repeated.sum())
+                    .skipped(skipped.sum())
+                    .parsed(parsed.sum())
+                    .failed(failed.sum())
+                    .totalParseTime(Duration.ofNanos(totalParseNanos.sum()))
+                    .parseTimeP50(percentileOf(histogram, 0.50))
+                    .parseTimeP90(percentileOf(histogram, 0.90))
+                    .parseTimeP99(percentileOf(histogram, 0.99))
+                    .build();
+        }
+
+        /**
+         * @return
+         *      Upper bound of the histogram bucket the percentile falls in, so accurate within a factor of two
+         */
+        private static Duration percentileOf(final long[] histogram, final double percentile) {
+            long total = 0;
+            for (final long count : histogram) {
+                total += count;
+            }
+            if (total == 0) {
+                return Duration.ZERO;
+            }
+            final long rank = (long) Math.ceil(percentile * total);
+            long cumulative = 0;
+            for (int bucket = 0; bucket < histogram.length; bucket++) {
+                cumulative += histogram[bucket];
+                if (cumulative >= rank) {
+                    return Duration.ofNanos((1L << bucket) * 1000);
+                }
+            }
+            return Duration.ofNanos((1L << (histogram.length - 1)) * 1000);
+        }
+
+    }
+
+}
@@ -0,0 +1,76 @@
+package pogo.assistance.data.extraction.source.discord;
+
+import java.time.Duration;
+
+import org.immutables.value.Value;
+
+/**
+ * Parsing numbers of a single source as of when the snapshot was taken. All counts are since the collector started.
+ *
+ * @see SourceParsingMetrics
+ */
+@Value.Immutable
+public interface SourceParsingSnapshot {
+
+    /**
+     * Same as the source name of spawns from this source (server name, or author name for private messages)
+     */
+    String sourceName();
+
+    /**
+     * Simple class name of the processor that last handled a message of this source, or empty if none did yet
+     */
+    String processorName();
+
+    /**
+     * Messages received from the source, counted once per collector account receiving it
+     */
+    long seen();
+
+    /**
+     * Seen messages that a processor accepted
+     */
+    long accepted();
+
+    /**
+     * Accepted messages not parsed since another account already parsed them
+     */
+    long repeated();
+
+    /**
+     * Parsed messages that didn't make a spawn, e.g. since they lack IV
+     */
+    long skipped();
+
+    /**
+     * Parsed messages that made a spawn
+     */
+    long parsed();
+
+    /**
+     * Messages whose parsing threw
+     */
+    long failed();
+
+    /**
+     * Time spent parsing all messages of the source, whatever the outcome
+     */
+    Duration totalParseTime();
+
+    Duration parseTimeP50();
+
+    Duration parseTimeP90();
+
+    Duration parseTimeP99();
+
+    /**
+     * @return
+     *      Parse time spent per spawn made, i.e. what each useful message of this source costs including the ones
+     *      that didn't make a spawn. {@link #totalParseTime()} if none made a spawn.
+     */
+    @Value.Derived
+    default Duration parseTimePerSpawn() {
+        return parsed() == 0 ? totalParseTime() : totalParseTime().dividedBy(parsed());
+    }
+
+}
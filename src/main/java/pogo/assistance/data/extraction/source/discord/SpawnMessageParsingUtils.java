@@ -7,6 +7,7 @@ import io.jenetics.jpx.Point;
 import io.jenetics.jpx.WayPoint;
 import lombok.experimental.UtilityClass;
 import net.dv8tion.jda.api.entities.Message;
+import pogo.assistance.data.extraction.source.discord.SpawnMessageText.Token;
 import pogo.assistance.data.model.ImmutableSourceMetadata;
 import pogo.assistance.data.model.SourceMetadata;
 import pogo.assistance.data.model.pokemon.CombatStats;
@@ -32,15 +33,6 @@ public class SpawnMessageParsingUtils {
     private static final Pattern GOOGLE_MAP_QUERY_URL =
             Pattern.compile("(.+(q=|query=))(?<latitude>[-\\d\\.]+),(?<longitude>[-\\d\\.]+)(.*)");
 
-    /**
-     * Example matched strings;
-     *  - <:checkmark:574778007441637388>
-     *  - <:check_mark_2:574778007441637388>
-     *
-     * Verify online: https://regex101.com/r/SdOUIl/1
-     */
-    private static final Pattern EMOJI_PATTERN = Pattern.compile("<:(?<emoji>[\\w\\d_]+):\\d+>");
-
     /**
      * Example matched strings:
      *  - 100.00%
@@ -127,7 +119,23 @@ public class SpawnMessageParsingUtils {
     public static Point parseGoogleMapQueryLink(final String url) {
         final Matcher mapUrlMatcher = GOOGLE_MAP_QUERY_URL.matcher(url);
         Verify.verify(mapUrlMatcher.find(), "Input didn't match google map URL format. Input: %s", url);
-        return WayPoint.of(Double.parseDouble(mapUrlMatcher.group("latitude")), Double.parseDouble(mapUrlMatcher.group("longitude")));
+        return toPoint(mapUrlMatcher);
+    }
+
+    /**
+     * Same as {@link #parseGoogleMapQueryLink(String)} on the compiled text, but only looks at the links in it. Falls
+     * back to the whole text for map URLs that aren't tokenized as links (e.g. missing scheme).
+     */
+    public static Point parseGoogleMapQueryLink(final SpawnMessageText text) {
+        for (final Token token : text.getTokens()) {
+            if (token.getType() == Token.Type.LINK) {
+                final Matcher mapUrlMatcher = GOOGLE_MAP_QUERY_URL.matcher(text.textOf(token));
+                if (mapUrlMatcher.find()) {
+                    return toPoint(mapUrlMatcher);
+                }
+            }
+        }
+        return parseGoogleMapQueryLink(text.getText());
     }
 
     @Deprecated
@@ -148,25 +156,13 @@ public class SpawnMessageParsingUtils {
         }
     }
 
+    /**
+     * Replaces custom emoji (e.g. "<:checkmark:574778007441637388>") with plain text based on their name.
+     *
+     * @see SpawnMessageText.Builder
+     */
     public static String replaceEmojiWithPlainText(final String text) {
-        final Matcher matcher = EMOJI_PATTERN.matcher(text);
-        final StringBuffer sb = new StringBuffer(text.length());
-        while (matcher.find()) {
-            final String emojiText = matcher.group("emoji").toUpperCase();
-            // Replace original emoji name with something based on its intent. E.g. "IV2" emote indicates IV information, so is replaces with IV
-            // Current logic only checks for some known emoji names. If not match is found, we just keep the original name.
-            final String replaceEmojiText;
-            if (emojiText.contains("LV")) {
-                replaceEmojiText = "Level";
-            } else if (emojiText.contains("IV2")) {
-                replaceEmojiText = "IV";
-            } else {
-                replaceEmojiText = emojiText;
-            }
-            matcher.appendReplacement(sb, Matcher.quoteReplacement(replaceEmojiText));
-        }
-        matcher.appendTail(sb);
-        return sb.toString();
+        return SpawnMessageText.of(text).getText();
     }
 
     /**
@@ -190,6 +186,43 @@ public class SpawnMessageParsingUtils {
         return Optional.empty();
     }
 
+    /**
+     * Same as {@link #extractGender(String)}, using the tokens of the text instead of scanning it once per gender.
+     */
+    public static Optional<Gender> extractGender(final SpawnMessageText text) {
+        boolean foundMale = false;
+        boolean foundNone = false;
+        for (final Token token : text.getTokens()) {
+            switch (token.getType()) {
+                case GENDER_SIGN:
+                    final char sign = text.getText().charAt(token.getStart());
+                    if (sign == '♀') {
+                        return Optional.of(Gender.FEMALE);
+                    }
+                    foundMale |= sign == '♂';
+                    foundNone |= sign != '♂';
+                    break;
+                case WORD:
+                case EMOJI:
+                case LINK:
+                    if (text.contains(token, "female")) {
+                        return Optional.of(Gender.FEMALE);
+                    }
+                    foundMale |= text.contains(token, "male");
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        if (foundMale) {
+            return Optional.of(Gender.MALE);
+        } else if (foundNone) {
+            return Optional.of(Gender.NONE);
+        }
+        return Optional.empty();
+    }
+
     public static Optional<Integer> extractCp(final String text) {
         final Matcher firstCpMatcher = CP_PATTERN_1.matcher(text);
         if (firstCpMatcher.find()) {
@@ -214,6 +247,18 @@ public class SpawnMessageParsingUtils {
         throw new IllegalArgumentException("None of the CP patterns matched");
     }
 
+    /**
+     * Same as {@link #extractCp(String)}, but skips the patterns when no token mentions CP at all.
+     */
+    public static Optional<Integer> extractCp(final SpawnMessageText text) {
+        for (final Token token : text.getTokens()) {
+            if (token.getType() != Token.Type.NUMBER && token.getType() != Token.Type.SYMBOL && text.contains(token, "cp")) {
+                return extractCp(text.getText());
+            }
+        }
+        throw new IllegalArgumentException("None of the CP patterns matched");
+    }
+
     public static Optional<Integer> extractLevel(final String text) {
         final Matcher levelMatcher = LEVEL_PATTERN.matcher(text);
         Verify.verify(levelMatcher.find(), "Nothing looked like level data in input text: %s", text);
@@ -224,8 +269,20 @@ public class SpawnMessageParsingUtils {
     }
 
     public static Optional<CombatStats> extractCombatStats(final String textContainingAds, final String textContainingIv) {
-        final Optional<Double> extractedIv = extractIv(textContainingIv);
-        final Optional<CombatStats> combatStats = extractCombatStats(textContainingAds);
+        return combineCombatStats(extractIv(textContainingIv), extractCombatStats(textContainingAds));
+    }
+
+    /**
+     * Same as {@link #extractCombatStats(String, String)} with the compiled text as both inputs, taking IV from the
+     * first {@link Token.Type#PERCENT percent} token instead of matching the IV pattern.
+     */
+    public static Optional<CombatStats> extractCombatStats(final SpawnMessageText text) {
+        return combineCombatStats(extractIv(text), extractCombatStats(text.getText()));
+    }
+
+    private static Optional<CombatStats> combineCombatStats(
+            final Optional<Double> extractedIv,
+            final Optional<CombatStats> combatStats) {
         if (!extractedIv.isPresent() && !combatStats.isPresent()) {
             return Optional.empty();
         }
@@ -283,6 +340,18 @@ public class SpawnMessageParsingUtils {
                 matcher -> Doubles.tryParse(matcher.group("iv")));
     }
 
+    private static Optional<Double> extractIv(final SpawnMessageText text) {
+        final Optional<Double> percent = text.firstOf(Token.Type.PERCENT).flatMap(text::numberOf);
+        if (percent.isPresent()) {
+            return percent;
+        }
+        return matchAndExtract(text.getText(), IV_PATTERN_2, matcher -> Doubles.tryParse(matcher.group("iv")));
+    }
+
+    private static Point toPoint(final Matcher mapUrlMatcher) {
+        return WayPoint.of(Double.parseDouble(mapUrlMatcher.group("latitude")), Double.parseDouble(mapUrlMatcher.group("longitude")));
+    }
+
     private static <T> Optional<T> matchAndExtract(
             final String inputText,
             final Collection<Pattern> patterns,
@@ -0,0 +1,357 @@
+package pogo.assistance.data.extraction.source.discord;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Nullable;
+
+import com.google.common.primitives.Doubles;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Compiled text of a spawn message along with the tokens it's made of. Text and tokens are produced together in a single
+ * walk over the message parts, which also does the cleanup compiled text always gets (emoji replacement, stripping
+ * markdown from description). Extractors then look at the tokens instead of each scanning the whole text with their own
+ * regex, e.g. a {@link Token.Type#PERCENT percent} token is an IV candidate, {@link Token.Type#LINK links} are map link
+ * candidates.
+ *
+ * Tokens:
+ *  - {@link Token.Type#WORD}: run of letters
+ *  - {@link Token.Type#NUMBER}: run of digits and dots, e.g. "15", "97.8", "37.4332"
+ *  - {@link Token.Type#PERCENT}: number (or '?') directly followed by '%', e.g. "97.8%", "?%"
+ *  - {@link Token.Type#EMOJI}: plain text a custom emoji was replaced with
+ *  - {@link Token.Type#LINK}: everything from "http://" or "https://" up to the next white space
+ *  - {@link Token.Type#GENDER_SIGN}: one of ♀, ♂, ⚲ or ⚧
+ *  - {@link Token.Type#LINE_BREAK}: "\n", "\r" or "\r\n"
+ *  - {@link Token.Type#SYMBOL}: any other single character, except white space which is left out
+ *
+ * A number's unit or context is whatever token comes right after it, e.g. "cp" in "1234cp" or "m" in "12m34s".
+ */
+@Getter
+public class SpawnMessageText {
+
+    private final String text;
+    private final List<Token> tokens;
+
+    private SpawnMessageText(final String text, final List<Token> tokens) {
+        this.text = text;
+        this.tokens = Collections.unmodifiableList(tokens);
+    }
+
+    /**
+     * Tokenizes text that has already been compiled, e.g. after compiled text has been changed by a source specific
+     * step. Emoji in the text are replaced the same way as when compiling.
+     */
+    public static SpawnMessageText of(final String compiledText) {
+        return builder().append(compiledText).build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public String textOf(final Token token) {
+        return text.substring(token.getStart(), token.getEnd());
+    }
+
+    /**
+     * @return
+     *      Value of a {@link Token.Type#NUMBER number} or {@link Token.Type#PERCENT percent} token. Empty for any other
+     *      token, unknown percent ("?%") or runs of digits and dots that aren't a valid number (e.g. "1.2.3").
+     */
+    public Optional<Double> numberOf(final Token token) {
+        switch (token.getType()) {
+            case NUMBER:
+                return Optional.ofNullable(Doubles.tryParse(textOf(token)));
+            case PERCENT:
+                return Optional.ofNullable(Doubles.tryParse(text.substring(token.getStart(), token.getEnd() - 1)));
+            default:
+                return Optional.empty();
+        }
+    }
+
+    /**
+     * Case insensitive check for a part of a token, without making a string out of the token.
+     */
+    public boolean contains(final Token token, final String part) {
+        for (int offset = token.getStart(); offset + part.length() <= token.getEnd(); offset++) {
+            if (text.regionMatches(true, offset, part, 0, part.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Optional<Token> firstOf(final Token.Type type) {
+        for (final Token token : tokens) {
+            if (token.getType() == type) {
+                return Optional.of(token);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return
+     *      Lines of the text, same as splitting it by line breaks (trailing empty lines are left out)
+     */
+    public List<String> lines() {
+        final List<String> lines = new ArrayList<>();
+        int lineStart = 0;
+        for (final Token token : tokens) {
+            if (token.getType() == Token.Type.LINE_BREAK) {
+                lines.add(text.substring(lineStart, token.getStart()));
+                lineStart = token.getEnd();
+            }
+        }
+        lines.add(text.substring(lineStart));
+        while (!lines.isEmpty() && lines.get(lines.size() - 1).isEmpty()) {
+            lines.remove(lines.size() - 1);
+        }
+        return lines;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    public static final class Token {
+
+        public enum Type {
+            WORD,
+            NUMBER,
+            PERCENT,
+            EMOJI,
+            LINK,
+            GENDER_SIGN,
+            LINE_BREAK,
+            SYMBOL
+        }
+
+        private final Type type;
+        /**
+         * Offset of the token's first character in the text
+         */
+        private final int start;
+        /**
+         * Offset right after the token's last character in the text
+         */
+        private final int end;
+
+        Token(final Type type, final int start, final int end) {
+            this.type = type;
+            this.start = start;
+            this.end = end;
+        }
+
+    }
+
+    /**
+     * Builds the text by appending message parts one after the other, tokenizing as it goes.
+     */
+    public static final class Builder {
+
+        private final StringBuilder text = new StringBuilder();
+        private final List<Token> tokens = new ArrayList<>();
+
+        /**
+         * Type of the word or number being appended, which is only made a token once something else comes after it
+         */
+        @Nullable
+        private Token.Type runType = null;
+        private int runStart = 0;
+        private boolean runHasDigit = false;
+
+        private Builder() {
+        }
+
+        public Builder append(@Nullable final String part) {
+            tokenize(part, false);
+            return this;
+        }
+
+        /**
+         * Appends the part followed by a line separator
+         */
+        public Builder appendLine(@Nullable final String part) {
+            return append(part).append(System.lineSeparator());
+        }
+
+        /**
+         * Same as {@link #appendLine(String)}, but leaves out '*' characters, i.e. markdown for bold and italic text
+         */
+        public Builder appendLineWithoutMarkdown(@Nullable final String part) {
+            tokenize(part, true);
+            return append(System.lineSeparator());
+        }
+
+        public SpawnMessageText build() {
+            endRun();
+            return new SpawnMessageText(text.toString(), tokens);
+        }
+
+        private void tokenize(@Nullable final String nullablePart, final boolean skipAsterisks) {
+            // Same as appending to a string builder, null is appended as "null"
+            final String part = String.valueOf(nullablePart);
+            int index = 0;
+            while (index < part.length()) {
+                final char character = part.charAt(index);
+                final int emojiEnd = character == '<' ? emojiEnd(part, index) : -1;
+                if (skipAsterisks && character == '*') {
+                    index++;
+                } else if (emojiEnd > 0) {
+                    index = appendEmoji(part, index, emojiEnd);
+                } else if (character == 'h' && (part.startsWith("http://", index) || part.startsWith("https://", index))) {
+                    index = appendLink(part, index, skipAsterisks);
+                } else {
+                    appendCharacter(character);
+                    index++;
+                }
+            }
+        }
+
+        private void appendCharacter(final char character) {
+            if (Character.isLetter(character)) {
+                continueRun(Token.Type.WORD);
+            } else if (isDigit(character) || character == '.') {
+                continueRun(Token.Type.NUMBER);
+                runHasDigit |= isDigit(character);
+            } else if (character == '%') {
+                appendPercent();
+                return;
+            } else {
+                endRun();
+                if (character == '\n' && endsWith(Token.Type.LINE_BREAK) && text.charAt(text.length() - 1) == '\r') {
+                    // "\r\n" is a single line break
+                    tokens.set(tokens.size() - 1, new Token(Token.Type.LINE_BREAK, text.length() - 1, text.length() + 1));
+                } else if (character == '\n' || character == '\r') {
+                    addToken(Token.Type.LINE_BREAK, text.length(), text.length() + 1);
+                } else if (character == '♀' || character == '♂' || character == '⚲' || character == '⚧') {
+                    addToken(Token.Type.GENDER_SIGN, text.length(), text.length() + 1);
+                } else if (!Character.isWhitespace(character)) {
+                    addToken(Token.Type.SYMBOL, text.length(), text.length() + 1);
+                }
+            }
+            text.append(character);
+        }
+
+        private void appendPercent() {
+            if (runType == Token.Type.NUMBER) {
+                addToken(Token.Type.PERCENT, runStart, text.length() + 1);
+                runType = null;
+            } else if (endsWith(Token.Type.SYMBOL) && text.charAt(text.length() - 1) == '?') {
+                endRun();
+                tokens.set(tokens.size() - 1, new Token(Token.Type.PERCENT, text.length() - 1, text.length() + 1));
+            } else {
+                endRun();
+                addToken(Token.Type.SYMBOL, text.length(), text.length() + 1);
+            }
+            text.append('%');
+        }
+
+        /**
+         * Example emoji: "<:checkmark:574778007441637388>". It's replaced with the emoji name, or something based on its
+         * intent for some known names, e.g. "IV2" emoji indicates IV information so it's replaced with "IV".
+         */
+        private int appendEmoji(final String part, final int start, final int end) {
+            endRun();
+            final String emojiText = part.substring(start + 2, part.indexOf(':', start + 2)).toUpperCase();
+            final String replaceEmojiText;
+            if (emojiText.contains("LV")) {
+                replaceEmojiText = "Level";
+            } else if (emojiText.contains("IV2")) {
+                replaceEmojiText = "IV";
+            } else {
+                replaceEmojiText = emojiText;
+            }
+            addToken(Token.Type.EMOJI, text.length(), text.length() + replaceEmojiText.length());
+            text.append(replaceEmojiText);
+            return end;
+        }
+
+        private int appendLink(final String part, final int start, final boolean skipAsterisks) {
+            endRun();
+            final int linkStart = text.length();
+            int index = start;
+            for (; index < part.length() && !Character.isWhitespace(part.charAt(index)); index++) {
+                if (!skipAsterisks || part.charAt(index) != '*') {
+                    text.append(part.charAt(index));
+                }
+            }
+            addToken(Token.Type.LINK, linkStart, text.length());
+            return index;
+        }
+
+        private void continueRun(final Token.Type type) {
+            if (runType != type) {
+                endRun();
+                runType = type;
+                runStart = text.length();
+                runHasDigit = false;
+            }
+        }
+
+        private void endRun() {
+            if (runType == null) {
+                return;
+            }
+            // Dots without any digit (e.g. end of a sentence) aren't numbers
+            addToken(runType == Token.Type.NUMBER && !runHasDigit ? Token.Type.SYMBOL : runType, runStart, text.length());
+            runType = null;
+        }
+
+        private boolean endsWith(final Token.Type type) {
+            return !tokens.isEmpty()
+                    && tokens.get(tokens.size() - 1).getType() == type
+                    && tokens.get(tokens.size() - 1).getEnd() == text.length();
+        }
+
+        private void addToken(final Token.Type type, final int start, final int end) {
+            tokens.add(new Token(type, start, end));
+        }
+
+        private static boolean isDigit(final char character) {
+            return character >= '0' && character <= '9';
+        }
+
+        /**
+         * @return
+         *      Offset right after the emoji starting at the given offset, or -1 if there's no emoji there. Same as
+         *      matching "<:[\w\d_]+:\d+>".
+         */
+        private static int emojiEnd(final String part, final int start) {
+            if (start + 1 >= part.length() || part.charAt(start + 1) != ':') {
+                return -1;
+            }
+            int index = start + 2;
+            while (index < part.length() && isWordCharacter(part.charAt(index))) {
+                index++;
+            }
+            if (index == start + 2 || index >= part.length() || part.charAt(index) != ':') {
+                return -1;
+            }
+            final int idStart = ++index;
+            while (index < part.length() && isDigit(part.charAt(index))) {
+                index++;
+            }
+            if (index == idStart || index >= part.length() || part.charAt(index) != '>') {
+                return -1;
+            }
+            return index + 1;
+        }
+
+        private static boolean isWordCharacter(final char character) {
+            return isDigit(character) || character == '_'
+                    || (character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z');
+        }
+
+    }
+
+}
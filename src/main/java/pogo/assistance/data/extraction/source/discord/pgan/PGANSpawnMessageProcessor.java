@@ -10,6 +10,7 @@ import net.dv8tion.jda.api.entities.MessageEmbed;
 import pogo.assistance.data.extraction.source.discord.GenericSpawnMessageProcessor;
 import pogo.assistance.data.extraction.source.discord.MessageProcessor;
 import pogo.assistance.data.extraction.source.discord.SpawnMessageParsingUtils;
+import pogo.assistance.data.extraction.source.discord.SpawnMessageText;
 import pogo.assistance.data.model.pokemon.*;
 
 import javax.annotation.Nonnull;
@@ -41,9 +42,10 @@ public class PGANSpawnMessageProcessor implements MessageProcessor<PokemonSpawn>
 
     @Override
     public Optional<PokemonSpawn> process(@Nonnull final Message message) {
-        final String compiledText = GenericSpawnMessageProcessor.compileMessageText(message);
+        final SpawnMessageText tokenizedText = GenericSpawnMessageProcessor.tokenizeMessageText(message);
+        final String compiledText = tokenizedText.getText();
         final String pokemonName = extractPokemonName(message);
-        PokedexEntry pokedexEntry = Pokedex.getPokedexEntryFor(pokemonName, SpawnMessageParsingUtils.extractGender(compiledText).orElse(null))
+        PokedexEntry pokedexEntry = Pokedex.getPokedexEntryFor(pokemonName, SpawnMessageParsingUtils.extractGender(tokenizedText).orElse(null))
                 .orElseThrow(() -> new IllegalArgumentException("Failed to infer pokedex entry from pokemon name: " + pokemonName));
         if (isAlolan(pokemonName, compiledText)) {
             pokedexEntry = ImmutablePokedexEntry.builder().from(pokedexEntry).addForms(PokedexEntry.Form.ALOLAN).build();
@@ -51,9 +53,9 @@ public class PGANSpawnMessageProcessor implements MessageProcessor<PokemonSpawn>
         final PokemonSpawn pokemonSpawn = ImmutablePokemonSpawn.builder()
                 .from(extractLocationFromPganMapUrl(message.getEmbeds().get(0).getUrl()))
                 .pokedexEntry(pokedexEntry)
-                .iv(SpawnMessageParsingUtils.extractCombatStats(compiledText, compiledText).flatMap(CombatStats::combinedIv))
+                .iv(SpawnMessageParsingUtils.extractCombatStats(tokenizedText).flatMap(CombatStats::combinedIv))
                 .level(SpawnMessageParsingUtils.extractLevel(compiledText))
-                .cp(SpawnMessageParsingUtils.extractCp(compiledText))
+                .cp(SpawnMessageParsingUtils.extractCp(tokenizedText))
                 .despawnTime(extractDespawnDuration(compiledText))
                 .sourceMetadata(SpawnMessageParsingUtils.buildSourceMetadataFromMessage(message))
                 .build();
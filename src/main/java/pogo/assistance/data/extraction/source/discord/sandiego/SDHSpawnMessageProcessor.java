@@ -11,6 +11,7 @@ import pogo.assistance.data.extraction.source.discord.GenericSpawnMessageProcess
 import pogo.assistance.data.extraction.source.discord.LocationLinkParsingUtils;
 import pogo.assistance.data.extraction.source.discord.MessageProcessor;
 import pogo.assistance.data.extraction.source.discord.SpawnMessageParsingUtils;
+import pogo.assistance.data.extraction.source.discord.SpawnMessageText;
 import pogo.assistance.data.extraction.source.discord.novabot.NovaBotProcessingUtils;
 import pogo.assistance.data.model.pokemon.CombatStats;
 import pogo.assistance.data.model.pokemon.ImmutablePokemonSpawn;
@@ -46,14 +47,14 @@ public class SDHSpawnMessageProcessor implements MessageProcessor<PokemonSpawn>
             return Optional.empty();
         }
 
-        final String compiledText = GenericSpawnMessageProcessor.compileMessageText(message);
+        final SpawnMessageText compiledText = GenericSpawnMessageProcessor.tokenizeMessageText(message);
         final MessageEmbed messageEmbed = message.getEmbeds().get(0); // Assuming all message has embed
         final Optional<PokedexEntry.Gender> gender = SpawnMessageParsingUtils.extractGender(compiledText);
         final PokemonSpawn pokemonSpawn = ImmutablePokemonSpawn.builder()
-                .from(LocationLinkParsingUtils.extractLocation(compiledText))
+                .from(LocationLinkParsingUtils.extractLocation(compiledText.getText()))
                 .pokedexEntry(NovaBotProcessingUtils.inferPokedexEntryFromNovaBotAssetUrl(messageEmbed.getThumbnail().getUrl(), gender.orElse(null)))
-                .iv(SpawnMessageParsingUtils.extractCombatStats(compiledText, compiledText).flatMap(CombatStats::combinedIv))
-                .level(SpawnMessageParsingUtils.extractLevel(compiledText))
+                .iv(SpawnMessageParsingUtils.extractCombatStats(compiledText).flatMap(CombatStats::combinedIv))
+                .level(SpawnMessageParsingUtils.extractLevel(compiledText.getText()))
                 .cp(SpawnMessageParsingUtils.extractCp(compiledText))
                 .despawnTime(DespawnTimeParserUtils.extractDespawnTime(compiledText))
                 .sourceMetadata(SpawnMessageParsingUtils.buildSourceMetadataFromMessage(message))
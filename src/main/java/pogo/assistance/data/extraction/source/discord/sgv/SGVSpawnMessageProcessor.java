@@ -17,6 +17,7 @@ import pogo.assistance.bot.responder.relay.pokedex100.CandySelector;
 import pogo.assistance.data.extraction.source.discord.GenericSpawnMessageProcessor;
 import pogo.assistance.data.extraction.source.discord.MessageProcessor;
 import pogo.assistance.data.extraction.source.discord.SpawnMessageParsingUtils;
+import pogo.assistance.data.extraction.source.discord.SpawnMessageText;
 import pogo.assistance.data.extraction.source.discord.novabot.NovaBotProcessingUtils;
 import pogo.assistance.data.model.pokemon.CombatStats;
 import pogo.assistance.data.model.pokemon.ImmutablePokemonSpawn;
@@ -52,17 +53,18 @@ public class SGVSpawnMessageProcessor implements MessageProcessor<PokemonSpawn>
             return Optional.empty();
         }
 
-        final String compiledText = GenericSpawnMessageProcessor.compileMessageText(message);
+        final SpawnMessageText tokenizedText = GenericSpawnMessageProcessor.tokenizeMessageText(message);
+        final String compiledText = tokenizedText.getText();
         final MessageEmbed messageEmbed = message.getEmbeds().get(0); // Assuming all message has embed
         if (messageEmbed.getDescription().split("\n").length <= 6) {
             // Spawns with missing IV/CP information -> ignored
             return Optional.empty();
         }
 
-        final Optional<PokedexEntry.Gender> gender = SpawnMessageParsingUtils.extractGender(compiledText);
+        final Optional<PokedexEntry.Gender> gender = SpawnMessageParsingUtils.extractGender(tokenizedText);
         final PokedexEntry pokedexEntry = NovaBotProcessingUtils.inferPokedexEntryFromNovaBotAssetUrl(messageEmbed.getThumbnail().getUrl(), gender.orElse(null));
-        final Optional<Double> iv = SpawnMessageParsingUtils.extractCombatStats(compiledText, compiledText).flatMap(CombatStats::combinedIv);
-        final Optional<Integer> cp = SpawnMessageParsingUtils.extractCp(compiledText);
+        final Optional<Double> iv = SpawnMessageParsingUtils.extractCombatStats(tokenizedText).flatMap(CombatStats::combinedIv);
+        final Optional<Integer> cp = SpawnMessageParsingUtils.extractCp(tokenizedText);
 
         // Parsing more messages exposes us to the server because we will end up accessing a lot of server URLs
         // Limiting ourselves to only high value spawns to reduce this exposure
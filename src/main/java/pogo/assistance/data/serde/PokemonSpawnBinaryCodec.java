@@ -0,0 +1,148 @@
+package pogo.assistance.data.serde;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+
+import com.google.common.hash.Hashing;
+import io.jenetics.jpx.Latitude;
+import io.jenetics.jpx.Longitude;
+import lombok.experimental.UtilityClass;
+import pogo.assistance.data.model.ImmutableSourceMetadata;
+import pogo.assistance.data.model.pokemon.ImmutablePokedexEntry;
+import pogo.assistance.data.model.pokemon.ImmutablePokemonSpawn;
+import pogo.assistance.data.model.pokemon.PokedexEntry;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+/**
+ * Compact binary encoding of {@link PokemonSpawn}. Meant for local storage that only this application reads back (e.g.
+ * journals), where the Gson representation is too bulky and slow. Not suitable for anything long lived, since the
+ * encoding depends on the declaration order of {@link PokedexEntry.Gender} and {@link PokedexEntry.Form}. Check
+ * {@link #SCHEMA_FINGERPRINT} before decoding spawns encoded by another process.
+ *
+ * Encoded fields, in order:
+ *  - latitude and longitude, as degrees
+ *  - dex ID, name, gender ordinal, number of forms followed by each form's ordinal
+ *  - one byte of flags marking which of the optional fields are present, followed by the present ones
+ *  - source name
+ */
+@UtilityClass
+public class PokemonSpawnBinaryCodec {
+
+    private static final int LEVEL_PRESENT = 1;
+    private static final int CP_PRESENT = 1 << 1;
+    private static final int IV_PRESENT = 1 << 2;
+    private static final int DESPAWN_TIME_PRESENT = 1 << 3;
+    private static final int LOCATION_DESCRIPTION_PRESENT = 1 << 4;
+
+    private static final PokedexEntry.Gender[] GENDERS = PokedexEntry.Gender.values();
+    private static final PokedexEntry.Form[] FORMS = PokedexEntry.Form.values();
+
+    /**
+     * Changes whenever ordinals in the encoding change meaning, i.e. when {@link PokedexEntry.Gender} or
+     * {@link PokedexEntry.Form} constants are added, removed or reordered. Processes passing encoded spawns to each other
+     * can compare it to make sure they decode what the other encoded.
+     */
+    public static final long SCHEMA_FINGERPRINT = Hashing.murmur3_128()
+            .hashString(Arrays.toString(GENDERS) + Arrays.toString(FORMS), StandardCharsets.UTF_8)
+            .asLong();
+
+    public static byte[] encode(final PokemonSpawn pokemonSpawn) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (final DataOutputStream output = new DataOutputStream(bytes)) {
+            write(pokemonSpawn, output);
+        } catch (final IOException e) {
+            // In memory streams don't throw
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static PokemonSpawn decode(final byte[] encoded) throws IOException {
+        return read(new DataInputStream(new ByteArrayInputStream(encoded)));
+    }
+
+    public static void write(final PokemonSpawn pokemonSpawn, final DataOutput output) throws IOException {
+        output.writeDouble(pokemonSpawn.getLatitude().toDegrees());
+        output.writeDouble(pokemonSpawn.getLongitude().toDegrees());
+
+        final PokedexEntry pokedexEntry = pokemonSpawn.getPokedexEntry();
+        output.writeShort(pokedexEntry.getId());
+        output.writeUTF(pokedexEntry.getName());
+        output.writeByte(pokedexEntry.getGender().ordinal());
+        output.writeByte(pokedexEntry.getForms().size());
+        for (final PokedexEntry.Form form : pokedexEntry.getForms()) {
+            output.writeShort(form.ordinal());
+        }
+
+        int flags = 0;
+        flags |= pokemonSpawn.getLevel().isPresent() ? LEVEL_PRESENT : 0;
+        flags |= pokemonSpawn.getCp().isPresent() ? CP_PRESENT : 0;
+        flags |= pokemonSpawn.getIv().isPresent() ? IV_PRESENT : 0;
+        flags |= pokemonSpawn.getDespawnTime().isPresent() ? DESPAWN_TIME_PRESENT : 0;
+        flags |= pokemonSpawn.getLocationDescription().isPresent() ? LOCATION_DESCRIPTION_PRESENT : 0;
+        output.writeByte(flags);
+        if (pokemonSpawn.getLevel().isPresent()) {
+            output.writeShort(pokemonSpawn.getLevel().get());
+        }
+        if (pokemonSpawn.getCp().isPresent()) {
+            output.writeInt(pokemonSpawn.getCp().get());
+        }
+        if (pokemonSpawn.getIv().isPresent()) {
+            output.writeDouble(pokemonSpawn.getIv().get());
+        }
+        if (pokemonSpawn.getDespawnTime().isPresent()) {
+            output.writeLong(pokemonSpawn.getDespawnTime().get().getEpochSecond());
+            output.writeInt(pokemonSpawn.getDespawnTime().get().getNano());
+        }
+        if (pokemonSpawn.getLocationDescription().isPresent()) {
+            output.writeUTF(pokemonSpawn.getLocationDescription().get());
+        }
+
+        output.writeUTF(pokemonSpawn.getSourceMetadata().sourceName());
+    }
+
+    public static PokemonSpawn read(final DataInput input) throws IOException {
+        final ImmutablePokemonSpawn.Builder builder = ImmutablePokemonSpawn.builder()
+                .latitude(Latitude.ofDegrees(input.readDouble()))
+                .longitude(Longitude.ofDegrees(input.readDouble()));
+
+        final ImmutablePokedexEntry.Builder pokedexEntryBuilder = ImmutablePokedexEntry.builder()
+                .id(input.readShort())
+                .name(input.readUTF())
+                .gender(GENDERS[input.readByte()]);
+        final int formCount = input.readByte();
+        for (int i = 0; i < formCount; i++) {
+            pokedexEntryBuilder.addForms(FORMS[input.readShort()]);
+        }
+        builder.pokedexEntry(pokedexEntryBuilder.build());
+
+        final int flags = input.readByte();
+        if ((flags & LEVEL_PRESENT) != 0) {
+            builder.level(input.readShort());
+        }
+        if ((flags & CP_PRESENT) != 0) {
+            builder.cp(input.readInt());
+        }
+        if ((flags & IV_PRESENT) != 0) {
+            builder.iv(input.readDouble());
+        }
+        if ((flags & DESPAWN_TIME_PRESENT) != 0) {
+            builder.despawnTime(Instant.ofEpochSecond(input.readLong(), input.readInt()));
+        }
+        if ((flags & LOCATION_DESCRIPTION_PRESENT) != 0) {
+            builder.locationDescription(input.readUTF());
+        }
+
+        return builder.sourceMetadata(ImmutableSourceMetadata.builder().sourceName(input.readUTF()).build()).build();
+    }
+
+}
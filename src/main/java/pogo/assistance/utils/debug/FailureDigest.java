@@ -0,0 +1,340 @@
+package pogo.assistance.utils.debug;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Collects failures (e.g. of parsing messages) and periodically sends a digest of them, instead of reporting each one
+ * as it happens. When a source changes its format and every one of its messages fails, this sends one digest per
+ * {@link #flushInterval} rather than hundreds of reports a minute.
+ *
+ * Failures are grouped by source and by signature of the exception (type, message with numbers masked and the frame it
+ * was thrown from). Each group keeps its count and a few randomly sampled payloads. A digest is a summary message
+ * followed by one message per group for the largest groups, up to {@link #maxGroupsPerDigest}; the rest are only
+ * counted in the summary. Each message fits within {@link #MAX_MESSAGE_LENGTH}, with samples cut short as needed. So a
+ * digest is bounded in number and size of messages no matter how many failures there were, which keeps what's sent
+ * within a fixed budget per flush interval.
+ *
+ * Every payload is also appended to a dead-letter file, one per line, so failed messages can be looked at (or parsed
+ * again) later.
+ *
+ * @implNote
+ *      Recording never blocks: it only updates the group and puts the payload in a bounded queue for the dead-letter
+ *      file, dropping it if the queue is full. Sending the digest and writing to the file happen on a single flusher
+ *      thread.
+ */
+@Slf4j
+public class FailureDigest implements Closeable {
+
+    static final int DEFAULT_MAX_GROUPS_PER_DIGEST = 5;
+    static final int DEFAULT_SAMPLES_PER_GROUP = 2;
+    /**
+     * Discord's limit on length of a message. Samples are cut short to keep each message of a digest within this.
+     * Dead-letter file always gets the whole payload.
+     */
+    static final int MAX_MESSAGE_LENGTH = 2000;
+    private static final int MAX_MESSAGE_LENGTH_IN_SIGNATURE = 200;
+    private static final int MAX_SOURCE_LENGTH = 100;
+    /**
+     * Samples that would have to be cut shorter than this to fit are left out
+     */
+    private static final int MIN_SAMPLE_LENGTH = 50;
+    private static final int DEAD_LETTER_QUEUE_CAPACITY = 10000;
+    /**
+     * Stop writing to the dead-letter file past this size, so a broken source can't fill up the disk
+     */
+    private static final long MAX_DEAD_LETTER_FILE_BYTES = 256 * 1024 * 1024;
+
+    private final Consumer<String> digestSender;
+    @Nullable
+    private final Path deadLetterFile;
+    private final Duration flushInterval;
+    private final int maxGroupsPerDigest;
+    private final int samplesPerGroup;
+
+    private final Map<GroupKey, FailureGroup> groups = new ConcurrentHashMap<>();
+    private final BlockingQueue<String> pendingDeadLetters = new ArrayBlockingQueue<>(DEAD_LETTER_QUEUE_CAPACITY);
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("failure-digest-%d")
+            .setDaemon(true)
+            .build());
+
+    private final LongAdder recordedCount = new LongAdder();
+    private final LongAdder digestCount = new LongAdder();
+    private final LongAdder deadLetterCount = new LongAdder();
+    private final LongAdder droppedDeadLetterCount = new LongAdder();
+
+    /**
+     * @param digestSender
+     *      Sends a message of a digest wherever it's meant to be read. Called once per message, at most
+     *      {@code maxGroupsPerDigest + 1} times per flush, on the flusher thread, so it can block.
+     * @param deadLetterFile
+     *      File to append payloads of failures to, or null to not keep them. Parent directories are created if missing.
+     * @param flushInterval
+     *      How often to send a digest, if there were any failures since the last one
+     */
+    public FailureDigest(final Consumer<String> digestSender, @Nullable final Path deadLetterFile, final Duration flushInterval) {
+        this(digestSender, deadLetterFile, flushInterval, DEFAULT_MAX_GROUPS_PER_DIGEST, DEFAULT_SAMPLES_PER_GROUP);
+    }
+
+    FailureDigest(
+            final Consumer<String> digestSender,
+            @Nullable final Path deadLetterFile,
+            final Duration flushInterval,
+            final int maxGroupsPerDigest,
+            final int samplesPerGroup) {
+        Preconditions.checkArgument(!flushInterval.isNegative() && !flushInterval.isZero(), "Flush interval must be positive");
+        Preconditions.checkArgument(maxGroupsPerDigest > 0 && samplesPerGroup >= 0);
+        this.digestSender = digestSender;
+        this.deadLetterFile = deadLetterFile;
+        this.flushInterval = flushInterval;
+        this.maxGroupsPerDigest = maxGroupsPerDigest;
+        this.samplesPerGroup = samplesPerGroup;
+    }
+
+    public void start() {
+        flusher.scheduleWithFixedDelay(this::flushWithoutThrowing,
+                flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param source
+     *      Where the failing input came from, e.g. server and channel of a message
+     * @param failure
+     *      What went wrong
+     * @param payload
+     *      Failing input. Should be a single line if there's a dead-letter file.
+     */
+    public void record(final String source, final Throwable failure, final String payload) {
+        recordedCount.increment();
+        // Adding within compute, so a flush can't take the group away between finding and adding to it
+        groups.compute(new GroupKey(source, signatureOf(failure)), (__, group) -> {
+            final FailureGroup groupToAddTo = group == null ? new FailureGroup() : group;
+            groupToAddTo.add(payload);
+            return groupToAddTo;
+        });
+        if (deadLetterFile != null && !pendingDeadLetters.offer(payload)) {
+            droppedDeadLetterCount.increment();
+        }
+    }
+
+    /**
+     * Stops the periodic flush and flushes whatever was recorded since the last one.
+     */
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(flushInterval.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Timed out waiting for failure digest flusher to stop");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushWithoutThrowing();
+    }
+
+    /**
+     * Writes pending payloads to the dead-letter file and sends a digest of failures recorded since the last flush, if
+     * there were any.
+     */
+    synchronized void flush() {
+        writeDeadLetters();
+
+        final List<Map.Entry<GroupKey, FailureGroup>> flushedGroups = new ArrayList<>();
+        // Removing one group at a time, so failures recorded meanwhile either make it to this digest or the next one
+        for (final GroupKey groupKey : groups.keySet()) {
+            final FailureGroup group = groups.remove(groupKey);
+            if (group != null) {
+                flushedGroups.add(new AbstractMap.SimpleImmutableEntry<>(groupKey, group));
+            }
+        }
+        if (flushedGroups.isEmpty()) {
+            return;
+        }
+        flushedGroups.sort(Comparator.comparingLong((Map.Entry<GroupKey, FailureGroup> entry) -> entry.getValue().getCount()).reversed());
+        compileDigest(flushedGroups).forEach(digestSender);
+        digestCount.increment();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("recorded: %d, digests sent: %d, dead letters written: %d, dead letters dropped: %d",
+                recordedCount.sum(), digestCount.sum(), deadLetterCount.sum(), droppedDeadLetterCount.sum());
+    }
+
+    private void flushWithoutThrowing() {
+        try {
+            flush();
+        } catch (final RuntimeException e) {
+            // Thrown out of a scheduled task, it'd cancel all later flushes
+            log.error("Failed to flush failure digest", e);
+        }
+    }
+
+    /**
+     * @return
+     *      Summary message, followed by a message for each of the largest groups
+     */
+    private List<String> compileDigest(final List<Map.Entry<GroupKey, FailureGroup>> flushedGroups) {
+        final long failureCount = flushedGroups.stream().mapToLong(entry -> entry.getValue().getCount()).sum();
+        final StringBuilder summary = new StringBuilder(String.format("**%d failure(s) in %d group(s)**",
+                failureCount, flushedGroups.size()));
+        if (flushedGroups.size() > maxGroupsPerDigest) {
+            final List<Map.Entry<GroupKey, FailureGroup>> restOfGroups = flushedGroups.subList(maxGroupsPerDigest, flushedGroups.size());
+            summary.append(String.format("%n...%d more failure(s) in %d other group(s) are not shown",
+                    restOfGroups.stream().mapToLong(entry -> entry.getValue().getCount()).sum(), restOfGroups.size()));
+        }
+
+        final List<String> messages = new ArrayList<>();
+        messages.add(summary.toString());
+        for (final Map.Entry<GroupKey, FailureGroup> entry : flushedGroups.subList(0, Math.min(maxGroupsPerDigest, flushedGroups.size()))) {
+            messages.add(compileGroupMessage(entry.getKey(), entry.getValue()));
+        }
+        return messages;
+    }
+
+    /**
+     * @return
+     *      Message with the group's count, source, signature and as much of its samples as fits within
+     *      {@link #MAX_MESSAGE_LENGTH}
+     */
+    private static String compileGroupMessage(final GroupKey groupKey, final FailureGroup group) {
+        final StringBuilder message = new StringBuilder(String.format("**%d ×** `%s`%n```%n%s%n```%n",
+                group.getCount(), abbreviate(groupKey.source, MAX_SOURCE_LENGTH), groupKey.signature));
+        final int sampleFenceLength = String.format("```json%n%n```%n").length();
+        final List<String> samples = group.getSamples();
+        for (int i = 0; i < samples.size(); i++) {
+            // Remaining room is split evenly among remaining samples, so one long sample doesn't crowd out the rest
+            final int maxSampleLength = (MAX_MESSAGE_LENGTH - message.length()) / (samples.size() - i) - sampleFenceLength;
+            if (maxSampleLength < MIN_SAMPLE_LENGTH) {
+                break;
+            }
+            message.append(String.format("```json%n%s%n```%n", abbreviate(samples.get(i), maxSampleLength)));
+        }
+        return message.toString();
+    }
+
+    private void writeDeadLetters() {
+        if (deadLetterFile == null || pendingDeadLetters.isEmpty()) {
+            return;
+        }
+        final List<String> deadLetters = new ArrayList<>();
+        pendingDeadLetters.drainTo(deadLetters);
+        try {
+            if (deadLetterFile.getParent() != null) {
+                Files.createDirectories(deadLetterFile.getParent());
+            }
+            if (Files.exists(deadLetterFile) && Files.size(deadLetterFile) > MAX_DEAD_LETTER_FILE_BYTES) {
+                droppedDeadLetterCount.add(deadLetters.size());
+                return;
+            }
+            try (final Writer writer = Files.newBufferedWriter(deadLetterFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (final String deadLetter : deadLetters) {
+                    writer.write(deadLetter);
+                    writer.write(System.lineSeparator());
+                }
+            }
+            deadLetterCount.add(deadLetters.size());
+        } catch (final IOException e) {
+            droppedDeadLetterCount.add(deadLetters.size());
+            log.error("Failed to write dead letters to " + deadLetterFile, e);
+        }
+    }
+
+    /**
+     * @return
+     *      Type of the root cause, its message with numbers masked (as they tend to differ between otherwise identical
+     *      failures), and the frame it was thrown from
+     */
+    static String signatureOf(final Throwable failure) {
+        final Throwable rootCause = Throwables.getRootCause(failure);
+        final StringBuilder signature = new StringBuilder(rootCause.getClass().getName());
+        if (rootCause.getMessage() != null) {
+            final String maskedMessage = rootCause.getMessage().replaceAll("\\d+", "#");
+            signature.append(": ").append(maskedMessage, 0, Math.min(maskedMessage.length(), MAX_MESSAGE_LENGTH_IN_SIGNATURE));
+        }
+        if (rootCause.getStackTrace().length > 0) {
+            signature.append(System.lineSeparator()).append("    at ").append(rootCause.getStackTrace()[0]);
+        }
+        return signature.toString();
+    }
+
+    /**
+     * @return
+     *      Text cut short to at most the given length, ending with an ellipsis if it was cut
+     */
+    private static String abbreviate(final String text, final int maxLength) {
+        return text.length() <= maxLength ? text : text.substring(0, maxLength - 3) + "...";
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class GroupKey {
+
+        private final String source;
+        private final String signature;
+
+    }
+
+    /**
+     * Count and reservoir sample of payloads of one group of failures. Guarded by its own monitor.
+     */
+    private final class FailureGroup {
+
+        private final List<String> samples = new ArrayList<>(samplesPerGroup);
+        private long count = 0;
+
+        synchronized void add(final String payload) {
+            count++;
+            if (samples.size() < samplesPerGroup) {
+                samples.add(payload);
+                return;
+            }
+            // Every payload seen so far has equal chance of being in the sample
+            final long index = ThreadLocalRandom.current().nextLong(count);
+            if (index < samplesPerGroup) {
+                samples.set((int) index, payload);
+            }
+        }
+
+        synchronized long getCount() {
+            return count;
+        }
+
+        synchronized List<String> getSamples() {
+            return new ArrayList<>(samples);
+        }
+
+    }
+
+}
@@ -0,0 +1,81 @@
+package pogo.assistance.data.exchange.spawn;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static pogo.assistance.data.exchange.spawn.SpawnFixtures.hundoAt;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+class BloomFilteredSpawnDeduplicatorTest {
+
+    @Test
+    void isUnique_NewSpawns_SkipsExactCheck() {
+        final SpawnDeduplicator exactDeduplicator = spy(new CompactSpawnDuplicateDetector(SpawnDeduplicationMode.EXACT));
+        final BloomFilteredSpawnDeduplicator deduplicator =
+                new BloomFilteredSpawnDeduplicator(exactDeduplicator, Duration.ofMinutes(10), 1000, 1e-9);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(deduplicator.isUnique(hundoAt(10 + i * 0.01, Instant.now().plusSeconds(600))));
+        }
+
+        verify(exactDeduplicator, never()).isUnique(any());
+        verify(exactDeduplicator, never()).isUnique(any(), any());
+        assertEquals(100, exactDeduplicator.size());
+        assertEquals(1.0, deduplicator.getHitRate());
+        assertEquals(0.0, deduplicator.getFalsePositiveRate());
+    }
+
+    @Test
+    void isUnique_SeenSpawns_ConfirmedByExactCheck() {
+        final BloomFilteredSpawnDeduplicator deduplicator = new BloomFilteredSpawnDeduplicator(
+                new CompactSpawnDuplicateDetector(SpawnDeduplicationMode.EXACT), Duration.ofMinutes(10), 1000, 0.01);
+        final PokemonSpawn spawn = hundoAt(10, Instant.now().plusSeconds(600));
+
+        assertTrue(deduplicator.isUnique(spawn));
+        assertFalse(deduplicator.isUnique(spawn));
+        assertTrue(deduplicator.isKnown(spawn));
+        assertEquals(0.5, deduplicator.getHitRate());
+    }
+
+    @Test
+    void isUnique_SeenSpawn_ExactCheckReusesFingerprints() {
+        final SpawnDeduplicator exactDeduplicator = spy(new CompactSpawnDuplicateDetector(SpawnDeduplicationMode.EXACT));
+        final BloomFilteredSpawnDeduplicator deduplicator =
+                new BloomFilteredSpawnDeduplicator(exactDeduplicator, Duration.ofMinutes(10), 1000, 0.01);
+        final PokemonSpawn spawn = hundoAt(10, Instant.now().plusSeconds(600));
+
+        assertTrue(deduplicator.isUnique(spawn));
+        assertFalse(deduplicator.isUnique(spawn));
+
+        verify(exactDeduplicator).memorize(eq(spawn), any(long[].class), any());
+        verify(exactDeduplicator).isUnique(eq(spawn), any(long[].class));
+        verify(exactDeduplicator, never()).memorize(any(), any(Instant.class));
+        verify(exactDeduplicator, never()).isUnique(any());
+    }
+
+    @Test
+    void isUnique_UndersizedFilters_NoSpawnDroppedAndFalsePositivesCounted() {
+        final BloomFilteredSpawnDeduplicator deduplicator = new BloomFilteredSpawnDeduplicator(
+                new CompactSpawnDuplicateDetector(SpawnDeduplicationMode.EXACT), Duration.ofMinutes(10), 10, 0.01);
+
+        int uniqueCount = 0;
+        for (int i = 0; i < 2000; i++) {
+            if (deduplicator.isUnique(hundoAt(10 + i * 0.01, Instant.now().plusSeconds(600)))) {
+                uniqueCount++;
+            }
+        }
+
+        assertEquals(2000, uniqueCount);
+        assertTrue(deduplicator.getFalsePositiveRate() > 0.01);
+        assertTrue(deduplicator.getHitRate() < 1.0);
+    }
+
+}
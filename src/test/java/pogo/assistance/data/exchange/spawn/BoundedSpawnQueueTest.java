@@ -0,0 +1,195 @@
+package pogo.assistance.data.exchange.spawn;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.*;
+import static pogo.assistance.data.exchange.spawn.SpawnFixtures.spawnAt;
+import static pogo.assistance.data.exchange.spawn.SpawnFixtures.spawnBuilder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+class BoundedSpawnQueueTest {
+
+    @Test
+    void put_DropOldestWhenFull_DiscardsHead() throws InterruptedException {
+        final BoundedSpawnQueue queue = new BoundedSpawnQueue(2, SpawnOverflowPolicy.DROP_OLDEST);
+        final PokemonSpawn first = spawnWithIv(10.0);
+        final PokemonSpawn second = spawnWithIv(20.0);
+        final PokemonSpawn third = spawnWithIv(30.0);
+        queue.put(first);
+        queue.put(second);
+        queue.put(third);
+
+        assertThat(drain(queue), contains(second, third));
+        assertEquals(1, queue.getOverflowCount());
+        assertEquals(1, queue.getDroppedCount());
+    }
+
+    @Test
+    void put_DropLowestValueWhenFull_DiscardsLowestQueued() throws InterruptedException {
+        final BoundedSpawnQueue queue = new BoundedSpawnQueue(3, SpawnOverflowPolicy.DROP_LOWEST_VALUE);
+        final PokemonSpawn high = spawnWithIv(90.0);
+        final PokemonSpawn low = spawnWithIv(10.0);
+        final PokemonSpawn medium = spawnWithIv(50.0);
+        final PokemonSpawn perfect = spawnWithIv(100.0);
+        queue.put(high);
+        queue.put(low);
+        queue.put(medium);
+        queue.put(perfect);
+
+        assertThat(drain(queue), contains(high, medium, perfect));
+        assertEquals(1, queue.getDroppedCount());
+    }
+
+    @Test
+    void put_DropLowestValueWhenFullWithLowValueOffer_DiscardsOffered() throws InterruptedException {
+        final BoundedSpawnQueue queue = new BoundedSpawnQueue(2, SpawnOverflowPolicy.DROP_LOWEST_VALUE);
+        final PokemonSpawn high = spawnWithIv(90.0);
+        final PokemonSpawn medium = spawnWithIv(50.0);
+        queue.put(high);
+        queue.put(medium);
+        queue.put(spawnWithIv(10.0));
+
+        assertThat(drain(queue), contains(high, medium));
+        assertEquals(1, queue.getDroppedCount());
+    }
+
+    @Test
+    void put_BlockProducerWhenFull_WaitsForConsumer() throws InterruptedException {
+        final BoundedSpawnQueue queue = new BoundedSpawnQueue(1, SpawnOverflowPolicy.BLOCK_PRODUCER);
+        final PokemonSpawn first = spawnWithIv(10.0);
+        final PokemonSpawn second = spawnWithIv(20.0);
+        queue.put(first);
+        assertFalse(queue.offer(second));
+
+        final CountDownLatch putDone = new CountDownLatch(1);
+        final Thread producer = new Thread(() -> {
+            try {
+                queue.put(second);
+                putDone.countDown();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        assertFalse(putDone.await(100, TimeUnit.MILLISECONDS));
+
+        assertSame(first, queue.take());
+        assertTrue(putDone.await(5, TimeUnit.SECONDS));
+        assertSame(second, queue.take());
+        assertEquals(2, queue.getOverflowCount());
+        assertEquals(0, queue.getDroppedCount());
+    }
+
+    @Test
+    void take_AfterWrappingAround_KeepsFifoOrder() throws InterruptedException {
+        final BoundedSpawnQueue queue = new BoundedSpawnQueue(3, SpawnOverflowPolicy.BLOCK_PRODUCER);
+        final List<PokemonSpawn> spawns = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            spawns.add(spawnWithIv(i));
+        }
+        queue.put(spawns.get(0));
+        queue.put(spawns.get(1));
+        for (int i = 2; i < spawns.size(); i++) {
+            queue.put(spawns.get(i));
+            assertSame(spawns.get(i - 2), queue.take());
+        }
+        assertEquals(2, queue.size());
+        assertEquals(1, queue.remainingCapacity());
+    }
+
+    @Test
+    void take_WithPriorityClassifier_TakesHigherPriorityFirst() throws InterruptedException {
+        final BoundedSpawnQueue queue = new BoundedSpawnQueue(
+                10, SpawnOverflowPolicy.DROP_OLDEST, SpawnValue.priorityClassifier(pokedexEntry -> false), Duration.ofHours(1));
+        final PokemonSpawn noIv = spawnWithoutIv();
+        final PokemonSpawn lowIv = spawnWithIv(40.0);
+        final PokemonSpawn perfect = spawnWithIv(100.0);
+        final PokemonSpawn highIv = spawnWithIv(95.0);
+        queue.put(noIv);
+        queue.put(lowIv);
+        queue.put(perfect);
+        queue.put(highIv);
+
+        assertSame(perfect, queue.peek());
+        assertThat(drain(queue), contains(perfect, highIv, lowIv, noIv));
+        assertEquals(1, queue.getWaitTimeStats().get(SpawnPriority.TOP).getCount());
+        assertEquals(1, queue.getWaitTimeStats().get(SpawnPriority.LOW).getCount());
+    }
+
+    @Test
+    void take_WithStarvingLowPrioritySpawn_InterleavesStarvingSpawn() throws InterruptedException {
+        // Zero threshold means any spawn that has waited at all is starving
+        final BoundedSpawnQueue queue = new BoundedSpawnQueue(
+                10, SpawnOverflowPolicy.DROP_OLDEST, SpawnValue.priorityClassifier(pokedexEntry -> false), Duration.ZERO);
+        final PokemonSpawn firstNoIv = spawnWithoutIv();
+        final PokemonSpawn secondNoIv = spawnWithoutIv();
+        final PokemonSpawn firstPerfect = spawnWithIv(100.0);
+        final PokemonSpawn secondPerfect = spawnWithIv(100.0);
+        queue.put(firstNoIv);
+        queue.put(secondNoIv);
+        queue.put(firstPerfect);
+        queue.put(secondPerfect);
+        TimeUnit.MILLISECONDS.sleep(1);
+
+        assertThat(drain(queue), contains(firstNoIv, firstPerfect, secondNoIv, secondPerfect));
+    }
+
+    @Test
+    void put_DropLowestValueWithPriorityClassifier_OverflowsPerPriority() throws InterruptedException {
+        final BoundedSpawnQueue queue = new BoundedSpawnQueue(
+                1, SpawnOverflowPolicy.DROP_LOWEST_VALUE, SpawnValue.priorityClassifier(pokedexEntry -> false), Duration.ofHours(1));
+        final PokemonSpawn perfect = spawnWithIv(100.0);
+        final PokemonSpawn noIv = spawnWithoutIv();
+        queue.put(perfect);
+        queue.put(noIv);
+        queue.put(spawnWithoutIv());
+
+        assertThat(drain(queue), contains(perfect, noIv));
+        assertEquals(1, queue.getDroppedCount());
+    }
+
+    @Test
+    void put_DropLowestValueWhenFull_PassesEveryDroppedSpawnToConsumer() throws InterruptedException {
+        final List<PokemonSpawn> dropped = new ArrayList<>();
+        final BoundedSpawnQueue queue = new BoundedSpawnQueue(
+                2,
+                SpawnOverflowPolicy.DROP_LOWEST_VALUE,
+                SpawnValue.priorityClassifier(pokedexEntry -> false),
+                Duration.ofHours(1),
+                dropped::add);
+        final PokemonSpawn medium = spawnWithIv(50.0);
+        final PokemonSpawn low = spawnWithIv(40.0);
+        final PokemonSpawn lowerOffered = spawnWithIv(10.0);
+        final PokemonSpawn higherOffered = spawnWithIv(60.0);
+        queue.put(medium);
+        queue.put(low);
+        queue.put(lowerOffered);
+        queue.put(higherOffered);
+
+        assertThat(dropped, contains(lowerOffered, low));
+        assertThat(drain(queue), contains(medium, higherOffered));
+    }
+
+    private static List<PokemonSpawn> drain(final BoundedSpawnQueue queue) {
+        final List<PokemonSpawn> drained = new ArrayList<>();
+        queue.drainTo(drained);
+        return drained;
+    }
+
+    private static PokemonSpawn spawnWithoutIv() {
+        return spawnAt(-1.0, -1.0);
+    }
+
+    private static PokemonSpawn spawnWithIv(final double iv) {
+        return spawnBuilder(-1.0, -1.0).iv(iv).build();
+    }
+
+}
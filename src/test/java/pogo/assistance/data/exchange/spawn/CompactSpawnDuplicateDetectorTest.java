@@ -0,0 +1,98 @@
+package pogo.assistance.data.exchange.spawn;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static pogo.assistance.data.exchange.spawn.SpawnFixtures.sourceMetadata;
+import static pogo.assistance.data.exchange.spawn.SpawnFixtures.spawnBuilder;
+
+import java.time.Instant;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+class CompactSpawnDuplicateDetectorTest {
+
+    private static final Instant DESPAWN_TIME = Instant.now().plusSeconds(600);
+
+    @Test
+    void isUnique_FuzzyWithSameSpawnFromOtherSource_DetectsDuplication() {
+        final CompactSpawnDuplicateDetector detector = new CompactSpawnDuplicateDetector(SpawnDeduplicationMode.FUZZY);
+        final PokemonSpawn fromFirstSource = spawn(37.338201, -121.886301, 97.8, 1500, "first", DESPAWN_TIME);
+        // Coordinates off at 5th decimal, IV rounded, despawn time a bit different
+        final PokemonSpawn fromSecondSource = spawn(37.33821, -121.88629, 98.0, 1500, "second", DESPAWN_TIME.minusSeconds(10));
+        assertTrue(detector.isUnique(fromFirstSource));
+        assertFalse(detector.isUnique(fromSecondSource));
+        assertEquals(1, detector.size());
+    }
+
+    @Test
+    void isUnique_FuzzyWithNearbySpawnAcrossCellBorder_DetectsDuplication() {
+        final CompactSpawnDuplicateDetector detector = new CompactSpawnDuplicateDetector(SpawnDeduplicationMode.FUZZY);
+        // 0.0002 degree cells, so these are in adjacent cells despite being ~1m apart
+        assertTrue(detector.isUnique(spawn(10.00019, 20.0001, 100.0, 3000, "first", DESPAWN_TIME)));
+        assertFalse(detector.isUnique(spawn(10.00021, 20.0001, 100.0, 3000, "second", DESPAWN_TIME)));
+    }
+
+    @Test
+    void isUnique_FuzzyWithDifferentIvOrFarAway_TreatsAsUnique() {
+        final CompactSpawnDuplicateDetector detector = new CompactSpawnDuplicateDetector(SpawnDeduplicationMode.FUZZY);
+        assertTrue(detector.isUnique(spawn(10.0, 20.0, 100.0, 3000, "first", DESPAWN_TIME)));
+        assertTrue(detector.isUnique(spawn(10.0, 20.0, 91.1, 3000, "first", DESPAWN_TIME)));
+        assertTrue(detector.isUnique(spawn(10.0, 20.0, 100.0, 2999, "first", DESPAWN_TIME)));
+        assertTrue(detector.isUnique(spawn(10.001, 20.0, 100.0, 3000, "first", DESPAWN_TIME)));
+    }
+
+    @Test
+    void isUnique_FuzzyWithNearDuplicatesCheckedConcurrently_TakesOneAsUnique() throws InterruptedException {
+        final CompactSpawnDuplicateDetector detector = new CompactSpawnDuplicateDetector(SpawnDeduplicationMode.FUZZY);
+        final int pairCount = 2000;
+        final CyclicBarrier pairStart = new CyclicBarrier(2);
+        final AtomicInteger uniqueCount = new AtomicInteger();
+        // Each pair is a different spawn (by CP) reported on both sides of a cell border, checked at the same time
+        final Thread first = checker(detector, pairCount, 10.00019, pairStart, uniqueCount);
+        final Thread second = checker(detector, pairCount, 10.00021, pairStart, uniqueCount);
+        first.start();
+        second.start();
+        first.join();
+        second.join();
+        assertEquals(pairCount, uniqueCount.get());
+    }
+
+    private static Thread checker(
+            final CompactSpawnDuplicateDetector detector,
+            final int pairCount,
+            final double latitude,
+            final CyclicBarrier pairStart,
+            final AtomicInteger uniqueCount) {
+        return new Thread(() -> {
+            for (int cp = 1; cp <= pairCount; cp++) {
+                try {
+                    pairStart.await();
+                } catch (final InterruptedException | BrokenBarrierException e) {
+                    throw new AssertionError(e);
+                }
+                if (detector.isUnique(spawn(latitude, 20.0001, 100.0, cp, "source", DESPAWN_TIME))) {
+                    uniqueCount.incrementAndGet();
+                }
+            }
+        });
+    }
+
+    private static PokemonSpawn spawn(
+            final double latitude,
+            final double longitude,
+            final double iv,
+            final int cp,
+            final String sourceName,
+            final Instant despawnTime) {
+        return spawnBuilder(latitude, longitude)
+                .cp(cp)
+                .iv(iv)
+                .despawnTime(despawnTime)
+                .sourceMetadata(sourceMetadata(sourceName))
+                .build();
+    }
+
+}
@@ -0,0 +1,41 @@
+package pogo.assistance.data.exchange.spawn;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static pogo.assistance.data.exchange.spawn.SpawnFixtures.spawnBuilder;
+
+import org.junit.jupiter.api.Test;
+import pogo.assistance.data.model.pokemon.ImmutablePokedexEntry;
+import pogo.assistance.data.model.pokemon.Pokedex;
+import pogo.assistance.data.model.pokemon.PokedexEntry;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+class FuzzySpawnKeyTest {
+
+    @Test
+    void keyOf_SpawnsDifferingOnlyInForms_ReturnsDifferentKeys() {
+        assertNotEquals(
+                FuzzySpawnKey.keyOf(unownWith(PokedexEntry.Form.SHINY, PokedexEntry.Form.UNOWN_A)),
+                FuzzySpawnKey.keyOf(unownWith(PokedexEntry.Form.UNOWN_C)));
+        assertNotEquals(
+                FuzzySpawnKey.keyOf(unownWith(PokedexEntry.Form.UNOWN_A)),
+                FuzzySpawnKey.keyOf(unownWith(PokedexEntry.Form.UNOWN_A, PokedexEntry.Form.SHINY)));
+    }
+
+    @Test
+    void keyOf_SameFormsInDifferentOrder_ReturnsSameKey() {
+        assertEquals(
+                FuzzySpawnKey.keyOf(unownWith(PokedexEntry.Form.SHINY, PokedexEntry.Form.UNOWN_A)),
+                FuzzySpawnKey.keyOf(unownWith(PokedexEntry.Form.UNOWN_A, PokedexEntry.Form.SHINY)));
+    }
+
+    private static PokemonSpawn unownWith(final PokedexEntry.Form... forms) {
+        return spawnBuilder(37.3382, -121.8863)
+                .pokedexEntry(ImmutablePokedexEntry.builder()
+                        .from(Pokedex.getPokedexEntryFor(201, PokedexEntry.Gender.NONE).get())
+                        .addForms(forms)
+                        .build())
+                .iv(100.0)
+                .build();
+    }
+
+}
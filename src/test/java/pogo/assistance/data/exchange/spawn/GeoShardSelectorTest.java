@@ -0,0 +1,36 @@
+package pogo.assistance.data.exchange.spawn;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import io.jenetics.jpx.WayPoint;
+import org.junit.jupiter.api.Test;
+
+class GeoShardSelectorTest {
+
+    @Test
+    void shardOf_PointsInSameCell_ReturnsSameShard() {
+        final GeoShardSelector selector = new GeoShardSelector(8, 1.0);
+        assertEquals(
+                selector.shardOf(WayPoint.of(37.01, -121.99)),
+                selector.shardOf(WayPoint.of(37.99, -121.01)));
+    }
+
+    @Test
+    void shardOf_PointsAcrossManyCells_UsesAllShards() {
+        final GeoShardSelector selector = new GeoShardSelector(4, 1.0);
+        final Set<Integer> shards = new HashSet<>();
+        for (int latitude = -60; latitude < 60; latitude += 7) {
+            for (int longitude = -170; longitude < 170; longitude += 13) {
+                final int shard = selector.shardOf(WayPoint.of(latitude + 0.5, longitude + 0.5));
+                assertTrue(shard >= 0 && shard < 4);
+                shards.add(shard);
+            }
+        }
+        assertEquals(4, shards.size());
+    }
+
+}
@@ -0,0 +1,105 @@
+package pogo.assistance.data.exchange.spawn;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+class ObserverLaneTest {
+
+    @Test
+    void dispatch_WithBatchingObserver_DeliversSpawnsInBatches() throws InterruptedException {
+        final BlockingQueue<List<PokemonSpawn>> observedBatches = new LinkedBlockingQueue<>();
+        final ObserverLane lane = new ObserverLane(new BatchingObserver(observedBatches, 3, Duration.ofSeconds(1)), "batching");
+        final List<PokemonSpawn> spawns = IntStream.range(0, 5)
+                .mapToObj(__ -> mock(PokemonSpawn.class))
+                .collect(Collectors.toList());
+        lane.start();
+        for (final PokemonSpawn spawn : spawns) {
+            lane.dispatch(spawn);
+        }
+
+        assertThat(observedBatches.poll(5, TimeUnit.SECONDS), contains(spawns.get(0), spawns.get(1), spawns.get(2)));
+        // Only two left, so this batch is cut short after the batch window
+        assertThat(observedBatches.poll(5, TimeUnit.SECONDS), contains(spawns.get(3), spawns.get(4)));
+        lane.shutdown();
+    }
+
+    @Test
+    void dispatch_WithDefaultSettings_DeliversSpawnsOneByOne() throws InterruptedException {
+        final BlockingQueue<PokemonSpawn> observedSpawns = new LinkedBlockingQueue<>();
+        final ObserverLane lane = new ObserverLane(observedSpawns::add, "default");
+        lane.start();
+        final PokemonSpawn spawn = mock(PokemonSpawn.class);
+        lane.dispatch(spawn);
+
+        assertSame(spawn, observedSpawns.poll(5, TimeUnit.SECONDS));
+        lane.shutdown();
+    }
+
+    @Test
+    void lanesOf_ObserversOfSameClass_NamesEachLaneUniquely() {
+        final BlockingQueue<List<PokemonSpawn>> observedBatches = new LinkedBlockingQueue<>();
+        final List<ObserverLane> lanes = ObserverLane.lanesOf(ImmutableList.of(
+                new BatchingObserver(observedBatches, 3, Duration.ZERO),
+                new BatchingObserver(observedBatches, 5, Duration.ZERO),
+                new SingleObserver()));
+
+        assertThat(
+                lanes.stream().map(ObserverLane::getName).collect(Collectors.toList()),
+                containsInAnyOrder("BatchingObserver-1", "BatchingObserver-2", "SingleObserver"));
+    }
+
+    private static class SingleObserver implements PokemonSpawnObserver {
+        @Override
+        public void observe(final PokemonSpawn pokemonSpawn) {
+        }
+    }
+
+    private static class BatchingObserver implements PokemonSpawnObserver {
+
+        private final BlockingQueue<List<PokemonSpawn>> observedBatches;
+        private final ObserverLaneSettings laneSettings;
+
+        BatchingObserver(
+                final BlockingQueue<List<PokemonSpawn>> observedBatches,
+                final int maxBatchSize,
+                final Duration batchWindow) {
+            this.observedBatches = observedBatches;
+            this.laneSettings = ImmutableObserverLaneSettings.builder()
+                    .maxBatchSize(maxBatchSize)
+                    .batchWindow(batchWindow)
+                    .build();
+        }
+
+        @Override
+        public void observe(final PokemonSpawn pokemonSpawn) {
+            fail("Batching observer expected to be called with batches only");
+        }
+
+        @Override
+        public void observeBatch(final List<PokemonSpawn> pokemonSpawns) {
+            observedBatches.add(new ArrayList<>(pokemonSpawns));
+        }
+
+        @Override
+        public ObserverLaneSettings getLaneSettings() {
+            return laneSettings;
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+package pogo.assistance.data.exchange.spawn;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static pogo.assistance.data.exchange.spawn.SpawnFixtures.sourceMetadata;
+import static pogo.assistance.data.exchange.spawn.SpawnFixtures.spawnAt;
+import static pogo.assistance.data.exchange.spawn.SpawnFixtures.spawnBuilder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+class PokemonSpawnExchangeTest {
+
+    @Test
+    void offer_ShardedWithDuplicates_DispatchesEachUniqueSpawnOnce() throws InterruptedException {
+        final List<PokemonSpawn> observed = new CopyOnWriteArrayList<>();
+        final CountDownLatch observedAll = new CountDownLatch(3);
+        final PokemonSpawnObserver observer = pokemonSpawn -> {
+            observed.add(pokemonSpawn);
+            observedAll.countDown();
+        };
+        final PokemonSpawnExchange exchange = new PokemonSpawnExchange(
+                ImmutableSet.of(observer),
+                new GeoShardSelector(4, 1.0),
+                LinkedBlockingQueue::new,
+                deduplicatorOf(SpawnDeduplicationMode.EXACT),
+                null);
+
+        final PokemonSpawn sanJose = spawnAt(37.3382, -121.8863);
+        final PokemonSpawn chicago = spawnAt(41.8781, -87.6298);
+        final PokemonSpawn sofia = spawnAt(42.6977, 23.3219);
+        for (final PokemonSpawn pokemonSpawn : new PokemonSpawn[] { sanJose, chicago, sofia, chicago, sanJose }) {
+            exchange.offer(pokemonSpawn);
+        }
+
+        assertTrue(observedAll.await(5, TimeUnit.SECONDS));
+        // Give any wrongly dispatched duplicate a chance to show up
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertThat(observed, containsInAnyOrder(sanJose, chicago, sofia));
+    }
+
+    @Test
+    void offer_FuzzyDuplicatesAcrossShardBorder_DispatchesOnce() throws InterruptedException {
+        final List<PokemonSpawn> observed = new CopyOnWriteArrayList<>();
+        final CountDownLatch observedFirst = new CountDownLatch(1);
+        final PokemonSpawnObserver observer = pokemonSpawn -> {
+            observed.add(pokemonSpawn);
+            observedFirst.countDown();
+        };
+        final GeoShardSelector shardSelector = new GeoShardSelector(4, 1.0);
+        final PokemonSpawnExchange exchange = new PokemonSpawnExchange(
+                ImmutableSet.of(observer),
+                shardSelector,
+                LinkedBlockingQueue::new,
+                deduplicatorOf(SpawnDeduplicationMode.FUZZY),
+                null);
+
+        final PokemonSpawn southOfBorder = spawnBuilder(37.99999, -121.5).sourceMetadata(sourceMetadata("source-1")).build();
+        final PokemonSpawn northOfBorder = spawnBuilder(38.00001, -121.5).sourceMetadata(sourceMetadata("source-2")).build();
+        assertNotEquals(shardSelector.shardOf(southOfBorder), shardSelector.shardOf(northOfBorder));
+        exchange.offer(southOfBorder);
+        exchange.offer(northOfBorder);
+
+        assertTrue(observedFirst.await(5, TimeUnit.SECONDS));
+        // Give any wrongly dispatched duplicate a chance to show up
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertThat(observed, contains(southOfBorder));
+    }
+
+    @Test
+    void create_BoundedPriorityAwareSettings_DispatchesOfferedSpawns() throws InterruptedException {
+        final List<PokemonSpawn> observed = new CopyOnWriteArrayList<>();
+        final CountDownLatch observedAll = new CountDownLatch(2);
+        final PokemonSpawnObserver observer = pokemonSpawn -> {
+            observed.add(pokemonSpawn);
+            observedAll.countDown();
+        };
+        final PokemonSpawnExchange exchange = PokemonSpawnExchange.create(
+                ImmutableSet.of(observer),
+                ImmutablePokemonSpawnExchangeSettings.builder()
+                        .shardCount(2)
+                        .queueCapacityPerPriority(10)
+                        .overflowPolicy(SpawnOverflowPolicy.DROP_LOWEST_VALUE)
+                        .priorityClassifier(__ -> SpawnPriority.HIGH)
+                        .build(),
+                new SpawnDeduplicationService(),
+                null);
+
+        final PokemonSpawn sanJose = spawnAt(37.3382, -121.8863);
+        final PokemonSpawn sofia = spawnAt(42.6977, 23.3219);
+        exchange.offer(sanJose);
+        exchange.offer(sofia);
+        exchange.offer(sanJose);
+
+        assertTrue(observedAll.await(5, TimeUnit.SECONDS));
+        // Give any wrongly dispatched duplicate a chance to show up
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertThat(observed, containsInAnyOrder(sanJose, sofia));
+    }
+
+    @Test
+    void close_IdleExchange_Returns() {
+        final PokemonSpawnExchange exchange = new PokemonSpawnExchange(
+                ImmutableSet.of(pokemonSpawn -> {}),
+                new GeoShardSelector(2, 1.0),
+                LinkedBlockingQueue::new,
+                deduplicatorOf(SpawnDeduplicationMode.EXACT),
+                null);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), exchange::close);
+    }
+
+    @Test
+    void settings_PriorityClassifierWithUnboundedQueue_Throws() {
+        assertThrows(IllegalStateException.class, () -> ImmutablePokemonSpawnExchangeSettings.builder()
+                .priorityClassifier(__ -> SpawnPriority.HIGH)
+                .build());
+    }
+
+    private static SpawnDeduplicator deduplicatorOf(final SpawnDeduplicationMode deduplicationMode) {
+        return new SpawnDeduplicationService().namespace(PokemonSpawnExchange.DEDUPLICATION_NAMESPACE, deduplicationMode);
+    }
+
+}
@@ -0,0 +1,66 @@
+package pogo.assistance.data.exchange.spawn;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+class PokemonSpawnObserversTest {
+
+    @Test
+    void run_WithStalledObserver_OtherObserversKeepReceiving() throws InterruptedException {
+        final int spawnCount = 20;
+        final CountDownLatch stalledObserverEntered = new CountDownLatch(1);
+        final CountDownLatch stalledObserverRelease = new CountDownLatch(1);
+        final CountDownLatch fastObserverCalls = new CountDownLatch(spawnCount);
+        final PokemonSpawnObserver stalledObserver = new PokemonSpawnObserver() {
+            @Override
+            public void observe(final PokemonSpawn pokemonSpawn) {
+                stalledObserverEntered.countDown();
+                try {
+                    stalledObserverRelease.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public ObserverLaneSettings getLaneSettings() {
+                return ImmutableObserverLaneSettings.builder().backlogCapacity(5).build();
+            }
+        };
+        final PokemonSpawnObserver fastObserver = pokemonSpawn -> fastObserverCalls.countDown();
+
+        final LinkedBlockingQueue<PokemonSpawn> spawnQueue = new LinkedBlockingQueue<>();
+        final List<ObserverLane> lanes = ObserverLane.lanesOf(ImmutableList.of(stalledObserver, fastObserver));
+        lanes.forEach(ObserverLane::start);
+        final PokemonSpawnObservers observers = new PokemonSpawnObservers(lanes, spawnQueue, __ -> {});
+        final Thread dispatcher = new Thread(observers);
+        dispatcher.start();
+        spawnQueue.add(mock(PokemonSpawn.class));
+        assertTrue(stalledObserverEntered.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i < spawnCount; i++) {
+            spawnQueue.add(mock(PokemonSpawn.class));
+        }
+
+        assertTrue(fastObserverCalls.await(5, TimeUnit.SECONDS));
+        final ObserverLane stalledLane = observers.getLanes().get(0);
+        // One spawn is stuck being observed, backlog is full and rest got dropped
+        assertEquals(5, stalledLane.getBacklogSize());
+        assertEquals(spawnCount - 6, stalledLane.getDroppedCount());
+
+        stalledObserverRelease.countDown();
+        dispatcher.interrupt();
+        dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+        assertFalse(dispatcher.isAlive());
+        lanes.forEach(ObserverLane::shutdown);
+    }
+
+}
@@ -0,0 +1,57 @@
+package pogo.assistance.data.exchange.spawn;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static pogo.assistance.data.exchange.spawn.SpawnFixtures.hundoFrom;
+
+import org.junit.jupiter.api.Test;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+class SourceOverlapMatrixTest {
+
+    private static final long NOW = 1_565_000_000L;
+
+    @Test
+    void record_RepeatsAtDifferentLags_CountsByPairAndLeadTime() {
+        final SourceOverlapMatrix matrix = new SourceOverlapMatrix();
+        final int firstByPgan = matrix.attributionOf("pgan", NOW);
+        matrix.record(firstByPgan, "wecatch", NOW + 3);
+        matrix.record(firstByPgan, "wecatch", NOW + 120);
+        matrix.record(firstByPgan, "sgv", NOW);
+        matrix.record(matrix.attributionOf("wecatch", NOW), "pgan", NOW + 2000);
+
+        assertEquals(2, matrix.getCount("pgan", "wecatch"));
+        assertArrayEquals(new long[] { 0, 1, 0, 0, 0, 1, 0, 0 }, matrix.getLeadTimeHistogram("pgan", "wecatch"));
+        assertArrayEquals(new long[] { 1, 0, 0, 0, 0, 0, 0, 0 }, matrix.getLeadTimeHistogram("pgan", "sgv"));
+        assertArrayEquals(new long[] { 0, 0, 0, 0, 0, 0, 0, 1 }, matrix.getLeadTimeHistogram("wecatch", "pgan"));
+        assertEquals(0, matrix.getCount("sgv", "pgan"));
+        assertEquals(0, matrix.getCount("unknown", "pgan"));
+    }
+
+    @Test
+    void attributionOf_MoreSourcesThanMax_CountsRestAsOneWithoutRememberingThem() {
+        final SourceOverlapMatrix matrix = new SourceOverlapMatrix();
+        for (int i = 0; i < SourceOverlapMatrix.MAX_SOURCES * 4; i++) {
+            matrix.record(matrix.attributionOf("source " + i, NOW), "pgan", NOW);
+        }
+
+        assertEquals(SourceOverlapMatrix.MAX_SOURCES, matrix.getSourceNameCount());
+        assertEquals(1, matrix.getCount("source 0", "pgan"));
+        assertEquals(SourceOverlapMatrix.MAX_SOURCES * 3 + 2, matrix.getCount("(other)", "pgan"));
+    }
+
+    @Test
+    void isUnique_FuzzyDuplicateFromAnotherSource_RecordsOverlap() {
+        final SourceOverlapMatrix matrix = new SourceOverlapMatrix();
+        final CompactSpawnDuplicateDetector detector = new CompactSpawnDuplicateDetector(
+                SpawnDeduplicationMode.FUZZY, new SpawnFingerprintTable(1, 16), 0, matrix);
+
+        assertTrue(detector.isUnique(hundoFrom("pgan")));
+        assertFalse(detector.isUnique(hundoFrom("wecatch")));
+        assertFalse(detector.isUnique(hundoFrom("sgv")));
+
+        assertEquals(1, matrix.getCount("pgan", "wecatch"));
+        assertEquals(1, matrix.getCount("pgan", "sgv"));
+        assertEquals(0, matrix.getCount("wecatch", "sgv"));
+    }
+
+}
@@ -0,0 +1,37 @@
+package pogo.assistance.data.exchange.spawn;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static pogo.assistance.data.exchange.spawn.SpawnFixtures.hundoFrom;
+
+import org.junit.jupiter.api.Test;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+class SpawnDeduplicationServiceTest {
+
+    @Test
+    void namespace_DifferentNames_DontSeeEachOthersSpawnsButShareTable() {
+        final SpawnDeduplicationService service = new SpawnDeduplicationService();
+        final SpawnDeduplicator crawler = service.namespace("crawler", SpawnDeduplicationMode.EXACT);
+        final SpawnDeduplicator exchange = service.namespace("exchange", SpawnDeduplicationMode.EXACT);
+        final PokemonSpawn spawn = hundoFrom("source");
+
+        assertTrue(crawler.isUnique(spawn));
+        assertFalse(crawler.isUnique(spawn));
+        assertFalse(exchange.isKnown(spawn));
+        assertTrue(exchange.isUnique(spawn));
+        assertEquals(2, service.size());
+    }
+
+    @Test
+    void namespace_SameName_GivesSameNamespace() {
+        final SpawnDeduplicationService service = new SpawnDeduplicationService();
+        final PokemonSpawn spawn = hundoFrom("source");
+
+        assertTrue(service.namespace("exchange", SpawnDeduplicationMode.FUZZY).isUnique(spawn));
+        assertFalse(service.namespace("exchange", SpawnDeduplicationMode.FUZZY).isUnique(hundoFrom("other-source")));
+        assertThrows(
+                RuntimeException.class,
+                () -> service.namespace("exchange", SpawnDeduplicationMode.EXACT));
+    }
+
+}
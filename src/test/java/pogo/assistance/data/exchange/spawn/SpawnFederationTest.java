@@ -0,0 +1,221 @@
+package pogo.assistance.data.exchange.spawn;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+import pogo.assistance.data.serde.PokemonSpawnBinaryCodec;
+
+class SpawnFederationTest {
+
+    private static final String SHARED_SECRET = "test-secret";
+
+    private final Set<PokemonSpawn> received = ConcurrentHashMap.newKeySet();
+    private final List<SpawnFederationServer> servers = new ArrayList<>();
+    private final List<SpawnFederationClient> clients = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        clients.forEach(client -> client.stopAsync().awaitTerminated());
+        servers.forEach(server -> server.stopAsync().awaitTerminated());
+    }
+
+    @Test
+    void offer_FromMultipleClients_DeliversAllSpawnsToServerSink() throws InterruptedException {
+        final SpawnFederationServer server = startServer(0);
+        final List<PokemonSpawn> expected = new ArrayList<>();
+        for (int clientIndex = 0; clientIndex < 3; clientIndex++) {
+            final SpawnFederationClient client = startClient(server.getPort());
+            for (int i = 0; i < 50; i++) {
+                final PokemonSpawn spawn = spawnAt(clientIndex, i);
+                expected.add(spawn);
+                client.offer(spawn);
+            }
+        }
+
+        awaitTrue(() -> received.size() == expected.size());
+        assertThat(received, containsInAnyOrder(expected.toArray()));
+        awaitTrue(() -> clients.stream().allMatch(client -> client.getAcknowledgedCount() == 50));
+        assertEquals(3, server.getAcceptedCount());
+    }
+
+    @Test
+    void offer_AfterServerRestart_ReconnectsAndDeliversSpawns() throws InterruptedException {
+        final SpawnFederationServer server = startServer(0);
+        final int port = server.getPort();
+        final SpawnFederationClient client = startClient(port);
+        final PokemonSpawn beforeRestart = spawnAt(0, 0);
+        client.offer(beforeRestart);
+        awaitTrue(() -> client.getAcknowledgedCount() == 1);
+
+        server.stopAsync().awaitTerminated();
+        final PokemonSpawn whileDown = spawnAt(0, 1);
+        client.offer(whileDown);
+        startServer(port);
+
+        awaitTrue(() -> client.getAcknowledgedCount() == 2);
+        assertThat(received, hasItem(whileDown));
+        assertTrue(client.getConnectCount() >= 2);
+        assertEquals(0, client.getDroppedCount());
+    }
+
+    @Test
+    void serve_UndecodableBatch_DropsConnectionAndKeepsServing() throws IOException, InterruptedException {
+        final SpawnFederationServer server = startServer(0);
+        try (final Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            socket.setSoTimeout(5000);
+            final DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+            SpawnFederationProtocol.writeHello(output, SHARED_SECRET, "garbage");
+            final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            final DataOutputStream payloadOutput = new DataOutputStream(payload);
+            payloadOutput.writeLong(0);
+            payloadOutput.writeInt(1);
+            payloadOutput.writeDouble(0);
+            payloadOutput.writeDouble(0);
+            payloadOutput.writeShort(1);
+            payloadOutput.writeUTF("Bulbasaur");
+            // Gender ordinal out of range
+            payloadOutput.writeByte(100);
+            output.writeByte(SpawnFederationProtocol.BATCH);
+            output.writeInt(payload.size());
+            payload.writeTo(output);
+            output.flush();
+
+            assertEquals(-1, socket.getInputStream().read());
+        }
+
+        final SpawnFederationClient client = startClient(server.getPort());
+        client.offer(spawnAt(0, 0));
+        awaitTrue(() -> client.getAcknowledgedCount() == 1);
+    }
+
+    @Test
+    void serve_HelloWithDifferentSchemaFingerprint_DropsConnection() throws IOException {
+        final SpawnFederationServer server = startServer(0);
+        try (final Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            socket.setSoTimeout(5000);
+            final DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+            final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            final DataOutputStream payloadOutput = new DataOutputStream(payload);
+            payloadOutput.writeInt(SpawnFederationProtocol.MAGIC);
+            payloadOutput.writeByte(SpawnFederationProtocol.VERSION);
+            payloadOutput.writeLong(PokemonSpawnBinaryCodec.SCHEMA_FINGERPRINT + 1);
+            payloadOutput.writeUTF(SHARED_SECRET);
+            payloadOutput.writeUTF("other-build");
+            output.writeByte(SpawnFederationProtocol.HELLO);
+            output.writeInt(payload.size());
+            payload.writeTo(output);
+            output.flush();
+
+            assertEquals(-1, socket.getInputStream().read());
+        }
+    }
+
+    @Test
+    void serve_HelloWithWrongSharedSecret_DropsConnection() throws IOException {
+        final SpawnFederationServer server = startServer(0);
+        try (final Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            socket.setSoTimeout(5000);
+            final DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+            SpawnFederationProtocol.writeHello(output, SHARED_SECRET + "-guess", "stranger");
+            output.flush();
+
+            assertEquals(-1, socket.getInputStream().read());
+        }
+    }
+
+    @Test
+    void serve_OversizedHello_DropsConnection() throws IOException {
+        final SpawnFederationServer server = startServer(0);
+        try (final Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            socket.setSoTimeout(5000);
+            final DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+            // Only the header, the server shouldn't wait for (or allocate) the payload
+            output.writeByte(SpawnFederationProtocol.HELLO);
+            output.writeInt(SpawnFederationProtocol.MAX_HELLO_PAYLOAD_BYTES + 1);
+            output.flush();
+
+            assertEquals(-1, socket.getInputStream().read());
+        }
+    }
+
+    @Test
+    void serve_NoHelloWithinHandshakeTimeout_DropsConnection() throws IOException {
+        final SpawnFederationServer server = startServer(0, Duration.ofMillis(100));
+        try (final Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            socket.setSoTimeout(5000);
+
+            assertEquals(-1, socket.getInputStream().read());
+        }
+    }
+
+    @Test
+    void getPort_BeforeStart_Throws() {
+        final SpawnFederationServer server = new SpawnFederationServer(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                SHARED_SECRET,
+                received::add);
+
+        assertThrows(IllegalStateException.class, server::getPort);
+    }
+
+    private SpawnFederationServer startServer(final int port) {
+        return startServer(port, SpawnFederationServer.DEFAULT_HANDSHAKE_TIMEOUT);
+    }
+
+    private SpawnFederationServer startServer(final int port, final Duration handshakeTimeout) {
+        final SpawnFederationServer server = new SpawnFederationServer(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                SHARED_SECRET,
+                received::add,
+                handshakeTimeout);
+        server.startAsync().awaitRunning();
+        servers.add(server);
+        return server;
+    }
+
+    private SpawnFederationClient startClient(final int port) {
+        final SpawnFederationClient client = new SpawnFederationClient(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                ImmutableSpawnFederationClientSettings.builder()
+                        .collectorName("test-" + clients.size())
+                        .sharedSecret(SHARED_SECRET)
+                        .minReconnectDelay(Duration.ofMillis(10))
+                        .maxReconnectDelay(Duration.ofMillis(50))
+                        .build());
+        client.startAsync().awaitRunning();
+        clients.add(client);
+        return client;
+    }
+
+    private static void awaitTrue(final BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for condition");
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    private static PokemonSpawn spawnAt(final int latitude, final int index) {
+        return SpawnFixtures.spawnBuilder(latitude, index * 0.01).iv(100.0).build();
+    }
+
+}
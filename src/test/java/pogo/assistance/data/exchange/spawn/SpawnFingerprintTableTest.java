@@ -0,0 +1,47 @@
+package pogo.assistance.data.exchange.spawn;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class SpawnFingerprintTableTest {
+
+    private static final long NOW = 1_565_000_000L;
+
+    @Test
+    void putIfAbsent_WithPresentOrExpiredFingerprint_AddsOnlyIfExpired() {
+        final SpawnFingerprintTable table = new SpawnFingerprintTable(2, 16);
+        assertTrue(table.putIfAbsent(42, NOW + 60, NOW));
+        assertFalse(table.putIfAbsent(42, NOW + 120, NOW));
+        assertTrue(table.contains(42, NOW + 60));
+        assertFalse(table.contains(42, NOW + 61));
+        assertTrue(table.putIfAbsent(42, NOW + 180, NOW + 61));
+        assertFalse(table.contains(43, NOW));
+        // Zero marks empty slots internally, but still works as a fingerprint
+        assertTrue(table.putIfAbsent(0, NOW + 60, NOW));
+        assertTrue(table.contains(0, NOW));
+    }
+
+    @Test
+    void putIfAbsent_BeyondCapacity_GrowsAndThenReclaimsExpired() {
+        final SpawnFingerprintTable table = new SpawnFingerprintTable(1, 16);
+        for (long fingerprint = 1; fingerprint <= 1000; fingerprint++) {
+            assertTrue(table.putIfAbsent(fingerprint * 0x9E3779B97F4A7C15L, NOW + 60, NOW));
+        }
+        assertEquals(1000, table.size());
+        assertTrue(table.capacity() >= 1000 / 0.75);
+        for (long fingerprint = 1; fingerprint <= 1000; fingerprint++) {
+            assertTrue(table.contains(fingerprint * 0x9E3779B97F4A7C15L, NOW));
+        }
+
+        // Once all of the above expire, rehashing on growth drops them and shrinks back
+        final long later = NOW + 61;
+        for (long fingerprint = 1001; fingerprint <= 2000; fingerprint++) {
+            assertTrue(table.putIfAbsent(fingerprint * 0x9E3779B97F4A7C15L, later + 60, later));
+        }
+        assertTrue(table.size() < 2000);
+        assertTrue(table.capacity() < 4096);
+        assertFalse(table.contains(0x9E3779B97F4A7C15L, later));
+    }
+
+}
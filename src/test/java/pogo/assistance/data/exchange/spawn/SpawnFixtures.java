@@ -0,0 +1,62 @@
+package pogo.assistance.data.exchange.spawn;
+
+import java.time.Instant;
+
+import io.jenetics.jpx.WayPoint;
+import pogo.assistance.data.model.ImmutableSourceMetadata;
+import pogo.assistance.data.model.pokemon.ImmutablePokemonSpawn;
+import pogo.assistance.data.model.pokemon.Pokedex;
+import pogo.assistance.data.model.pokemon.PokedexEntry;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+/**
+ * Spawns for tests of the exchange and its parts. Unless set otherwise, they are female Bulbasaurs reported by a source
+ * named {@link #SOURCE_NAME}, so spawns built from the same arguments are equal.
+ */
+final class SpawnFixtures {
+
+    static final String SOURCE_NAME = "test";
+
+    private SpawnFixtures() {
+    }
+
+    /**
+     * @return
+     *      Builder with all mandatory fields set, for tests that need more than location
+     */
+    static ImmutablePokemonSpawn.Builder spawnBuilder(final double latitude, final double longitude) {
+        return ImmutablePokemonSpawn.builder()
+                .from(WayPoint.of(latitude, longitude))
+                .pokedexEntry(Pokedex.getPokedexEntryFor(1, PokedexEntry.Gender.FEMALE).get())
+                .sourceMetadata(ImmutableSourceMetadata.builder().sourceName(SOURCE_NAME).build());
+    }
+
+    static PokemonSpawn spawnAt(final double latitude, final double longitude) {
+        return spawnBuilder(latitude, longitude).build();
+    }
+
+    /**
+     * @return
+     *      Hundo along the 20th meridian, for deduplication tests where only location and despawn time matter
+     */
+    static PokemonSpawn hundoAt(final double latitude, final Instant despawnTime) {
+        return spawnBuilder(latitude, 20.0).iv(100.0).despawnTime(despawnTime).build();
+    }
+
+    /**
+     * @return
+     *      Hundo due to despawn in 10 minutes, reported by the given source
+     */
+    static PokemonSpawn hundoFrom(final String sourceName) {
+        return spawnBuilder(10.0, 20.0)
+                .iv(100.0)
+                .despawnTime(Instant.now().plusSeconds(600))
+                .sourceMetadata(sourceMetadata(sourceName))
+                .build();
+    }
+
+    static ImmutableSourceMetadata sourceMetadata(final String sourceName) {
+        return ImmutableSourceMetadata.builder().sourceName(sourceName).build();
+    }
+
+}
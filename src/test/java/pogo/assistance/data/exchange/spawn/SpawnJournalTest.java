@@ -0,0 +1,152 @@
+package pogo.assistance.data.exchange.spawn;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static pogo.assistance.data.exchange.spawn.SpawnFixtures.spawnBuilder;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+class SpawnJournalTest {
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("spawn-journal-test");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        MoreFiles.deleteRecursively(directory, RecursiveDeleteOption.ALLOW_INSECURE);
+    }
+
+    @Test
+    void replay_AfterRestart_ReturnsUnexpiredAndUnacknowledgedSpawns() throws IOException {
+        final PokemonSpawn dispatched = spawnDespawningIn(Duration.ofMinutes(10), 11.0);
+        final PokemonSpawn undispatched = spawnDespawningIn(Duration.ofMinutes(10), 22.0);
+        final PokemonSpawn expired = spawnDespawningIn(Duration.ofMinutes(-10), 33.0);
+        try (final SpawnJournal journal = new SpawnJournal(directory)) {
+            journal.start();
+            journal.appendOffered(dispatched);
+            journal.appendOffered(undispatched);
+            journal.appendOffered(expired);
+            journal.appendAcknowledged(dispatched);
+        }
+
+        final List<PokemonSpawn> unexpired = new ArrayList<>();
+        final List<PokemonSpawn> unacknowledged = new ArrayList<>();
+        try (final SpawnJournal journal = new SpawnJournal(directory)) {
+            journal.replay((pokemonSpawn, expiration) -> unexpired.add(pokemonSpawn), unacknowledged::add);
+        }
+
+        assertThat(unexpired, contains(dispatched, undispatched));
+        assertThat(unacknowledged, contains(undispatched));
+    }
+
+    @Test
+    void replay_WithTornLastRecord_ReplaysRecordsBeforeIt() throws IOException {
+        final PokemonSpawn first = spawnDespawningIn(Duration.ofMinutes(10), 11.0);
+        final PokemonSpawn second = spawnDespawningIn(Duration.ofMinutes(10), 22.0);
+        try (final SpawnJournal journal = new SpawnJournal(directory)) {
+            journal.start();
+            journal.appendOffered(first);
+            journal.appendOffered(second);
+        }
+        // Simulate crash in the middle of writing the last record
+        final Path segment = listFiles().get(0);
+        try (final FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        final List<PokemonSpawn> unacknowledged = new ArrayList<>();
+        try (final SpawnJournal journal = new SpawnJournal(directory)) {
+            journal.replay((pokemonSpawn, expiration) -> {}, unacknowledged::add);
+        }
+
+        assertThat(unacknowledged, contains(first));
+    }
+
+    @Test
+    void replay_AcknowledgedInLaterSegment_DoesNotReturnSpawnAfterRotations() throws IOException, InterruptedException {
+        final PokemonSpawn longLived = spawnDespawningIn(Duration.ofHours(1), 11.0);
+        final PokemonSpawn shortLived = spawnDespawningIn(Duration.ofMinutes(1), 22.0);
+        // Tiny segments rotate after every write, deleting segments that look expired
+        try (final SpawnJournal journal = new SpawnJournal(directory, 1, Duration.ofHours(1))) {
+            journal.start();
+            journal.appendOffered(longLived);
+            awaitSyncCount(journal, 1);
+            // Acknowledgement is alone in its segment
+            journal.appendAcknowledged(longLived);
+            awaitSyncCount(journal, 2);
+            journal.appendOffered(shortLived);
+        }
+        // Restart goes through replay and start, where expired segments of previous runs get deleted
+        try (final SpawnJournal journal = new SpawnJournal(directory, 1, Duration.ofHours(1))) {
+            journal.replay((pokemonSpawn, expiration) -> {}, pokemonSpawn -> {});
+            journal.start();
+        }
+
+        final List<PokemonSpawn> unacknowledged = new ArrayList<>();
+        try (final SpawnJournal journal = new SpawnJournal(directory)) {
+            journal.replay((pokemonSpawn, expiration) -> {}, unacknowledged::add);
+        }
+
+        assertThat(unacknowledged, contains(shortLived));
+    }
+
+    @Test
+    void close_WithPendingRecords_WritesThemAndDropsLaterOnes() throws IOException {
+        final PokemonSpawn beforeClose = spawnDespawningIn(Duration.ofMinutes(10), 11.0);
+        final SpawnJournal journal = new SpawnJournal(directory);
+        journal.start();
+        for (int i = 0; i < 100; i++) {
+            journal.appendOffered(beforeClose);
+        }
+        journal.close();
+        journal.appendOffered(spawnDespawningIn(Duration.ofMinutes(10), 22.0));
+
+        assertEquals(100, journal.getAppendedCount());
+        assertEquals(0, journal.getPendingCount());
+        assertEquals(1, journal.getDroppedCount());
+        assertEquals(0, journal.getFailedCount());
+    }
+
+    private static void awaitSyncCount(final SpawnJournal journal, final long syncCount) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (journal.getSyncCount() < syncCount) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for journal to be written");
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    private List<Path> listFiles() throws IOException {
+        try (final Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static PokemonSpawn spawnDespawningIn(final Duration timeLeft, final double iv) {
+        return spawnBuilder(-1.0, -1.0).iv(iv).despawnTime(Instant.now().plus(timeLeft)).build();
+    }
+
+}
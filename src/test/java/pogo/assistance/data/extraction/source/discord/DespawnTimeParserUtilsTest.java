@@ -16,6 +16,12 @@ class DespawnTimeParserUtilsTest {
         assertEquals(despawnTime, DespawnTimeParserUtils.extractSpawnDuration(compiledText, true).get());
     }
 
+    @ParameterizedTest
+    @MethodSource(value = { "validDespawnTimeInputs" })
+    void extractDespawnTime_TokenizedHappyCases_ExtractsSuccessfully(final String compiledText, final Duration despawnTime) {
+        assertEquals(despawnTime, DespawnTimeParserUtils.extractSpawnDuration(SpawnMessageText.of(compiledText), true).get());
+    }
+
     @ParameterizedTest
     @MethodSource(value = { "invalidDespawnTimeInputs" })
     void extractDespawnTime_InvalidCases_ReturnsEmpty(final String compiledText, final String invalidReason) {
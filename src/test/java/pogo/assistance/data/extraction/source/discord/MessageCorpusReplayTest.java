@@ -0,0 +1,126 @@
+package pogo.assistance.data.extraction.source.discord;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.annotation.Nonnull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import net.dv8tion.jda.api.entities.Message;
+import pogo.assistance.bot.di.DiscordEntityConstants;
+import pogo.assistance.data.extraction.source.discord.corpus.ImmutableRecordedEmbed;
+import pogo.assistance.data.extraction.source.discord.corpus.ImmutableRecordedMessage;
+import pogo.assistance.data.extraction.source.discord.corpus.MessageCorpus;
+import pogo.assistance.data.extraction.source.discord.corpus.RecordedMessage;
+import pogo.assistance.data.extraction.source.discord.vascans.VAScansSpawnMessageProcessor;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+class MessageCorpusReplayTest {
+
+    private static final RecordedMessage VASCANS_MESSAGE = ImmutableRecordedMessage.builder()
+            .messageId(561000000000000000L)
+            .channelType("TEXT")
+            .channelId(DiscordEntityConstants.CHANNEL_ID_VASCANS_HUNDOS)
+            .channelName("hundos")
+            .guildId(DiscordEntityConstants.SERVER_ID_VASCANS)
+            .guildName("VA Scans")
+            .authorId(538850000000000001L)
+            .authorName("VA Scans Bot")
+            .authorBot(true)
+            .addEmbeds(ImmutableRecordedEmbed.builder()
+                    .title("Chikorita (15/15/15) L31 CP:824 ♂")
+                    .description("IV:100.00% Boost: none\nDespawn: 2:11:14 PM\nRemaining: 25m 5s \n"
+                            + "This timer should be exact!\n37.53499, -77.4599   \n  [Google Maps]"
+                            + "(https://www.google.com/maps/search/?api=1&query=37.5349949208584,-77.4599340276508)")
+                    .thumbnailUrl("https://raw.githubusercontent.com/seehuge/prdmicons/master/pokemon_icon_152_00.png")
+                    .build())
+            .build();
+
+    private Path corpusFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        corpusFile = Files.createTempDirectory("message-corpus-replay-test").resolve("corpus.jsonl.gz");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        MoreFiles.deleteRecursively(corpusFile.getParent(), RecursiveDeleteOption.ALLOW_INSECURE);
+    }
+
+    @Test
+    void replay_CorpusOfProcessableMessages_PassesParsedSpawnsAndCountsThem() throws IOException {
+        MessageCorpus.write(corpusFile, Stream.of(VASCANS_MESSAGE, VASCANS_MESSAGE));
+
+        final List<PokemonSpawn> pokemonSpawns = new ArrayList<>();
+        final SourceParsingMetrics parsingMetrics = MessageCorpusReplay.replay(
+                corpusFile,
+                ImmutableList.of(new VAScansSpawnMessageProcessor()),
+                (message, pokemonSpawn) -> pokemonSpawn.ifPresent(pokemonSpawns::add));
+
+        assertThat(pokemonSpawns, hasSize(2));
+        assertThat(pokemonSpawns.get(0).getIv(), equalTo(Optional.of(100.0)));
+        final SourceParsingSnapshot snapshot = parsingMetrics.snapshot().get(0);
+        assertThat(snapshot.sourceName(), equalTo("VA Scans"));
+        assertThat(snapshot.parsed(), equalTo(2L));
+        assertThat(snapshot.failed(), equalTo(0L));
+    }
+
+    @Test
+    void replay_NoProcessorAcceptsMessages_PassesNothing() throws IOException {
+        MessageCorpus.write(corpusFile, Stream.of(ImmutableRecordedMessage.copyOf(VASCANS_MESSAGE).withAuthorBot(false)));
+
+        final List<Optional<PokemonSpawn>> results = new ArrayList<>();
+        final SourceParsingMetrics parsingMetrics = MessageCorpusReplay.replay(
+                corpusFile,
+                ImmutableList.of(new VAScansSpawnMessageProcessor()),
+                (message, pokemonSpawn) -> results.add(pokemonSpawn));
+
+        assertThat(results, empty());
+        assertThat(parsingMetrics.snapshot(), empty());
+    }
+
+    @Test
+    void replay_ProcessorFailsCheckingMessage_CountsFailureAndKeepsReplaying() throws IOException {
+        MessageCorpus.write(corpusFile, Stream.of(VASCANS_MESSAGE, VASCANS_MESSAGE));
+        final MessageProcessor<PokemonSpawn> failingProcessor = new MessageProcessor<PokemonSpawn>() {
+            @Override
+            public boolean canProcess(@Nonnull final Message message) {
+                throw new IllegalStateException("Fails checking every message");
+            }
+
+            @Override
+            public Optional<PokemonSpawn> process(@Nonnull final Message message) {
+                throw new UnsupportedOperationException();
+            }
+        };
+
+        final List<Optional<PokemonSpawn>> results = new ArrayList<>();
+        final SourceParsingMetrics parsingMetrics = MessageCorpusReplay.replay(
+                corpusFile,
+                ImmutableList.of(failingProcessor, new VAScansSpawnMessageProcessor()),
+                (message, pokemonSpawn) -> results.add(pokemonSpawn));
+
+        assertThat(results, empty());
+        final SourceParsingSnapshot snapshot = parsingMetrics.snapshot().get(0);
+        assertThat(snapshot.seen(), equalTo(2L));
+        assertThat(snapshot.failed(), equalTo(2L));
+        assertThat(snapshot.parsed(), equalTo(0L));
+    }
+
+}
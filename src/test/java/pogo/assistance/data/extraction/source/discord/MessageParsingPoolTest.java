@@ -0,0 +1,105 @@
+package pogo.assistance.data.extraction.source.discord;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class MessageParsingPoolTest {
+
+    @Test
+    void submit_BusyAndQuietAccounts_ParsedInTurns() throws InterruptedException {
+        final MessageParsingPool pool = new MessageParsingPool(ImmutableMessageParsingPoolSettings.builder()
+                .workerCount(1)
+                .build());
+        final List<String> parsed = new CopyOnWriteArrayList<>();
+        final CountDownLatch allParsed = new CountDownLatch(7);
+
+        for (int i = 0; i < 5; i++) {
+            pool.submit("busy", () -> {
+                parsed.add("busy");
+                allParsed.countDown();
+            });
+        }
+        for (int i = 0; i < 2; i++) {
+            pool.submit("quiet", () -> {
+                parsed.add("quiet");
+                allParsed.countDown();
+            });
+        }
+        pool.start();
+
+        assertTrue(allParsed.await(10, TimeUnit.SECONDS));
+        pool.shutdown();
+        assertEquals("busy, quiet, busy, quiet, busy, busy, busy", String.join(", ", parsed));
+        assertEquals(7, pool.getQueueWaitStats().getCount());
+    }
+
+    @Test
+    void submit_FullBacklogDroppingOldest_KeepsNewest() throws InterruptedException {
+        final MessageParsingPool pool = new MessageParsingPool(ImmutableMessageParsingPoolSettings.builder()
+                .workerCount(1)
+                .backlogCapacityPerAccount(2)
+                .overflowPolicy(MessageOverflowPolicy.DROP_OLDEST)
+                .build());
+        final List<Integer> parsed = new CopyOnWriteArrayList<>();
+        final CountDownLatch allParsed = new CountDownLatch(2);
+
+        for (int i = 0; i < 5; i++) {
+            final int message = i;
+            pool.submit("account", () -> {
+                parsed.add(message);
+                allParsed.countDown();
+            });
+        }
+        assertEquals(2, pool.getBacklogSize());
+        assertEquals(3, pool.getDroppedCount());
+        pool.start();
+
+        assertTrue(allParsed.await(10, TimeUnit.SECONDS));
+        pool.shutdown();
+        assertEquals(3, parsed.get(0).intValue());
+        assertEquals(4, parsed.get(1).intValue());
+    }
+
+    @Test
+    void submit_FullBacklogDroppingNewest_KeepsOldest() {
+        final MessageParsingPool pool = new MessageParsingPool(ImmutableMessageParsingPoolSettings.builder()
+                .backlogCapacityPerAccount(2)
+                .overflowPolicy(MessageOverflowPolicy.DROP_NEWEST)
+                .build());
+
+        for (int i = 0; i < 5; i++) {
+            pool.submit("account", () -> {});
+        }
+        pool.submit("other account", () -> {});
+
+        assertEquals(3, pool.getBacklogSize());
+        assertEquals(3, pool.getDroppedCount());
+    }
+
+    @Test
+    void submit_TaskThrowingError_ReportsFailureAndKeepsParsing() throws InterruptedException {
+        final MessageParsingPool pool = new MessageParsingPool(ImmutableMessageParsingPoolSettings.builder()
+                .workerCount(1)
+                .build());
+        final List<Throwable> failures = new CopyOnWriteArrayList<>();
+        final CountDownLatch nextParsed = new CountDownLatch(1);
+
+        pool.submit("account", () -> {
+            throw new StackOverflowError();
+        }, failures::add);
+        pool.submit("account", nextParsed::countDown);
+        pool.start();
+
+        assertTrue(nextParsed.await(10, TimeUnit.SECONDS));
+        pool.shutdown();
+        assertEquals(1, failures.size());
+        assertTrue(failures.get(0) instanceof StackOverflowError);
+    }
+
+}
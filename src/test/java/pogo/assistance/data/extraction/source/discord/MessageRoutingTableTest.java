@@ -0,0 +1,56 @@
+package pogo.assistance.data.extraction.source.discord;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class MessageRoutingTableTest {
+
+    @Test
+    void route_SameChannelAndAuthor_ResolvedOnce() {
+        final MessageRoutingTable<String> routingTable = new MessageRoutingTable<>();
+        final AtomicInteger resolveCount = new AtomicInteger(0);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Optional.of("processor"), routingTable.route(1, 10, () -> {
+                resolveCount.incrementAndGet();
+                return Optional.of("processor");
+            }));
+            assertEquals(Optional.empty(), routingTable.route(1, MessageRoutingTable.ANY_USER, () -> {
+                resolveCount.incrementAndGet();
+                return Optional.empty();
+            }));
+        }
+
+        assertEquals(2, resolveCount.get());
+        assertEquals(2, routingTable.size());
+    }
+
+    @Test
+    void route_InvalidatedChannel_ResolvedAgain() {
+        final MessageRoutingTable<String> routingTable = new MessageRoutingTable<>();
+        routingTable.route(1, 10, () -> Optional.of("old processor"));
+        routingTable.route(2, 10, () -> Optional.of("other processor"));
+
+        routingTable.invalidateChannel(1);
+
+        assertEquals(Optional.of("new processor"), routingTable.route(1, 10, () -> Optional.of("new processor")));
+        assertEquals(Optional.of("other processor"), routingTable.route(2, 10, () -> Optional.of("new processor")));
+    }
+
+    @Test
+    void route_ResolverThrows_NothingRemembered() {
+        final MessageRoutingTable<String> routingTable = new MessageRoutingTable<>();
+
+        assertThrows(NullPointerException.class, () -> routingTable.route(1, 10, () -> {
+            throw new NullPointerException("no category");
+        }));
+
+        assertEquals(0, routingTable.size());
+        assertEquals(Optional.of("processor"), routingTable.route(1, 10, () -> Optional.of("processor")));
+    }
+
+}
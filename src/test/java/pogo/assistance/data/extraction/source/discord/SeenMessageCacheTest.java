@@ -0,0 +1,29 @@
+package pogo.assistance.data.extraction.source.discord;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class SeenMessageCacheTest {
+
+    @Test
+    void markSeen_SameMessageFromAnotherAccount_ReportsSeen() {
+        final SeenMessageCache cache = new SeenMessageCache();
+        assertFalse(cache.markSeen(612345678901234567L));
+        assertFalse(cache.markSeen(612345678901234568L));
+        assertTrue(cache.markSeen(612345678901234567L));
+        assertTrue(cache.markSeen(612345678901234567L));
+        assertEquals(0.5, cache.getHitRate());
+    }
+
+    @Test
+    void markSeen_MoreMessagesThanSlots_NeverReportsUnseenMessageAsSeen() {
+        final SeenMessageCache cache = new SeenMessageCache(16);
+        for (long messageId = 1; messageId <= 1000; messageId++) {
+            assertFalse(cache.markSeen(messageId));
+        }
+        // Most of the early ones got pushed out, but the latest is always still there
+        assertTrue(cache.markSeen(1000));
+    }
+
+}
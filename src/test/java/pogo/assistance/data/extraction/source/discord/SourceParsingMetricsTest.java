@@ -0,0 +1,66 @@
+package pogo.assistance.data.extraction.source.discord;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class SourceParsingMetricsTest {
+
+    @Test
+    void snapshot_RecordedMessages_CountedPerSource() {
+        final SourceParsingMetrics metrics = new SourceParsingMetrics();
+        final SourceParsingMetrics.SourceCounters counters = metrics.of("Source A");
+        for (int i = 0; i < 10; i++) {
+            counters.recordSeen();
+        }
+        for (int i = 0; i < 4; i++) {
+            counters.recordAccepted(SourceParsingMetricsTest.class);
+        }
+        counters.recordRepeated();
+        counters.recordSkipped(TimeUnit.MILLISECONDS.toNanos(1));
+        counters.recordParsed(TimeUnit.MILLISECONDS.toNanos(2));
+        counters.recordFailed(TimeUnit.MILLISECONDS.toNanos(3));
+        metrics.of("Chatter only").recordSeen();
+
+        final List<SourceParsingSnapshot> snapshots = metrics.snapshot();
+
+        assertEquals(1, snapshots.size());
+        final SourceParsingSnapshot snapshot = snapshots.get(0);
+        assertEquals("Source A", snapshot.sourceName());
+        assertEquals("SourceParsingMetricsTest", snapshot.processorName());
+        assertEquals(10, snapshot.seen());
+        assertEquals(4, snapshot.accepted());
+        assertEquals(1, snapshot.repeated());
+        assertEquals(1, snapshot.skipped());
+        assertEquals(1, snapshot.parsed());
+        assertEquals(1, snapshot.failed());
+        assertEquals(Duration.ofMillis(6), snapshot.totalParseTime());
+        assertEquals(Duration.ofMillis(6), snapshot.parseTimePerSpawn());
+    }
+
+    @Test
+    void snapshot_SkewedParseTimes_PercentilesWithinFactorOfTwo() {
+        final SourceParsingMetrics metrics = new SourceParsingMetrics();
+        final SourceParsingMetrics.SourceCounters counters = metrics.of("Source A");
+        counters.recordAccepted(SourceParsingMetricsTest.class);
+        for (int i = 0; i < 95; i++) {
+            counters.recordParsed(TimeUnit.MICROSECONDS.toNanos(300));
+        }
+        for (int i = 0; i < 5; i++) {
+            counters.recordParsed(TimeUnit.MILLISECONDS.toNanos(40));
+        }
+
+        final SourceParsingSnapshot snapshot = metrics.snapshot().get(0);
+
+        assertTrue(snapshot.parseTimeP50().compareTo(Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(300))) >= 0);
+        assertTrue(snapshot.parseTimeP50().compareTo(Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(600))) <= 0);
+        assertEquals(snapshot.parseTimeP50(), snapshot.parseTimeP90());
+        assertTrue(snapshot.parseTimeP99().compareTo(Duration.ofMillis(40)) >= 0);
+        assertTrue(snapshot.parseTimeP99().compareTo(Duration.ofMillis(80)) <= 0);
+    }
+
+}
@@ -0,0 +1,60 @@
+package pogo.assistance.data.extraction.source.discord;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import pogo.assistance.data.extraction.source.discord.SpawnMessageText.Token;
+
+class SpawnMessageTextTest {
+
+    @Test
+    void build_EmbedParts_CompilesSameTextAsBefore() {
+        final SpawnMessageText text = SpawnMessageText.builder()
+                .appendLine("Bot")
+                .appendLineWithoutMarkdown("**Snorlax** <:iv2:574778007441637388> 97.8% <:lvl:574778007441637389> 30")
+                .appendLine("https://www.google.com/maps/search/?api=1&query=37.55,-77.47")
+                .build();
+
+        final String separator = System.lineSeparator();
+        assertEquals(
+                "Bot" + separator + "Snorlax IV 97.8% Level 30" + separator
+                        + "https://www.google.com/maps/search/?api=1&query=37.55,-77.47" + separator,
+                text.getText());
+        assertEquals(
+                Arrays.asList("Bot", "Snorlax IV 97.8% Level 30", "https://www.google.com/maps/search/?api=1&query=37.55,-77.47"),
+                text.lines());
+    }
+
+    @Test
+    void of_SpawnLine_TokenizesByType() {
+        final SpawnMessageText text = SpawnMessageText.of("Ditto♂ 1234cp (15/14/?) ?% 22m43s");
+
+        final List<String> tokens = text.getTokens().stream()
+                .map(token -> token.getType() + ":" + text.textOf(token))
+                .collect(Collectors.toList());
+        assertEquals(Arrays.asList(
+                "WORD:Ditto", "GENDER_SIGN:♂",
+                "NUMBER:1234", "WORD:cp",
+                "SYMBOL:(", "NUMBER:15", "SYMBOL:/", "NUMBER:14", "SYMBOL:/", "SYMBOL:?", "SYMBOL:)",
+                "PERCENT:?%",
+                "NUMBER:22", "WORD:m", "NUMBER:43", "WORD:s"), tokens);
+    }
+
+    @Test
+    void numberOf_PercentTokens_ParsesKnownValuesOnly() {
+        final SpawnMessageText text = SpawnMessageText.of("(100.00%) ?% 1.2.3% end.");
+
+        final List<Optional<Double>> percents = text.getTokens().stream()
+                .filter(token -> token.getType() == Token.Type.PERCENT)
+                .map(text::numberOf)
+                .collect(Collectors.toList());
+        assertEquals(Arrays.asList(Optional.of(100.0), Optional.empty(), Optional.empty()), percents);
+        assertEquals(Token.Type.SYMBOL, text.getTokens().get(text.getTokens().size() - 1).getType());
+    }
+
+}
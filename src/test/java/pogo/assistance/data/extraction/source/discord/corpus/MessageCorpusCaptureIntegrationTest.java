@@ -0,0 +1,106 @@
+package pogo.assistance.data.extraction.source.discord.corpus;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import javax.security.auth.login.LoginException;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import com.google.common.collect.ImmutableSet;
+import net.dv8tion.jda.api.AccountType;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.JDABuilder;
+import net.dv8tion.jda.api.entities.MessageChannel;
+import net.dv8tion.jda.api.entities.User;
+import pogo.assistance.bot.di.DiscordEntityConstants;
+import pogo.assistance.data.extraction.source.discord.MessageStream;
+
+/**
+ * Captures channel and DM histories into corpus files under {@link MessageCorpus#DEFAULT_DIRECTORY}, named by channel
+ * ID, for replaying with {@link pogo.assistance.data.extraction.source.discord.MessageCorpusReplay} and the spawn
+ * message processor benchmark. Covers a channel or bot of each benchmarked source; add more to the parameters and run
+ * by hand.
+ */
+@Disabled("Runs real query against server - only to be used for capturing message corpora by hand")
+class MessageCorpusCaptureIntegrationTest {
+
+    private static final int MESSAGES_PER_CHANNEL = 1000;
+
+    private static JDA jda;
+
+    @BeforeAll
+    static void setUp() throws LoginException, InterruptedException {
+        jda = new JDABuilder(AccountType.CLIENT)
+                .setToken(DiscordEntityConstants.OWNING_USER_TOKEN)
+                .build()
+                .awaitReady();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        Optional.ofNullable(jda).ifPresent(JDA::shutdown);
+    }
+
+    @ParameterizedTest
+    @MethodSource("channelIds")
+    void capture_ChannelHistory_WritesCorpusFile(final long channelId) throws IOException {
+        final MessageChannel channel = Optional.<MessageChannel>ofNullable(jda.getTextChannelById(channelId))
+                .orElseGet(() -> jda.getPrivateChannelById(channelId));
+        capture(channel);
+    }
+
+    @ParameterizedTest
+    @MethodSource("botUserIds")
+    void capture_DirectMessageHistory_WritesCorpusFile(final long userId) throws IOException {
+        final User bot = jda.retrieveUserById(userId).complete();
+        capture(bot.openPrivateChannel().complete());
+    }
+
+    private static void capture(final MessageChannel channel) throws IOException {
+        final long messageCount = MessageCorpus.write(
+                MessageCorpus.DEFAULT_DIRECTORY.resolve(channel.getId() + MessageCorpus.FILE_EXTENSION),
+                MessageStream.lookbackMessageStream(channel)
+                        .limit(MESSAGES_PER_CHANNEL)
+                        .map(MessageRecorder::record));
+        assertThat(messageCount, greaterThan(0L));
+    }
+
+    private static LongStream channelIds() {
+        return Stream.of(
+                ImmutableSet.of(
+                        DiscordEntityConstants.CHANNEL_ID_NYCPOKEMAP_IV0,
+                        DiscordEntityConstants.CHANNEL_ID_NYCPOKEMAP_IV90,
+                        DiscordEntityConstants.CHANNEL_ID_NYCPOKEMAP_IV95,
+                        DiscordEntityConstants.CHANNEL_ID_NYCPOKEMAP_IV100,
+                        DiscordEntityConstants.CHANNEL_ID_VASCANS_HUNDOS,
+                        DiscordEntityConstants.CHANNEL_ID_POGOSJ1_100IV,
+                        DiscordEntityConstants.CHANNEL_ID_WECATCH_IV90UP,
+                        DiscordEntityConstants.CHANNEL_ID_ALPHAPOKES_ULTRARARE_TEST),
+                DiscordEntityConstants.SPAWN_CHANNEL_IDS_ITOOLS,
+                DiscordEntityConstants.SPAWN_CHANNEL_IDS_CHICAGOLAND_POGO)
+                .flatMap(Set::stream)
+                .mapToLong(Long::longValue);
+    }
+
+    /**
+     * Bots of sources that post spawns to DMs
+     */
+    private static LongStream botUserIds() {
+        return Stream.of(
+                DiscordEntityConstants.USER_ID_PGAN_BOTS,
+                DiscordEntityConstants.USER_ID_SS_NOVA_BOTS,
+                ImmutableSet.of(DiscordEntityConstants.USER_ID_FLPM_ALERT_BOT))
+                .flatMap(Set::stream)
+                .mapToLong(Long::longValue);
+    }
+
+}
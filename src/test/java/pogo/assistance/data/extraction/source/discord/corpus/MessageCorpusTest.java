@@ -0,0 +1,127 @@
+package pogo.assistance.data.extraction.source.discord.corpus;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MessageCorpusTest {
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("message-corpus-test");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        MoreFiles.deleteRecursively(directory, RecursiveDeleteOption.ALLOW_INSECURE);
+    }
+
+    @Test
+    void read_WrittenCorpus_ReturnsSameMessagesInOrder() throws IOException {
+        final RecordedMessage guildMessage = ImmutableRecordedMessage.builder()
+                .messageId(561000000000000000L)
+                .timeCreatedEpochMilli(1553900000000L)
+                .channelType("TEXT")
+                .channelId(538849532901851137L)
+                .channelName("hundos")
+                .guildId(528443479077158915L)
+                .guildName("VA Scans")
+                .authorId(538850000000000001L)
+                .authorName("VA Scans Bot")
+                .authorBot(true)
+                .addEmbeds(ImmutableRecordedEmbed.builder()
+                        .title("Chikorita (15/15/15) L31 CP:824 ♂")
+                        .description("IV:100.00% Boost: none\nDespawn: 2:11:14 PM\n"
+                                + "[Google Maps](https://www.google.com/maps/search/?api=1&query=37.53499,-77.45993)")
+                        .addFields(ImmutableRecordedEmbedField.builder().name("Moves").value("Tackle").inline(true).build())
+                        .build())
+                .build();
+        final RecordedMessage privateMessage = ImmutableRecordedMessage.builder()
+                .messageId(561000000000000001L)
+                .channelType("PRIVATE")
+                .channelId(561000000000000002L)
+                .channelName("FLPM Alerts")
+                .authorId(561000000000000003L)
+                .authorName("FLPM Alerts")
+                .authorBot(false)
+                .contentRaw("Lapras 98% <:male:1234> & <stuff>")
+                .contentStripped("Lapras 98% :male: & <stuff>")
+                .build();
+
+        final Path corpusFile = directory.resolve("nested").resolve("corpus.jsonl.gz");
+        assertThat(MessageCorpus.write(corpusFile, Stream.of(guildMessage, privateMessage)), equalTo(2L));
+        try (final Stream<RecordedMessage> recordedMessages = MessageCorpus.read(corpusFile)) {
+            assertThat(recordedMessages.collect(Collectors.toList()), contains(guildMessage, privateMessage));
+        }
+    }
+
+    @Test
+    void readUncompressed_JsonLinesOfCorpus_ReturnsSameMessagesInOrder() throws IOException {
+        final List<RecordedMessage> messages = IntStream.range(0, 3)
+                .mapToObj(i -> ImmutableRecordedMessage.builder()
+                        .messageId(561000000000000000L + i)
+                        .channelType("PRIVATE")
+                        .channelId(561000000000000010L)
+                        .channelName("FLPM Alerts")
+                        .authorId(561000000000000011L)
+                        .authorName("FLPM Alerts")
+                        .authorBot(true)
+                        .contentRaw(String.format("Lapras %d%% <:male:1234>", 90 + i))
+                        .build())
+                .collect(Collectors.toList());
+
+        final Path corpusFile = directory.resolve("corpus.jsonl.gz");
+        MessageCorpus.write(corpusFile, messages.stream());
+        try (final Stream<RecordedMessage> recordedMessages =
+                     MessageCorpus.readUncompressed(new GZIPInputStream(Files.newInputStream(corpusFile)))) {
+            assertThat(recordedMessages.collect(Collectors.toList()), equalTo(messages));
+        }
+    }
+
+    @Test
+    void write_SimilarMessages_CompressesWellUnderJsonSize() throws IOException {
+        final List<RecordedMessage> messages = IntStream.range(0, 1000)
+                .mapToObj(i -> ImmutableRecordedMessage.builder()
+                        .messageId(561000000000000000L + i)
+                        .channelType("TEXT")
+                        .channelId(538849532901851137L)
+                        .channelName("hundos")
+                        .guildId(528443479077158915L)
+                        .guildName("VA Scans")
+                        .authorId(538850000000000001L)
+                        .authorName("VA Scans Bot")
+                        .authorBot(true)
+                        .contentRaw(String.format("Pokemon #%d IV:100.00%% CP:%d", i % 151, i))
+                        .build())
+                .collect(Collectors.toList());
+
+        final Path corpusFile = directory.resolve("corpus.jsonl.gz");
+        MessageCorpus.write(corpusFile, messages.stream());
+        final long jsonBytes;
+        try (final InputStream json = new GZIPInputStream(Files.newInputStream(corpusFile))) {
+            jsonBytes = ByteStreams.exhaust(json);
+        }
+        assertThat(Files.size(corpusFile) * 10, lessThan(jsonBytes));
+    }
+
+}
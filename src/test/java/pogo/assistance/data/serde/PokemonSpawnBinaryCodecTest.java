@@ -0,0 +1,49 @@
+package pogo.assistance.data.serde;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.time.Instant;
+
+import io.jenetics.jpx.WayPoint;
+import org.junit.jupiter.api.Test;
+import pogo.assistance.data.model.ImmutableSourceMetadata;
+import pogo.assistance.data.model.pokemon.ImmutablePokedexEntry;
+import pogo.assistance.data.model.pokemon.ImmutablePokemonSpawn;
+import pogo.assistance.data.model.pokemon.Pokedex;
+import pogo.assistance.data.model.pokemon.PokedexEntry;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+class PokemonSpawnBinaryCodecTest {
+
+    @Test
+    void decode_EncodedSpawnWithAllFields_ReturnsEqualSpawn() throws IOException {
+        final PokemonSpawn pokemonSpawn = ImmutablePokemonSpawn.builder()
+                .from(WayPoint.of(37.3382, -121.8863))
+                .pokedexEntry(ImmutablePokedexEntry.builder()
+                        .from(Pokedex.getPokedexEntryFor(19, PokedexEntry.Gender.MALE).get())
+                        .addForms(PokedexEntry.Form.ALOLAN, PokedexEntry.Form.SHINY)
+                        .build())
+                .level(30)
+                .cp(2345)
+                .iv(97.8)
+                .despawnTime(Instant.parse("2019-03-02T10:15:30.123456789Z"))
+                .locationDescription("San José")
+                .sourceMetadata(ImmutableSourceMetadata.builder().sourceName("test").build())
+                .build();
+
+        assertEquals(pokemonSpawn, PokemonSpawnBinaryCodec.decode(PokemonSpawnBinaryCodec.encode(pokemonSpawn)));
+    }
+
+    @Test
+    void decode_EncodedSpawnWithOnlyMandatoryFields_ReturnsEqualSpawn() throws IOException {
+        final PokemonSpawn pokemonSpawn = ImmutablePokemonSpawn.builder()
+                .from(WayPoint.of(-1.0, -1.0))
+                .pokedexEntry(Pokedex.getPokedexEntryFor(1, PokedexEntry.Gender.FEMALE).get())
+                .sourceMetadata(ImmutableSourceMetadata.builder().sourceName("test").build())
+                .build();
+
+        assertEquals(pokemonSpawn, PokemonSpawnBinaryCodec.decode(PokemonSpawnBinaryCodec.encode(pokemonSpawn)));
+    }
+
+}
@@ -0,0 +1,87 @@
+package pogo.assistance.utils.debug;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.base.Strings;
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+import org.junit.jupiter.api.Test;
+
+class FailureDigestTest {
+
+    @Test
+    void flush_RepeatedFailures_GroupedIntoOneBoundedDigest() {
+        final List<String> digests = new ArrayList<>();
+        final FailureDigest failureDigest = new FailureDigest(digests::add, null, Duration.ofMinutes(1), 2, 1);
+
+        for (int i = 0; i < 500; i++) {
+            failureDigest.record("Source A", new IllegalArgumentException("Failed to parse line " + i), "{\"id\":" + i + "}");
+        }
+        for (int i = 0; i < 100; i++) {
+            failureDigest.record("Source B", new IllegalStateException("No embed"), "{}");
+        }
+        failureDigest.record("Source C", new IllegalStateException("No embed"), "{}");
+        failureDigest.flush();
+        failureDigest.flush();
+
+        // Summary and one message for each of the 2 largest groups
+        assertEquals(3, digests.size());
+        assertThat(digests.get(0), containsString("601 failure(s) in 3 group(s)"));
+        assertThat(digests.get(0), containsString("1 more failure(s) in 1 other group(s)"));
+        assertThat(digests.get(1), containsString("500 ×** `Source A`"));
+        assertThat(digests.get(1), containsString("IllegalArgumentException: Failed to parse line #"));
+        assertThat(digests.get(2), containsString("100 ×** `Source B`"));
+        assertThat(String.join("", digests), not(containsString("Source C")));
+    }
+
+    @Test
+    void flush_LongPayloads_KeepsEachMessageWithinLimitWithClosedFences() {
+        final List<String> digests = new ArrayList<>();
+        final FailureDigest failureDigest = new FailureDigest(digests::add, null, Duration.ofMinutes(1), 10, 3);
+
+        final String longPayload = Strings.repeat("{\"text\":\"a long embed\"}", 500);
+        for (int i = 0; i < 20; i++) {
+            failureDigest.record("Source " + i, new IllegalStateException("No embed"), longPayload);
+        }
+        failureDigest.flush();
+
+        assertEquals(11, digests.size());
+        for (final String digest : digests) {
+            assertThat(digest.length(), lessThanOrEqualTo(FailureDigest.MAX_MESSAGE_LENGTH));
+            final int fenceCount = digest.split("```", -1).length - 1;
+            assertEquals(0, fenceCount % 2, digest);
+        }
+        assertThat(digests.get(1), containsString("```json"));
+    }
+
+    @Test
+    void flush_WithDeadLetterFile_AppendsEveryPayload() throws IOException {
+        final Path directory = Files.createTempDirectory("failure-digest-test");
+        final Path deadLetterFile = directory.resolve("dead-letters").resolve("failed.jsonl");
+        final FailureDigest failureDigest = new FailureDigest(digest -> {}, deadLetterFile, Duration.ofMinutes(1));
+
+        failureDigest.record("Source A", new IllegalStateException(), "{\"id\":1}");
+        failureDigest.flush();
+        failureDigest.record("Source A", new IllegalStateException(), "{\"id\":2}");
+        failureDigest.close();
+
+        final List<String> deadLetters = Files.readAllLines(deadLetterFile, StandardCharsets.UTF_8);
+        assertEquals(2, deadLetters.size());
+        assertEquals("{\"id\":1}", deadLetters.get(0));
+        assertEquals("{\"id\":2}", deadLetters.get(1));
+        MoreFiles.deleteRecursively(directory, RecursiveDeleteOption.ALLOW_INSECURE);
+    }
+
+}
@@ -0,0 +1,115 @@
+package pogo.assistance.data.extraction.source.discord;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import net.dv8tion.jda.api.entities.Message;
+import pogo.assistance.data.extraction.source.discord.corpus.MessageCorpus;
+import pogo.assistance.data.extraction.source.discord.corpus.ReplayedMessages;
+import pogo.assistance.data.model.pokemon.PokemonSpawn;
+
+/**
+ * Runs spawn message processors over a {@link MessageCorpus message corpus}, for checking parsing throughput and
+ * correctness against lots of real messages without logging in to Discord.
+ */
+@Slf4j
+@UtilityClass
+public class MessageCorpusReplay {
+
+    /**
+     * Passes each message of the corpus to the first of the {@code processors} that can process it, like
+     * {@link DiscordPokemonSpawnListener} does, but on the calling thread and without skipping repeated messages.
+     *
+     * @param resultConsumer
+     *      Gets each processed message along with what it was parsed into. Messages that failed parsing, or made a
+     *      processor fail while checking if it can process them, are logged and counted, but not passed to it.
+     * @return
+     *      Counts and parse times of the replayed messages, per source
+     */
+    public static SourceParsingMetrics replay(
+            final Path corpusFile,
+            final Collection<MessageProcessor<PokemonSpawn>> processors,
+            final BiConsumer<Message, Optional<PokemonSpawn>> resultConsumer) throws IOException {
+        final SourceParsingMetrics parsingMetrics = new SourceParsingMetrics();
+        final long startNanos = System.nanoTime();
+        long messageCount = 0;
+        try (final Stream<Message> messages = MessageCorpus.read(corpusFile).map(ReplayedMessages::replay)) {
+            for (final Message message : (Iterable<Message>) messages::iterator) {
+                replay(message, processors, parsingMetrics, resultConsumer);
+                messageCount++;
+            }
+        }
+        final long elapsedMillis = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+        log.info("Replayed {} messages of {} in {} ms ({} messages/sec):{}{}",
+                messageCount, corpusFile, elapsedMillis, messageCount * 1000 / elapsedMillis,
+                System.lineSeparator(), parsingMetrics);
+        return parsingMetrics;
+    }
+
+    private static void replay(
+            final Message message,
+            final Collection<MessageProcessor<PokemonSpawn>> processors,
+            final SourceParsingMetrics parsingMetrics,
+            final BiConsumer<Message, Optional<PokemonSpawn>> resultConsumer) {
+        final SourceParsingMetrics.SourceCounters sourceCounters = parsingMetrics.of(sourceNameOf(message));
+        sourceCounters.recordSeen();
+        for (final MessageProcessor<PokemonSpawn> processor : processors) {
+            final long startNanos = System.nanoTime();
+            try {
+                if (!processor.canProcess(message)) {
+                    continue;
+                }
+            } catch (final RuntimeException e) {
+                // Counted as a failure of the processor that threw. The listener loses such messages too, since the
+                // exception escapes its processor lookup
+                sourceCounters.recordAccepted(processor.getClass());
+                sourceCounters.recordFailed(System.nanoTime() - startNanos);
+                log.warn(String.format(
+                        "Failed to check if %s can process replayed message (URL: %s)",
+                        processor.getClass().getSimpleName(), message.getJumpUrl()), e);
+                return;
+            }
+            process(message, processor, sourceCounters, resultConsumer);
+            return;
+        }
+    }
+
+    private static void process(
+            final Message message,
+            final MessageProcessor<PokemonSpawn> processor,
+            final SourceParsingMetrics.SourceCounters sourceCounters,
+            final BiConsumer<Message, Optional<PokemonSpawn>> resultConsumer) {
+        sourceCounters.recordAccepted(processor.getClass());
+        final long startNanos = System.nanoTime();
+        final Optional<PokemonSpawn> pokemonSpawn;
+        try {
+            pokemonSpawn = processor.process(message);
+        } catch (final Exception e) {
+            sourceCounters.recordFailed(System.nanoTime() - startNanos);
+            log.warn(String.format("Failed to process replayed message (URL: %s)", message.getJumpUrl()), e);
+            return;
+        }
+        if (pokemonSpawn.isPresent()) {
+            sourceCounters.recordParsed(System.nanoTime() - startNanos);
+        } else {
+            sourceCounters.recordSkipped(System.nanoTime() - startNanos);
+        }
+        resultConsumer.accept(message, pokemonSpawn);
+    }
+
+    /**
+     * Same source naming as {@link DiscordPokemonSpawnListener}
+     */
+    private static String sourceNameOf(final Message message) {
+        return message.getChannelType().isGuild()
+                ? message.getGuild().getName()
+                : SourceParsingMetrics.DIRECT_MESSAGES_SOURCE_NAME;
+    }
+
+}
@@ -0,0 +1,111 @@
+package pogo.assistance.data.extraction.source.discord.corpus;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.ServiceLoader;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapterFactory;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Local files of {@link RecordedMessage recorded messages}, so processors can be run against lots of real messages
+ * without logging in to Discord. Capture a corpus once with {@link MessageRecorder} (e.g. from
+ * {@code MessageStream.lookbackMessageStream}), then {@link ReplayedMessages replay} it as many times as needed.
+ *
+ * A corpus file is gzipped JSON, one recorded message per line. Spawn messages from the same source differ in little
+ * more than numbers and names, so they compress to a small fraction of their JSON size. Corpora small enough to be
+ * reviewed by hand, e.g. ones bundled as resources, can be kept as plain JSON lines and read with
+ * {@link #readUncompressed(InputStream)}.
+ */
+@UtilityClass
+public class MessageCorpus {
+
+    /**
+     * Where corpora are captured to and read from by default, relative to the project directory
+     */
+    public static final Path DEFAULT_DIRECTORY = Paths.get("build", "corpus");
+
+    public static final String FILE_EXTENSION = ".jsonl.gz";
+
+    /**
+     * Single line JSON, unlike the pretty printing {@link Gson} used elsewhere
+     */
+    private static final Gson GSON = newGson();
+
+    /**
+     * Writes the {@code recordedMessages} to {@code corpusFile}, replacing the file if it exists.
+     *
+     * @return
+     *      Number of messages written
+     */
+    public static long write(final Path corpusFile, final Stream<RecordedMessage> recordedMessages) throws IOException {
+        if (corpusFile.getParent() != null) {
+            Files.createDirectories(corpusFile.getParent());
+        }
+        long count = 0;
+        try (final Writer writer = new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(corpusFile)), StandardCharsets.UTF_8)) {
+            final Iterator<RecordedMessage> iterator = recordedMessages.iterator();
+            while (iterator.hasNext()) {
+                GSON.toJson(iterator.next(), RecordedMessage.class, writer);
+                writer.write('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return
+     *      Messages of the {@code corpusFile} in the order they were written, read as the stream is consumed. The
+     *      stream has to be closed to close the file.
+     */
+    public static Stream<RecordedMessage> read(final Path corpusFile) throws IOException {
+        return read(new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(corpusFile)), StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * @return
+     *      Messages of an uncompressed corpus, i.e. the JSON lines a corpus file holds, read as the stream is consumed.
+     *      The stream has to be closed to close the {@code inputStream}.
+     */
+    public static Stream<RecordedMessage> readUncompressed(final InputStream inputStream) {
+        return read(new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)));
+    }
+
+    private static Stream<RecordedMessage> read(final BufferedReader reader) {
+        return reader.lines()
+                .filter(line -> !line.isEmpty())
+                .map(line -> GSON.fromJson(line, RecordedMessage.class))
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (final IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    private static Gson newGson() {
+        final GsonBuilder gsonBuilder = new GsonBuilder().disableHtmlEscaping();
+        ServiceLoader.load(TypeAdapterFactory.class).forEach(gsonBuilder::registerTypeAdapterFactory);
+        return gsonBuilder.create();
+    }
+
+}
@@ -0,0 +1,56 @@
+package pogo.assistance.data.extraction.source.discord.corpus;
+
+import java.util.Optional;
+
+import com.google.common.base.Strings;
+import lombok.experimental.UtilityClass;
+import net.dv8tion.jda.api.entities.Category;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.User;
+
+/**
+ * Records what {@link ReplayedMessages} can replay of a {@link Message} JDA received.
+ */
+@UtilityClass
+public class MessageRecorder {
+
+    public static RecordedMessage record(final Message message) {
+        final User author = message.getAuthor();
+        final ImmutableRecordedMessage.Builder builder = ImmutableRecordedMessage.builder()
+                .messageId(message.getIdLong())
+                .timeCreatedEpochMilli(message.getTimeCreated().toInstant().toEpochMilli())
+                .channelType(message.getChannelType().name())
+                .channelId(message.getChannel().getIdLong())
+                .channelName(message.getChannel().getName())
+                .authorId(author.getIdLong())
+                .authorName(author.getName())
+                .authorBot(author.isBot())
+                .contentRaw(message.getContentRaw())
+                .contentStripped(message.getContentStripped());
+        if (message.getChannelType().isGuild()) {
+            builder.guildId(message.getGuild().getIdLong()).guildName(message.getGuild().getName());
+            final Category category = message.getCategory();
+            if (category != null) {
+                builder.categoryId(category.getIdLong()).categoryName(category.getName());
+            }
+        }
+        message.getEmbeds().stream().map(MessageRecorder::record).forEach(builder::addEmbeds);
+        return builder.build();
+    }
+
+    private static RecordedEmbed record(final MessageEmbed embed) {
+        final ImmutableRecordedEmbed.Builder builder = ImmutableRecordedEmbed.builder()
+                .title(Optional.ofNullable(embed.getTitle()))
+                .url(Optional.ofNullable(embed.getUrl()))
+                .description(Optional.ofNullable(embed.getDescription()))
+                .thumbnailUrl(Optional.ofNullable(embed.getThumbnail()).map(MessageEmbed.Thumbnail::getUrl));
+        embed.getFields().forEach(field -> builder.addFields(ImmutableRecordedEmbedField.builder()
+                .name(Strings.nullToEmpty(field.getName()))
+                .value(Strings.nullToEmpty(field.getValue()))
+                .inline(field.isInline())
+                .build()));
+        return builder.build();
+    }
+
+}
@@ -0,0 +1,26 @@
+package pogo.assistance.data.extraction.source.discord.corpus;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.immutables.gson.Gson;
+import org.immutables.value.Value;
+
+/**
+ * Parts of a message embed that spawn messages carry their data in.
+ */
+@Gson.TypeAdapters
+@Value.Immutable
+public interface RecordedEmbed {
+
+    Optional<String> title();
+
+    Optional<String> url();
+
+    Optional<String> description();
+
+    Optional<String> thumbnailUrl();
+
+    List<RecordedEmbedField> fields();
+
+}
@@ -0,0 +1,19 @@
+package pogo.assistance.data.extraction.source.discord.corpus;
+
+import org.immutables.gson.Gson;
+import org.immutables.value.Value;
+
+@Gson.TypeAdapters
+@Value.Immutable
+public interface RecordedEmbedField {
+
+    String name();
+
+    String value();
+
+    @Value.Default
+    default boolean inline() {
+        return false;
+    }
+
+}
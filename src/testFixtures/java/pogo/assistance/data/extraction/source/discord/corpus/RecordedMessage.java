@@ -0,0 +1,69 @@
+package pogo.assistance.data.extraction.source.discord.corpus;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.immutables.gson.Gson;
+import org.immutables.value.Value;
+
+/**
+ * What message processors look at in a Discord message, recorded so the message can be {@link ReplayedMessages replayed}
+ * without logging in to Discord.
+ */
+@Gson.TypeAdapters
+@Value.Immutable
+public interface RecordedMessage {
+
+    long messageId();
+
+    /**
+     * When the message was sent, as milliseconds since epoch. Replayed messages fall back to the time encoded in the
+     * message ID when absent.
+     */
+    Optional<Long> timeCreatedEpochMilli();
+
+    /**
+     * Name of the JDA channel type the message was sent in, e.g. "TEXT" or "PRIVATE"
+     */
+    String channelType();
+
+    long channelId();
+
+    /**
+     * Name of the channel, or of the other user for private channels
+     */
+    String channelName();
+
+    /**
+     * Present for messages sent in a guild
+     */
+    Optional<Long> guildId();
+
+    Optional<String> guildName();
+
+    /**
+     * Present for guild messages in channels that are under a category
+     */
+    Optional<Long> categoryId();
+
+    Optional<String> categoryName();
+
+    long authorId();
+
+    String authorName();
+
+    boolean authorBot();
+
+    @Value.Default
+    default String contentRaw() {
+        return "";
+    }
+
+    @Value.Default
+    default String contentStripped() {
+        return "";
+    }
+
+    List<RecordedEmbed> embeds();
+
+}
@@ -0,0 +1,188 @@
+package pogo.assistance.data.extraction.source.discord.corpus;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+
+import lombok.experimental.UtilityClass;
+import net.dv8tion.jda.api.entities.Category;
+import net.dv8tion.jda.api.entities.ChannelType;
+import net.dv8tion.jda.api.entities.EmbedType;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageChannel;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.PrivateChannel;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.TextChannel;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.utils.TimeUtil;
+
+/**
+ * Turns {@link RecordedMessage recorded messages} back into {@link Message messages} that can be passed to message
+ * processors, without a JDA instance behind them.
+ *
+ * Replayed entities only answer what was recorded: IDs, names, creation time, channel type, author, category, content and embeds.
+ * Anything else (e.g. sending a reply, looking up members) throws {@link UnsupportedOperationException}.
+ *
+ * Entities are {@link Proxy proxies}, so every call goes through reflective dispatch and a {@link HashMap} lookup by
+ * method name, where JDA's entities just return a field. A rough timing loop puts that at 5-10 ns more per call,
+ * without allocation since answers are prepared and boxed up front. It doesn't matter next to
+ * {@link pogo.assistance.data.extraction.source.discord.MessageProcessor#process process}, but is a noticeable share
+ * of cheap calls like {@link pogo.assistance.data.extraction.source.discord.MessageProcessor#canProcess canProcess},
+ * which make a few calls each. Benchmarks of those are good for comparing processors, not for absolute numbers.
+ */
+@UtilityClass
+public class ReplayedMessages {
+
+    /**
+     * Same as the jump URL format JDA uses
+     */
+    private static final String JUMP_URL = "https://discordapp.com/channels/%s/%s/%s";
+
+    public static Message replay(final RecordedMessage recordedMessage) {
+        final ChannelType channelType = ChannelType.valueOf(recordedMessage.channelType());
+
+        final Map<String, Object> author = snowflake(recordedMessage.authorId());
+        author.put("getName", recordedMessage.authorName());
+        author.put("isBot", recordedMessage.authorBot());
+        final User user = newEntity(User.class, author);
+
+        final Map<String, Object> message = snowflake(recordedMessage.messageId());
+        message.put("getTimeCreated", recordedMessage.timeCreatedEpochMilli()
+                .map(epochMilli -> Instant.ofEpochMilli(epochMilli).atOffset(ZoneOffset.UTC))
+                .orElseGet(() -> TimeUtil.getTimeCreated(recordedMessage.messageId())));
+        message.put("getChannelType", channelType);
+        message.put("isFromGuild", channelType.isGuild());
+        message.put("getAuthor", user);
+        message.put("getContentRaw", recordedMessage.contentRaw());
+        message.put("getContentStripped", recordedMessage.contentStripped());
+        message.put("getEmbeds", Collections.unmodifiableList(recordedMessage.embeds().stream()
+                .map(ReplayedMessages::replay)
+                .collect(Collectors.toList())));
+        message.put("getJumpUrl", String.format(JUMP_URL,
+                recordedMessage.guildId().map(String::valueOf).orElse("@me"),
+                recordedMessage.channelId(),
+                recordedMessage.messageId()));
+
+        final Map<String, Object> channel = snowflake(recordedMessage.channelId());
+        channel.put("getName", recordedMessage.channelName());
+        channel.put("getType", channelType);
+        if (channelType == ChannelType.PRIVATE) {
+            channel.put("getUser", user);
+            final PrivateChannel privateChannel = newEntity(PrivateChannel.class, channel);
+            message.put("getChannel", privateChannel);
+            message.put("getPrivateChannel", privateChannel);
+            message.put("getCategory", null);
+            return newEntity(Message.class, message);
+        }
+
+        final Guild guild = recordedMessage.guildId()
+                .map(guildId -> {
+                    final Map<String, Object> guildValues = snowflake(guildId);
+                    guildValues.put("getName", recordedMessage.guildName().orElse(""));
+                    return newEntity(Guild.class, guildValues);
+                })
+                .orElse(null);
+        final Category category = recordedMessage.categoryId()
+                .map(categoryId -> {
+                    final Map<String, Object> categoryValues = snowflake(categoryId);
+                    categoryValues.put("getName", recordedMessage.categoryName().orElse(""));
+                    categoryValues.put("getType", ChannelType.CATEGORY);
+                    categoryValues.put("getGuild", guild);
+                    return newEntity(Category.class, categoryValues);
+                })
+                .orElse(null);
+        channel.put("getGuild", guild);
+        channel.put("getParent", category);
+        final MessageChannel messageChannel = channelType == ChannelType.TEXT
+                ? newEntity(TextChannel.class, channel)
+                : newEntity(MessageChannel.class, channel);
+        message.put("getChannel", messageChannel);
+        if (messageChannel instanceof TextChannel) {
+            message.put("getTextChannel", messageChannel);
+        }
+        message.put("getGuild", guild);
+        message.put("getCategory", category);
+        return newEntity(Message.class, message);
+    }
+
+    private static MessageEmbed replay(final RecordedEmbed recordedEmbed) {
+        final List<MessageEmbed.Field> fields = recordedEmbed.fields().stream()
+                .map(field -> new MessageEmbed.Field(field.name(), field.value(), field.inline()))
+                .collect(Collectors.toList());
+        return new MessageEmbed(
+                recordedEmbed.url().orElse(null),
+                recordedEmbed.title().orElse(null),
+                recordedEmbed.description().orElse(null),
+                EmbedType.RICH,
+                null,
+                Role.DEFAULT_COLOR_RAW,
+                recordedEmbed.thumbnailUrl().map(url -> new MessageEmbed.Thumbnail(url, url, 0, 0)).orElse(null),
+                null,
+                null,
+                null,
+                null,
+                null,
+                fields);
+    }
+
+    private static Map<String, Object> snowflake(final long id) {
+        final Map<String, Object> values = new HashMap<>();
+        // Boxed once here, instead of on every call
+        values.put("getIdLong", id);
+        values.put("getId", Long.toUnsignedString(id));
+        return values;
+    }
+
+    private static <T> T newEntity(final Class<T> entityType, final Map<String, Object> values) {
+        return entityType.cast(Proxy.newProxyInstance(
+                ReplayedMessages.class.getClassLoader(),
+                new Class<?>[] { entityType },
+                new RecordedValues(entityType, values)));
+    }
+
+    private static final class RecordedValues implements InvocationHandler {
+
+        private final Class<?> entityType;
+        private final Map<String, Object> values;
+
+        private RecordedValues(final Class<?> entityType, final Map<String, Object> values) {
+            this.entityType = entityType;
+            this.values = values;
+        }
+
+        @Override
+        @Nullable
+        public Object invoke(final Object proxy, final Method method, final Object[] args) {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return String.format("Replayed%s(%s)", entityType.getSimpleName(), values.get("getId"));
+                case "isFromType":
+                    return values.get("getChannelType") == args[0];
+                default:
+                    break;
+            }
+            final Object value = values.get(method.getName());
+            if (value == null && !values.containsKey(method.getName())) {
+                throw new UnsupportedOperationException(String.format(
+                        "%s#%s isn't recorded for replay", entityType.getSimpleName(), method.getName()));
+            }
+            return value;
+        }
+
+    }
+
+}